@@ -1,10 +1,13 @@
 package net.obvj.smart.console.enhanced.commands;
 
 import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import net.obvj.smart.agents.dto.AgentDTO;
+import net.obvj.smart.agents.dto.WorkerGroupDTO;
 import net.obvj.smart.jmx.AgentManagerJMXMBean;
 import net.obvj.smart.jmx.client.AgentManagerJMXClient;
 import net.obvj.smart.util.ClientApplicationContextFacade;
@@ -23,12 +26,13 @@ import picocli.CommandLine.ParentCommand;
          aliases = "ls",
          headerHeading = "%n",
          descriptionHeading = "%n@|bold,underline Description|@:%n",
-         description = "Lists managed agents and their current states",
+         description = "Lists managed agents, their current states, and the utilization of their worker groups",
          parameterListHeading = "%n@|bold,underline Parameters|@:%n",
          optionListHeading = "%n@|bold,underline Options|@:%n")
 public class AgentsCommand implements Runnable
 {
-    private static final String NAME_TYPE_STATE_PATTERN = "%-42s %-6s %-7s%n";
+    private static final String NAME_TYPE_STATE_PATTERN = "%-42s %-6s %-7s %-20s%n";
+    private static final String WORKER_GROUP_PATTERN = "%-20s %7s %6.1f%% %9s %8d%n";
 
     private AgentManagerJMXClient client = ClientApplicationContextFacade.getBean(AgentManagerJMXClient.class);
 
@@ -76,6 +80,7 @@ public class AgentsCommand implements Runnable
         }
 
         printAgents(agents);
+        printWorkerGroups(mBeanProxy.getWorkerGroups(), agents);
     }
 
     private void printAgents(Collection<AgentDTO> agents)
@@ -84,14 +89,37 @@ public class AgentsCommand implements Runnable
         parent.out.println(" agent(s) found");
 
         parent.out.println();
-        parent.out.println("Name                                       Type   State");
-        parent.out.println("------------------------------------------ ------ -------");
+        parent.out.println("Name                                       Type   State   Group");
+        parent.out.println("------------------------------------------ ------ ------- --------------------");
         agents.forEach(this::printAgent);
     }
 
     private void printAgent(AgentDTO agent)
     {
-        parent.out.printf(String.format(NAME_TYPE_STATE_PATTERN, agent.getName(), agent.getType(), agent.getState()));
+        parent.out.printf(String.format(NAME_TYPE_STATE_PATTERN, agent.getName(), agent.getType(), agent.getState(),
+                Objects.toString(agent.getGroup(), "")));
+    }
+
+    private void printWorkerGroups(Collection<WorkerGroupDTO> groups, Collection<AgentDTO> agents)
+    {
+        Set<String> agentGroups = agents.stream().map(AgentDTO::getGroup).collect(Collectors.toSet());
+        Collection<WorkerGroupDTO> listedGroups = groups.stream().filter(group -> agentGroups.contains(group.getName()))
+                .collect(Collectors.toList());
+        if (listedGroups.isEmpty())
+        {
+            return;
+        }
+        parent.out.println();
+        parent.out.println("Group                 Active  Usage    Queued Rejected");
+        parent.out.println("-------------------- ------- ------ --------- --------");
+        listedGroups.forEach(this::printWorkerGroup);
+    }
+
+    private void printWorkerGroup(WorkerGroupDTO group)
+    {
+        parent.out.print(String.format(WORKER_GROUP_PATTERN, group.getName(),
+                group.getActiveExecutions() + "/" + group.getMaxConcurrency(), group.getUtilization(),
+                group.getQueuedExecutions() + "/" + group.getQueueCapacity(), group.getRejectedExecutions()));
     }
 
     protected void setType(String type)
@@ -21,6 +21,7 @@ import org.powermock.api.mockito.PowerMockito;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import net.obvj.smart.agents.dto.AgentDTO;
+import net.obvj.smart.agents.dto.WorkerGroupDTO;
 import net.obvj.smart.jmx.AgentManagerJMXMBean;
 import net.obvj.smart.jmx.client.AgentManagerJMXClient;
 
@@ -131,6 +132,21 @@ public class AgentsCommandTest
         assertFalse("The hidden agent should not be displayed", out.contains(HIDDEN_AGENT_EXPECTED_STR_COMP));
     }
 
+    @Test
+    public void testListAgentsWithWorkerGroups() throws IOException
+    {
+        when(jmx.getAgentDTOs()).thenReturn(Arrays.asList(new AgentDTO("name5", TIMER, "SET", false, "reports")));
+        when(jmx.getWorkerGroups()).thenReturn(Arrays.asList(new WorkerGroupDTO("default", 8, 0, 0, 1000, 0),
+                new WorkerGroupDTO("reports", 4, 1, 2, 10, 3)));
+        command.run();
+
+        // Trim variable padding spaces for testing
+        String out = sw.toString().replace(" ", "");
+        assertTrue(out.contains("name5" + TIMER + "SETreports"));
+        assertTrue(out.contains("reports1/425.0%2/103"));
+        assertFalse("Groups without listed agents should not be displayed", out.contains("default"));
+    }
+
     @Test
     public void testListNoAgent() throws IOException
     {
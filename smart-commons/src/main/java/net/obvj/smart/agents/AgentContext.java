@@ -0,0 +1,155 @@
+package net.obvj.smart.agents;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Information about an agent task execution, and the means to interact with it while in
+ * progress.
+ * <p>
+ * A method annotated with {@code @AgentTask} may declare a single parameter of this type
+ * to receive the context of each execution. Long-running tasks, such as batch loops, should
+ * check {@link #isCancelled()} periodically to exit quickly when the agent is stopped or
+ * the execution times out, and may report their progress, which is displayed in the agent
+ * status.
+ * <p>
+ * For sharded agents, each concurrent invocation of the task receives its own context,
+ * identifying the shard it must process.
+ * <p>
+ * Incremental agents may keep a cursor (e.g.: the timestamp or ID of the last record
+ * processed), which is read with {@link #getCursor()} and updated with
+ * {@link #updateCursor(String)}. The runtime stores it durably and commits the update only
+ * when the execution succeeds, so that the next execution processes only the delta.
+ * <p>
+ * Agents with a time budget may process a large backlog in slices: the task checks
+ * {@link #isBudgetExhausted()} between work units, and calls {@link #reportWorkPending()}
+ * before returning with work left, so that the runtime runs it again.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public interface AgentContext
+{
+
+    /**
+     * @return the name of the agent being executed
+     */
+    String getAgentName();
+
+    /**
+     * @return {@code true} if the task should stop as soon as possible, because a stop was
+     *         requested for the agent or the execution timed out
+     */
+    boolean isCancelled();
+
+    /**
+     * @return the time at which this execution was scheduled to fire, or an empty
+     *         {@link Optional} if the execution was not scheduled (e.g.: it was requested
+     *         manually)
+     */
+    Optional<Instant> getScheduledFireTime();
+
+    /**
+     * @return the time by which this execution must finish, according to the agent's
+     *         execution timeout, or an empty {@link Optional} if executions are not bounded
+     */
+    Optional<Instant> getDeadline();
+
+    /**
+     * @return the time left until the deadline (negative if already passed), or an empty
+     *         {@link Optional} if executions are not bounded
+     */
+    Optional<Duration> getRemainingTime();
+
+    /**
+     * @return the time left in the agent's time budget for this execution (negative if
+     *         already overrun), or an empty {@link Optional} if the agent has no time budget
+     */
+    Optional<Duration> getRemainingBudget();
+
+    /**
+     * @return {@code true} if the agent's time budget for this execution is over, in which
+     *         case the task should return as soon as possible; always {@code false} if the
+     *         agent has no time budget
+     */
+    boolean isBudgetExhausted();
+
+    /**
+     * Reports that the task is returning with more work pending. If the execution succeeds,
+     * the agent is run again: immediately, on the worker pool, if the execution finished
+     * within its time budget, or at the next scheduled execution if the budget was overrun.
+     * <p>
+     * Pending work is ignored if the agent is being stopped.
+     */
+    void reportWorkPending();
+
+    /**
+     * @return the index of the shard to be processed by this invocation of the task, from
+     *         {@code 0} to {@code getShardCount() - 1}; always {@code 0} if the agent is not
+     *         sharded
+     */
+    int getShardIndex();
+
+    /**
+     * @return the number of shards processed concurrently in this execution; always
+     *         {@code 1} if the agent is not sharded
+     */
+    int getShardCount();
+
+    /**
+     * Invokes a divide-and-conquer task (e.g.: a {@code RecursiveTask}) on the fork/join pool
+     * shared by all agents, and waits for its result.
+     * <p>
+     * The task is cancelled if this execution is cancelled (e.g.: when the agent is
+     * stopped). Blocking operations inside the task should be wrapped by
+     * {@code ManagedBlocking}, so that the pool can compensate for the blocked workers.
+     *
+     * @param <T>  the type of the result
+     * @param task the task to be invoked
+     * @return the result of the task
+     * @throws CancellationException if the task or this execution is cancelled
+     * @throws RuntimeException      the unchecked exception thrown by the task, if any
+     */
+    <T> T invoke(ForkJoinTask<T> task);
+
+    /**
+     * Returns the cursor committed by the last successful execution of the agent. The cursor
+     * is read once per execution, when first requested.
+     *
+     * @return the last committed cursor, or an empty {@link Optional} if the agent has never
+     *         committed one
+     * @throws RuntimeException if the stored cursor could not be read
+     */
+    Optional<String> getCursor();
+
+    /**
+     * Sets the cursor to be committed when this execution succeeds, replacing any value set
+     * before in the same execution. The cursor is not committed if the execution fails or
+     * times out, so the next execution starts from the previous one.
+     *
+     * @param cursor the new cursor, typically the watermark of the last item processed
+     * @throws NullPointerException if the cursor is null
+     */
+    void updateCursor(String cursor);
+
+    /**
+     * Reports the progress of this execution.
+     *
+     * @param completed the number of work units completed so far
+     * @param total     the total number of work units, or a non-positive number if unknown
+     */
+    void reportProgress(long completed, long total);
+
+    /**
+     * Reports the progress of this execution, with a message describing the current step.
+     *
+     * @param completed the number of work units completed so far
+     * @param total     the total number of work units, or a non-positive number if unknown
+     * @param message   a message describing the current step
+     */
+    void reportProgress(long completed, long total, String message);
+
+}
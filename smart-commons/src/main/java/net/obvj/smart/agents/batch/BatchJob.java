@@ -0,0 +1,192 @@
+package net.obvj.smart.agents.batch;
+
+import java.util.Objects;
+
+import net.obvj.smart.util.Exceptions;
+
+/**
+ * A chunk-oriented batch job, built from an {@link ItemReader}, an {@link ItemProcessor}
+ * and an {@link ItemWriter}.
+ * <p>
+ * The input is read in chunks of a fixed size. Each item of a chunk is processed and the
+ * resulting items are written together, before the next chunk is taken. With a
+ * parallelism greater than 1, that many chunks are processed at the same time.
+ * <p>
+ * Progress is checkpointed every {@code commitInterval} chunks, as the index of the first
+ * chunk not yet committed. A job that is stopped or fails resumes from its last
+ * checkpoint in the next execution of the agent.
+ * <p>
+ * An agent runs a batch job when its {@code @AgentTask} method returns one. Example:
+ *
+ * <pre>
+ * &#64;AgentTask
+ * public BatchJob&lt;String, Order&gt; run()
+ * {
+ *     return new BatchJob.Builder&lt;&gt;(lines::read, Order::parse, orders::saveAll)
+ *             .chunkSize(500).commitInterval(4).parallelism(2).build();
+ * }
+ * </pre>
+ *
+ * @param <I> the type of the items read
+ * @param <O> the type of the items written
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public final class BatchJob<I, O>
+{
+    private static final int DEFAULT_CHUNK_SIZE = 100;
+    private static final int DEFAULT_COMMIT_INTERVAL = 1;
+    private static final int DEFAULT_PARALLELISM = 1;
+
+    private final ItemReader<I> reader;
+    private final ItemProcessor<I, O> processor;
+    private final ItemWriter<O> writer;
+    private final int chunkSize;
+    private final int commitInterval;
+    private final int parallelism;
+
+    private BatchJob(Builder<I, O> builder)
+    {
+        reader = builder.reader;
+        processor = builder.processor;
+        writer = builder.writer;
+        chunkSize = builder.chunkSize;
+        commitInterval = builder.commitInterval;
+        parallelism = builder.parallelism;
+    }
+
+    /**
+     * @return the {@link ItemReader} of this job
+     */
+    public ItemReader<I> getReader()
+    {
+        return reader;
+    }
+
+    /**
+     * @return the {@link ItemProcessor} of this job
+     */
+    public ItemProcessor<I, O> getProcessor()
+    {
+        return processor;
+    }
+
+    /**
+     * @return the {@link ItemWriter} of this job
+     */
+    public ItemWriter<O> getWriter()
+    {
+        return writer;
+    }
+
+    /**
+     * @return the maximum number of items of a chunk
+     */
+    public int getChunkSize()
+    {
+        return chunkSize;
+    }
+
+    /**
+     * @return the number of chunks written between checkpoints
+     */
+    public int getCommitInterval()
+    {
+        return commitInterval;
+    }
+
+    /**
+     * @return the maximum number of chunks processed at the same time
+     */
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+
+    /**
+     * A builder for {@link BatchJob} objects.
+     *
+     * @param <I> the type of the items read
+     * @param <O> the type of the items written
+     */
+    public static class Builder<I, O>
+    {
+        private final ItemReader<I> reader;
+        private final ItemProcessor<I, O> processor;
+        private final ItemWriter<O> writer;
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+        private int commitInterval = DEFAULT_COMMIT_INTERVAL;
+        private int parallelism = DEFAULT_PARALLELISM;
+
+        /**
+         * Builds a job builder with the given callbacks.
+         *
+         * @param reader    the {@link ItemReader} that reads the chunks
+         * @param processor the {@link ItemProcessor} applied to each item read
+         * @param writer    the {@link ItemWriter} that writes the processed items
+         * @throws NullPointerException if any of the callbacks is null
+         */
+        public Builder(ItemReader<I> reader, ItemProcessor<I, O> processor, ItemWriter<O> writer)
+        {
+            this.reader = Objects.requireNonNull(reader, "The reader must not be null");
+            this.processor = Objects.requireNonNull(processor, "The processor must not be null");
+            this.writer = Objects.requireNonNull(writer, "The writer must not be null");
+        }
+
+        /**
+         * @param chunkSize the maximum number of items of a chunk (default: 100)
+         * @return this builder
+         */
+        public Builder<I, O> chunkSize(int chunkSize)
+        {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * @param commitInterval the number of chunks written between checkpoints
+         *                       (default: 1)
+         * @return this builder
+         */
+        public Builder<I, O> commitInterval(int commitInterval)
+        {
+            this.commitInterval = commitInterval;
+            return this;
+        }
+
+        /**
+         * @param parallelism the maximum number of chunks processed at the same time
+         *                    (default: 1)
+         * @return this builder
+         */
+        public Builder<I, O> parallelism(int parallelism)
+        {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @return a new {@link BatchJob}
+         * @throws IllegalArgumentException if the chunk size, commit interval or parallelism
+         *                                  is less than 1
+         */
+        public BatchJob<I, O> build()
+        {
+            if (chunkSize < 1)
+            {
+                throw Exceptions.illegalArgument("The chunk size must be greater than zero: %s", chunkSize);
+            }
+            if (commitInterval < 1)
+            {
+                throw Exceptions.illegalArgument("The commit interval must be greater than zero: %s",
+                        commitInterval);
+            }
+            if (parallelism < 1)
+            {
+                throw Exceptions.illegalArgument("The parallelism must be greater than zero: %s", parallelism);
+            }
+            return new BatchJob<>(this);
+        }
+    }
+
+}
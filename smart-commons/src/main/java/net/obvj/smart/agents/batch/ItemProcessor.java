@@ -0,0 +1,24 @@
+package net.obvj.smart.agents.batch;
+
+/**
+ * Transforms the items read by a {@link BatchJob} before they are written.
+ *
+ * @param <I> the type of the items read
+ * @param <O> the type of the items written
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+@FunctionalInterface
+public interface ItemProcessor<I, O>
+{
+
+    /**
+     * Processes an item.
+     *
+     * @param item the item to be processed
+     * @return the item to be written, or {@code null} to filter the item out
+     * @throws Exception if the item could not be processed, which fails the job
+     */
+    O process(I item) throws Exception;
+
+}
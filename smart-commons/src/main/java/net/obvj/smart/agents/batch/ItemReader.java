@@ -0,0 +1,31 @@
+package net.obvj.smart.agents.batch;
+
+import java.util.List;
+
+/**
+ * The source of the items of a {@link BatchJob}, read one chunk at a time.
+ * <p>
+ * Chunks are addressed by the offset of their first item, so that they can be read
+ * concurrently and an interrupted job can resume from its last committed chunk, as with a
+ * paged query or a file read from a given line.
+ *
+ * @param <I> the type of the items read
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+@FunctionalInterface
+public interface ItemReader<I>
+{
+
+    /**
+     * Reads a chunk of items.
+     *
+     * @param offset the position of the first item to be read, starting at zero
+     * @param count  the maximum number of items to be read
+     * @return up to {@code count} items; fewer items (or an empty list) mean that the end
+     *         of the input was reached
+     * @throws Exception if the items could not be read, which fails the job
+     */
+    List<I> read(long offset, int count) throws Exception;
+
+}
@@ -0,0 +1,29 @@
+package net.obvj.smart.agents.batch;
+
+import java.util.List;
+
+/**
+ * The destination of the items processed by a {@link BatchJob}, written one chunk at a
+ * time.
+ * <p>
+ * Chunks may be written concurrently and out of order when the job runs in parallel. A
+ * chunk written after the last committed one is written again if the job is resumed, so
+ * writes should be idempotent.
+ *
+ * @param <O> the type of the items accepted
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+@FunctionalInterface
+public interface ItemWriter<O>
+{
+
+    /**
+     * Writes the processed items of a chunk.
+     *
+     * @param items the items to be written, never empty
+     * @throws Exception if the items could not be written, which fails the job
+     */
+    void write(List<O> items) throws Exception;
+
+}
@@ -17,6 +17,7 @@ public class AgentDTO implements Serializable
     private final String type;
     private final String state;
     private final boolean hidden;
+    private final String group;
 
     /**
      * Builds this Agent with all fields set.
@@ -27,11 +28,27 @@ public class AgentDTO implements Serializable
      * @param hidden the hidden flag to set
      */
     public AgentDTO(String name, String type, String state, boolean hidden)
+    {
+        this(name, type, state, hidden, null);
+    }
+
+    /**
+     * Builds this Agent with all fields set, including the worker group.
+     *
+     * @param name   the agent name to set
+     * @param type   the agent type to set
+     * @param state  the agent state to set
+     * @param hidden the hidden flag to set
+     * @param group  the worker group to set
+     * @since 2.0
+     */
+    public AgentDTO(String name, String type, String state, boolean hidden, String group)
     {
         this.name = name;
         this.type = type;
         this.state = state;
         this.hidden = hidden;
+        this.group = group;
     }
 
     /**
@@ -66,6 +83,15 @@ public class AgentDTO implements Serializable
         return hidden;
     }
 
+    /**
+     * @return the name of the worker group that executes the agent
+     * @since 2.0
+     */
+    public String getGroup()
+    {
+        return group;
+    }
+
     /**
      * Returns a hash code value for the object, to support hash tables.
      *
@@ -0,0 +1,115 @@
+package net.obvj.smart.agents.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * An object for the interchange of execution admission statistics of a priority level
+ * with client applications. All durations are in milliseconds.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class PriorityLevelDTO implements Serializable
+{
+    private static final long serialVersionUID = 6214059873520146319L;
+
+    private final int priority;
+    private final int queueDepth;
+    private final long admissions;
+    private final double meanWait;
+    private final double maxWait;
+    private final double p99Wait;
+
+    /**
+     * Builds this object with all fields set.
+     *
+     * @param priority   the priority level
+     * @param queueDepth the number of executions waiting for a permit
+     * @param admissions the number of executions admitted so far
+     * @param meanWait   the mean time waited for a permit
+     * @param maxWait    the maximum time waited for a permit
+     * @param p99Wait    the 99th percentile of recent times waited for a permit
+     */
+    public PriorityLevelDTO(int priority, int queueDepth, long admissions, double meanWait, double maxWait,
+            double p99Wait)
+    {
+        this.priority = priority;
+        this.queueDepth = queueDepth;
+        this.admissions = admissions;
+        this.meanWait = meanWait;
+        this.maxWait = maxWait;
+        this.p99Wait = p99Wait;
+    }
+
+    /**
+     * @return the priority level
+     */
+    public int getPriority()
+    {
+        return priority;
+    }
+
+    /**
+     * @return the number of executions waiting for a permit
+     */
+    public int getQueueDepth()
+    {
+        return queueDepth;
+    }
+
+    /**
+     * @return the number of executions admitted so far
+     */
+    public long getAdmissions()
+    {
+        return admissions;
+    }
+
+    /**
+     * @return the mean time waited for a permit, in milliseconds
+     */
+    public double getMeanWait()
+    {
+        return meanWait;
+    }
+
+    /**
+     * @return the maximum time waited for a permit, in milliseconds
+     */
+    public double getMaxWait()
+    {
+        return maxWait;
+    }
+
+    /**
+     * @return the 99th percentile of recent times waited for a permit, in milliseconds
+     */
+    public double getP99Wait()
+    {
+        return p99Wait;
+    }
+
+    /**
+     * @see Object#hashCode()
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(priority, queueDepth, admissions, meanWait, maxWait, p99Wait);
+    }
+
+    /**
+     * @see Object#equals(Object)
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) return true;
+        if (!(obj instanceof PriorityLevelDTO)) return false;
+        PriorityLevelDTO other = (PriorityLevelDTO) obj;
+        return priority == other.priority && queueDepth == other.queueDepth && admissions == other.admissions
+                && meanWait == other.meanWait && maxWait == other.maxWait && p99Wait == other.p99Wait;
+    }
+
+}
@@ -0,0 +1,139 @@
+package net.obvj.smart.agents.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * An object for the interchange of agent scheduling lag statistics with client
+ * applications. The scheduling lag is the time between the planned fire time of an
+ * execution and its actual start. All durations are in milliseconds.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class SchedulingLagDTO implements Serializable
+{
+    private static final long serialVersionUID = -4785342071954718023L;
+
+    private final String name;
+    private final long count;
+    private final double last;
+    private final double mean;
+    private final double max;
+    private final double p50;
+    private final double p90;
+    private final double p99;
+
+    /**
+     * Builds this object with all fields set.
+     *
+     * @param name  the agent name
+     * @param count the number of recorded executions
+     * @param last  the lag of the most recent execution
+     * @param mean  the mean lag
+     * @param max   the maximum lag
+     * @param p50   the 50th percentile of recent lags
+     * @param p90   the 90th percentile of recent lags
+     * @param p99   the 99th percentile of recent lags
+     */
+    public SchedulingLagDTO(String name, long count, double last, double mean, double max, double p50, double p90,
+            double p99)
+    {
+        this.name = name;
+        this.count = count;
+        this.last = last;
+        this.mean = mean;
+        this.max = max;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+    }
+
+    /**
+     * @return the agent name
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return the number of recorded executions
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @return the lag of the most recent execution, in milliseconds
+     */
+    public double getLast()
+    {
+        return last;
+    }
+
+    /**
+     * @return the mean lag, in milliseconds
+     */
+    public double getMean()
+    {
+        return mean;
+    }
+
+    /**
+     * @return the maximum lag, in milliseconds
+     */
+    public double getMax()
+    {
+        return max;
+    }
+
+    /**
+     * @return the 50th percentile of recent lags, in milliseconds
+     */
+    public double getP50()
+    {
+        return p50;
+    }
+
+    /**
+     * @return the 90th percentile of recent lags, in milliseconds
+     */
+    public double getP90()
+    {
+        return p90;
+    }
+
+    /**
+     * @return the 99th percentile of recent lags, in milliseconds
+     */
+    public double getP99()
+    {
+        return p99;
+    }
+
+    /**
+     * @see Object#hashCode()
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(name, count, last, mean, max, p50, p90, p99);
+    }
+
+    /**
+     * @see Object#equals(Object)
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) return true;
+        if (!(obj instanceof SchedulingLagDTO)) return false;
+        SchedulingLagDTO other = (SchedulingLagDTO) obj;
+        return Objects.equals(name, other.name) && count == other.count && last == other.last
+                && mean == other.mean && max == other.max && p50 == other.p50 && p90 == other.p90
+                && p99 == other.p99;
+    }
+
+}
@@ -0,0 +1,125 @@
+package net.obvj.smart.agents.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * An object for the interchange of worker group utilization with client applications.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class WorkerGroupDTO implements Serializable
+{
+    private static final long serialVersionUID = -1753962086312258436L;
+
+    private final String name;
+    private final int maxConcurrency;
+    private final int activeExecutions;
+    private final int queuedExecutions;
+    private final int queueCapacity;
+    private final long rejectedExecutions;
+
+    /**
+     * Builds this object with all fields set.
+     *
+     * @param name               the group name
+     * @param maxConcurrency     the maximum number of executions in progress
+     * @param activeExecutions   the number of executions in progress
+     * @param queuedExecutions   the number of executions waiting for a permit
+     * @param queueCapacity      the maximum number of executions waiting for a permit
+     * @param rejectedExecutions the number of executions discarded because the group was
+     *                           saturated
+     */
+    public WorkerGroupDTO(String name, int maxConcurrency, int activeExecutions, int queuedExecutions,
+            int queueCapacity, long rejectedExecutions)
+    {
+        this.name = name;
+        this.maxConcurrency = maxConcurrency;
+        this.activeExecutions = activeExecutions;
+        this.queuedExecutions = queuedExecutions;
+        this.queueCapacity = queueCapacity;
+        this.rejectedExecutions = rejectedExecutions;
+    }
+
+    /**
+     * @return the group name
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return the maximum number of executions in progress
+     */
+    public int getMaxConcurrency()
+    {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return the number of executions in progress
+     */
+    public int getActiveExecutions()
+    {
+        return activeExecutions;
+    }
+
+    /**
+     * @return the number of executions waiting for a permit
+     */
+    public int getQueuedExecutions()
+    {
+        return queuedExecutions;
+    }
+
+    /**
+     * @return the maximum number of executions waiting for a permit
+     */
+    public int getQueueCapacity()
+    {
+        return queueCapacity;
+    }
+
+    /**
+     * @return the number of executions discarded because the group was saturated
+     */
+    public long getRejectedExecutions()
+    {
+        return rejectedExecutions;
+    }
+
+    /**
+     * @return the percentage of the maximum concurrency in use, from 0 to 100
+     */
+    public double getUtilization()
+    {
+        return maxConcurrency == 0 ? 0 : activeExecutions * 100.0 / maxConcurrency;
+    }
+
+    /**
+     * @see Object#hashCode()
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(name, maxConcurrency, activeExecutions, queuedExecutions, queueCapacity,
+                rejectedExecutions);
+    }
+
+    /**
+     * @see Object#equals(Object)
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) return true;
+        if (!(obj instanceof WorkerGroupDTO)) return false;
+        WorkerGroupDTO other = (WorkerGroupDTO) obj;
+        return Objects.equals(name, other.name) && maxConcurrency == other.maxConcurrency
+                && activeExecutions == other.activeExecutions && queuedExecutions == other.queuedExecutions
+                && queueCapacity == other.queueCapacity && rejectedExecutions == other.rejectedExecutions;
+    }
+
+}
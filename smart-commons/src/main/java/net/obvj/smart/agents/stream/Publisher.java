@@ -0,0 +1,32 @@
+package net.obvj.smart.agents.stream;
+
+/**
+ * A provider of a potentially unbounded number of items, which are published to a
+ * {@link Subscriber} according to the demand signaled through its {@link Subscription}.
+ * <p>
+ * This type follows the Reactive Streams specification (equivalent to
+ * {@code org.reactivestreams.Publisher} and {@code java.util.concurrent.Flow.Publisher}),
+ * and is available for Java 8. A method annotated with {@code @AgentTask} can return a
+ * {@code Publisher} to stream its results to the agent's sinks with backpressure, instead
+ * of buffering all of them in memory.
+ *
+ * @param <T> the type of the published items
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ * @see Publishers
+ */
+@FunctionalInterface
+public interface Publisher<T>
+{
+
+    /**
+     * Requests this publisher to start streaming items to the given subscriber.
+     * <p>
+     * {@link Subscriber#onSubscribe(Subscription)} is called first. No items are published
+     * until demand is signaled via {@link Subscription#request(long)}.
+     *
+     * @param subscriber the {@link Subscriber} that consumes the items
+     */
+    void subscribe(Subscriber<? super T> subscriber);
+
+}
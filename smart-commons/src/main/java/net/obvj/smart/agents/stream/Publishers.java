@@ -0,0 +1,224 @@
+package net.obvj.smart.agents.stream;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import net.obvj.smart.util.Exceptions;
+
+/**
+ * Common methods for building a {@link Publisher}.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public final class Publishers
+{
+
+    private Publishers()
+    {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Builds a {@link Publisher} of the items of the given {@link Iterable}. Each
+     * subscription iterates through the items from the beginning.
+     *
+     * @param <T>      the type of the items
+     * @param iterable the source of items
+     * @return a {@link Publisher}
+     */
+    public static <T> Publisher<T> fromIterable(Iterable<? extends T> iterable)
+    {
+        Objects.requireNonNull(iterable, "The iterable must not be null");
+        return fromIterator(iterable::iterator);
+    }
+
+    /**
+     * Builds a {@link Publisher} of the items of the iterators supplied, one per
+     * subscription. Items are fetched from the iterator only as they are requested, which
+     * makes this method suitable for lazy sources, such as cursors over large result sets.
+     *
+     * @param <T>              the type of the items
+     * @param iteratorSupplier a function that supplies the iterator for each subscription
+     * @return a {@link Publisher}
+     */
+    public static <T> Publisher<T> fromIterator(Supplier<? extends Iterator<? extends T>> iteratorSupplier)
+    {
+        Objects.requireNonNull(iteratorSupplier, "The iterator supplier must not be null");
+        return subscriber ->
+        {
+            Iterator<? extends T> iterator;
+            try
+            {
+                iterator = iteratorSupplier.get();
+            }
+            catch (RuntimeException exception)
+            {
+                subscriber.onSubscribe(new IteratorSubscription<>(subscriber, null));
+                subscriber.onError(exception);
+                return;
+            }
+            subscriber.onSubscribe(new IteratorSubscription<>(subscriber, iterator));
+        };
+    }
+
+    /**
+     * Builds a {@link Publisher} of the items of the given {@link Stream}, which can be
+     * subscribed only once. The stream is closed when all items are published, or when the
+     * subscription is cancelled.
+     *
+     * @param <T>    the type of the items
+     * @param stream the source of items
+     * @return a {@link Publisher}
+     */
+    public static <T> Publisher<T> fromStream(Stream<? extends T> stream)
+    {
+        Objects.requireNonNull(stream, "The stream must not be null");
+        Publisher<T> publisher = fromIterator(stream::iterator);
+        return subscriber -> publisher.subscribe(new Subscriber<T>()
+        {
+            @Override
+            public void onSubscribe(Subscription subscription)
+            {
+                subscriber.onSubscribe(new Subscription()
+                {
+                    @Override
+                    public void request(long n)
+                    {
+                        subscription.request(n);
+                    }
+
+                    @Override
+                    public void cancel()
+                    {
+                        subscription.cancel();
+                        stream.close();
+                    }
+                });
+            }
+
+            @Override
+            public void onNext(T item)
+            {
+                subscriber.onNext(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable)
+            {
+                stream.close();
+                subscriber.onError(throwable);
+            }
+
+            @Override
+            public void onComplete()
+            {
+                stream.close();
+                subscriber.onComplete();
+            }
+        });
+    }
+
+    /**
+     * A subscription that publishes the items of an iterator in the thread that signals
+     * demand. Demand signaled while publishing (e.g.: by the subscriber's {@code onNext})
+     * is added to the outstanding demand, instead of publishing recursively.
+     */
+    private static class IteratorSubscription<T> implements Subscription
+    {
+        private final Subscriber<? super T> subscriber;
+        private final Iterator<? extends T> iterator;
+
+        private long requested;
+        private boolean publishing;
+        private volatile boolean done;
+
+        private IteratorSubscription(Subscriber<? super T> subscriber, Iterator<? extends T> iterator)
+        {
+            this.subscriber = subscriber;
+            this.iterator = iterator;
+            this.done = iterator == null;
+        }
+
+        @Override
+        public void request(long n)
+        {
+            if (n <= 0)
+            {
+                fail(Exceptions.illegalArgument("The number of requested items must be positive: %s", n));
+                return;
+            }
+            synchronized (this)
+            {
+                requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+                if (publishing || done)
+                {
+                    return;
+                }
+                publishing = true;
+            }
+            publish();
+        }
+
+        private void publish()
+        {
+            while (true)
+            {
+                long demand;
+                synchronized (this)
+                {
+                    demand = requested;
+                    if (demand == 0 || done)
+                    {
+                        publishing = false;
+                        return;
+                    }
+                }
+                long published = 0;
+                while (published < demand && !done)
+                {
+                    T item;
+                    try
+                    {
+                        if (!iterator.hasNext())
+                        {
+                            done = true;
+                            subscriber.onComplete();
+                            return;
+                        }
+                        item = iterator.next();
+                    }
+                    catch (RuntimeException exception)
+                    {
+                        fail(exception);
+                        return;
+                    }
+                    subscriber.onNext(item);
+                    published++;
+                }
+                synchronized (this)
+                {
+                    requested -= published;
+                }
+            }
+        }
+
+        private void fail(Throwable throwable)
+        {
+            if (!done)
+            {
+                done = true;
+                subscriber.onError(throwable);
+            }
+        }
+
+        @Override
+        public void cancel()
+        {
+            done = true;
+        }
+    }
+
+}
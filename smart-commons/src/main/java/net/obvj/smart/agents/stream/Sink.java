@@ -0,0 +1,32 @@
+package net.obvj.smart.agents.stream;
+
+import java.util.List;
+
+/**
+ * A destination for the items published by a streaming agent task.
+ * <p>
+ * Items are delivered in batches, of at most the agent's {@code sinkBatchSize}. The next
+ * batch is not requested from the publisher until the current one has been written, so a
+ * slow sink slows down the publisher instead of letting items pile up in memory.
+ * <p>
+ * Sinks are configured per agent, by class name, and must have a public no-argument
+ * constructor. A sink instance is shared by all executions of the agent.
+ *
+ * @param <T> the type of the items accepted
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+@FunctionalInterface
+public interface Sink<T>
+{
+
+    /**
+     * Writes a batch of items.
+     *
+     * @param items the items to be written, never empty
+     * @throws Exception if the items could not be written, which fails the execution and
+     *                   cancels the subscription
+     */
+    void write(List<T> items) throws Exception;
+
+}
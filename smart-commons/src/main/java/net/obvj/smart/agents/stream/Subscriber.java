@@ -0,0 +1,44 @@
+package net.obvj.smart.agents.stream;
+
+/**
+ * A consumer of the items published by a {@link Publisher}.
+ * <p>
+ * Calls to the methods of a subscriber are signaled serially: {@code onSubscribe} once,
+ * followed by at most as many {@code onNext} calls as requested, optionally followed by a
+ * single terminal {@code onError} or {@code onComplete}.
+ *
+ * @param <T> the type of the consumed items
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public interface Subscriber<T>
+{
+
+    /**
+     * Called when the subscription starts, before any other method.
+     *
+     * @param subscription the {@link Subscription} used to request items or to cancel
+     */
+    void onSubscribe(Subscription subscription);
+
+    /**
+     * Receives the next item, in response to a demand signaled via
+     * {@link Subscription#request(long)}.
+     *
+     * @param item the published item
+     */
+    void onNext(T item);
+
+    /**
+     * Called when the publisher fails. No other method is called afterwards.
+     *
+     * @param throwable the failure
+     */
+    void onError(Throwable throwable);
+
+    /**
+     * Called when all items have been published. No other method is called afterwards.
+     */
+    void onComplete();
+
+}
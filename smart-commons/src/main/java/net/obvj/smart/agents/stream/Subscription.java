@@ -0,0 +1,26 @@
+package net.obvj.smart.agents.stream;
+
+/**
+ * The link between a {@link Publisher} and a {@link Subscriber}, used by the subscriber to
+ * signal demand or to stop receiving items.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public interface Subscription
+{
+
+    /**
+     * Adds the given number of items to the demand. The publisher may publish up to the
+     * total demand not yet fulfilled.
+     *
+     * @param n the number of additional items requested, which must be positive
+     */
+    void request(long n);
+
+    /**
+     * Requests the publisher to stop publishing items and to release its resources.
+     */
+    void cancel();
+
+}
@@ -37,6 +37,13 @@ public @interface Agent
      */
     String frequency() default "";
 
+    /**
+     * The syntax of the Cron expression set in {@link #frequency()}, for cron Agents.
+     * <p>
+     * If not specified, {@link CronSyntax#UNIX} will be considered.
+     */
+    CronSyntax cronSyntax() default CronSyntax.UNIX;
+
     /**
      * Declares whether this Agent is started when the server is started.
      * <p>
@@ -57,4 +64,110 @@ public @interface Agent
      */
     boolean hidden() default false;
 
+    /**
+     * Declares what happens when this Agent is triggered while a previous execution is still
+     * in progress. Accepted values are {@code SKIP}, {@code COALESCE} and
+     * {@code PARALLEL(n)}.
+     * <p>
+     * If not specified, {@code SKIP} will be considered.
+     *
+     * @see net.obvj.smart.util.OverlapPolicy
+     */
+    String overlapPolicy() default "";
+
+    /**
+     * Declares whether the interval of a timer Agent is measured from the end of the
+     * previous execution (fixed delay), instead of from the scheduled start of the previous
+     * execution (fixed rate, default).
+     */
+    boolean fixedDelay() default false;
+
+    /**
+     * Declares how far from the boundaries of its interval a timer Agent is started, to
+     * spread the load of agents with the same interval. Accepted values are {@code NONE},
+     * {@code AUTO} (derived from the Agent name) and a fixed time interval, such as
+     * {@code "90 seconds"}.
+     * <p>
+     * If not specified, {@code NONE} will be considered.
+     *
+     * @see net.obvj.smart.util.StartOffset
+     */
+    String startOffset() default "";
+
+    /**
+     * Declares what happens when scheduled executions of this Agent could not be triggered
+     * on time.
+     * <p>
+     * If not specified, {@link MisfirePolicy#FIRE_ONCE_NOW} will be considered.
+     */
+    MisfirePolicy misfirePolicy() default MisfirePolicy.FIRE_ONCE_NOW;
+
+    /**
+     * Declares the priority of this Agent's executions, from 1 (lowest) to 10 (highest).
+     * When the global limit of concurrent executions is reached, due executions wait for a
+     * permit and are admitted in priority order.
+     * <p>
+     * If not specified, 5 will be considered.
+     */
+    int priority() default 5;
+
+    /**
+     * Declares the worker group of this Agent. Each group executes on its own bounded pool
+     * of worker threads, whose size and queue capacity can be set in
+     * {@code smart.properties}, so that agents in one group cannot exhaust the threads
+     * available to the others.
+     * <p>
+     * If not specified, the {@code default} group, i.e., the scheduler's main worker pool,
+     * will be considered.
+     */
+    String group() default "";
+
+    /**
+     * Declares the maximum duration of a single execution of this Agent, for example:
+     * {@code "30 seconds"}. When it elapses, the running task is interrupted, the execution
+     * is marked as {@code TIMED_OUT}, and the agent is released for the next execution.
+     * <p>
+     * If not specified, {@code NONE} will be considered, i.e., executions are not bounded.
+     */
+    String executionTimeout() default "";
+
+    /**
+     * Declares the fully-qualified names of the {@code Sink} classes that receive, in
+     * batches, the items published by this Agent's task, when it returns a
+     * {@code Publisher}. Each sink class must have a public no-argument constructor.
+     * <p>
+     * If not specified, published items are counted and discarded.
+     */
+    String[] sinks() default {};
+
+    /**
+     * Declares the maximum number of published items delivered to the sinks at once, which
+     * is also the number of items requested from the publisher at a time.
+     * <p>
+     * If not specified, 100 will be considered.
+     */
+    int sinkBatchSize() default 100;
+
+    /**
+     * Declares the number of shards of this Agent's task. Each execution invokes the task
+     * once per shard, concurrently, on the worker pool, and is complete when all shards
+     * finish. Each invocation receives its shard index and count via the
+     * {@code AgentContext}, so that a partitioned keyspace can be processed in parallel.
+     * <p>
+     * If not specified, 1 will be considered (i.e., the task is not sharded).
+     */
+    int shards() default 1;
+
+    /**
+     * Declares the time that each execution of this Agent's task is expected to take, for
+     * example: {@code "200 milliseconds"}. The remaining budget is available to the task
+     * via the {@code AgentContext}, so that a long backlog can be processed in slices. A
+     * task that reports pending work when the budget is over yields to the next execution;
+     * one that reports it within the budget is run again immediately. Executions that
+     * exceed the budget are counted in the agent status.
+     * <p>
+     * If not specified, the executions have no time budget.
+     */
+    String timeBudget() default "";
+
 }
@@ -8,6 +8,18 @@ import java.lang.annotation.Target;
 /**
  * Identifies the annotated method as the one to be executed for a class annotated with
  * {@code @Agent}.
+ * <p>
+ * If the annotated method returns a {@code CompletionStage} (e.g.: a
+ * {@code CompletableFuture}), the task is asynchronous: the execution is considered in
+ * progress until the returned stage completes, without holding a worker thread.
+ * <p>
+ * If the annotated method returns a {@code net.obvj.smart.agents.batch.BatchJob}, the job
+ * is run in chunks, resuming from the last checkpoint of the agent.
+ *
+ * <p>
+ * The annotated method may declare either no parameters or a single
+ * {@code net.obvj.smart.agents.AgentContext} parameter, to receive the context of each
+ * execution (cancellation, fire time, deadline and progress reporting).
  *
  * @author oswaldo.bapvic.jr
  * @since 2.0
@@ -0,0 +1,50 @@
+package net.obvj.smart.conf.annotation;
+
+import net.obvj.smart.util.Exceptions;
+
+/**
+ * Available syntaxes for the Cron expressions of cron agents.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public enum CronSyntax
+{
+    /**
+     * The Unix Cron syntax, with 5 fields: minute, hour, day of month, month and day of week
+     * (e.g.: {@code 0 2 * * MON-FRI}).
+     */
+    UNIX,
+
+    /**
+     * The Quartz syntax, with 6 or 7 fields: second, minute, hour, day of month, month, day
+     * of week and an optional year (e.g.: {@code 0/10 * 9-17 ? * MON-FRI}).
+     */
+    QUARTZ,
+
+    /**
+     * The Spring syntax, with 6 fields: second, minute, hour, day of month, month and day of
+     * week (e.g.: {@code 0/10 * 9-17 * * MON-FRI}).
+     */
+    SPRING;
+
+    /**
+     * Returns the Cron syntax matching the given string, ignoring case.
+     *
+     * @param input the string to be parsed
+     * @return the {@link CronSyntax} matching the given string
+     * @throws IllegalArgumentException if the input string is not a valid Cron syntax
+     */
+    public static CronSyntax parse(String input)
+    {
+        for (CronSyntax syntax : values())
+        {
+            if (syntax.name().equalsIgnoreCase(input.trim()))
+            {
+                return syntax;
+            }
+        }
+        throw Exceptions.illegalArgument("Invalid Cron syntax: \"%s\"", input);
+    }
+
+}
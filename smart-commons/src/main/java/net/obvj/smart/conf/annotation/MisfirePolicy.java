@@ -0,0 +1,52 @@
+package net.obvj.smart.conf.annotation;
+
+import net.obvj.smart.util.Exceptions;
+
+/**
+ * Available policies to handle misfires, that is, scheduled executions that could not be
+ * triggered on time (for example, due to a long garbage collection pause or a saturated
+ * worker pool), and were overtaken by the following scheduled execution.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public enum MisfirePolicy
+{
+    /**
+     * All missed executions are merged into a single execution, triggered immediately.
+     */
+    FIRE_ONCE_NOW,
+
+    /**
+     * Missed executions are discarded, and the agent waits for the next scheduled
+     * execution.
+     */
+    SKIP_TO_NEXT,
+
+    /**
+     * All missed executions are triggered, one after the other, until the schedule is back
+     * on time. If too many executions were missed (e.g.: after a very long pause), they are
+     * merged into a single execution, as with {@link #FIRE_ONCE_NOW}.
+     */
+    FIRE_ALL;
+
+    /**
+     * Returns the misfire policy matching the given string, ignoring case.
+     *
+     * @param input the string to be parsed
+     * @return the {@link MisfirePolicy} matching the given string
+     * @throws IllegalArgumentException if the input string is not a valid misfire policy
+     */
+    public static MisfirePolicy parse(String input)
+    {
+        for (MisfirePolicy policy : values())
+        {
+            if (policy.name().equalsIgnoreCase(input.trim()))
+            {
+                return policy;
+            }
+        }
+        throw Exceptions.illegalArgument("Invalid misfire policy: \"%s\"", input);
+    }
+
+}
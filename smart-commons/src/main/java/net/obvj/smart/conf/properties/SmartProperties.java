@@ -27,6 +27,43 @@ public class SmartProperties
     public static final String AGENT_SEARCH_PACKAGES = "agent.search.packages";
     protected static final String AGENT_SEARCH_PACKAGES_DEFAULT = "";
 
+    public static final String AGENT_CURSOR_DIRECTORY = "agent.cursor.directory";
+    protected static final String AGENT_CURSOR_DIRECTORY_DEFAULT = "cursors";
+
+    public static final String SCHEDULER_ENGINE = "scheduler.engine";
+    protected static final String SCHEDULER_ENGINE_DEFAULT = "executor";
+
+    public static final String SCHEDULER_TIMING_WHEEL_TICK_MILLIS = "scheduler.timing.wheel.tick.millis";
+    protected static final String SCHEDULER_TIMING_WHEEL_TICK_MILLIS_DEFAULT = "10";
+
+    public static final String SCHEDULER_DISPATCHER_THREADS = "scheduler.dispatcher.threads";
+    protected static final String SCHEDULER_DISPATCHER_THREADS_DEFAULT = "1";
+
+    public static final String SCHEDULER_WORKER_THREADS = "scheduler.worker.threads";
+    protected static final String SCHEDULER_WORKER_THREADS_DEFAULT = String
+            .valueOf(Runtime.getRuntime().availableProcessors() * 2);
+
+    public static final String SCHEDULER_EXECUTION_PERMITS = "scheduler.execution.permits";
+    protected static final String SCHEDULER_EXECUTION_PERMITS_DEFAULT = "0";
+
+    public static final String SCHEDULER_WORKER_QUEUE_CAPACITY = "scheduler.worker.queue.capacity";
+    protected static final String SCHEDULER_WORKER_QUEUE_CAPACITY_DEFAULT = "1000";
+
+    public static final String SCHEDULER_GROUP_MAX_CONCURRENCY = "scheduler.group.max.concurrency";
+    protected static final String SCHEDULER_GROUP_MAX_CONCURRENCY_DEFAULT = "2";
+
+    public static final String SCHEDULER_GROUP_QUEUE_CAPACITY = "scheduler.group.queue.capacity";
+    protected static final String SCHEDULER_GROUP_QUEUE_CAPACITY_DEFAULT = "100";
+
+    public static final String SCHEDULER_WORKER_MODE = "scheduler.worker.mode";
+    protected static final String SCHEDULER_WORKER_MODE_DEFAULT = "platform";
+
+    public static final String SCHEDULER_FORK_JOIN_PARALLELISM = "scheduler.forkjoin.parallelism";
+    protected static final String SCHEDULER_FORK_JOIN_PARALLELISM_DEFAULT = "0";
+
+    public static final String SHUTDOWN_TIMEOUT_SECONDS = "shutdown.timeout.seconds";
+    protected static final String SHUTDOWN_TIMEOUT_SECONDS_DEFAULT = "60";
+
     public static final String CONSOLE_PROMPT = "console.prompt";
     protected static final String CONSOLE_PROMPT_DEFAULT = "smart>";
 
@@ -51,10 +88,24 @@ public class SmartProperties
     public static final String JMX_AGENT_MANAGER_OBJECT_NAME = "jmx.agent.manager.object.name";
     protected static final String JMX_OBJECT_NAME_DEFAULT = "net.obvj.smart.jmx:type=AgentManagerJMX";
 
+    private static final String SCHEDULER_GROUP_PREFIX = "scheduler.group.";
+
     private static final Properties defaults = new Properties();
     static
     {
         defaults.put(AGENT_SEARCH_PACKAGES, AGENT_SEARCH_PACKAGES_DEFAULT);
+        defaults.put(AGENT_CURSOR_DIRECTORY, AGENT_CURSOR_DIRECTORY_DEFAULT);
+        defaults.put(SCHEDULER_ENGINE, SCHEDULER_ENGINE_DEFAULT);
+        defaults.put(SCHEDULER_TIMING_WHEEL_TICK_MILLIS, SCHEDULER_TIMING_WHEEL_TICK_MILLIS_DEFAULT);
+        defaults.put(SCHEDULER_DISPATCHER_THREADS, SCHEDULER_DISPATCHER_THREADS_DEFAULT);
+        defaults.put(SCHEDULER_WORKER_THREADS, SCHEDULER_WORKER_THREADS_DEFAULT);
+        defaults.put(SCHEDULER_EXECUTION_PERMITS, SCHEDULER_EXECUTION_PERMITS_DEFAULT);
+        defaults.put(SCHEDULER_WORKER_QUEUE_CAPACITY, SCHEDULER_WORKER_QUEUE_CAPACITY_DEFAULT);
+        defaults.put(SCHEDULER_GROUP_MAX_CONCURRENCY, SCHEDULER_GROUP_MAX_CONCURRENCY_DEFAULT);
+        defaults.put(SCHEDULER_GROUP_QUEUE_CAPACITY, SCHEDULER_GROUP_QUEUE_CAPACITY_DEFAULT);
+        defaults.put(SCHEDULER_WORKER_MODE, SCHEDULER_WORKER_MODE_DEFAULT);
+        defaults.put(SCHEDULER_FORK_JOIN_PARALLELISM, SCHEDULER_FORK_JOIN_PARALLELISM_DEFAULT);
+        defaults.put(SHUTDOWN_TIMEOUT_SECONDS, SHUTDOWN_TIMEOUT_SECONDS_DEFAULT);
         defaults.put(CONSOLE_PROMPT, CONSOLE_PROMPT_DEFAULT);
         defaults.put(CLASSIC_CONSOLE_ENABLED, CLASSIC_CONSOLE_ENABLED_DEFAULT);
         defaults.put(CLASSIC_CONSOLE_PORT, CLASSIC_CONSOLE_PORT_DEFAULT);
@@ -141,6 +192,28 @@ public class SmartProperties
         return Integer.parseInt(getProperty(key));
     }
 
+    /**
+     * Searches for a worker group setting and returns the result as an {@code int}.
+     * <p>
+     * The group-specific property is tried first, by inserting the group name after the
+     * {@code scheduler.group.} prefix of the given key. For example, for the group
+     * {@code reports}, the key {@code scheduler.group.max.concurrency} is first searched as
+     * {@code scheduler.group.reports.max.concurrency}. If not found, the value of the given
+     * key, which applies to all groups, is returned.
+     *
+     * @param group the worker group name
+     * @param key   the property key to be fetched, starting with {@code scheduler.group.}
+     * @return the value associated with the key for the given group, as {@code int}
+     * @throws NumberFormatException if the value does not contain a parsable integer.
+     * @since 2.0
+     */
+    public int getGroupIntProperty(String group, String key)
+    {
+        String groupKey = StringUtils.replaceOnce(key, SCHEDULER_GROUP_PREFIX, SCHEDULER_GROUP_PREFIX + group + ".");
+        String value = properties.getProperty(groupKey);
+        return value != null ? Integer.parseInt(value.trim()) : getIntProperty(key);
+    }
+
     /**
      * Searches for the property with the specified key and returns the result as a
      * {@code boolean}.
@@ -4,6 +4,9 @@ import java.util.Collection;
 import java.util.concurrent.TimeoutException;
 
 import net.obvj.smart.agents.dto.AgentDTO;
+import net.obvj.smart.agents.dto.PriorityLevelDTO;
+import net.obvj.smart.agents.dto.SchedulingLagDTO;
+import net.obvj.smart.agents.dto.WorkerGroupDTO;
 import net.obvj.smart.jmx.dto.ThreadDTO;
 
 public interface AgentManagerJMXMBean
@@ -21,11 +24,21 @@ public interface AgentManagerJMXMBean
 
     Collection<AgentDTO> getAgentDTOs();
 
+    Collection<SchedulingLagDTO> getSchedulingLags();
+
+    double getWorstSchedulingLag();
+
+    Collection<PriorityLevelDTO> getPriorityLevels();
+
+    Collection<WorkerGroupDTO> getWorkerGroups();
+
     boolean isAgentRunning(String name);
 
     boolean isAgentStarted(String name);
 
     String getAgentStatusStr(String name);
+
+    String[] getNextExecutionDates(String name, int count);
     
     String getServerDate();
     
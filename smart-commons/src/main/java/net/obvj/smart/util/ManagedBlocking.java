@@ -0,0 +1,83 @@
+package net.obvj.smart.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Utility methods for blocking operations (e.g.: I/O) performed inside fork/join tasks.
+ * <p>
+ * A blocking call wrapped by these methods is announced to the {@link ForkJoinPool}, which
+ * may activate a spare worker thread while the call is in progress, so that the tasks
+ * waiting for I/O do not starve the pool of its target parallelism. Outside a fork/join
+ * pool, the call is simply executed.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public final class ManagedBlocking
+{
+
+    private ManagedBlocking()
+    {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Executes a blocking call, allowing the current {@link ForkJoinPool}, if any, to
+     * compensate for the blocked worker thread.
+     *
+     * @param <T>          the type of the result
+     * @param blockingCall the blocking call to be executed
+     * @return the result of the call
+     * @throws InterruptedException if interrupted while blocking
+     * @throws Exception            any exception thrown by the call
+     */
+    public static <T> T call(Callable<T> blockingCall) throws Exception
+    {
+        CallBlocker<T> blocker = new CallBlocker<>(blockingCall);
+        ForkJoinPool.managedBlock(blocker);
+        if (blocker.failure != null)
+        {
+            throw blocker.failure;
+        }
+        return blocker.result;
+    }
+
+    /**
+     * A {@link ForkJoinPool.ManagedBlocker} that executes a {@link Callable} once.
+     */
+    private static final class CallBlocker<T> implements ForkJoinPool.ManagedBlocker
+    {
+        private final Callable<T> call;
+        private T result;
+        private Exception failure;
+        private boolean done;
+
+        private CallBlocker(Callable<T> call)
+        {
+            this.call = call;
+        }
+
+        @Override
+        public boolean block()
+        {
+            try
+            {
+                result = call.call();
+            }
+            catch (Exception exception)
+            {
+                failure = exception;
+            }
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable()
+        {
+            return done;
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+package net.obvj.smart.util;
+
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An object that determines what happens when an agent is triggered while a previous
+ * execution of the same agent is still in progress, with text parsing logic.
+ * <p>
+ * The following policies are available:
+ * <ul>
+ * <li>{@code SKIP}: the new execution is dropped (default)</li>
+ * <li>{@code COALESCE}: at most one execution is kept pending, and it starts as soon as
+ * the current execution finishes</li>
+ * <li>{@code PARALLEL(n)}: up to {@code n} executions may run concurrently; further
+ * executions are dropped</li>
+ * </ul>
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class OverlapPolicy
+{
+    public enum Type
+    {
+        SKIP, COALESCE, PARALLEL;
+    }
+
+    public static final OverlapPolicy SKIP = new OverlapPolicy(Type.SKIP, 1);
+    public static final OverlapPolicy COALESCE = new OverlapPolicy(Type.COALESCE, 1);
+
+    private static final Pattern POLICY_PATTERN = Pattern.compile("\\s*([a-zA-Z]+)\\s*(?:\\(\\s*(\\d+)\\s*\\))?\\s*");
+
+    private final Type type;
+    private final int maxConcurrentExecutions;
+
+    private OverlapPolicy(Type type, int maxConcurrentExecutions)
+    {
+        this.type = type;
+        this.maxConcurrentExecutions = maxConcurrentExecutions;
+    }
+
+    /**
+     * Returns a {@code PARALLEL} policy with the given maximum number of concurrent
+     * executions.
+     *
+     * @param maxConcurrentExecutions the maximum number of concurrent executions
+     * @return a {@code PARALLEL} overlap policy
+     * @throws IllegalArgumentException if the maximum number of concurrent executions is
+     *                                  less than 1
+     */
+    public static OverlapPolicy parallel(int maxConcurrentExecutions)
+    {
+        if (maxConcurrentExecutions < 1)
+        {
+            throw Exceptions.illegalArgument("The maximum number of concurrent executions must be positive: %s",
+                    maxConcurrentExecutions);
+        }
+        return new OverlapPolicy(Type.PARALLEL, maxConcurrentExecutions);
+    }
+
+    /**
+     * Builds an OverlapPolicy by parsing the given string.
+     * <p>
+     * For example: all of the following formats are recognized (case ignored):
+     * <ul>
+     * <li>"SKIP"</li>
+     * <li>"coalesce"</li>
+     * <li>"PARALLEL(4)", or "parallel (4)"</li>
+     * </ul>
+     *
+     * @param input the string to be parsed
+     * @return an OverlapPolicy from the given input
+     * @throws IllegalArgumentException if the input string is not a valid overlap policy
+     */
+    public static OverlapPolicy of(String input)
+    {
+        Matcher matcher = POLICY_PATTERN.matcher(Objects.toString(input, ""));
+        if (matcher.matches())
+        {
+            String name = matcher.group(1);
+            String argument = matcher.group(2);
+            if (Type.PARALLEL.name().equalsIgnoreCase(name) && argument != null)
+            {
+                return parallel(Integer.parseInt(argument));
+            }
+            if (Type.SKIP.name().equalsIgnoreCase(name) && argument == null)
+            {
+                return SKIP;
+            }
+            if (Type.COALESCE.name().equalsIgnoreCase(name) && argument == null)
+            {
+                return COALESCE;
+            }
+        }
+        throw Exceptions.illegalArgument("Invalid overlap policy: \"%s\"", input);
+    }
+
+    /**
+     * @return the overlap policy type
+     */
+    public Type getType()
+    {
+        return type;
+    }
+
+    /**
+     * @return the maximum number of executions of the same agent that may run concurrently
+     */
+    public int getMaxConcurrentExecutions()
+    {
+        return maxConcurrentExecutions;
+    }
+
+    /**
+     * Returns a string representation of this {@link OverlapPolicy}, for example:
+     * {@code "PARALLEL(4)"}.
+     *
+     * @return the string representation of this object
+     * @see Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        return type == Type.PARALLEL ? type + "(" + maxConcurrentExecutions + ")" : type.toString();
+    }
+
+    /**
+     * @see Object#hashCode()
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(type, maxConcurrentExecutions);
+    }
+
+    /**
+     * @see Object#equals(Object)
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) return true;
+        if (!(obj instanceof OverlapPolicy)) return false;
+        OverlapPolicy other = (OverlapPolicy) obj;
+        return type == other.type && maxConcurrentExecutions == other.maxConcurrentExecutions;
+    }
+
+}
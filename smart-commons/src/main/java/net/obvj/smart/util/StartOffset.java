@@ -0,0 +1,164 @@
+package net.obvj.smart.util;
+
+import java.util.Objects;
+
+/**
+ * An object that determines how far from the interval boundaries a timer agent is
+ * started, with text parsing logic.
+ * <p>
+ * By default, timer agents are aligned to the wall-clock boundaries of their interval
+ * (e.g.: an agent that runs every 5 minutes is started at :00, :05, :10, and so on), so
+ * that agents with the same interval wake up at the same time. An offset spreads the
+ * agents inside their period, while keeping a predictable cadence across restarts.
+ * <p>
+ * The following options are available:
+ * <ul>
+ * <li>{@code NONE}: the agent is aligned to the interval boundaries (default)</li>
+ * <li>{@code AUTO}: the offset is derived from a hash of the agent name, so it is stable
+ * for the same agent and evenly spread among different agents</li>
+ * <li>a {@link TimeInterval}, such as {@code "90 seconds"}: a fixed offset, reduced to the
+ * agent period if greater</li>
+ * </ul>
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class StartOffset
+{
+    public enum Type
+    {
+        NONE, AUTO, FIXED;
+    }
+
+    public static final StartOffset NONE = new StartOffset(Type.NONE, null);
+    public static final StartOffset AUTO = new StartOffset(Type.AUTO, null);
+
+    /*
+     * The 64-bit golden ratio, used to spread similar hash codes along the period
+     */
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private final Type type;
+    private final TimeInterval interval;
+
+    private StartOffset(Type type, TimeInterval interval)
+    {
+        this.type = type;
+        this.interval = interval;
+    }
+
+    /**
+     * Returns a fixed start offset.
+     *
+     * @param interval the offset from the interval boundaries
+     * @return a {@code FIXED} start offset
+     */
+    public static StartOffset fixed(TimeInterval interval)
+    {
+        return new StartOffset(Type.FIXED, Objects.requireNonNull(interval, "interval cannot be null"));
+    }
+
+    /**
+     * Builds a StartOffset by parsing the given string.
+     * <p>
+     * For example: all of the following formats are recognized (case ignored):
+     * <ul>
+     * <li>"NONE", or an empty string</li>
+     * <li>"auto"</li>
+     * <li>"90 seconds", "250ms", or any other {@link TimeInterval}</li>
+     * </ul>
+     *
+     * @param input the string to be parsed
+     * @return a StartOffset from the given input
+     * @throws IllegalArgumentException if the input string is not a valid start offset
+     */
+    public static StartOffset of(String input)
+    {
+        String value = Objects.toString(input, "").trim();
+        if (value.isEmpty() || Type.NONE.name().equalsIgnoreCase(value))
+        {
+            return NONE;
+        }
+        if (Type.AUTO.name().equalsIgnoreCase(value))
+        {
+            return AUTO;
+        }
+        try
+        {
+            return fixed(TimeInterval.of(value));
+        }
+        catch (IllegalArgumentException exception)
+        {
+            throw Exceptions.illegalArgument("Invalid start offset: \"%s\"", input);
+        }
+    }
+
+    /**
+     * Returns the offset of an agent from the boundaries of its period.
+     *
+     * @param agentName    the name of the agent, used by the {@code AUTO} option
+     * @param periodMillis the agent period, in milliseconds
+     * @return the offset in milliseconds, from 0 (inclusive) to the period (exclusive)
+     */
+    public long toMillis(String agentName, long periodMillis)
+    {
+        if (periodMillis <= 0)
+        {
+            return 0;
+        }
+        switch (type)
+        {
+        case AUTO:
+            // String.hashCode() is specified by the language, so it is the same across restarts
+            long hash = agentName.hashCode() * GOLDEN_RATIO;
+            return Math.floorMod(hash >>> 16, periodMillis);
+        case FIXED:
+            return Math.floorMod(interval.toMillis(), periodMillis);
+        default:
+            return 0;
+        }
+    }
+
+    /**
+     * @return the start offset type
+     */
+    public Type getType()
+    {
+        return type;
+    }
+
+    /**
+     * Returns a string representation of this {@link StartOffset}, for example:
+     * {@code "AUTO"} or {@code "90 second(s)"}.
+     *
+     * @return the string representation of this object
+     * @see Object#toString()
+     */
+    @Override
+    public String toString()
+    {
+        return type == Type.FIXED ? interval.toString() : type.toString();
+    }
+
+    /**
+     * @see Object#hashCode()
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(type, interval);
+    }
+
+    /**
+     * @see Object#equals(Object)
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) return true;
+        if (!(obj instanceof StartOffset)) return false;
+        StartOffset other = (StartOffset) obj;
+        return type == other.type && Objects.equals(interval, other.interval);
+    }
+
+}
@@ -50,6 +50,7 @@ public class TimeInterval
      * <li>"60 SECONDS", or "60s"</li>
      * <li>"25 minutes", or "25M"</li>
      * <li>"1 HOUR", or "1h"</li>
+     * <li>"250 milliseconds", or "250ms"</li>
      * </ul>
      *
      * @param input the string to be parsed
@@ -134,6 +135,16 @@ public class TimeInterval
         return timeUnit.toMillis(duration);
     }
 
+    /**
+     * Returns this time interval's duration, in nanoseconds.
+     *
+     * @return the interval duration, in nanoseconds
+     */
+    public long toNanos()
+    {
+        return timeUnit.toNanos(duration);
+    }
+
     /**
      * Returns a human-friendly string representation of this {@link TimeInterval}, for
      * example: {@code "1 MINUTE"}.
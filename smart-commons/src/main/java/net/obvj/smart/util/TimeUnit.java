@@ -16,7 +16,9 @@ public enum TimeUnit
             "second(s)"),
     MINUTES(java.util.concurrent.TimeUnit.MINUTES, Calendar.MINUTE, Arrays.asList("minute", "minutes", "m"),
             "minute(s)"),
-    HOURS(java.util.concurrent.TimeUnit.HOURS, Calendar.HOUR_OF_DAY, Arrays.asList("hour", "hours", "h"), "hour(s)");
+    HOURS(java.util.concurrent.TimeUnit.HOURS, Calendar.HOUR_OF_DAY, Arrays.asList("hour", "hours", "h"), "hour(s)"),
+    MILLISECONDS(java.util.concurrent.TimeUnit.MILLISECONDS, Calendar.MILLISECOND,
+            Arrays.asList("millisecond", "milliseconds", "millis", "ms"), "millisecond(s)");
 
     public static final TimeUnit DEFAULT = TimeUnit.MINUTES;
 
@@ -96,6 +98,18 @@ public enum TimeUnit
         return javaTimeUnit.toMillis(amount);
     }
 
+    /**
+     * Converts the given time duration to nanoseconds.
+     *
+     * @param amount the time duration to be converted
+     * @return the converted amount
+     * @since 2.0
+     */
+    public long toNanos(long amount)
+    {
+        return javaTimeUnit.toNanos(amount);
+    }
+
     /**
      * Converts the given time duration from a source Time Unit to this Time Unit.
      *
@@ -0,0 +1,64 @@
+package net.obvj.smart.agents.api.dto;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.obvj.smart.agents.dto.PriorityLevelDTO;
+
+/**
+ * Unit tests for the {@link PriorityLevelDTO}.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class PriorityLevelDTOTest
+{
+    private static final PriorityLevelDTO LEVEL1_1 = new PriorityLevelDTO(5, 2, 10, 1.5, 9.0, 8.0);
+    private static final PriorityLevelDTO LEVEL1_2 = new PriorityLevelDTO(5, 2, 10, 1.5, 9.0, 8.0);
+
+    private static final PriorityLevelDTO LEVEL2 = new PriorityLevelDTO(9, 2, 10, 1.5, 9.0, 8.0);
+
+    @Test
+    public void equals_sameFields_true()
+    {
+        assertThat(LEVEL1_1.equals(LEVEL1_2), is(true));
+    }
+
+    @Test
+    public void equals_differentField_false()
+    {
+        assertThat(LEVEL1_1.equals(LEVEL2), is(false));
+    }
+
+    @Test
+    public void equals_null_false()
+    {
+        assertThat(LEVEL1_1.equals(null), is(false));
+    }
+
+    @Test
+    public void hashCode_addEqualObjectInASet_overwritesExistingOne()
+    {
+        Set<PriorityLevelDTO> levels = new HashSet<>();
+        levels.add(LEVEL1_1);
+        levels.add(LEVEL1_2);
+        assertThat(levels.size(), is(1));
+    }
+
+    @Test
+    public void getters_succeed()
+    {
+        assertThat(LEVEL1_1.getPriority(), is(5));
+        assertThat(LEVEL1_1.getQueueDepth(), is(2));
+        assertThat(LEVEL1_1.getAdmissions(), is(10L));
+        assertThat(LEVEL1_1.getMeanWait(), is(1.5));
+        assertThat(LEVEL1_1.getMaxWait(), is(9.0));
+        assertThat(LEVEL1_1.getP99Wait(), is(8.0));
+    }
+
+}
@@ -0,0 +1,66 @@
+package net.obvj.smart.agents.api.dto;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.obvj.smart.agents.dto.SchedulingLagDTO;
+
+/**
+ * Unit tests for the {@link SchedulingLagDTO}.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class SchedulingLagDTOTest
+{
+    private static final SchedulingLagDTO LAG1_1 = new SchedulingLagDTO("name1", 10, 1.5, 2.0, 9.0, 1.0, 4.0, 9.0);
+    private static final SchedulingLagDTO LAG1_2 = new SchedulingLagDTO("name1", 10, 1.5, 2.0, 9.0, 1.0, 4.0, 9.0);
+
+    private static final SchedulingLagDTO LAG2 = new SchedulingLagDTO("name1", 11, 1.5, 2.0, 9.0, 1.0, 4.0, 9.0);
+
+    @Test
+    public void equals_sameFields_true()
+    {
+        assertThat(LAG1_1.equals(LAG1_2), is(true));
+    }
+
+    @Test
+    public void equals_differentField_false()
+    {
+        assertThat(LAG1_1.equals(LAG2), is(false));
+    }
+
+    @Test
+    public void equals_null_false()
+    {
+        assertThat(LAG1_1.equals(null), is(false));
+    }
+
+    @Test
+    public void hashCode_addEqualObjectInASet_overwritesExistingOne()
+    {
+        Set<SchedulingLagDTO> lags = new HashSet<>();
+        lags.add(LAG1_1);
+        lags.add(LAG1_2);
+        assertThat(lags.size(), is(1));
+    }
+
+    @Test
+    public void getters_succeed()
+    {
+        assertThat(LAG1_1.getName(), is("name1"));
+        assertThat(LAG1_1.getCount(), is(10L));
+        assertThat(LAG1_1.getLast(), is(1.5));
+        assertThat(LAG1_1.getMean(), is(2.0));
+        assertThat(LAG1_1.getMax(), is(9.0));
+        assertThat(LAG1_1.getP50(), is(1.0));
+        assertThat(LAG1_1.getP90(), is(4.0));
+        assertThat(LAG1_1.getP99(), is(9.0));
+    }
+
+}
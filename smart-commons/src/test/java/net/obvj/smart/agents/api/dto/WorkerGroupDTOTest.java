@@ -0,0 +1,71 @@
+package net.obvj.smart.agents.api.dto;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.obvj.smart.agents.dto.WorkerGroupDTO;
+
+/**
+ * Unit tests for the {@link WorkerGroupDTO}.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class WorkerGroupDTOTest
+{
+    private static final WorkerGroupDTO GROUP1_1 = new WorkerGroupDTO("reports", 4, 1, 2, 10, 3);
+    private static final WorkerGroupDTO GROUP1_2 = new WorkerGroupDTO("reports", 4, 1, 2, 10, 3);
+
+    private static final WorkerGroupDTO GROUP2 = new WorkerGroupDTO("ingestion", 4, 1, 2, 10, 3);
+
+    @Test
+    public void equals_sameFields_true()
+    {
+        assertThat(GROUP1_1.equals(GROUP1_2), is(true));
+    }
+
+    @Test
+    public void equals_differentField_false()
+    {
+        assertThat(GROUP1_1.equals(GROUP2), is(false));
+    }
+
+    @Test
+    public void equals_null_false()
+    {
+        assertThat(GROUP1_1.equals(null), is(false));
+    }
+
+    @Test
+    public void hashCode_addEqualObjectInASet_overwritesExistingOne()
+    {
+        Set<WorkerGroupDTO> groups = new HashSet<>();
+        groups.add(GROUP1_1);
+        groups.add(GROUP1_2);
+        assertThat(groups.size(), is(1));
+    }
+
+    @Test
+    public void getters_succeed()
+    {
+        assertThat(GROUP1_1.getName(), is("reports"));
+        assertThat(GROUP1_1.getMaxConcurrency(), is(4));
+        assertThat(GROUP1_1.getActiveExecutions(), is(1));
+        assertThat(GROUP1_1.getQueuedExecutions(), is(2));
+        assertThat(GROUP1_1.getQueueCapacity(), is(10));
+        assertThat(GROUP1_1.getRejectedExecutions(), is(3L));
+    }
+
+    @Test
+    public void getUtilization_percentageOfMaxConcurrency()
+    {
+        assertThat(GROUP1_1.getUtilization(), is(25.0));
+        assertThat(new WorkerGroupDTO("empty", 0, 0, 0, 0, 0).getUtilization(), is(0.0));
+    }
+
+}
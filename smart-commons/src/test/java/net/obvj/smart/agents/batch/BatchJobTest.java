@@ -0,0 +1,71 @@
+package net.obvj.smart.agents.batch;
+
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link BatchJob} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class BatchJobTest
+{
+    private final ItemReader<String> reader = (offset, count) -> Collections.emptyList();
+    private final ItemProcessor<String, Integer> processor = Integer::valueOf;
+    private final ItemWriter<Integer> writer = items ->
+    {
+    };
+
+    @Test
+    public void testDefaults()
+    {
+        BatchJob<String, Integer> job = new BatchJob.Builder<>(reader, processor, writer).build();
+        assertThat(job.getReader(), is(sameInstance(reader)));
+        assertThat(job.getProcessor(), is(sameInstance(processor)));
+        assertThat(job.getWriter(), is(sameInstance(writer)));
+        assertThat(job.getChunkSize(), is(100));
+        assertThat(job.getCommitInterval(), is(1));
+        assertThat(job.getParallelism(), is(1));
+    }
+
+    @Test
+    public void testCustomSettings()
+    {
+        BatchJob<String, Integer> job = new BatchJob.Builder<>(reader, processor, writer).chunkSize(500)
+                .commitInterval(4).parallelism(2).build();
+        assertThat(job.getChunkSize(), is(500));
+        assertThat(job.getCommitInterval(), is(4));
+        assertThat(job.getParallelism(), is(2));
+    }
+
+    @Test
+    public void testInvalidSettings()
+    {
+        BatchJob.Builder<String, Integer> builder = new BatchJob.Builder<>(reader, processor, writer);
+        assertThat(() -> builder.chunkSize(0).build(),
+                throwsException(IllegalArgumentException.class).withMessageContaining("chunk size"));
+        assertThat(() -> builder.chunkSize(1).commitInterval(0).build(),
+                throwsException(IllegalArgumentException.class).withMessageContaining("commit interval"));
+        assertThat(() -> builder.commitInterval(1).parallelism(-1).build(),
+                throwsException(IllegalArgumentException.class).withMessageContaining("parallelism"));
+    }
+
+    @Test
+    public void testNullCallbacks()
+    {
+        assertThat(() -> new BatchJob.Builder<>(null, processor, writer),
+                throwsException(NullPointerException.class).withMessageContaining("reader"));
+        assertThat(() -> new BatchJob.Builder<>(reader, null, writer),
+                throwsException(NullPointerException.class).withMessageContaining("processor"));
+        assertThat(() -> new BatchJob.Builder<>(reader, processor, null),
+                throwsException(NullPointerException.class).withMessageContaining("writer"));
+    }
+
+}
@@ -0,0 +1,210 @@
+package net.obvj.smart.agents.stream;
+
+import static net.obvj.junit.utils.matchers.InstantiationNotAllowedMatcher.instantiationNotAllowed;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link Publishers} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class PublishersTest
+{
+    /**
+     * A subscriber that records the received signals and requests a fixed number of items
+     * at a time, after receiving the previous ones.
+     */
+    private static class RecordingSubscriber<T> implements Subscriber<T>
+    {
+        private final int batchSize;
+        private final List<T> items = new ArrayList<>();
+        private Subscription subscription;
+        private int pending;
+        private int maxPending;
+        private Throwable error;
+        private boolean completed;
+
+        private RecordingSubscriber(int batchSize)
+        {
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription)
+        {
+            this.subscription = subscription;
+            request();
+        }
+
+        private void request()
+        {
+            pending += batchSize;
+            maxPending = Math.max(maxPending, pending);
+            subscription.request(batchSize);
+        }
+
+        @Override
+        public void onNext(T item)
+        {
+            items.add(item);
+            if (--pending == 0)
+            {
+                request();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable)
+        {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete()
+        {
+            completed = true;
+        }
+    }
+
+    @Test
+    public void testNoInstances()
+    {
+        assertThat(Publishers.class, instantiationNotAllowed());
+    }
+
+    @Test
+    public void testFromIterablePublishesAllItemsWithBoundedDemand()
+    {
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(3);
+        Publishers.fromIterable(Arrays.asList(1, 2, 3, 4, 5, 6, 7)).subscribe(subscriber);
+
+        assertThat(subscriber.items, contains(1, 2, 3, 4, 5, 6, 7));
+        assertThat(subscriber.completed, is(true));
+        assertThat(subscriber.error, is(nullValue()));
+        assertThat(subscriber.maxPending, is(3));
+    }
+
+    @Test
+    public void testFromIterableWithEmptySource()
+    {
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(10);
+        Publishers.fromIterable(Collections.<Integer>emptyList()).subscribe(subscriber);
+
+        assertThat(subscriber.items.isEmpty(), is(true));
+        assertThat(subscriber.completed, is(true));
+    }
+
+    @Test
+    public void testNoItemsPublishedWithoutDemand()
+    {
+        AtomicInteger fetched = new AtomicInteger();
+        Iterator<Integer> iterator = IntStream.range(0, 100).peek(i -> fetched.incrementAndGet()).iterator();
+        List<Integer> items = new ArrayList<>();
+        Subscription[] subscription = new Subscription[1];
+
+        Publishers.<Integer>fromIterator(() -> iterator).subscribe(new Subscriber<Integer>()
+        {
+            @Override
+            public void onSubscribe(Subscription s)
+            {
+                subscription[0] = s;
+            }
+
+            @Override
+            public void onNext(Integer item)
+            {
+                items.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable)
+            {
+            }
+
+            @Override
+            public void onComplete()
+            {
+            }
+        });
+        assertThat(items.isEmpty(), is(true));
+        assertThat(fetched.get(), is(0));
+
+        subscription[0].request(2);
+        assertThat(items, contains(0, 1));
+
+        subscription[0].cancel();
+        subscription[0].request(2);
+        assertThat(items, contains(0, 1));
+    }
+
+    @Test
+    public void testIteratorFailureIsSignaledAsError()
+    {
+        Iterator<Integer> failing = new Iterator<Integer>()
+        {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return true;
+            }
+
+            @Override
+            public Integer next()
+            {
+                if (next == 2)
+                {
+                    throw new IllegalStateException("cursor closed");
+                }
+                return next++;
+            }
+        };
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(5);
+        Publishers.<Integer>fromIterator(() -> failing).subscribe(subscriber);
+
+        assertThat(subscriber.items, contains(0, 1));
+        assertThat(subscriber.error, is(instanceOf(IllegalStateException.class)));
+        assertThat(subscriber.completed, is(false));
+    }
+
+    @Test
+    public void testNonPositiveRequestIsSignaledAsError()
+    {
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(0);
+        Publishers.fromIterable(Arrays.asList(1, 2)).subscribe(subscriber);
+
+        assertThat(subscriber.items.isEmpty(), is(true));
+        assertThat(subscriber.error, is(instanceOf(IllegalArgumentException.class)));
+    }
+
+    @Test
+    public void testFromStreamClosesStream()
+    {
+        AtomicBoolean closed = new AtomicBoolean();
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(2);
+        Publishers.fromStream(Arrays.asList("a", "b", "c").stream().onClose(() -> closed.set(true)))
+                .subscribe(subscriber);
+
+        assertThat(subscriber.items, contains("a", "b", "c"));
+        assertThat(subscriber.completed, is(true));
+        assertThat(closed.get(), is(true));
+    }
+
+}
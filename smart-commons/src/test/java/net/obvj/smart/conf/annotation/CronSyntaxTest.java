@@ -0,0 +1,32 @@
+package net.obvj.smart.conf.annotation;
+
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link CronSyntax} enum.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class CronSyntaxTest
+{
+    @Test
+    public void testParseValidStrings()
+    {
+        assertThat(CronSyntax.parse("UNIX"), is(CronSyntax.UNIX));
+        assertThat(CronSyntax.parse("quartz"), is(CronSyntax.QUARTZ));
+        assertThat(CronSyntax.parse(" Spring "), is(CronSyntax.SPRING));
+    }
+
+    @Test
+    public void testParseInvalidString()
+    {
+        assertThat(() -> CronSyntax.parse("CRON4J"), throwsException(IllegalArgumentException.class)
+                .withMessageContaining("Invalid Cron syntax: \"CRON4J\""));
+    }
+
+}
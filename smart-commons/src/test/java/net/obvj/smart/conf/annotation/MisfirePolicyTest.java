@@ -0,0 +1,32 @@
+package net.obvj.smart.conf.annotation;
+
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link MisfirePolicy} enum.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class MisfirePolicyTest
+{
+    @Test
+    public void testParseValidStrings()
+    {
+        assertThat(MisfirePolicy.parse("FIRE_ONCE_NOW"), is(MisfirePolicy.FIRE_ONCE_NOW));
+        assertThat(MisfirePolicy.parse("skip_to_next"), is(MisfirePolicy.SKIP_TO_NEXT));
+        assertThat(MisfirePolicy.parse(" Fire_All "), is(MisfirePolicy.FIRE_ALL));
+    }
+
+    @Test
+    public void testParseInvalidString()
+    {
+        assertThat(() -> MisfirePolicy.parse("FIRE_TWICE"), throwsException(IllegalArgumentException.class)
+                .withMessageContaining("Invalid misfire policy: \"FIRE_TWICE\""));
+    }
+
+}
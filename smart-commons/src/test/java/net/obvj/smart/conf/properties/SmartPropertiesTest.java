@@ -96,4 +96,44 @@ public class SmartPropertiesTest
         assertEquals(Arrays.asList("value1", "value2"), smart.getPropertiesListSplitBy("key12", ","));
     }
 
+    @Test
+    public void testGetGroupIntProperty()
+    {
+        SmartProperties smart = new SmartProperties("testProperties/smart-workerGroups.properties");
+        assertEquals(5, smart.getGroupIntProperty("reports", SCHEDULER_GROUP_MAX_CONCURRENCY));
+        assertEquals(3, smart.getGroupIntProperty("ingestion", SCHEDULER_GROUP_MAX_CONCURRENCY));
+        assertEquals(SCHEDULER_GROUP_QUEUE_CAPACITY_DEFAULT,
+                smart.getGroupIntProperty("reports", SCHEDULER_GROUP_QUEUE_CAPACITY) + "");
+    }
+
+    /**
+     * Tests the default shutdown timeout when the file or property is not found
+     */
+    @Test
+    public void testDefaultShutdownTimeout()
+    {
+        SmartProperties smart = new SmartProperties(UNKNOWN_FILE);
+        assertEquals(60, smart.getIntProperty(SHUTDOWN_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * Tests the default fork/join parallelism when the file or property is not found
+     */
+    @Test
+    public void testDefaultForkJoinParallelism()
+    {
+        SmartProperties smart = new SmartProperties(UNKNOWN_FILE);
+        assertEquals(0, smart.getIntProperty(SCHEDULER_FORK_JOIN_PARALLELISM));
+    }
+
+    /**
+     * Tests the default cursor directory when the file or property is not found
+     */
+    @Test
+    public void testDefaultCursorDirectory()
+    {
+        SmartProperties smart = new SmartProperties(UNKNOWN_FILE);
+        assertEquals(AGENT_CURSOR_DIRECTORY_DEFAULT, smart.getProperty(AGENT_CURSOR_DIRECTORY));
+    }
+
 }
@@ -0,0 +1,64 @@
+package net.obvj.smart.util;
+
+import static net.obvj.junit.utils.matchers.InstantiationNotAllowedMatcher.instantiationNotAllowed;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link ManagedBlocking} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class ManagedBlockingTest
+{
+
+    @Test
+    public void testNoInstances()
+    {
+        assertThat(ManagedBlocking.class, instantiationNotAllowed());
+    }
+
+    @Test
+    public void testCallReturnsResult() throws Exception
+    {
+        assertThat(ManagedBlocking.call(() -> "result"), is("result"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testCallPropagatesException() throws Exception
+    {
+        ManagedBlocking.call(() ->
+        {
+            throw new IOException("I/O failure");
+        });
+    }
+
+    @Test
+    public void testPoolCompensatesForBlockedWorker() throws Exception
+    {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        try
+        {
+            // With a single worker, the second task only runs if the pool compensates for
+            // the worker blocked by the first one
+            ForkJoinTask<Integer> first = pool.submit(() -> ManagedBlocking.call(() -> barrier.await(5, TimeUnit.SECONDS)));
+            ForkJoinTask<Integer> second = pool.submit(() -> ManagedBlocking.call(() -> barrier.await(5, TimeUnit.SECONDS)));
+            assertThat(first.get(5, TimeUnit.SECONDS) + second.get(5, TimeUnit.SECONDS), is(1));
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+package net.obvj.smart.util;
+
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import org.junit.Test;
+
+import net.obvj.smart.util.OverlapPolicy.Type;
+
+/**
+ * Unit tests for the {@link OverlapPolicy} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class OverlapPolicyTest
+{
+    private void assertOverlapPolicyOf(Type expectedType, int expectedMaxConcurrentExecutions, String input)
+    {
+        OverlapPolicy overlapPolicy = OverlapPolicy.of(input);
+        assertThat(overlapPolicy.getType(), is(expectedType));
+        assertThat(overlapPolicy.getMaxConcurrentExecutions(), is(expectedMaxConcurrentExecutions));
+    }
+
+    @Test
+    public void testOfValidStrings()
+    {
+        assertOverlapPolicyOf(Type.SKIP, 1, "SKIP");
+        assertOverlapPolicyOf(Type.SKIP, 1, " skip ");
+        assertOverlapPolicyOf(Type.COALESCE, 1, "COALESCE");
+        assertOverlapPolicyOf(Type.COALESCE, 1, "Coalesce");
+        assertOverlapPolicyOf(Type.PARALLEL, 4, "PARALLEL(4)");
+        assertOverlapPolicyOf(Type.PARALLEL, 2, "parallel ( 2 )");
+    }
+
+    @Test
+    public void testOfInvalidStrings()
+    {
+        assertThat(() -> OverlapPolicy.of(null), throwsException(IllegalArgumentException.class));
+        assertThat(() -> OverlapPolicy.of(""), throwsException(IllegalArgumentException.class));
+        assertThat(() -> OverlapPolicy.of("QUEUE"), throwsException(IllegalArgumentException.class)
+                .withMessageContaining("Invalid overlap policy: \"QUEUE\""));
+        assertThat(() -> OverlapPolicy.of("PARALLEL"), throwsException(IllegalArgumentException.class));
+        assertThat(() -> OverlapPolicy.of("SKIP(2)"), throwsException(IllegalArgumentException.class));
+        assertThat(() -> OverlapPolicy.of("PARALLEL(0)"), throwsException(IllegalArgumentException.class)
+                .withMessageContaining("must be positive"));
+    }
+
+    @Test
+    public void testToString()
+    {
+        assertThat(OverlapPolicy.SKIP.toString(), is("SKIP"));
+        assertThat(OverlapPolicy.COALESCE.toString(), is("COALESCE"));
+        assertThat(OverlapPolicy.parallel(3).toString(), is("PARALLEL(3)"));
+    }
+
+    @Test
+    public void testEqualsAndHashCode()
+    {
+        assertThat(OverlapPolicy.of("parallel(3)"), is(equalTo(OverlapPolicy.parallel(3))));
+        assertThat(OverlapPolicy.of("parallel(3)").hashCode(), is(equalTo(OverlapPolicy.parallel(3).hashCode())));
+        assertThat(OverlapPolicy.parallel(3), is(not(equalTo(OverlapPolicy.parallel(2)))));
+        assertThat(OverlapPolicy.SKIP, is(not(equalTo(OverlapPolicy.COALESCE))));
+    }
+
+}
@@ -0,0 +1,95 @@
+package net.obvj.smart.util;
+
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+
+import org.junit.Test;
+
+import net.obvj.smart.util.StartOffset.Type;
+
+/**
+ * Unit tests for the {@link StartOffset} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class StartOffsetTest
+{
+    private static final long FIVE_MINUTES = 300_000L;
+
+    @Test
+    public void testOfValidStrings()
+    {
+        assertThat(StartOffset.of(null), is(StartOffset.NONE));
+        assertThat(StartOffset.of(""), is(StartOffset.NONE));
+        assertThat(StartOffset.of(" none "), is(StartOffset.NONE));
+        assertThat(StartOffset.of("AUTO"), is(StartOffset.AUTO));
+        assertThat(StartOffset.of("auto"), is(StartOffset.AUTO));
+        assertThat(StartOffset.of("90 seconds").getType(), is(Type.FIXED));
+        assertThat(StartOffset.of("90 seconds"), is(StartOffset.fixed(TimeInterval.of("90s"))));
+    }
+
+    @Test
+    public void testOfInvalidStrings()
+    {
+        assertThat(() -> StartOffset.of("RANDOM"), throwsException(IllegalArgumentException.class)
+                .withMessageContaining("Invalid start offset: \"RANDOM\""));
+        assertThat(() -> StartOffset.of("10 bytes"), throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    public void testToMillisWithNone()
+    {
+        assertThat(StartOffset.NONE.toMillis("agent1", FIVE_MINUTES), is(0L));
+    }
+
+    @Test
+    public void testToMillisWithFixedOffset()
+    {
+        assertThat(StartOffset.of("90 seconds").toMillis("agent1", FIVE_MINUTES), is(90_000L));
+        // Reduced to the period
+        assertThat(StartOffset.of("7 minutes").toMillis("agent1", FIVE_MINUTES), is(120_000L));
+        assertThat(StartOffset.of("250 ms").toMillis("agent1", 0), is(0L));
+    }
+
+    @Test
+    public void testToMillisWithAutoIsStable()
+    {
+        long offset = StartOffset.AUTO.toMillis("agent1", FIVE_MINUTES);
+        assertThat(offset, is(both(greaterThanOrEqualTo(0L)).and(lessThan(FIVE_MINUTES))));
+        assertThat(StartOffset.of("auto").toMillis("agent1", FIVE_MINUTES), is(offset));
+        assertThat(StartOffset.AUTO.toMillis("agent2", FIVE_MINUTES), is(not(offset)));
+    }
+
+    @Test
+    public void testToMillisWithAutoIsSpreadAlongThePeriod()
+    {
+        int agents = 300;
+        int[] buckets = new int[10];
+        for (int i = 1; i <= agents; i++)
+        {
+            long offset = StartOffset.AUTO.toMillis("agent" + i, FIVE_MINUTES);
+            buckets[(int) (offset * buckets.length / FIVE_MINUTES)]++;
+        }
+        for (int bucket : buckets)
+        {
+            // About 30 agents per half minute
+            assertThat(bucket, is(both(greaterThan(15)).and(lessThan(45))));
+        }
+    }
+
+    @Test
+    public void testToString()
+    {
+        assertThat(StartOffset.NONE.toString(), is("NONE"));
+        assertThat(StartOffset.AUTO.toString(), is("AUTO"));
+        assertThat(StartOffset.of("90s").toString(), is("90 second(s)"));
+    }
+
+}
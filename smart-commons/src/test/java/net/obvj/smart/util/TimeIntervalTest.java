@@ -82,6 +82,9 @@ public class TimeIntervalTest
         assertTimeIntervalOf(3, TimeUnit.HOURS, "hour=3");
         assertTimeIntervalOf(15, TimeUnit.SECONDS, "seconds=15");
         assertTimeIntervalOf(3, TimeUnit.SECONDS, "SeCoNd:3");
+        assertTimeIntervalOf(250, TimeUnit.MILLISECONDS, "250 ms");
+        assertTimeIntervalOf(100, TimeUnit.MILLISECONDS, "100ms");
+        assertTimeIntervalOf(500, TimeUnit.MILLISECONDS, "500 milliseconds");
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -118,6 +121,13 @@ public class TimeIntervalTest
     public void testToMillis()
     {
         assertThat(TimeInterval.of("2seconds").toMillis(), is(2000L));
+        assertThat(TimeInterval.of("250ms").toMillis(), is(250L));
+    }
+
+    @Test
+    public void testToNanos()
+    {
+        assertThat(TimeInterval.of("250ms").toNanos(), is(250_000_000L));
     }
 
     @Test
@@ -41,6 +41,12 @@ public class TimeUnitTest
         assertThat(TimeUnit.findByIdentifier("HOURS"), is(TimeUnit.HOURS));
         assertThat(TimeUnit.findByIdentifier("h"), is(TimeUnit.HOURS));
         assertThat(TimeUnit.findByIdentifier("H"), is(TimeUnit.HOURS));
+
+        assertThat(TimeUnit.findByIdentifier("millisecond"), is(TimeUnit.MILLISECONDS));
+        assertThat(TimeUnit.findByIdentifier("MILLISECONDS"), is(TimeUnit.MILLISECONDS));
+        assertThat(TimeUnit.findByIdentifier("millis"), is(TimeUnit.MILLISECONDS));
+        assertThat(TimeUnit.findByIdentifier("ms"), is(TimeUnit.MILLISECONDS));
+        assertThat(TimeUnit.findByIdentifier("MS"), is(TimeUnit.MILLISECONDS));
     }
 
     /**
@@ -67,6 +73,7 @@ public class TimeUnitTest
     @Test
     public void testTimeUnitCalendarConstants()
     {
+        assertThat(TimeUnit.MILLISECONDS.getCalendarConstant(), is(Calendar.MILLISECOND));
         assertThat(TimeUnit.SECONDS.getCalendarConstant(), is(Calendar.SECOND));
         assertThat(TimeUnit.MINUTES.getCalendarConstant(), is(Calendar.MINUTE));
         assertThat(TimeUnit.HOURS.getCalendarConstant(), is(Calendar.HOUR_OF_DAY));
@@ -78,6 +85,7 @@ public class TimeUnitTest
     @Test
     public void testTimeUnitDisplayStrings()
     {
+        assertThat(TimeUnit.MILLISECONDS.toString(), is("millisecond(s)"));
         assertThat(TimeUnit.SECONDS.toString(), is("second(s)"));
         assertThat(TimeUnit.MINUTES.toString(), is("minute(s)"));
         assertThat(TimeUnit.HOURS.toString(), is("hour(s)"));
@@ -89,6 +97,7 @@ public class TimeUnitTest
     @Test
     public void testTimeUnitToMilliseconds()
     {
+        assertThat(TimeUnit.MILLISECONDS.toMillis(1), is(1l));
         assertThat(TimeUnit.SECONDS.toMillis(1), is(1000l));
         assertThat(TimeUnit.MINUTES.toMillis(1), is(60000l));
         assertThat(TimeUnit.HOURS.toMillis(1), is(3600000l));
@@ -103,5 +112,16 @@ public class TimeUnitTest
         assertThat(TimeUnit.SECONDS.convert(1, TimeUnit.MINUTES), is(60l));
         assertThat(TimeUnit.SECONDS.convert(1, TimeUnit.HOURS), is(3600l));
         assertThat(TimeUnit.MINUTES.convert(1, TimeUnit.HOURS), is(60l));
+        assertThat(TimeUnit.MILLISECONDS.convert(1, TimeUnit.SECONDS), is(1000l));
+    }
+
+    /**
+     * Test time unit conversion to nanoseconds
+     */
+    @Test
+    public void testTimeUnitToNanoseconds()
+    {
+        assertThat(TimeUnit.MILLISECONDS.toNanos(250), is(250_000_000l));
+        assertThat(TimeUnit.SECONDS.toNanos(1), is(1_000_000_000l));
     }
 }
@@ -0,0 +1,83 @@
+package net.obvj.smart.agents;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+
+import net.obvj.smart.conf.AgentConfiguration;
+import net.obvj.smart.conf.annotation.AgentTask;
+
+/**
+ * Compares the invocation of a method annotated as {@code @AgentTask} by reflection (the
+ * former {@link AnnotatedAgent} implementation), by a bound {@link MethodHandle} and by the
+ * invoker generated by the {@link AnnotatedAgent}.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgentTaskInvocationBenchmark
+{
+    public static class CountingAgent
+    {
+        private long executions;
+
+        @AgentTask
+        public void run()
+        {
+            executions++;
+        }
+    }
+
+    private AnnotatedAgent annotatedAgent;
+    private Method method;
+    private Object instance;
+    private MethodHandle methodHandle;
+
+    @Setup
+    public void setup() throws IllegalAccessException
+    {
+        annotatedAgent = new AnnotatedAgent(new AgentConfiguration.Builder("timer").name("CountingAgent")
+                .agentClass(CountingAgent.class.getName()).frequency("1 second").build());
+        method = annotatedAgent.getAgentTaskMethod();
+        instance = annotatedAgent.getAgentInstance();
+        methodHandle = MethodHandles.lookup().unreflect(method).bindTo(instance);
+    }
+
+    @Benchmark
+    public void reflection()
+    {
+        ReflectionUtils.invokeMethod(method, instance);
+    }
+
+    @Benchmark
+    public void methodHandle() throws Throwable
+    {
+        methodHandle.invokeExact();
+    }
+
+    @Benchmark
+    public void generated()
+    {
+        annotatedAgent.runAgentTask();
+    }
+
+}
@@ -0,0 +1,72 @@
+package net.obvj.smart.agents;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.obvj.smart.conf.AgentConfiguration;
+import net.obvj.smart.scheduler.AgentScheduler;
+
+/**
+ * Samples the interval between consecutive executions of a {@link TimerAgent} that runs
+ * every 100 milliseconds. The distribution of the samples around 100 ms is the jitter of
+ * the scheduler.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimerAgentJitterBenchmark
+{
+    private final Semaphore executions = new Semaphore(0);
+
+    private AgentScheduler scheduler;
+    private TimerAgent agent;
+
+    @Setup
+    public void setup()
+    {
+        scheduler = new AgentScheduler(1, 2, 10);
+        agent = new TimerAgent(new AgentConfiguration.Builder("timer").name("FastAgent").agentClass("FastAgent")
+                .frequency("100 ms").build(), scheduler)
+        {
+            @Override
+            protected void runTask()
+            {
+                executions.release();
+            }
+        };
+        agent.start();
+    }
+
+    @TearDown
+    public void tearDown() throws TimeoutException
+    {
+        agent.stop();
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    public void interval() throws InterruptedException
+    {
+        executions.acquire();
+    }
+
+}
@@ -0,0 +1,66 @@
+package net.obvj.smart.scheduler;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.cronutils.model.Cron;
+import com.cronutils.model.time.ExecutionTime;
+
+/**
+ * Compares the calculation of the next fire time by the {@link CompiledCron} and by the
+ * {@code cron-utils} library.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CronEvaluationBenchmark
+{
+    @Param({ "*/5 * * * *", "0 2 * * *", "0 * * * SAT,SUN", "30 12 29 2 *", "0 0 13 * FRI" })
+    private String expression;
+
+    private ExecutionTime executionTime;
+    private CompiledCron compiledCron;
+    private ZonedDateTime date;
+
+    @Setup
+    public void setup()
+    {
+        Cron cron = CronPlan.parse(expression);
+        executionTime = ExecutionTime.forCron(cron);
+        compiledCron = CompiledCron.compile(cron).get();
+        date = ZonedDateTime.of(2020, 4, 27, 23, 25, 13, 0, ZoneId.of("America/Sao_Paulo"));
+    }
+
+    @Benchmark
+    public Optional<ZonedDateTime> cronUtils()
+    {
+        return executionTime.nextExecution(date);
+    }
+
+    @Benchmark
+    public Optional<ZonedDateTime> compiled()
+    {
+        return compiledCron.nextExecution(date);
+    }
+
+}
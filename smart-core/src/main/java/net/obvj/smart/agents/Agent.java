@@ -1,10 +1,20 @@
 package net.obvj.smart.agents;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZonedDateTime;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,9 +24,17 @@ import net.obvj.performetrics.Counter;
 import net.obvj.performetrics.Stopwatch;
 import net.obvj.performetrics.util.Duration;
 import net.obvj.performetrics.util.Duration.FormatStyle;
+import net.obvj.smart.agents.batch.BatchJob;
+import net.obvj.smart.agents.cursor.CursorStore;
+import net.obvj.smart.agents.stream.Publisher;
 import net.obvj.smart.conf.AgentConfiguration;
+import net.obvj.smart.conf.annotation.MisfirePolicy;
+import net.obvj.smart.scheduler.AgentScheduler;
+import net.obvj.smart.scheduler.TimeBase;
 import net.obvj.smart.util.DateUtils;
+import net.obvj.smart.util.OverlapPolicy;
 import net.obvj.smart.util.StatisticsUtils;
+import net.obvj.smart.util.TimeInterval;
 
 /**
  * A common interface for all managed agents
@@ -31,6 +49,16 @@ public abstract class Agent implements Runnable
         SET, STARTED, RUNNING, STOPPED, ERROR;
     }
 
+    /**
+     * The outcome of an agent task execution.
+     *
+     * @since 2.0
+     */
+    public enum ExecutionResult
+    {
+        SUCCEEDED, FAILED, TIMED_OUT;
+    }
+
     private static final Logger LOG = LoggerFactory.getLogger(Agent.class);
 
     protected static final String MSG_AGENT_ALREADY_STARTED = "Agent already started";
@@ -39,7 +67,21 @@ public abstract class Agent implements Runnable
 
     private static final int EXECUTION_DURATION_HISTORY_SIZE = 1440;
 
+    /**
+     * The maximum number of missed executions replayed one by one with the
+     * {@link MisfirePolicy#FIRE_ALL} policy. When more executions are missed, they are
+     * merged into a single execution, so that a long pause does not cause a burst of
+     * triggers.
+     */
+    protected static final int MAX_REPLAYED_MISFIRES = 100;
+
     private final AgentConfiguration configuration;
+    private final AgentScheduler scheduler;
+    private final OverlapPolicy overlapPolicy;
+    private final MisfirePolicy misfirePolicy;
+    private final long executionTimeoutMillis;
+    private final long timeBudgetMillis;
+    private final StreamingSupport streamingSupport;
 
     private State previousState;
     private State currentState;
@@ -67,11 +109,89 @@ public abstract class Agent implements Runnable
     private final Object runLock = new Object();
     private final Object changeLock = new Object();
 
-    private boolean stopRequested = false;
+    /*
+     * The number of task executions in progress, and whether a coalesced execution is
+     * pending. Both are guarded by the runLock.
+     */
+    private int runningExecutions = 0;
+    private boolean pendingExecution = false;
+
+    /*
+     * Whether an execution that finished within its time budget reported pending work, so
+     * that the agent must be resubmitted to the worker pool when released (guarded by the
+     * runLock)
+     */
+    private boolean continuationRequested = false;
+
+    private final ExecutionStatistics executionStatistics = new ExecutionStatistics();
+
+    private volatile ExecutionResult lastExecutionResult;
+
+    private final BatchSupport batchSupport = new BatchSupport(this);
+
+    private final CursorSupport cursorSupport = new CursorSupport(this);
+
+    private final ShardSupport shardSupport;
+
+    private final ForkJoinSupport forkJoinSupport = new ForkJoinSupport(this);
+
+    private final TimeBudget timeBudget;
+    private final ProgressTracker progressTracker;
+
+    /*
+     * The planned fire time (in the System.nanoTime() scale) of the scheduled execution being
+     * started by the current thread, if any
+     */
+    private static final ThreadLocal<Long> SCHEDULED_FIRE_TIME = new ThreadLocal<>();
+
+    private final TimeBase.Listener timeShiftListener = this::onTimeShift;
+
+    private volatile boolean stopRequested = false;
 
     public Agent(AgentConfiguration configuration)
+    {
+        this(configuration, AgentScheduler.getDefault());
+    }
+
+    /**
+     * Builds an agent from the given configuration, to be scheduled by a particular
+     * {@link AgentScheduler}.
+     *
+     * @param configuration the {@link AgentConfiguration} to be set
+     * @param scheduler     the {@link AgentScheduler} to be used
+     * @since 2.0
+     */
+    public Agent(AgentConfiguration configuration, AgentScheduler scheduler)
     {
         this.configuration = configuration;
+        this.scheduler = scheduler;
+        this.overlapPolicy = StringUtils.isEmpty(configuration.getOverlapPolicy()) ? OverlapPolicy.SKIP
+                : OverlapPolicy.of(configuration.getOverlapPolicy());
+        this.misfirePolicy = StringUtils.isEmpty(configuration.getMisfirePolicy()) ? MisfirePolicy.FIRE_ONCE_NOW
+                : MisfirePolicy.parse(configuration.getMisfirePolicy());
+        this.executionTimeoutMillis = parseExecutionTimeout(configuration.getExecutionTimeout());
+        this.timeBudgetMillis = parseExecutionTimeout(configuration.getTimeBudget());
+        this.timeBudget = new TimeBudget(configuration.getName(), timeBudgetMillis);
+        this.streamingSupport = new StreamingSupport(configuration);
+        this.progressTracker = new ProgressTracker(configuration.getName());
+        this.shardSupport = new ShardSupport(this, configuration.getShards());
+    }
+
+    /**
+     * Parses the execution timeout or the time budget of an agent.
+     *
+     * @param executionTimeout a {@link TimeInterval}, such as {@code "30 seconds"}, or
+     *                         {@code "NONE"}/empty for executions without a limit
+     * @return the interval, in milliseconds, or 0 if executions are not bounded
+     * @throws IllegalArgumentException if the string is not a valid interval
+     */
+    private static long parseExecutionTimeout(String executionTimeout)
+    {
+        if (StringUtils.isBlank(executionTimeout) || "NONE".equalsIgnoreCase(executionTimeout.trim()))
+        {
+            return 0L;
+        }
+        return TimeInterval.of(executionTimeout).toMillis();
     }
 
     /**
@@ -98,6 +218,94 @@ public abstract class Agent implements Runnable
         return configuration;
     }
 
+    /**
+     * @return the {@link AgentScheduler} that dispatches this agent's executions
+     */
+    protected AgentScheduler getScheduler()
+    {
+        return scheduler;
+    }
+
+    /**
+     * @return the policy applied when this agent is triggered while a previous execution is
+     *         still in progress, as in {@link AgentConfiguration}
+     * @since 2.0
+     */
+    public OverlapPolicy getOverlapPolicy()
+    {
+        return overlapPolicy;
+    }
+
+    /**
+     * @return the policy applied when scheduled executions of this agent could not be
+     *         triggered on time, as in {@link AgentConfiguration}
+     * @since 2.0
+     */
+    public MisfirePolicy getMisfirePolicy()
+    {
+        return misfirePolicy;
+    }
+
+    /**
+     * Returns the policy to be applied to the given number of missed executions: the
+     * configured one, or {@link MisfirePolicy#FIRE_ONCE_NOW} if the configured policy is
+     * {@link MisfirePolicy#FIRE_ALL} and more than {@link #MAX_REPLAYED_MISFIRES} executions
+     * were missed.
+     *
+     * @param missed the number of missed executions
+     * @return the {@link MisfirePolicy} to be applied
+     * @since 2.0
+     */
+    protected MisfirePolicy getMisfirePolicy(long missed)
+    {
+        if (misfirePolicy == MisfirePolicy.FIRE_ALL && missed > MAX_REPLAYED_MISFIRES)
+        {
+            LOG.warn("Too many missed executions of {} to replay. Merging them into a single execution", getName());
+            return MisfirePolicy.FIRE_ONCE_NOW;
+        }
+        return misfirePolicy;
+    }
+
+    /**
+     * @return the priority of this agent's executions when waiting for an execution permit,
+     *         as in {@link AgentConfiguration}
+     * @since 2.0
+     */
+    public int getPriority()
+    {
+        return configuration.getPriority();
+    }
+
+    /**
+     * @return the name of the worker group that executes this agent, as in
+     *         {@link AgentConfiguration}
+     * @since 2.0
+     */
+    public String getGroup()
+    {
+        return configuration.getGroup();
+    }
+
+    /**
+     * @return the maximum duration of a single execution of this agent, in milliseconds, as
+     *         in {@link AgentConfiguration}; or 0 if executions are not bounded
+     * @since 2.0
+     */
+    public long getExecutionTimeoutMillis()
+    {
+        return executionTimeoutMillis;
+    }
+
+    /**
+     * @return the time budget of each execution of this agent, in milliseconds, as in
+     *         {@link AgentConfiguration}; or 0 if executions have no time budget
+     * @since 2.0
+     */
+    public long getTimeBudgetMillis()
+    {
+        return timeBudgetMillis;
+    }
+
     /**
      * @return {@code true} if this agent is configured to start automatically, as in
      *         {@link AgentConfiguration}; otherwise, {@code false}.
@@ -196,6 +404,7 @@ public abstract class Agent implements Runnable
             onStart();
             setState(State.STARTED);
             startDate = Calendar.getInstance();
+            getTimeBase().ifPresent(timeBase -> timeBase.addListener(timeShiftListener));
         }
     }
 
@@ -203,51 +412,101 @@ public abstract class Agent implements Runnable
 
     /**
      * Terminates this agent timer gracefully. Does not interfere with a currently executing
-     * task, if it exists.
+     * task, if it exists, but waits up to the agent's stop timeout for its completion.
+     *
+     * @throws TimeoutException if the task does not complete within the stop timeout
      */
     public final void stop() throws TimeoutException
+    {
+        checkNotStopped();
+        stop(getStopTimeoutSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Terminates this agent timer gracefully. Does not interfere with a currently executing
+     * task, if it exists, which is signalled to stop via its {@link AgentContext}, but waits
+     * up to the given timeout for its completion.
+     * <p>
+     * This method returns as soon as the task completes.
+     *
+     * @param timeout the maximum time to wait for the task to complete
+     * @param unit    the unit of the timeout argument
+     * @throws TimeoutException if the task does not complete within the timeout
+     * @since 2.0
+     */
+    public final void stop(long timeout, TimeUnit unit) throws TimeoutException
     {
         stopRequested = true;
+        checkNotStopped();
+        synchronized (changeLock)
+        {
+            checkNotStopped();
+            LOG.info("Stopping agent...");
+            if (!awaitCompletion(timeout, unit))
+            {
+                throw new TimeoutException("Timeout waiting for agent task to complete. Please try again later.");
+            }
+            getTimeBase().ifPresent(timeBase -> timeBase.removeListener(timeShiftListener));
+            onStop();
+            setState(State.STOPPED);
+            startDate = null;
+            LOG.info("Agent stopped successfully.");
+        }
+    }
+
+    public abstract void onStop();
+
+    private void checkNotStopped()
+    {
         if (isStopped())
         {
             throw new IllegalStateException(MSG_AGENT_ALREADY_STOPPED);
         }
-        synchronized (changeLock)
+    }
+
+    /**
+     * Waits until no execution of this agent is in progress, or the timeout elapses,
+     * whichever comes first. The calling thread is woken up as soon as the last execution
+     * in progress is released.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout argument
+     * @return {@code true} if no execution is in progress; {@code false} if the timeout
+     *         elapsed or the calling thread was interrupted
+     * @since 2.0
+     */
+    public boolean awaitCompletion(long timeout, TimeUnit unit)
+    {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (runLock)
         {
-            if (isStopped())
+            if (runningExecutions > 0)
             {
-                throw new IllegalStateException(MSG_AGENT_ALREADY_STOPPED);
+                LOG.info("Agent task in execution. Waiting for its completion.");
             }
-            LOG.info("Stopping agent...");
-            int sleepSeconds = 2;
-            int attempts = getStopTimeoutSeconds() / sleepSeconds;
-            while (isRunning() && attempts-- > 0)
+            while (runningExecutions > 0)
             {
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0)
+                {
+                    return false;
+                }
                 try
                 {
-                    LOG.info("Agent task in execution. Waiting for its completion.");
-                    Thread.sleep(sleepSeconds * 1000l);
+                    TimeUnit.NANOSECONDS.timedWait(runLock, remainingNanos);
                 }
                 catch (InterruptedException exception)
                 {
                     LOG.warn("Thread was interrupted.", exception);
                     // Restore interrupted state
                     Thread.currentThread().interrupt();
+                    return false;
                 }
             }
-            if (isRunning())
-            {
-                throw new TimeoutException("Timeout waiting for agent task to complete. Please try again later.");
-            }
-            onStop();
-            setState(State.STOPPED);
-            startDate = null;
-            LOG.info("Agent stopped successfully.");
+            return true;
         }
     }
 
-    public abstract void onStop();
-
     /**
      * The method called by the system to execute the agent task automatically.
      */
@@ -259,46 +518,361 @@ public abstract class Agent implements Runnable
 
     public void run(boolean manualFlag)
     {
-        if (stopRequested && !manualFlag) return;
-        if (isRunning())
+        runExecutions(manualFlag);
+    }
+
+    /**
+     * Runs the agent task, as well as any coalesced execution requested meanwhile.
+     *
+     * @param manualFlag {@code true} if the execution was requested manually
+     * @return {@code true} if the calling thread is done with this agent's executions, or
+     *         {@code false} if an execution was handed over to another thread (i.e., it
+     *         timed out, or its asynchronous task is still in progress), in which case
+     *         {@link #onExecutionReleased()} is fired when the execution is released
+     * @since 2.0
+     */
+    protected boolean runExecutions(boolean manualFlag)
+    {
+        if (stopRequested && !manualFlag) return true;
+        if (acquireExecution(manualFlag))
         {
-            if (manualFlag)
+            do
             {
-                throw new IllegalStateException(MSG_AGENT_ALREADY_RUNNING);
+                if (!execute())
+                {
+                    // Timed out or asynchronous: the execution is released by another thread
+                    return false;
+                }
+            }
+            while (takePendingExecution());
+            if (takeContinuation())
+            {
+                scheduler.execute(this);
             }
-            LOG.info(MSG_AGENT_ALREADY_RUNNING);
         }
-        else
+        return true;
+    }
+
+    /**
+     * Reserves one of the concurrent executions allowed by the overlap policy. If none is
+     * available, the overlap policy is applied.
+     *
+     * @param manualFlag {@code true} if the execution was requested manually
+     * @return {@code true} if the task can be executed by the calling thread
+     * @throws IllegalStateException if a manual execution is requested but not allowed by
+     *                               the overlap policy
+     */
+    private boolean acquireExecution(boolean manualFlag)
+    {
+        synchronized (runLock)
         {
-            synchronized (runLock)
+            if (runningExecutions < overlapPolicy.getMaxConcurrentExecutions())
             {
-                setState(State.RUNNING);
-                lastExecutionDate = Calendar.getInstance();
-                LOG.info("Running agent...");
-                Stopwatch stopwatch = Stopwatch.createStarted(Counter.Type.WALL_CLOCK_TIME);
-                try
+                if (runningExecutions++ == 0)
                 {
-                    runTask();
-                    updateStatistics(stopwatch);
-                    LOG.info("Agent task finished in {}", lastExecutionDuration);
-                    afterRun();
+                    setState(State.RUNNING);
                 }
-                catch (Exception exception)
-                {
-                    LOG.error("Agent task ended with an exception", exception);
-                }
-                finally
+                return true;
+            }
+            if (manualFlag)
+            {
+                throw new IllegalStateException(MSG_AGENT_ALREADY_RUNNING);
+            }
+            if (overlapPolicy.getType() == OverlapPolicy.Type.COALESCE)
+            {
+                pendingExecution = true;
+                executionStatistics.recordCoalescedExecution();
+                LOG.info("{}. Execution coalesced", MSG_AGENT_ALREADY_RUNNING);
+            }
+            else
+            {
+                executionStatistics.recordDroppedExecution();
+                LOG.info("{}. Execution dropped", MSG_AGENT_ALREADY_RUNNING);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether a coalesced execution is pending. If so, the calling thread keeps its
+     * reserved execution to run it; otherwise, the reservation is released.
+     *
+     * @return {@code true} if a coalesced execution must be run by the calling thread
+     */
+    private boolean takePendingExecution()
+    {
+        synchronized (runLock)
+        {
+            if (pendingExecution && !stopRequested)
+            {
+                pendingExecution = false;
+                return true;
+            }
+            if (--runningExecutions == 0)
+            {
+                setState(previousState);
+                runLock.notifyAll();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether an execution requested a continuation, clearing the request.
+     *
+     * @return {@code true} if the agent must be resubmitted to the worker pool
+     */
+    private boolean takeContinuation()
+    {
+        synchronized (runLock)
+        {
+            boolean continuation = continuationRequested && !stopRequested;
+            continuationRequested = false;
+            return continuation;
+        }
+    }
+
+    /**
+     * Executes the agent task, bounded by the execution timeout, if any.
+     * <p>
+     * If the task is asynchronous, i.e., {@link #runTaskAsync(AgentContext)} returns a
+     * {@link CompletionStage}, the execution remains in progress until the stage completes,
+     * without holding the calling thread. The worker pool permit of the calling thread, if
+     * any, is held until the execution is released.
+     *
+     * @return {@code true} if the execution finished in the calling thread, or
+     *         {@code false} if it timed out or its asynchronous task is still in progress
+     */
+    private boolean execute()
+    {
+        lastExecutionDate = Calendar.getInstance();
+        LOG.info("Running agent...");
+        Stopwatch stopwatch = Stopwatch.createStarted(Counter.Type.WALL_CLOCK_TIME);
+        Execution execution = new Execution(getName(), Thread.currentThread());
+        ExecutionContext context = newContext(execution);
+        execution.watch(scheduler, executionTimeoutMillis, () -> timeOut(execution, stopwatch));
+        CompletionStage<?> stage;
+        try
+        {
+            stage = shardSupport.isSharded() ? shardSupport.run(context) : runTaskAsync(context);
+        }
+        catch (Exception exception)
+        {
+            return complete(execution, context, stopwatch, exception);
+        }
+        if (stage == null)
+        {
+            return complete(execution, context, stopwatch, null);
+        }
+        if (!execution.detach(stage))
+        {
+            LOG.info("Asynchronous agent task timed out before it was started");
+            return false;
+        }
+        stage.whenComplete((result, failure) ->
+        {
+            boolean released = complete(execution, context, stopwatch, unwrap(failure));
+            boolean pending = released && releaseExecution();
+            execution.releasePermit();
+            if (released)
+            {
+                afterRelease(pending);
+            }
+        });
+        return false;
+    }
+
+    /**
+     * Records the outcome of an execution that finished with or without an exception,
+     * unless it has already timed out. The cursor updated by a successful execution is
+     * committed before it is recorded as succeeded, and its pending work, if reported, is
+     * scheduled to continue.
+     *
+     * @param failure the exception thrown by the task, or {@code null} if it succeeded
+     * @return {@code true} if the execution finished in time, or {@code false} if it timed
+     *         out
+     */
+    private boolean complete(Execution execution, ExecutionContext context, Stopwatch stopwatch, Throwable failure)
+    {
+        execution.cancelWatchdog();
+        if (!execution.finish())
+        {
+            if (failure == null)
+            {
+                LOG.info("Timed out agent task finished in {}", stopwatch.elapsedTime(Counter.Type.WALL_CLOCK_TIME));
+            }
+            else
+            {
+                LOG.info("Timed out agent task ended with an exception: {}", failure.toString());
+            }
+            return false;
+        }
+        boolean overrun = timeBudget.checkOverrun(execution.getElapsedNanos());
+        if (failure == null)
+        {
+            failure = cursorSupport.commit(context);
+        }
+        if (failure == null)
+        {
+            updateStatistics(stopwatch);
+            lastExecutionResult = ExecutionResult.SUCCEEDED;
+            LOG.info("Agent task finished in {}", lastExecutionDuration);
+            try
+            {
+                afterRun();
+                if (execution.isWorkPending())
                 {
-                    setState(previousState);
+                    continueWork(overrun);
                 }
+                return true;
+            }
+            catch (Exception exception)
+            {
+                failure = exception;
+            }
+        }
+        lastExecutionResult = ExecutionResult.FAILED;
+        LOG.error("Agent task ended with an exception", failure);
+        return true;
+    }
+
+    /**
+     * Creates the {@link AgentContext} of an execution that is about to start, and resets
+     * the progress reported by the previous one.
+     */
+    private ExecutionContext newContext(Execution execution)
+    {
+        // Only the first execution started by a scheduled run carries its fire time
+        Long fireTime = SCHEDULED_FIRE_TIME.get();
+        SCHEDULED_FIRE_TIME.remove();
+
+        Instant now = Instant.now();
+        long nowNanos = System.nanoTime();
+        Instant scheduledFireTime = fireTime != null ? now.minusNanos(nowNanos - fireTime) : null;
+        Instant deadline = executionTimeoutMillis > 0 ? now.plusMillis(executionTimeoutMillis) : null;
+        Instant budgetDeadline = timeBudgetMillis > 0 ? now.plusMillis(timeBudgetMillis) : null;
+
+        progressTracker.reset();
+        return new ExecutionContext(getName(), () -> stopRequested || execution.isTimedOut(), scheduledFireTime,
+                deadline, budgetDeadline, progressTracker::report, forkJoinSupport::invoke,
+                cursorSupport.newCursor(), execution::setWorkPending);
+    }
+
+    /**
+     * Returns the store where the cursors of incremental agents are committed.
+     * <p>
+     * The default implementation returns the store in the directory set in
+     * {@code smart.properties}.
+     *
+     * @return the {@link CursorStore} of this agent
+     * @since 2.0
+     */
+    protected CursorStore getCursorStore()
+    {
+        return CursorStore.getDefault();
+    }
+
+    /**
+     * Handles the pending work reported by a successful execution. If the execution
+     * finished within its time budget, a continuation is requested, so that the agent is
+     * resubmitted to the worker pool as soon as the execution is released; otherwise, the
+     * work is left for the next scheduled execution, giving way to other agents.
+     *
+     * @param overrun {@code true} if the execution overran the time budget
+     */
+    private void continueWork(boolean overrun)
+    {
+        if (overrun || scheduler == null)
+        {
+            timeBudget.recordDeferredContinuation();
+            LOG.info("Work pending. Deferred to the next execution");
+            return;
+        }
+        synchronized (runLock)
+        {
+            if (stopRequested)
+            {
+                return;
+            }
+            continuationRequested = true;
+        }
+        timeBudget.recordContinuation();
+        LOG.info("Work pending. Agent resubmitted for immediate execution");
+    }
+
+    static Throwable unwrap(Throwable failure)
+    {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    /**
+     * Called by the watchdog of an execution that timed out, after its task was
+     * interrupted. The execution is released, so that the next one can proceed even if the
+     * task does not respond to the interruption.
+     */
+    private void timeOut(Execution execution, Stopwatch stopwatch)
+    {
+        executionStatistics.recordTimedOutExecution();
+        lastExecutionResult = ExecutionResult.TIMED_OUT;
+        updateStatistics(stopwatch);
+        LOG.warn("Execution of {} timed out after {} ms. Task interrupted", getName(), executionTimeoutMillis);
+
+        boolean pending = releaseExecution();
+        execution.releasePermit();
+        afterRelease(pending);
+    }
+
+    /**
+     * Releases the execution reserved by a thread other than the one that acquired it.
+     *
+     * @return {@code true} if a coalesced execution or a continuation was pending and the
+     *         agent must be resubmitted
+     */
+    private boolean releaseExecution()
+    {
+        synchronized (runLock)
+        {
+            boolean pending = (pendingExecution || continuationRequested) && !stopRequested;
+            pendingExecution = false;
+            continuationRequested = false;
+            if (--runningExecutions == 0)
+            {
+                setState(previousState);
+                runLock.notifyAll();
             }
+            return pending;
+        }
+    }
+
+    private void afterRelease(boolean pending)
+    {
+        if (pending)
+        {
+            scheduler.execute(this);
         }
+        onExecutionReleased();
+    }
+
+    /**
+     * An event fired after an execution of this agent was released by a thread other than
+     * the one that started it, i.e., when the execution timed out, or when an asynchronous
+     * task completed. The default implementation does nothing.
+     *
+     * @since 2.0
+     */
+    protected void onExecutionReleased()
+    {
+        // Nothing required by default
     }
 
     private void updateStatistics(Stopwatch stopwatch)
     {
-        lastExecutionDuration = stopwatch.elapsedTime(Counter.Type.WALL_CLOCK_TIME);
-        executionDurationHistory.offer(BigDecimal.valueOf(lastExecutionDuration.toSeconds()).setScale(9));
+        Duration duration = stopwatch.elapsedTime(Counter.Type.WALL_CLOCK_TIME);
+        synchronized (executionDurationHistory)
+        {
+            lastExecutionDuration = duration;
+            executionDurationHistory.offer(BigDecimal.valueOf(duration.toSeconds()).setScale(9));
+        }
     }
 
     /**
@@ -309,7 +883,11 @@ public abstract class Agent implements Runnable
      */
     protected String formatAverageExecutionDuration()
     {
-        BigDecimal average = StatisticsUtils.average(executionDurationHistory);
+        BigDecimal average;
+        synchronized (executionDurationHistory)
+        {
+            average = StatisticsUtils.average(executionDurationHistory);
+        }
         return average != null ? average + " second(s)" : "null";
     }
 
@@ -329,6 +907,70 @@ public abstract class Agent implements Runnable
      */
     protected abstract void runTask();
 
+    /**
+     * Starts the agent task, which may complete asynchronously. If a {@link CompletionStage}
+     * is returned, the execution remains in progress (and this agent, {@code RUNNING}) until
+     * the stage completes, and its exceptional completion is handled as a task failure.
+     * <p>
+     * The default implementation runs {@link #runTask()} and returns {@code null}, meaning
+     * that the task was completed synchronously.
+     *
+     * @param context the {@link AgentContext} of the execution
+     * @return a {@link CompletionStage} that completes when the task ends, or {@code null}
+     *         if the task was completed synchronously
+     * @since 2.0
+     */
+    protected CompletionStage<?> runTaskAsync(AgentContext context)
+    {
+        runTask();
+        return null;
+    }
+
+    /**
+     * Subscribes to the items published by a streaming task, routing them in batches to the
+     * sinks of this agent, with the demand bounded by the sink batch size.
+     * <p>
+     * The number of items and the throughput of the execution are recorded when the
+     * subscription ends.
+     *
+     * @param publisher the {@link Publisher} returned by the task
+     * @return a {@link CompletionStage} that completes when all items are written to the
+     *         sinks, or exceptionally if the publisher or a sink fails; cancelling it cancels
+     *         the subscription
+     * @since 2.0
+     */
+    protected CompletionStage<?> subscribe(Publisher<?> publisher)
+    {
+        return streamingSupport.subscribe(publisher);
+    }
+
+    /**
+     * Runs a chunk-oriented batch job, resuming from the last checkpoint of this agent.
+     * <p>
+     * The job is processed on as many lanes as its parallelism: one in the calling thread
+     * and the others on the worker pool of this agent's group (or in the calling thread, if
+     * the pool is saturated). Each lane claims the next chunk until the input ends, the
+     * execution is cancelled or a chunk fails. When the whole input is written, the
+     * checkpoint is reset, so that the next execution starts from the first chunk.
+     * <p>
+     * Checkpoints are committed to the {@link CursorStore} of this agent, so that a job is
+     * resumed even after the agent is reset or the server is restarted.
+     *
+     * @param job     the {@link BatchJob} returned by the task
+     * @param context the {@link AgentContext} of the execution, whose cancellation stops
+     *                the job at the next chunk
+     * @return a {@link CompletionStage} that completes when all lanes finish, or
+     *         exceptionally if a chunk fails
+     * @throws IllegalStateException if the execution is sharded, since all shards would
+     *                               share the same checkpoint
+     * @throws AgentRuntimeException if the last checkpoint could not be read
+     * @since 2.0
+     */
+    protected <I, O> CompletionStage<?> runBatch(BatchJob<I, O> job, AgentContext context)
+    {
+        return batchSupport.run(job, context);
+    }
+
     /**
      * An event to be fired after agent task run.
      */
@@ -352,6 +994,210 @@ public abstract class Agent implements Runnable
         return stopRequested;
     }
 
+    /**
+     * @return the statistics of the executions of this agent that could not run as
+     *         triggered
+     * @since 2.0
+     */
+    public ExecutionStatistics getExecutionStatistics()
+    {
+        return executionStatistics;
+    }
+
+    /**
+     * @return the sinks of the streaming tasks of this agent and the statistics of the
+     *         streamed items
+     * @since 2.0
+     */
+    public StreamingSupport getStreamingSupport()
+    {
+        return streamingSupport;
+    }
+
+    /**
+     * @return the progress reported by the task of the last execution of this agent
+     * @since 2.0
+     */
+    public ProgressTracker getProgressTracker()
+    {
+        return progressTracker;
+    }
+
+    /**
+     * @return the number of shards of this agent and the durations of the shards of the
+     *         last sharded execution
+     * @since 2.0
+     */
+    public ShardSupport getShardSupport()
+    {
+        return shardSupport;
+    }
+
+    /**
+     * @return the statistics of the fork/join tasks invoked by this agent
+     * @since 2.0
+     */
+    public ForkJoinSupport getForkJoinSupport()
+    {
+        return forkJoinSupport;
+    }
+
+    /**
+     * @return the checkpoint of the batch job of this agent, and the chunks and items
+     *         written by the last execution
+     * @since 2.0
+     */
+    public BatchSupport getBatchSupport()
+    {
+        return batchSupport;
+    }
+
+    /**
+     * @return the last cursor read or committed by this agent
+     * @since 2.0
+     */
+    public CursorSupport getCursorSupport()
+    {
+        return cursorSupport;
+    }
+
+    /**
+     * @return the time budget of this agent, with the executions that overran it and the
+     *         continuations of pending work
+     * @since 2.0
+     */
+    public TimeBudget getTimeBudget()
+    {
+        return timeBudget;
+    }
+
+    /**
+     * @return the outcome of the last execution, or {@code null} if this agent has not been
+     *         executed yet
+     * @since 2.0
+     */
+    public ExecutionResult getLastExecutionResult()
+    {
+        return lastExecutionResult;
+    }
+
+    /**
+     * Records scheduled executions that could not be triggered on time.
+     *
+     * @param count the number of misfired executions
+     * @since 2.0
+     */
+    protected void recordMisfires(long count)
+    {
+        executionStatistics.recordMisfires(count);
+        LOG.warn("{} scheduled execution(s) of {} misfired. Applying policy: {}", count, getName(), misfirePolicy);
+    }
+
+    /**
+     * Called by the scheduler's {@link TimeBase} when the wall clock jumps or the UTC offset
+     * changes while this agent is started, so that wall-clock based fire times can be
+     * re-anchored. The default implementation does nothing.
+     *
+     * @param reason     the reason of the time shift
+     * @param jumpMillis the size of the wall-clock jump, in milliseconds (0 for offset
+     *                   changes)
+     * @since 2.0
+     */
+    protected void onTimeShift(TimeBase.Reason reason, long jumpMillis)
+    {
+        // Nothing required by default
+    }
+
+    /**
+     * Records the re-anchor of the pending fire time of this agent.
+     *
+     * @param reason the reason of the re-anchor
+     * @since 2.0
+     */
+    protected void recordReanchor(TimeBase.Reason reason)
+    {
+        executionStatistics.recordReanchor();
+        LOG.info("Pending fire time of {} re-anchored ({})", getName(), reason);
+    }
+
+    /**
+     * Records the scheduling lag of an execution, i.e., the time between its planned fire
+     * time and its actual start. Usually called by the {@link AgentScheduler} when the
+     * execution is picked up by a worker thread.
+     *
+     * @param lagNanos the scheduling lag, in nanoseconds
+     * @since 2.0
+     */
+    public void recordSchedulingLag(long lagNanos)
+    {
+        executionStatistics.recordSchedulingLag(lagNanos);
+        if (LOG.isDebugEnabled())
+        {
+            LOG.debug("Execution of {} started {} ms after the planned fire time", getName(),
+                    StatisticsUtils.toMillis(Math.max(0, lagNanos)));
+        }
+    }
+
+    /**
+     * Runs a scheduled execution of this agent, planned for the given fire time, which is
+     * exposed to the task by the {@link AgentContext}. Usually called by the
+     * {@link AgentScheduler}.
+     *
+     * @param fireTime the planned fire time, in the {@link System#nanoTime()} scale
+     * @since 2.0
+     */
+    public void runScheduled(long fireTime)
+    {
+        SCHEDULED_FIRE_TIME.set(fireTime);
+        try
+        {
+            run();
+        }
+        finally
+        {
+            SCHEDULED_FIRE_TIME.remove();
+        }
+    }
+
+    /**
+     * Appends all execution statistics of this agent (scheduling lag, streaming, batch,
+     * cursor, shards, fork/join tasks, time budget and progress) to the given status
+     * builder.
+     *
+     * @param builder the {@link ToStringBuilder} of the agent status
+     * @return the same builder, for chained calls
+     * @since 2.0
+     */
+    protected ToStringBuilder appendExecutionStatistics(ToStringBuilder builder)
+    {
+        executionStatistics.appendSchedulingLag(builder);
+        streamingSupport.appendTo(builder);
+        batchSupport.appendTo(builder);
+        cursorSupport.appendTo(builder);
+        shardSupport.appendTo(builder);
+        forkJoinSupport.appendTo(builder);
+        timeBudget.appendTo(builder);
+        return progressTracker.appendTo(builder);
+    }
+
+    private Optional<TimeBase> getTimeBase()
+    {
+        return Optional.ofNullable(scheduler).map(AgentScheduler::getTimeBase);
+    }
+
+    /**
+     * Returns the upcoming execution dates of this agent, if they can be predicted.
+     *
+     * @param count the maximum number of dates to be returned
+     * @return a list with up to {@code count} dates, in chronological order; an empty list
+     *         by default
+     * @since 2.0
+     */
+    public List<ZonedDateTime> getNextExecutionDates(int count)
+    {
+        return Collections.emptyList();
+    }
+
     public abstract String getStatusString();
 
 }
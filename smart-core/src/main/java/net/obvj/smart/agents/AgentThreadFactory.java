@@ -3,6 +3,9 @@ package net.obvj.smart.agents;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import net.obvj.smart.util.Exceptions;
+import net.obvj.smart.util.VirtualThreads;
+
 /**
  * An object that creates new threads for SMART agents.
  * <p>
@@ -11,6 +14,9 @@ import java.util.concurrent.atomic.AtomicInteger;
  * <p>
  * The threads are also set up as non-daemon, to secure Process finalization before system
  * shutdown.
+ * <p>
+ * Optionally, the factory may create virtual threads (Java 21 or higher), which follow the
+ * same naming scheme but are always daemon.
  *
  * @author oswaldo.bapvic.jr
  * @since 2.0
@@ -22,6 +28,7 @@ public class AgentThreadFactory implements ThreadFactory
     private final AtomicInteger nextSequenceNumber = new AtomicInteger(1);
 
     private String agentName;
+    private boolean virtual;
 
     /**
      * Creates a new thread factory for the agent identified by the given name
@@ -30,12 +37,36 @@ public class AgentThreadFactory implements ThreadFactory
      */
     public AgentThreadFactory(String agentName)
     {
+        this(agentName, false);
+    }
+
+    /**
+     * Creates a new thread factory for the agent identified by the given name, optionally
+     * creating virtual threads
+     *
+     * @param agentName the agent name to compose new thread names
+     * @param virtual   {@code true} to create virtual threads
+     * @throws IllegalStateException if virtual threads are requested but not supported by
+     *                               the current runtime
+     * @since 2.0
+     */
+    public AgentThreadFactory(String agentName, boolean virtual)
+    {
+        if (virtual && !VirtualThreads.isSupported())
+        {
+            throw Exceptions.illegalState("Virtual threads are not supported by this runtime");
+        }
         this.agentName = agentName;
+        this.virtual = virtual;
     }
 
     @Override
     public Thread newThread(final Runnable runnable)
     {
+        if (virtual)
+        {
+            return VirtualThreads.newThread(newThreadName(), runnable);
+        }
         Thread thread = new Thread(runnable, newThreadName());
         thread.setPriority(Thread.NORM_PRIORITY);
         thread.setDaemon(false);
@@ -47,4 +78,13 @@ public class AgentThreadFactory implements ThreadFactory
         return String.format(THREAD_NAME_FORMAT, agentName, nextSequenceNumber.getAndIncrement());
     }
 
+    /**
+     * @return {@code true} if this factory creates virtual threads
+     * @since 2.0
+     */
+    public boolean isVirtual()
+    {
+        return virtual;
+    }
+
 }
@@ -1,34 +1,75 @@
 package net.obvj.smart.agents;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.reflect.ConstructorUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.util.ReflectionUtils;
 
+import net.obvj.smart.agents.batch.BatchJob;
+import net.obvj.smart.agents.stream.Publisher;
 import net.obvj.smart.conf.AgentConfiguration;
 import net.obvj.smart.conf.AgentConfigurationException;
 import net.obvj.smart.conf.annotation.AgentTask;
 import net.obvj.smart.util.AnnotationUtils;
+import net.obvj.smart.util.Exceptions;
 
 /**
  * An object that prepares and holds the required metadata and infrastructure for the
  * execution of an object annotated as {@code @Agent}.
+ * <p>
+ * The method annotated as {@code @AgentTask} is resolved only once into a function
+ * generated by the {@link LambdaMetafactory} and bound to the agent instance, so that each
+ * execution is a plain method call, without the access checks and argument handling of
+ * reflective invocation. Methods that cannot be linked this way are invoked reflectively.
+ * <p>
+ * Methods that return a {@link CompletionStage} (e.g.: a {@code CompletableFuture}) are
+ * asynchronous: the execution is complete when the returned stage completes. Methods that
+ * return a {@link Publisher} are streaming: the published items are routed to the agent's
+ * sinks. Methods that return a {@link BatchJob} are run as chunk-oriented batch jobs.
+ * <p>
+ * The method may declare a single {@link AgentContext} parameter, to receive the context
+ * of each execution.
  *
  * @author oswaldo.bapvic.jr
  * @since 2.0
  */
 public class AnnotatedAgent
 {
+    private static final Logger LOG = LoggerFactory.getLogger(AnnotatedAgent.class);
+
     private final Class<?> agentClass;
     private final Method agentTaskMethod;
     private final Object agentInstance;
+    private final Consumer<AgentContext> agentTaskInvoker;
+    private final Function<AgentContext, Object> resultAgentTaskInvoker;
+    private final boolean contextAware;
+    private final boolean asynchronous;
+    private final boolean streaming;
+    private final boolean batch;
 
     /**
      * Validates annotations and prepares all objects for execution.
      *
      * @param configuration the {@link AgentConfiguration} to be parsed
      * @throws AgentConfigurationException if any exception regarding a reflective operation
-     *                                     (e.g.: class or method not found) occurs
+     *                                     (e.g.: class or method not found) occurs, or if the
+     *                                     {@code @AgentTask} method declares parameters other
+     *                                     than a single {@link AgentContext}, or returns a
+     *                                     {@link BatchJob} and the agent is sharded
      */
     public AnnotatedAgent(AgentConfiguration configuration)
     {
@@ -37,7 +78,27 @@ public class AnnotatedAgent
             String agentClassName = configuration.getAgentClass();
             agentClass = Class.forName(agentClassName);
             agentTaskMethod = AnnotationUtils.getSingleMethodWithAnnotation(agentClass, AgentTask.class);
+            contextAware = acceptsContext(agentTaskMethod);
+            if (!contextAware && agentTaskMethod.getParameterCount() > 0)
+            {
+                throw Exceptions.agentConfiguration(
+                        "The @AgentTask method must declare no parameters or a single AgentContext: %s",
+                        agentTaskMethod);
+            }
             agentInstance = ConstructorUtils.invokeConstructor(agentClass);
+            agentTaskInvoker = newInvoker(agentTaskMethod, agentInstance);
+            asynchronous = CompletionStage.class.isAssignableFrom(agentTaskMethod.getReturnType());
+            streaming = Publisher.class.isAssignableFrom(agentTaskMethod.getReturnType());
+            batch = BatchJob.class.isAssignableFrom(agentTaskMethod.getReturnType());
+            if (batch && configuration.getShards() > 1)
+            {
+                throw Exceptions.agentConfiguration(
+                        "An @AgentTask method that returns a BatchJob cannot be sharded (use the job parallelism): %s",
+                        agentTaskMethod);
+            }
+            resultAgentTaskInvoker = asynchronous || streaming || batch
+                    ? newResultInvoker(agentTaskMethod, agentInstance)
+                    : null;
         }
         catch (ReflectiveOperationException cause)
         {
@@ -45,12 +106,302 @@ public class AnnotatedAgent
         }
     }
 
+    private static boolean acceptsContext(Method method)
+    {
+        return method.getParameterCount() == 1 && method.getParameterTypes()[0] == AgentContext.class;
+    }
+
+    /**
+     * Generates a function that invokes the given method on the given instance, passing the
+     * {@link AgentContext} if the method accepts it, or falls back to reflective invocation
+     * if the method cannot be linked (e.g.: it declares other parameters or is not
+     * accessible).
+     *
+     * @param method   the method to be invoked
+     * @param instance the object the method is invoked on (ignored for static methods)
+     * @return a {@link Consumer} that invokes the method with the given context
+     */
+    @SuppressWarnings("unchecked")
+    static Consumer<AgentContext> newInvoker(Method method, Object instance)
+    {
+        boolean contextAware = acceptsContext(method);
+        try
+        {
+            if (contextAware)
+            {
+                return link(method, instance, Consumer.class, "accept",
+                        MethodType.methodType(void.class, Object.class),
+                        MethodType.methodType(void.class, AgentContext.class));
+            }
+            Runnable runnable = link(method, instance, Runnable.class, "run", MethodType.methodType(void.class),
+                    MethodType.methodType(void.class));
+            return context -> runnable.run();
+        }
+        catch (ReflectiveOperationException | LambdaConversionException | LinkageError cause)
+        {
+            logReflectiveFallback(method, cause);
+            return context -> invokeReflectively(method, instance, contextAware, context);
+        }
+    }
+
+    /**
+     * Generates a function that invokes the given method, which returns an object, on the
+     * given instance, passing the {@link AgentContext} if the method accepts it, or falls
+     * back to reflective invocation if the method cannot be linked.
+     *
+     * @param method   the method to be invoked
+     * @param instance the object the method is invoked on (ignored for static methods)
+     * @return a {@link Function} that invokes the method with the given context and
+     *         returns its result
+     */
+    @SuppressWarnings("unchecked")
+    static Function<AgentContext, Object> newResultInvoker(Method method, Object instance)
+    {
+        boolean contextAware = acceptsContext(method);
+        try
+        {
+            if (contextAware)
+            {
+                return link(method, instance, Function.class, "apply",
+                        MethodType.methodType(Object.class, Object.class),
+                        MethodType.methodType(method.getReturnType(), AgentContext.class));
+            }
+            Supplier<Object> supplier = link(method, instance, Supplier.class, "get",
+                    MethodType.methodType(Object.class), MethodType.methodType(method.getReturnType()));
+            return context -> supplier.get();
+        }
+        catch (ReflectiveOperationException | LambdaConversionException | LinkageError cause)
+        {
+            logReflectiveFallback(method, cause);
+            return context -> invokeReflectively(method, instance, contextAware, context);
+        }
+    }
+
+    private static void logReflectiveFallback(Method method, Throwable cause)
+    {
+        LOG.warn("Unable to link the @AgentTask method {}. It will be invoked reflectively: {}", method,
+                cause.toString());
+    }
+
+    private static Object invokeReflectively(Method method, Object instance, boolean contextAware,
+            AgentContext context)
+    {
+        return contextAware ? ReflectionUtils.invokeMethod(method, instance, context)
+                : ReflectionUtils.invokeMethod(method, instance);
+    }
+
+    /**
+     * Links the given method to an implementation of a functional interface generated by
+     * the {@link LambdaMetafactory}.
+     */
+    private static <T> T link(Method method, Object instance, Class<T> interfaceType, String interfaceMethod,
+            MethodType samMethodType, MethodType instantiatedMethodType)
+            throws ReflectiveOperationException, LambdaConversionException
+    {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle target = lookup.unreflect(method);
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        MethodType invokedType = isStatic ? MethodType.methodType(interfaceType)
+                : MethodType.methodType(interfaceType, method.getDeclaringClass());
+
+        CallSite callSite = LambdaMetafactory.metafactory(lookup, interfaceMethod, invokedType, samMethodType,
+                target, instantiatedMethodType);
+        MethodHandle factory = callSite.getTarget();
+        try
+        {
+            return interfaceType.cast(isStatic ? factory.invoke() : factory.invoke(instance));
+        }
+        catch (RuntimeException | Error exception)
+        {
+            throw exception;
+        }
+        catch (Throwable cause)
+        {
+            // Not expected, since the factory only instantiates the generated function
+            throw new UndeclaredThrowableException(cause);
+        }
+    }
+
     /**
-     * Invokes the method annotated as {@code @AgentTask} for the agent.
+     * Invokes the method annotated as {@code @AgentTask} for the agent, without a context
+     * ({@code null} is passed to a method that accepts an {@link AgentContext}).
+     * <p>
+     * Unchecked exceptions and errors thrown by the method are propagated as they are, while
+     * checked exceptions are wrapped in an {@link UndeclaredThrowableException}.
      */
     public void runAgentTask()
     {
-        ReflectionUtils.invokeMethod(agentTaskMethod, agentInstance);
+        runAgentTask(null);
+    }
+
+    /**
+     * Invokes the method annotated as {@code @AgentTask} for the agent, with the same
+     * exception semantics of {@link #runAgentTask()}.
+     *
+     * @param context the {@link AgentContext} of the execution, passed to the method if it
+     *                accepts it
+     */
+    public void runAgentTask(AgentContext context)
+    {
+        try
+        {
+            agentTaskInvoker.accept(context);
+        }
+        catch (Exception exception)
+        {
+            throw propagate(exception);
+        }
+    }
+
+    /**
+     * Invokes the method annotated as {@code @AgentTask} for the agent, with the same
+     * exception semantics of {@link #runAgentTask()}.
+     *
+     * @param context the {@link AgentContext} of the execution, passed to the method if it
+     *                accepts it
+     * @return the {@link CompletionStage} returned by an asynchronous method, or
+     *         {@code null} if the method is synchronous (in which case it has completed)
+     */
+    public CompletionStage<?> runAgentTaskAsync(AgentContext context)
+    {
+        if (!asynchronous)
+        {
+            runAgentTask(context);
+            return null;
+        }
+        return (CompletionStage<?>) runAgentTaskForResult(context);
+    }
+
+    /**
+     * Runs the method annotated as {@code @AgentTask} as the task of the given agent, which
+     * may complete asynchronously, stream its results to the agent's sinks, or return a
+     * batch job to be run by the agent, passing the execution context if the method accepts
+     * it. Other methods are run by the agent's {@link Agent#runTask()}.
+     * <p>
+     * This is the implementation of {@link Agent#runTaskAsync(AgentContext)} shared by the
+     * agents that run annotated objects.
+     *
+     * @param agent   the {@link Agent} that runs this annotated agent
+     * @param context the {@link AgentContext} of the execution
+     * @return a {@link CompletionStage} that completes when the execution is complete, or
+     *         {@code null} if it has already completed
+     */
+    public CompletionStage<?> runAgentTask(Agent agent, AgentContext context)
+    {
+        if (streaming)
+        {
+            return agent.subscribe(runAgentTaskForPublisher(context));
+        }
+        if (batch)
+        {
+            return agent.runBatch(runAgentTaskForBatchJob(context), context);
+        }
+        if (asynchronous || contextAware)
+        {
+            return runAgentTaskAsync(context);
+        }
+        agent.runTask();
+        return null;
+    }
+
+    /**
+     * Invokes the method annotated as {@code @AgentTask} for the agent, which returns a
+     * {@link Publisher}, with the same exception semantics of {@link #runAgentTask()}.
+     *
+     * @param context the {@link AgentContext} of the execution, passed to the method if it
+     *                accepts it
+     * @return the {@link Publisher} returned by the method
+     * @throws IllegalStateException if the method is not a streaming one
+     */
+    public Publisher<?> runAgentTaskForPublisher(AgentContext context)
+    {
+        if (!streaming)
+        {
+            throw new IllegalStateException("The agent task does not return a Publisher");
+        }
+        return (Publisher<?>) runAgentTaskForResult(context);
+    }
+
+    /**
+     * Invokes the method annotated as {@code @AgentTask} for the agent, which returns a
+     * {@link BatchJob}, with the same exception semantics of {@link #runAgentTask()}.
+     *
+     * @param context the {@link AgentContext} of the execution, passed to the method if it
+     *                accepts it
+     * @return the {@link BatchJob} returned by the method
+     * @throws IllegalStateException if the method does not return a batch job, or returns
+     *                               {@code null}
+     */
+    public BatchJob<?, ?> runAgentTaskForBatchJob(AgentContext context)
+    {
+        if (!batch)
+        {
+            throw new IllegalStateException("The agent task does not return a BatchJob");
+        }
+        BatchJob<?, ?> job = (BatchJob<?, ?>) runAgentTaskForResult(context);
+        if (job == null)
+        {
+            throw new IllegalStateException("The agent task returned a null BatchJob");
+        }
+        return job;
+    }
+
+    private Object runAgentTaskForResult(AgentContext context)
+    {
+        try
+        {
+            return resultAgentTaskInvoker.apply(context);
+        }
+        catch (Exception exception)
+        {
+            throw propagate(exception);
+        }
+    }
+
+    private static RuntimeException propagate(Exception exception)
+    {
+        if (exception instanceof RuntimeException)
+        {
+            return (RuntimeException) exception;
+        }
+        // A checked exception declared by the agent task method
+        return new UndeclaredThrowableException(exception);
+    }
+
+    /**
+     * @return {@code true} if the method annotated as {@code @AgentTask} accepts an
+     *         {@link AgentContext}
+     */
+    public boolean isContextAware()
+    {
+        return contextAware;
+    }
+
+    /**
+     * @return {@code true} if the method annotated as {@code @AgentTask} returns a
+     *         {@link CompletionStage}, i.e., it completes asynchronously
+     */
+    public boolean isAsynchronous()
+    {
+        return asynchronous;
+    }
+
+    /**
+     * @return {@code true} if the method annotated as {@code @AgentTask} returns a
+     *         {@link Publisher}, i.e., it streams its results to the agent's sinks
+     */
+    public boolean isStreaming()
+    {
+        return streaming;
+    }
+
+    /**
+     * @return {@code true} if the method annotated as {@code @AgentTask} returns a
+     *         {@link BatchJob}, i.e., it is run as a chunk-oriented batch job
+     */
+    public boolean isBatch()
+    {
+        return batch;
     }
 
     /**
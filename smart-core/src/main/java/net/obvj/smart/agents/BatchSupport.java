@@ -0,0 +1,183 @@
+package net.obvj.smart.agents;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.obvj.smart.agents.batch.BatchJob;
+import net.obvj.smart.agents.batch.BatchRunner;
+import net.obvj.smart.agents.cursor.CursorStore;
+import net.obvj.smart.scheduler.AgentScheduler;
+import net.obvj.smart.util.Exceptions;
+
+/**
+ * Runs the chunk-oriented batch jobs of an {@link Agent}, keeping their checkpoint in the
+ * {@link CursorStore} of the agent, and the chunks and items written by the last
+ * execution.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public final class BatchSupport
+{
+    private static final Logger LOG = LoggerFactory.getLogger(BatchSupport.class);
+
+    /*
+     * The suffix of the name under which the checkpoint is kept in the cursor store
+     */
+    private static final String CHECKPOINT_SUFFIX = ".batch";
+
+    private final Agent agent;
+
+    /*
+     * The index of the first chunk not yet committed by the batch job, from which the next
+     * execution resumes, and the chunks and items written by the last execution
+     */
+    private volatile long checkpoint;
+    private volatile long lastChunks;
+    private volatile long lastItems;
+
+    /**
+     * @param agent the {@link Agent} that runs the batch jobs
+     */
+    BatchSupport(Agent agent)
+    {
+        this.agent = agent;
+    }
+
+    /**
+     * Runs a chunk-oriented batch job, resuming from the last checkpoint of the agent.
+     *
+     * @param job     the {@link BatchJob} returned by the task
+     * @param context the {@link AgentContext} of the execution
+     * @return a {@link CompletionStage} that completes when all lanes finish, or
+     *         exceptionally if a chunk fails
+     * @throws IllegalStateException if the execution is sharded
+     * @throws AgentRuntimeException if the last checkpoint could not be read
+     * @see Agent#runBatch(BatchJob, AgentContext)
+     */
+    <I, O> CompletionStage<?> run(BatchJob<I, O> job, AgentContext context)
+    {
+        if (context.getShardCount() > 1)
+        {
+            throw new IllegalStateException("A batch job cannot be sharded. Use the job parallelism instead");
+        }
+        long startChunk = readCheckpoint();
+        if (startChunk > 0)
+        {
+            LOG.info("Resuming batch job of {} from chunk {}", agent.getName(), startChunk);
+        }
+        BatchRunner<I, O> runner = new BatchRunner<>(job, startChunk, context::isCancelled, this::commitCheckpoint);
+        AgentScheduler scheduler = agent.getScheduler();
+        for (int lane = job.getParallelism() - 1; lane >= 0; lane--)
+        {
+            Runnable task = runner::runLane;
+            if (lane == 0 || scheduler == null || !scheduler.execute(agent, task))
+            {
+                task.run();
+            }
+        }
+        return runner.getCompletion().whenComplete((items, failure) -> record(runner));
+    }
+
+    private String getCheckpointName()
+    {
+        return agent.getName() + CHECKPOINT_SUFFIX;
+    }
+
+    private long readCheckpoint()
+    {
+        try
+        {
+            Optional<String> value = agent.getCursorStore().read(getCheckpointName());
+            checkpoint = value.isPresent() ? Long.parseLong(value.get().trim()) : 0L;
+            return checkpoint;
+        }
+        catch (IOException | NumberFormatException exception)
+        {
+            throw Exceptions.agentRuntime(exception, "Unable to read the batch checkpoint of %s", agent.getName());
+        }
+    }
+
+    /**
+     * Commits a checkpoint. The job fails if the checkpoint cannot be committed, so that no
+     * chunk is written past the last durable checkpoint.
+     */
+    private void commitCheckpoint(long checkpoint)
+    {
+        try
+        {
+            agent.getCursorStore().commit(getCheckpointName(), String.valueOf(checkpoint));
+            this.checkpoint = checkpoint;
+        }
+        catch (IOException exception)
+        {
+            throw new UncheckedIOException("Unable to commit the batch checkpoint of " + agent.getName(), exception);
+        }
+    }
+
+    private void record(BatchRunner<?, ?> runner)
+    {
+        lastChunks = runner.getChunks();
+        lastItems = runner.getWrittenItems();
+        if (runner.isExhausted())
+        {
+            try
+            {
+                agent.getCursorStore().delete(getCheckpointName());
+                checkpoint = 0L;
+            }
+            catch (IOException exception)
+            {
+                // The next execution resumes past the end of the input, and ends right away
+                LOG.warn("Unable to reset the batch checkpoint of {}: {}", agent.getName(), exception.toString());
+            }
+        }
+        LOG.info("{} chunk(s) with {} item(s) written by {}{}", lastChunks, lastItems, agent.getName(),
+                runner.isExhausted() ? "" : " (next execution resumes from chunk " + checkpoint + ")");
+    }
+
+    /**
+     * @return the index of the first chunk not yet committed by the batch job of the agent,
+     *         from which the next execution resumes
+     */
+    public long getBatchCheckpoint()
+    {
+        return checkpoint;
+    }
+
+    /**
+     * @return the number of chunks written by the last batch execution
+     */
+    public long getLastBatchChunks()
+    {
+        return lastChunks;
+    }
+
+    /**
+     * @return the number of items written by the last batch execution
+     */
+    public long getLastBatchItems()
+    {
+        return lastItems;
+    }
+
+    /**
+     * Appends the checkpoint of the batch job, and the chunks and items written by the last
+     * execution, to the given status builder.
+     *
+     * @param builder the {@link ToStringBuilder} of the agent status
+     * @return the same builder, for chained calls
+     */
+    ToStringBuilder appendTo(ToStringBuilder builder)
+    {
+        return builder.append("batchCheckpoint", checkpoint).append("batchChunks", lastChunks)
+                .append("batchItems", lastItems);
+    }
+
+}
@@ -1,31 +1,46 @@
 package net.obvj.smart.agents;
 
 import java.time.Duration;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.cronutils.descriptor.CronDescriptor;
 import com.cronutils.model.Cron;
-import com.cronutils.model.CronType;
-import com.cronutils.model.definition.CronDefinition;
-import com.cronutils.model.definition.CronDefinitionBuilder;
-import com.cronutils.model.time.ExecutionTime;
-import com.cronutils.parser.CronParser;
 
 import net.obvj.smart.conf.AgentConfiguration;
+import net.obvj.smart.conf.annotation.CronSyntax;
+import net.obvj.smart.conf.annotation.MisfirePolicy;
+import net.obvj.smart.scheduler.AgentScheduler;
+import net.obvj.smart.scheduler.CronPlan;
+import net.obvj.smart.scheduler.ScheduledExecution;
+import net.obvj.smart.scheduler.TimeBase;
 import net.obvj.smart.util.DateUtils;
 
 /**
  * An agent that runs a particular task at specified times and dates, similar to the Cron
  * service available in Unix/Linux systems.
+ * <p>
+ * Executions that could not be triggered on time are handled according to the agent's
+ * {@link MisfirePolicy}.
+ * <p>
+ * Fire times are calculated by a {@link CronPlan}, which is shared by all agents with the
+ * same Cron expression. Expressions may follow any of the supported {@link CronSyntax}
+ * options; Quartz and Spring expressions allow schedules with a precision of seconds.
+ * <p>
+ * The delay until the next fire time is measured on the monotonic clock. If the wall clock
+ * jumps or the UTC offset changes, the pending fire time is re-anchored to the new wall
+ * clock: it is triggered immediately if already past (subject to the misfire policy), or
+ * at the same wall-clock time otherwise.
  *
  * @author oswaldo.bapvic.jr
  * @since 2.0
@@ -36,12 +51,12 @@ public abstract class CronAgent extends Agent
 
     private static final Logger LOG = LoggerFactory.getLogger(CronAgent.class);
 
+    private CronSyntax cronSyntax;
     private String cronExpression;
     private String cronDescription;
 
-    private AgentThreadFactory threadFactory;
-    private ScheduledExecutorService schedule;
-    private Cron cron;
+    private ScheduledExecution schedule;
+    private CronPlan plan;
 
     private ZonedDateTime nextExecutionDate;
 
@@ -52,66 +67,137 @@ public abstract class CronAgent extends Agent
      */
     public CronAgent(AgentConfiguration configuration)
     {
-        super(configuration);
+        this(configuration, AgentScheduler.getDefault());
+    }
+
+    /**
+     * Builds a {@link CronAgent} from the given configuration, to be scheduled by a
+     * particular {@link AgentScheduler}.
+     *
+     * @param configuration the {@link AgentConfiguration} to be set
+     * @param scheduler     the {@link AgentScheduler} to be used
+     */
+    public CronAgent(AgentConfiguration configuration, AgentScheduler scheduler)
+    {
+        super(configuration, scheduler);
 
         if (!TYPE.equalsIgnoreCase(configuration.getType()))
         {
             throw new IllegalArgumentException("Not a cron agent");
         }
 
-        String originalExpression = configuration.getFrequency();
-        cron = parseCron(originalExpression);
-        cronExpression = cron.asString();
-        cronDescription = CronDescriptor.instance().describe(cron);
-
-        threadFactory = new AgentThreadFactory(getName());
-        schedule = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        cronSyntax = StringUtils.isEmpty(configuration.getCronSyntax()) ? CronSyntax.UNIX
+                : CronSyntax.parse(configuration.getCronSyntax());
+        plan = CronPlan.of(configuration.getFrequency(), cronSyntax, ZoneId.systemDefault());
+        cronExpression = plan.getExpression();
+        cronDescription = plan.getDescription();
 
         setState(State.SET);
     }
 
     protected static Cron parseCron(String expression)
     {
-        CronDefinition cronDefinition = CronDefinitionBuilder.instanceDefinitionFor(CronType.UNIX);
-        CronParser cronParser = new CronParser(cronDefinition);
-        return cronParser.parse(expression);
+        return CronPlan.parse(expression);
     }
 
-    protected void scheduleFirstExecution()
+    protected synchronized void scheduleFirstExecution()
     {
-        scheduleNextExecution(true);
+        ZonedDateTime now = DateUtils.now();
+        scheduleTrigger(plan.nextExecution(now), now, true);
     }
 
-    protected void scheduleNextExecution()
+    private void scheduleTrigger(Optional<ZonedDateTime> fireTime, ZonedDateTime now, boolean firstExecution)
     {
-        scheduleNextExecution(false);
+        if (schedule != null)
+        {
+            schedule.cancel();
+        }
+        if (fireTime.isPresent())
+        {
+            nextExecutionDate = fireTime.get();
+            // Nanosecond precision, so that sub-minute schedules are not triggered too early
+            Duration delay = Duration.between(now, nextExecutionDate);
+            schedule = getScheduler().scheduleTrigger(this::trigger, delay.toNanos(), TimeUnit.NANOSECONDS);
+
+            if (LOG.isInfoEnabled())
+            {
+                LOG.info("{} execution of {} will be at: {}", firstExecution ? "First" : "Next", getName(),
+                        DateUtils.formatDate(nextExecutionDate));
+            }
+        }
+        else
+        {
+            nextExecutionDate = null;
+            LOG.warn("No future execution for the Cron expression: \"{}\"", cronExpression);
+        }
     }
 
-    private synchronized void scheduleNextExecution(boolean firstExecution)
+    /**
+     * Hands this agent over to the worker pool and schedules the next trigger, applying the
+     * misfire policy if one or more scheduled executions were missed.
+     */
+    protected synchronized void trigger()
     {
-        nextExecutionDate = null;
-        if (firstExecution || (isStarted() && !isStopRequested()))
+        if (isStopRequested() || nextExecutionDate == null)
         {
-            ExecutionTime executionTime = ExecutionTime.forCron(cron);
-            Optional<Duration> optional = executionTime.timeToNextExecution(DateUtils.now());
+            return;
+        }
+        ZonedDateTime now = DateUtils.now();
+        ZonedDateTime fireTime = nextExecutionDate;
+        long missed = countMissedExecutions(fireTime, now);
+        MisfirePolicy misfirePolicy = getMisfirePolicy(missed);
 
-            if (optional.isPresent())
-            {
-                Duration timeToNextExecution = optional.get();
-                schedule.schedule(this, timeToNextExecution.toMillis(), TimeUnit.MILLISECONDS);
-
-                nextExecutionDate = DateUtils.now().plus(timeToNextExecution);
-                if (LOG.isInfoEnabled())
-                {
-                    LOG.info("{} execution of {} will be at: {}", firstExecution ? "First" : "Next", getName(),
-                            DateUtils.formatDate(nextExecutionDate));
-                }
-            }
-            else
-            {
-                LOG.warn("No future execution for the Cron expression: \"{}\"", cronExpression);
-            }
+        if (missed > 0)
+        {
+            // With FIRE_ALL, each missed execution is recorded by its own trigger
+            recordMisfires(misfirePolicy == MisfirePolicy.FIRE_ALL ? 1 : missed);
         }
+        if (missed == 0 || misfirePolicy != MisfirePolicy.SKIP_TO_NEXT)
+        {
+            // The planned fire time, in the time scale of the monotonic clock
+            long plannedFireTime = System.nanoTime() - Duration.between(fireTime, now).toNanos();
+            getScheduler().execute(this, plannedFireTime);
+        }
+
+        // With FIRE_ALL, the following missed executions are triggered one after the other
+        boolean catchUp = missed > 0 && misfirePolicy == MisfirePolicy.FIRE_ALL;
+        ZonedDateTime reference = catchUp || fireTime.isAfter(now) ? fireTime : now;
+        scheduleTrigger(plan.nextExecution(reference), now, false);
+    }
+
+    /**
+     * Re-arms the pending trigger so that it fires at the pending fire time, according to
+     * the shifted wall clock.
+     */
+    @Override
+    protected synchronized void onTimeShift(TimeBase.Reason reason, long jumpMillis)
+    {
+        if (isStopRequested() || nextExecutionDate == null)
+        {
+            return;
+        }
+        ZonedDateTime now = DateUtils.now();
+        ZonedDateTime fireTime = nextExecutionDate;
+        scheduleTrigger(Optional.of(fireTime), fireTime.isAfter(now) ? now : fireTime, false);
+        recordReanchor(reason);
+    }
+
+    /**
+     * Counts the scheduled executions that came after the given fire time and are already
+     * due at the given time. Counting stops after {@link #MAX_REPLAYED_MISFIRES} + 1
+     * executions, which are enough to choose the misfire policy to be applied, so that a
+     * long pause does not hold the trigger walking through every missed fire time.
+     */
+    private long countMissedExecutions(ZonedDateTime fireTime, ZonedDateTime now)
+    {
+        long missed = 0;
+        Optional<ZonedDateTime> next = plan.nextExecution(fireTime);
+        while (next.isPresent() && !next.get().isAfter(now) && missed <= MAX_REPLAYED_MISFIRES)
+        {
+            missed++;
+            next = plan.nextExecution(next.get());
+        }
+        return missed;
     }
 
     /**
@@ -126,16 +212,19 @@ public abstract class CronAgent extends Agent
     }
 
     @Override
-    public final void onStop()
+    public final synchronized void onStop()
     {
-        schedule.shutdown();
+        if (schedule != null)
+        {
+            schedule.cancel();
+        }
         nextExecutionDate = null;
     }
 
     @Override
     public final void afterRun()
     {
-        scheduleNextExecution();
+        // Nothing required after task, since the next execution is scheduled by the trigger
     }
 
     /**
@@ -144,15 +233,33 @@ public abstract class CronAgent extends Agent
     @Override
     public String getStatusString()
     {
+        ExecutionStatistics statistics = getExecutionStatistics();
         ToStringBuilder builder = new ToStringBuilder(this, ToStringStyle.JSON_STYLE);
         builder.append("name", getName()).append("type", getType()).append("status", getState())
                 .append("startDate", (DateUtils.formatDate(startDate)))
                 .append("lastExecutionStartDate", (DateUtils.formatDate(lastExecutionDate)))
                 .append("lastExecutionDuration", formatLastExecutionDuration())
                 .append("averageExecutionDuration", formatAverageExecutionDuration())
-                .append("cronExpression", cronExpression).append("cronDescription", cronDescription)
-                .append("nextExecutionDate", DateUtils.formatDate(nextExecutionDate));
-        return builder.build();
+                .append("cronSyntax", cronSyntax).append("cronExpression", cronExpression)
+                .append("cronDescription", cronDescription)
+                .append("nextExecutionDate", DateUtils.formatDate(nextExecutionDate))
+                .append("overlapPolicy", getOverlapPolicy())
+                .append("droppedExecutions", statistics.getDroppedExecutions())
+                .append("coalescedExecutions", statistics.getCoalescedExecutions())
+                .append("misfirePolicy", getMisfirePolicy()).append("misfires", statistics.getMisfires())
+                .append("reanchors", statistics.getReanchors()).append("priority", getPriority())
+                .append("group", getGroup()).append("executionTimeout", getConfiguration().getExecutionTimeout())
+                .append("lastExecutionResult", getLastExecutionResult())
+                .append("timedOutExecutions", statistics.getTimedOutExecutions());
+        return appendExecutionStatistics(builder).build();
+    }
+
+    /**
+     * @return the syntax of the Cron expression
+     */
+    public CronSyntax getCronSyntax()
+    {
+        return cronSyntax;
     }
 
     /**
@@ -171,7 +278,41 @@ public abstract class CronAgent extends Agent
         return nextExecutionDate;
     }
 
-    protected ScheduledExecutorService getExecutorService()
+    /**
+     * Returns the upcoming execution dates, starting from the next scheduled execution. The
+     * dates are taken from the look-ahead table of the shared {@link CronPlan} whenever
+     * possible.
+     *
+     * @param count the maximum number of dates to be returned
+     * @return a list with up to {@code count} dates, or an empty list if the agent is not
+     *         scheduled
+     */
+    @Override
+    public List<ZonedDateTime> getNextExecutionDates(int count)
+    {
+        ZonedDateTime next = nextExecutionDate;
+        if (next == null || count < 1)
+        {
+            return Collections.emptyList();
+        }
+        List<ZonedDateTime> dates = new ArrayList<>(count);
+        dates.add(next);
+        dates.addAll(plan.nextExecutions(next, count - 1));
+        return dates;
+    }
+
+    /**
+     * @return the {@link CronPlan} that calculates the fire times of this agent
+     */
+    public CronPlan getCronPlan()
+    {
+        return plan;
+    }
+
+    /**
+     * @return the next scheduled execution, or {@code null} if no execution was scheduled
+     */
+    protected ScheduledExecution getScheduledExecution()
     {
         return schedule;
     }
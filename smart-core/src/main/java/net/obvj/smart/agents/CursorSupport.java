@@ -0,0 +1,102 @@
+package net.obvj.smart.agents;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import net.obvj.smart.agents.cursor.CursorStore;
+
+/**
+ * Reads and commits the cursors of an {@link Agent} in its {@link CursorStore}, and keeps
+ * the last cursor of the agent for reporting.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public final class CursorSupport
+{
+    private final Agent agent;
+
+    /*
+     * The last cursor read or committed by the agent, if any
+     */
+    private volatile String committedCursor;
+
+    /**
+     * @param agent the {@link Agent} whose cursors are handled
+     */
+    CursorSupport(Agent agent)
+    {
+        this.agent = agent;
+    }
+
+    /**
+     * @return a new {@link ExecutionContext.Cursor}, which reads the committed cursors from
+     *         the agent's store when first requested
+     */
+    ExecutionContext.Cursor newCursor()
+    {
+        return new ExecutionContext.Cursor(this::read);
+    }
+
+    private Optional<String> read(String key) throws IOException
+    {
+        Optional<String> cursor = agent.getCursorStore().read(key);
+        if (key.equals(agent.getName()))
+        {
+            committedCursor = cursor.orElse(null);
+        }
+        return cursor;
+    }
+
+    /**
+     * Commits the cursors updated by the execution, if any. Each shard of a sharded
+     * execution commits its own cursor.
+     *
+     * @return the exception thrown if a cursor could not be committed, or {@code null}
+     */
+    IOException commit(ExecutionContext context)
+    {
+        for (Map.Entry<String, String> update : context.getCursorUpdates().entrySet())
+        {
+            try
+            {
+                agent.getCursorStore().commit(update.getKey(), update.getValue());
+            }
+            catch (IOException exception)
+            {
+                return new IOException("Unable to commit the cursor of " + update.getKey(), exception);
+            }
+            if (update.getKey().equals(agent.getName()))
+            {
+                committedCursor = update.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the last cursor read or committed by the agent, or {@code null} if the agent
+     *         has not used a cursor since it was loaded or is sharded
+     */
+    public String getCommittedCursor()
+    {
+        return committedCursor;
+    }
+
+    /**
+     * Appends the last cursor read or committed by the agent, if any, to the given status
+     * builder. The cursors of the shards of a sharded agent are not shown.
+     *
+     * @param builder the {@link ToStringBuilder} of the agent status
+     * @return the same builder, for chained calls
+     */
+    ToStringBuilder appendTo(ToStringBuilder builder)
+    {
+        String cursor = committedCursor;
+        return cursor != null ? builder.append("cursor", cursor) : builder;
+    }
+
+}
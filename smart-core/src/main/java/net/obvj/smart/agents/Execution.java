@@ -0,0 +1,294 @@
+package net.obvj.smart.agents;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.obvj.smart.scheduler.AgentScheduler;
+import net.obvj.smart.scheduler.ExecutionGovernor;
+import net.obvj.smart.scheduler.ScheduledExecution;
+
+/**
+ * An execution of the task of an {@link Agent}, which either finishes or times out,
+ * whichever comes first.
+ * <p>
+ * The timeout is enforced by a watchdog scheduled on the {@link AgentScheduler}, which
+ * interrupts the executing thread (or cancels the asynchronous stage) of the task before
+ * the timeout is published.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+final class Execution
+{
+    private static final Logger LOG = LoggerFactory.getLogger(Execution.class);
+
+    private final String agentName;
+    private final long startNanos = System.nanoTime();
+    private Thread thread;
+    private CompletionStage<?> stage;
+    private ScheduledExecution watchdog;
+    private boolean finished;
+    private boolean timedOut;
+    private boolean abandoned;
+    private boolean released;
+    private boolean workPending;
+    private ExecutionGovernor.Permit permit;
+
+    /**
+     * @param agentName the name of the agent, for logging
+     * @param thread    the thread that starts the execution
+     */
+    Execution(String agentName, Thread thread)
+    {
+        this.agentName = agentName;
+        this.thread = thread;
+        this.permit = ExecutionGovernor.getCurrentPermit();
+    }
+
+    long getElapsedNanos()
+    {
+        return System.nanoTime() - startNanos;
+    }
+
+    synchronized void setWorkPending()
+    {
+        workPending = true;
+    }
+
+    synchronized boolean isWorkPending()
+    {
+        return workPending;
+    }
+
+    /**
+     * Schedules a watchdog that times this execution out when the given timeout elapses,
+     * unless it finishes in the meantime. On timeout, the task is interrupted first, and
+     * then the given action publishes the timeout and releases the execution.
+     *
+     * @param scheduler     the {@link AgentScheduler} of the agent, or {@code null}
+     * @param timeoutMillis the execution timeout, in milliseconds, or 0 if executions are
+     *                      not bounded
+     * @param onTimeout     the action to be run by the watchdog on timeout
+     */
+    void watch(AgentScheduler scheduler, long timeoutMillis, Runnable onTimeout)
+    {
+        if (timeoutMillis <= 0 || scheduler == null)
+        {
+            return;
+        }
+        ScheduledExecution scheduled;
+        try
+        {
+            scheduled = scheduler.scheduleTrigger(() -> expire(onTimeout), timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException exception)
+        {
+            LOG.warn("Unable to bound the execution of {}: the scheduler is shut down", agentName);
+            return;
+        }
+        synchronized (this)
+        {
+            watchdog = scheduled;
+        }
+    }
+
+    synchronized void cancelWatchdog()
+    {
+        if (watchdog != null)
+        {
+            watchdog.cancel();
+        }
+    }
+
+    /**
+     * Called by the watchdog when the execution timeout elapses. If the execution is still
+     * in progress, the task is stopped before the timeout is published, so that a released
+     * execution never has a live task or stage.
+     * <p>
+     * A task that returns after the interruption waits in {@link #finish()} until the
+     * timeout is published, so the caller of a synchronous execution always sees it.
+     */
+    private void expire(Runnable onTimeout)
+    {
+        if (!timeOut())
+        {
+            return;
+        }
+        interrupt();
+        try
+        {
+            onTimeout.run();
+        }
+        finally
+        {
+            released();
+        }
+    }
+
+    /**
+     * Detaches this execution from the starting thread, which is no longer interrupted on
+     * timeout. The given stage is cancelled instead, and the worker pool permit of the
+     * starting thread is held until the execution is released.
+     *
+     * @return {@code true} if detached; {@code false} if already timed out, in which case
+     *         the stage is cancelled right away
+     */
+    synchronized boolean detach(CompletionStage<?> stage)
+    {
+        if (timedOut)
+        {
+            finish();
+            cancel(stage);
+            return false;
+        }
+        thread = null;
+        this.stage = stage;
+        permit = ExecutionGovernor.detachPermit();
+        return true;
+    }
+
+    /**
+     * Releases the worker pool permit of this execution, if any, once it is released: the
+     * permit taken over from the starting thread, or, on timeout, the permit of the thread
+     * still running the task, which is abandoned so that the next execution does not wait
+     * for a task that ignores the interruption.
+     */
+    void releasePermit()
+    {
+        ExecutionGovernor.Permit held;
+        boolean stuck;
+        synchronized (this)
+        {
+            if (thread != null && abandoned)
+            {
+                // The task has returned, and its thread releases the permit
+                return;
+            }
+            held = permit;
+            permit = null;
+            stuck = thread != null;
+        }
+        if (held == null)
+        {
+            return;
+        }
+        if (stuck)
+        {
+            LOG.warn("The worker thread of {} is stuck in the timed out task", agentName);
+            held.abandon();
+        }
+        else
+        {
+            held.release();
+        }
+    }
+
+    /**
+     * Marks this execution as finished, unless it has already timed out. If it has, and the
+     * calling thread is the executing one, waits until the timeout is published and the
+     * execution released by the watchdog.
+     *
+     * @return {@code true} if finished in time; {@code false} if timed out
+     */
+    synchronized boolean finish()
+    {
+        if (timedOut)
+        {
+            // Clears the interruption requested by the watchdog, if any
+            abandoned = true;
+            if (Thread.currentThread() == thread)
+            {
+                Thread.interrupted();
+                awaitRelease();
+            }
+            return false;
+        }
+        finished = true;
+        return true;
+    }
+
+    private void awaitRelease()
+    {
+        boolean interrupted = false;
+        while (!released)
+        {
+            try
+            {
+                wait();
+            }
+            catch (InterruptedException exception)
+            {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Marks a timed out execution as released by the watchdog.
+     */
+    private synchronized void released()
+    {
+        released = true;
+        notifyAll();
+    }
+
+    synchronized boolean isTimedOut()
+    {
+        return timedOut;
+    }
+
+    /**
+     * Marks this execution as timed out, unless it has already finished.
+     *
+     * @return {@code true} if timed out; {@code false} if already finished
+     */
+    private synchronized boolean timeOut()
+    {
+        if (finished)
+        {
+            return false;
+        }
+        timedOut = true;
+        return true;
+    }
+
+    /**
+     * Interrupts the executing thread (or cancels the asynchronous stage) of a timed out
+     * execution, unless the task has already returned.
+     */
+    private synchronized void interrupt()
+    {
+        if (timedOut && !abandoned)
+        {
+            if (thread != null)
+            {
+                thread.interrupt();
+            }
+            else
+            {
+                cancel(stage);
+            }
+        }
+    }
+
+    private static void cancel(CompletionStage<?> stage)
+    {
+        try
+        {
+            stage.toCompletableFuture().cancel(true);
+        }
+        catch (UnsupportedOperationException exception)
+        {
+            // The stage cannot be cancelled; its completion is ignored
+        }
+    }
+
+}
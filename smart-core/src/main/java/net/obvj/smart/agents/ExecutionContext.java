@@ -0,0 +1,292 @@
+package net.obvj.smart.agents;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BooleanSupplier;
+
+import net.obvj.smart.util.Exceptions;
+
+/**
+ * The {@link AgentContext} of a single agent task execution.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+class ExecutionContext implements AgentContext
+{
+    /**
+     * A receiver of the progress reported by the task.
+     */
+    @FunctionalInterface
+    interface ProgressListener
+    {
+        void onProgress(long completed, long total, String message);
+    }
+
+    /**
+     * An executor of the fork/join tasks invoked by the task.
+     */
+    @FunctionalInterface
+    interface ForkJoinInvoker
+    {
+        <T> T invoke(ForkJoinTask<T> task, AgentContext context);
+    }
+
+    /**
+     * A function that reads the last committed cursor stored under a given key.
+     */
+    @FunctionalInterface
+    interface CursorReader
+    {
+        Optional<String> read(String key) throws IOException;
+    }
+
+    /**
+     * The cursors of an execution: the committed values, read when first requested, and
+     * the updates to be committed if the execution succeeds, by key. An execution that is
+     * not sharded has a single cursor, keyed by the agent name; each shard of a sharded
+     * execution has its own cursor, so that shards do not overwrite each other's
+     * watermark.
+     */
+    static class Cursor
+    {
+        private final CursorReader reader;
+        private final Map<String, Optional<String>> committed = new HashMap<>();
+        private final Map<String, String> updates = new LinkedHashMap<>();
+
+        /**
+         * @param reader a function that reads the last committed cursor of a key
+         */
+        Cursor(CursorReader reader)
+        {
+            this.reader = reader;
+        }
+
+        synchronized Optional<String> get(String key)
+        {
+            Optional<String> value = committed.get(key);
+            if (value == null)
+            {
+                try
+                {
+                    value = reader.read(key);
+                }
+                catch (IOException exception)
+                {
+                    throw Exceptions.agentRuntime(exception, "Unable to read the cursor of %s", key);
+                }
+                committed.put(key, value);
+            }
+            return value;
+        }
+
+        synchronized void update(String key, String cursor)
+        {
+            updates.put(key, Objects.requireNonNull(cursor, "The cursor must not be null"));
+        }
+
+        /**
+         * @return the cursors set by the execution, to be committed if it succeeds, by key
+         */
+        synchronized Map<String, String> getUpdates()
+        {
+            return new LinkedHashMap<>(updates);
+        }
+    }
+
+    /**
+     * Returns the key of the cursor of a shard: the agent name, if the execution is not
+     * sharded, or the agent name followed by the shard index and count. A change in the
+     * number of shards changes the partitioning, so the new shards start without a cursor.
+     *
+     * @param agentName the name of the agent
+     * @param index     the shard index
+     * @param count     the number of shards
+     * @return the cursor key of the shard
+     */
+    static String cursorKey(String agentName, int index, int count)
+    {
+        return count > 1 ? agentName + ".shard-" + index + "-of-" + count : agentName;
+    }
+
+    private final String agentName;
+    private final BooleanSupplier cancellation;
+    private final Instant scheduledFireTime;
+    private final Instant deadline;
+    private final Instant budgetDeadline;
+    private final ProgressListener progressListener;
+    private final ForkJoinInvoker forkJoinInvoker;
+    private final Cursor cursor;
+    private final Runnable workPendingListener;
+    private final int shardIndex;
+    private final int shardCount;
+
+    /**
+     * Builds an execution context.
+     *
+     * @param agentName           the name of the agent
+     * @param cancellation        a function that tells whether the execution is cancelled
+     * @param scheduledFireTime   the scheduled fire time, or {@code null} if not scheduled
+     * @param deadline            the deadline, or {@code null} if executions are not
+     *                            bounded
+     * @param budgetDeadline      the end of the time budget, or {@code null} if executions
+     *                            have no time budget
+     * @param progressListener    the receiver of the progress reported by the task
+     * @param forkJoinInvoker     the executor of the fork/join tasks invoked by the task
+     * @param cursor              the cursors of the execution
+     * @param workPendingListener notified when the task reports pending work
+     */
+    ExecutionContext(String agentName, BooleanSupplier cancellation, Instant scheduledFireTime, Instant deadline,
+            Instant budgetDeadline, ProgressListener progressListener, ForkJoinInvoker forkJoinInvoker, Cursor cursor,
+            Runnable workPendingListener)
+    {
+        this(agentName, cancellation, scheduledFireTime, deadline, budgetDeadline, progressListener, forkJoinInvoker,
+                cursor, workPendingListener, 0, 1);
+    }
+
+    private ExecutionContext(String agentName, BooleanSupplier cancellation, Instant scheduledFireTime,
+            Instant deadline, Instant budgetDeadline, ProgressListener progressListener,
+            ForkJoinInvoker forkJoinInvoker, Cursor cursor, Runnable workPendingListener, int shardIndex,
+            int shardCount)
+    {
+        this.agentName = agentName;
+        this.cancellation = cancellation;
+        this.scheduledFireTime = scheduledFireTime;
+        this.deadline = deadline;
+        this.budgetDeadline = budgetDeadline;
+        this.progressListener = progressListener;
+        this.forkJoinInvoker = forkJoinInvoker;
+        this.cursor = cursor;
+        this.workPendingListener = workPendingListener;
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Creates the context of one shard of this execution, which shares its cancellation,
+     * times and listeners, and keeps its own cursor.
+     *
+     * @param index the shard index, from {@code 0} to {@code count - 1}
+     * @param count the number of shards
+     * @return a new {@link ExecutionContext} for the shard
+     */
+    ExecutionContext forShard(int index, int count)
+    {
+        return new ExecutionContext(agentName, cancellation, scheduledFireTime, deadline, budgetDeadline,
+                progressListener, forkJoinInvoker, cursor, workPendingListener, index, count);
+    }
+
+    @Override
+    public String getAgentName()
+    {
+        return agentName;
+    }
+
+    @Override
+    public boolean isCancelled()
+    {
+        return cancellation.getAsBoolean();
+    }
+
+    @Override
+    public Optional<Instant> getScheduledFireTime()
+    {
+        return Optional.ofNullable(scheduledFireTime);
+    }
+
+    @Override
+    public Optional<Instant> getDeadline()
+    {
+        return Optional.ofNullable(deadline);
+    }
+
+    @Override
+    public Optional<Duration> getRemainingTime()
+    {
+        return getDeadline().map(time -> Duration.between(Instant.now(), time));
+    }
+
+    @Override
+    public Optional<Duration> getRemainingBudget()
+    {
+        return Optional.ofNullable(budgetDeadline).map(time -> Duration.between(Instant.now(), time));
+    }
+
+    @Override
+    public boolean isBudgetExhausted()
+    {
+        return budgetDeadline != null && !Instant.now().isBefore(budgetDeadline);
+    }
+
+    @Override
+    public void reportWorkPending()
+    {
+        workPendingListener.run();
+    }
+
+    @Override
+    public int getShardIndex()
+    {
+        return shardIndex;
+    }
+
+    @Override
+    public int getShardCount()
+    {
+        return shardCount;
+    }
+
+    @Override
+    public <T> T invoke(ForkJoinTask<T> task)
+    {
+        return forkJoinInvoker.invoke(task, this);
+    }
+
+    @Override
+    public Optional<String> getCursor()
+    {
+        return cursor.get(cursorKey(agentName, shardIndex, shardCount));
+    }
+
+    @Override
+    public void updateCursor(String cursor)
+    {
+        this.cursor.update(cursorKey(agentName, shardIndex, shardCount), cursor);
+    }
+
+    /**
+     * @return the cursors set by all shards of the execution, to be committed if it
+     *         succeeds, by key
+     */
+    Map<String, String> getCursorUpdates()
+    {
+        return cursor.getUpdates();
+    }
+
+    @Override
+    public void reportProgress(long completed, long total)
+    {
+        reportProgress(completed, total, null);
+    }
+
+    @Override
+    public void reportProgress(long completed, long total, String message)
+    {
+        progressListener.onProgress(completed, total, message);
+    }
+
+    @Override
+    public String toString()
+    {
+        return shardCount > 1 ? "AgentContext$" + agentName + "[" + shardIndex + "/" + shardCount + "]"
+                : "AgentContext$" + agentName;
+    }
+
+}
@@ -0,0 +1,130 @@
+package net.obvj.smart.agents;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import net.obvj.smart.util.LagStatistics;
+import net.obvj.smart.util.StatisticsUtils;
+
+/**
+ * The statistics of the scheduled executions of an {@link Agent}: the executions that
+ * could not run as triggered or timed out, and the time they waited to be started.
+ * <p>
+ * All methods are thread-safe.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public final class ExecutionStatistics
+{
+    private final AtomicLong droppedExecutions = new AtomicLong();
+    private final AtomicLong coalescedExecutions = new AtomicLong();
+    private final AtomicLong misfires = new AtomicLong();
+    private final AtomicLong reanchors = new AtomicLong();
+    private final AtomicLong timedOutExecutions = new AtomicLong();
+
+    /*
+     * The time between the planned fire time and the actual start of scheduled executions
+     */
+    private final LagStatistics schedulingLag = new LagStatistics();
+
+    void recordDroppedExecution()
+    {
+        droppedExecutions.incrementAndGet();
+    }
+
+    void recordCoalescedExecution()
+    {
+        coalescedExecutions.incrementAndGet();
+    }
+
+    void recordMisfires(long count)
+    {
+        misfires.addAndGet(count);
+    }
+
+    void recordReanchor()
+    {
+        reanchors.incrementAndGet();
+    }
+
+    void recordTimedOutExecution()
+    {
+        timedOutExecutions.incrementAndGet();
+    }
+
+    void recordSchedulingLag(long lagNanos)
+    {
+        schedulingLag.record(lagNanos);
+    }
+
+    /**
+     * @return the number of executions dropped because a previous execution was still in
+     *         progress
+     */
+    public long getDroppedExecutions()
+    {
+        return droppedExecutions.get();
+    }
+
+    /**
+     * @return the number of executions merged into a pending execution because a previous
+     *         execution was still in progress
+     */
+    public long getCoalescedExecutions()
+    {
+        return coalescedExecutions.get();
+    }
+
+    /**
+     * @return the number of scheduled executions that could not be triggered on time
+     */
+    public long getMisfires()
+    {
+        return misfires.get();
+    }
+
+    /**
+     * @return the number of times the pending fire time of the agent was re-anchored due to
+     *         wall-clock jumps or UTC offset changes
+     */
+    public long getReanchors()
+    {
+        return reanchors.get();
+    }
+
+    /**
+     * @return the number of executions interrupted because the execution timeout elapsed
+     */
+    public long getTimedOutExecutions()
+    {
+        return timedOutExecutions.get();
+    }
+
+    /**
+     * @return the scheduling lag statistics of the agent
+     */
+    public LagStatistics getSchedulingLag()
+    {
+        return schedulingLag;
+    }
+
+    /**
+     * Appends the scheduling lag statistics, in milliseconds, to the given status builder.
+     *
+     * @param builder the {@link ToStringBuilder} of the agent status
+     * @return the same builder, for chained calls
+     */
+    ToStringBuilder appendSchedulingLag(ToStringBuilder builder)
+    {
+        return builder.append("schedulingLagCount", schedulingLag.getCount())
+                .append("lastSchedulingLagMillis", StatisticsUtils.toMillis(schedulingLag.getLast()))
+                .append("meanSchedulingLagMillis", StatisticsUtils.toMillis(schedulingLag.getMean()))
+                .append("maxSchedulingLagMillis", StatisticsUtils.toMillis(schedulingLag.getMax()))
+                .append("p50SchedulingLagMillis", StatisticsUtils.toMillis(schedulingLag.getPercentile(50)))
+                .append("p90SchedulingLagMillis", StatisticsUtils.toMillis(schedulingLag.getPercentile(90)))
+                .append("p99SchedulingLagMillis", StatisticsUtils.toMillis(schedulingLag.getPercentile(99)));
+    }
+
+}
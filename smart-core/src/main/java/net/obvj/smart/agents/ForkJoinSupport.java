@@ -0,0 +1,154 @@
+package net.obvj.smart.agents;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import net.obvj.smart.scheduler.AgentScheduler;
+
+/**
+ * Invokes the fork/join tasks of an {@link Agent} on the pool shared by all agents, and
+ * keeps the statistics of these tasks.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public final class ForkJoinSupport
+{
+    /*
+     * The interval between checks of cancellation while waiting for a fork/join task
+     */
+    private static final long SAMPLING_MILLIS = 50L;
+
+    private final Agent agent;
+
+    /*
+     * The fork/join tasks invoked by the agent, the work stolen between the pool workers
+     * while they were in progress, and the peak number of pool workers observed active
+     */
+    private final AtomicLong tasks = new AtomicLong();
+    private final AtomicLong steals = new AtomicLong();
+    private final AtomicInteger peakParallelism = new AtomicInteger();
+
+    /**
+     * @param agent the {@link Agent} that invokes the tasks
+     */
+    ForkJoinSupport(Agent agent)
+    {
+        this.agent = agent;
+    }
+
+    /**
+     * Invokes a fork/join task on the pool shared by all agents and waits for its result,
+     * cancelling it if the execution is cancelled in the meantime.
+     * <p>
+     * The steals are measured as the growth of the pool's steal count while the task is in
+     * progress, so they also include the work stolen for other agents' tasks running at the
+     * same time.
+     *
+     * @param task    the task to be invoked
+     * @param context the {@link AgentContext} of the execution
+     * @return the result of the task
+     * @throws CancellationException if the execution is cancelled or the calling thread is
+     *                               interrupted before the task completes
+     */
+    <T> T invoke(ForkJoinTask<T> task, AgentContext context)
+    {
+        AgentScheduler scheduler = agent.getScheduler();
+        ForkJoinPool pool = scheduler != null ? scheduler.getForkJoinPool() : ForkJoinPool.commonPool();
+        long initialSteals = pool.getStealCount();
+        tasks.incrementAndGet();
+        pool.execute(task);
+        try
+        {
+            while (true)
+            {
+                peakParallelism.accumulateAndGet(pool.getActiveThreadCount(), Math::max);
+                if (context.isCancelled())
+                {
+                    task.cancel(true);
+                    throw new CancellationException("Agent execution cancelled");
+                }
+                try
+                {
+                    return task.get(SAMPLING_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                catch (TimeoutException exception)
+                {
+                    // Still in progress: samples the parallelism and checks cancellation
+                }
+                catch (ExecutionException exception)
+                {
+                    throw propagate(exception.getCause());
+                }
+                catch (InterruptedException exception)
+                {
+                    task.cancel(true);
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Interrupted while waiting for a fork/join task");
+                }
+            }
+        }
+        finally
+        {
+            steals.addAndGet(pool.getStealCount() - initialSteals);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable failure)
+    {
+        if (failure instanceof Error)
+        {
+            throw (Error) failure;
+        }
+        return failure instanceof RuntimeException ? (RuntimeException) failure
+                : new UndeclaredThrowableException(failure);
+    }
+
+    /**
+     * @return the number of fork/join tasks invoked by the agent
+     */
+    public long getForkJoinTasks()
+    {
+        return tasks.get();
+    }
+
+    /**
+     * @return the number of tasks stolen between the fork/join pool workers while the tasks
+     *         of the agent were in progress
+     */
+    public long getForkJoinSteals()
+    {
+        return steals.get();
+    }
+
+    /**
+     * @return the peak number of fork/join pool workers observed active while the tasks of
+     *         the agent were in progress
+     */
+    public int getForkJoinPeakParallelism()
+    {
+        return peakParallelism.get();
+    }
+
+    /**
+     * Appends the statistics of the fork/join tasks to the given status builder.
+     *
+     * @param builder the {@link ToStringBuilder} of the agent status
+     * @return the same builder, for chained calls
+     */
+    ToStringBuilder appendTo(ToStringBuilder builder)
+    {
+        return builder.append("forkJoinTasks", tasks.get()).append("forkJoinSteals", steals.get())
+                .append("forkJoinPeakParallelism", peakParallelism.get());
+    }
+
+}
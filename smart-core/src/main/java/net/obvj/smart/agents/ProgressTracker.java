@@ -0,0 +1,95 @@
+package net.obvj.smart.agents;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the progress reported through the {@link AgentContext} by the task of the last
+ * execution of an {@link Agent}.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public final class ProgressTracker
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ProgressTracker.class);
+
+    private final String agentName;
+
+    private volatile String lastProgress;
+    private volatile String lastProgressMessage;
+
+    /**
+     * @param agentName the name of the agent, for logging
+     */
+    ProgressTracker(String agentName)
+    {
+        this.agentName = agentName;
+    }
+
+    /**
+     * Clears the progress reported by the previous execution.
+     */
+    void reset()
+    {
+        lastProgress = null;
+        lastProgressMessage = null;
+    }
+
+    /**
+     * Records the progress reported by the task of the current execution.
+     *
+     * @param completed the amount of work completed
+     * @param total     the total amount of work, or zero if unknown
+     * @param message   an optional message
+     */
+    void report(long completed, long total, String message)
+    {
+        String progress = total > 0
+                ? String.format("%d/%d (%s%%)", completed, total,
+                        BigDecimal.valueOf(completed * 100.0 / total).setScale(1, RoundingMode.HALF_UP))
+                : String.valueOf(completed);
+        lastProgress = progress;
+        lastProgressMessage = message;
+        if (LOG.isDebugEnabled())
+        {
+            LOG.debug("Progress of {}: {} {}", agentName, progress, StringUtils.defaultString(message));
+        }
+    }
+
+    /**
+     * @return the progress reported by the task of the last execution, formatted as
+     *         {@code "completed/total (percentage%)"}, or {@code null} if not reported
+     */
+    public String getLastProgress()
+    {
+        return lastProgress;
+    }
+
+    /**
+     * @return the message of the progress reported by the task of the last execution, or
+     *         {@code null} if not reported
+     */
+    public String getLastProgressMessage()
+    {
+        return lastProgressMessage;
+    }
+
+    /**
+     * Appends the progress reported by the task of the last execution to the given status
+     * builder.
+     *
+     * @param builder the {@link ToStringBuilder} of the agent status
+     * @return the same builder, for chained calls
+     */
+    ToStringBuilder appendTo(ToStringBuilder builder)
+    {
+        return builder.append("progress", lastProgress).append("progressMessage", lastProgressMessage);
+    }
+
+}
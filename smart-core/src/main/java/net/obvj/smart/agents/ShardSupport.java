@@ -0,0 +1,208 @@
+package net.obvj.smart.agents;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiConsumer;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.obvj.smart.scheduler.AgentScheduler;
+import net.obvj.smart.util.StatisticsUtils;
+
+/**
+ * Runs the sharded executions of an {@link Agent}, i.e., executions with concurrent
+ * invocations of the task, one per shard, and keeps the durations of the shards of the
+ * last sharded execution.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public final class ShardSupport
+{
+    private static final Logger LOG = LoggerFactory.getLogger(ShardSupport.class);
+
+    private final Agent agent;
+    private final int shards;
+
+    /*
+     * The durations of the shards of the last sharded execution
+     */
+    private volatile ShardSummary lastSummary;
+
+    /**
+     * @param agent  the {@link Agent} whose task is sharded
+     * @param shards the number of concurrent invocations of the task in each execution
+     */
+    ShardSupport(Agent agent, int shards)
+    {
+        this.agent = agent;
+        this.shards = Math.max(1, shards);
+    }
+
+    /**
+     * @return {@code true} if the executions of the agent are sharded
+     */
+    boolean isSharded()
+    {
+        return shards > 1;
+    }
+
+    /**
+     * Starts one invocation of the agent task per shard. All shards but the first one are
+     * handed over to the worker pool, while the first one runs in the calling thread.
+     * Shards rejected by a saturated pool also run in the calling thread.
+     *
+     * @param context the {@link ExecutionContext} of the execution
+     * @return a {@link CompletionStage} that completes when all shards finish, exceptionally
+     *         if any of them fails
+     */
+    CompletionStage<?> run(ExecutionContext context)
+    {
+        AgentScheduler scheduler = agent.getScheduler();
+        long[] durations = new long[shards];
+        CompletableFuture<?>[] results = new CompletableFuture<?>[shards];
+        for (int index = shards - 1; index >= 0; index--)
+        {
+            int shard = index;
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            results[shard] = result;
+            Runnable task = () -> runShard(context.forShard(shard, shards), durations, result);
+            if (shard == 0 || scheduler == null || !scheduler.execute(agent, task))
+            {
+                task.run();
+            }
+        }
+        return CompletableFuture.allOf(results).whenComplete((result, failure) -> record(durations));
+    }
+
+    private void runShard(AgentContext context, long[] durations, CompletableFuture<Object> result)
+    {
+        long start = System.nanoTime();
+        BiConsumer<Object, Throwable> finish = (value, failure) ->
+        {
+            durations[context.getShardIndex()] = System.nanoTime() - start;
+            if (failure == null)
+            {
+                result.complete(null);
+            }
+            else
+            {
+                result.completeExceptionally(Agent.unwrap(failure));
+            }
+        };
+        try
+        {
+            CompletionStage<?> stage = agent.runTaskAsync(context);
+            if (stage == null)
+            {
+                finish.accept(null, null);
+            }
+            else
+            {
+                stage.whenComplete(finish);
+            }
+        }
+        catch (Throwable failure)
+        {
+            // Errors included, otherwise the execution would never complete
+            finish.accept(null, failure);
+        }
+    }
+
+    private void record(long[] durations)
+    {
+        ShardSummary summary = new ShardSummary(durations);
+        lastSummary = summary;
+        LOG.info("{} shards finished. Aggregated duration: {} ms. Slowest shard: {} ({} ms)", durations.length,
+                StatisticsUtils.toMillis(summary.aggregatedNanos), summary.slowestShard,
+                StatisticsUtils.toMillis(summary.slowestNanos));
+    }
+
+    /**
+     * @return the number of concurrent invocations of the task in each execution
+     */
+    public int getShards()
+    {
+        return shards;
+    }
+
+    /**
+     * @return the sum of the durations of all shards of the last sharded execution, in
+     *         nanoseconds, or {@code 0} if no sharded execution finished yet
+     */
+    public long getLastAggregatedShardDurationNanos()
+    {
+        ShardSummary summary = lastSummary;
+        return summary != null ? summary.aggregatedNanos : 0L;
+    }
+
+    /**
+     * @return the index of the slowest shard of the last sharded execution, or {@code -1} if
+     *         no sharded execution finished yet
+     */
+    public int getLastSlowestShard()
+    {
+        ShardSummary summary = lastSummary;
+        return summary != null ? summary.slowestShard : -1;
+    }
+
+    /**
+     * @return the duration of the slowest shard of the last sharded execution, in
+     *         nanoseconds, or {@code 0} if no sharded execution finished yet
+     */
+    public long getLastSlowestShardDurationNanos()
+    {
+        ShardSummary summary = lastSummary;
+        return summary != null ? summary.slowestNanos : 0L;
+    }
+
+    /**
+     * Appends the number of shards and the durations of the shards of the last sharded
+     * execution, in milliseconds, to the given status builder.
+     *
+     * @param builder the {@link ToStringBuilder} of the agent status
+     * @return the same builder, for chained calls
+     */
+    ToStringBuilder appendTo(ToStringBuilder builder)
+    {
+        ShardSummary summary = lastSummary;
+        builder.append("shards", shards);
+        if (summary == null)
+        {
+            return builder;
+        }
+        return builder.append("aggregatedShardDurationMillis", StatisticsUtils.toMillis(summary.aggregatedNanos))
+                .append("slowestShard", summary.slowestShard)
+                .append("slowestShardDurationMillis", StatisticsUtils.toMillis(summary.slowestNanos));
+    }
+
+    /**
+     * The durations of the shards of a sharded execution.
+     */
+    private static final class ShardSummary
+    {
+        private final long aggregatedNanos;
+        private final int slowestShard;
+        private final long slowestNanos;
+
+        private ShardSummary(long[] durations)
+        {
+            long aggregated = 0L;
+            int slowest = 0;
+            for (int shard = 0; shard < durations.length; shard++)
+            {
+                aggregated += durations[shard];
+                if (durations[shard] > durations[slowest])
+                {
+                    slowest = shard;
+                }
+            }
+            aggregatedNanos = aggregated;
+            slowestShard = slowest;
+            slowestNanos = durations[slowest];
+        }
+    }
+
+}
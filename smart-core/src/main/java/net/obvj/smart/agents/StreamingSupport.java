@@ -0,0 +1,161 @@
+package net.obvj.smart.agents;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.reflect.ConstructorUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.obvj.smart.agents.stream.BatchingSubscriber;
+import net.obvj.smart.agents.stream.Publisher;
+import net.obvj.smart.agents.stream.Sink;
+import net.obvj.smart.conf.AgentConfiguration;
+import net.obvj.smart.conf.AgentConfigurationException;
+import net.obvj.smart.util.Exceptions;
+
+/**
+ * Routes the items published by the streaming tasks of an {@link Agent} to its sinks, and
+ * keeps the statistics of the streamed items.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public final class StreamingSupport
+{
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingSupport.class);
+
+    private final String agentName;
+    private final List<Sink<Object>> sinks;
+    private final int batchSize;
+
+    /*
+     * The number of items streamed by the last and by all executions, and the throughput of
+     * the last one, in items per second
+     */
+    private volatile long lastStreamedItems;
+    private volatile double lastStreamThroughput;
+    private final AtomicLong totalStreamedItems = new AtomicLong();
+
+    /**
+     * @param configuration the {@link AgentConfiguration} with the sinks of the agent
+     * @throws AgentConfigurationException if a sink cannot be instantiated
+     */
+    StreamingSupport(AgentConfiguration configuration)
+    {
+        agentName = configuration.getName();
+        sinks = newSinks(configuration.getSinks());
+        batchSize = configuration.getSinkBatchSize();
+    }
+
+    /**
+     * Instantiates the sinks of an agent.
+     *
+     * @param sinkClassNames a comma-separated list of {@link Sink} class names
+     * @return a list of sinks, possibly empty
+     * @throws AgentConfigurationException if a class cannot be instantiated or is not a
+     *                                     {@link Sink}
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Sink<Object>> newSinks(String sinkClassNames)
+    {
+        if (StringUtils.isBlank(sinkClassNames))
+        {
+            return Collections.emptyList();
+        }
+        List<Sink<Object>> sinks = new ArrayList<>();
+        for (String sinkClassName : StringUtils.split(sinkClassNames, ", "))
+        {
+            Object sink;
+            try
+            {
+                sink = ConstructorUtils.invokeConstructor(Class.forName(sinkClassName));
+            }
+            catch (ReflectiveOperationException exception)
+            {
+                throw Exceptions.agentConfiguration(exception, "Unable to instantiate sink: %s", sinkClassName);
+            }
+            if (!(sink instanceof Sink))
+            {
+                throw Exceptions.agentConfiguration("Not a sink: %s", sinkClassName);
+            }
+            sinks.add((Sink<Object>) sink);
+        }
+        return Collections.unmodifiableList(sinks);
+    }
+
+    /**
+     * Subscribes to the items published by a streaming task, routing them in batches to the
+     * sinks, with the demand bounded by the sink batch size.
+     *
+     * @param publisher the {@link Publisher} returned by the task
+     * @return a {@link CompletionStage} that completes when all items are written to the
+     *         sinks, or exceptionally if the publisher or a sink fails
+     */
+    CompletionStage<?> subscribe(Publisher<?> publisher)
+    {
+        BatchingSubscriber subscriber = new BatchingSubscriber(sinks, batchSize, this::record);
+        try
+        {
+            publisher.subscribe(subscriber);
+        }
+        catch (RuntimeException exception)
+        {
+            subscriber.onError(exception);
+        }
+        return subscriber.getCompletion();
+    }
+
+    private void record(long items, long elapsedNanos)
+    {
+        lastStreamedItems = items;
+        lastStreamThroughput = elapsedNanos > 0 ? items * 1e9 / elapsedNanos : 0;
+        totalStreamedItems.addAndGet(items);
+        LOG.info("{} item(s) streamed by {}", items, agentName);
+    }
+
+    /**
+     * @return the number of items streamed by the last streaming execution
+     */
+    public long getLastStreamedItems()
+    {
+        return lastStreamedItems;
+    }
+
+    /**
+     * @return the throughput of the last streaming execution, in items per second
+     */
+    public double getLastStreamThroughput()
+    {
+        return lastStreamThroughput;
+    }
+
+    /**
+     * @return the number of items streamed by all executions
+     */
+    public long getTotalStreamedItems()
+    {
+        return totalStreamedItems.get();
+    }
+
+    /**
+     * Appends the statistics of streaming executions to the given status builder.
+     *
+     * @param builder the {@link ToStringBuilder} of the agent status
+     * @return the same builder, for chained calls
+     */
+    ToStringBuilder appendTo(ToStringBuilder builder)
+    {
+        return builder.append("streamedItems", lastStreamedItems)
+                .append("streamThroughput", BigDecimal.valueOf(lastStreamThroughput).setScale(1, RoundingMode.HALF_UP))
+                .append("totalStreamedItems", totalStreamedItems.get());
+    }
+
+}
@@ -0,0 +1,136 @@
+package net.obvj.smart.agents;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.obvj.smart.util.StatisticsUtils;
+
+/**
+ * The time budget of the executions of an {@link Agent}, with the executions that overran
+ * it and the continuations of the work left pending by the executions.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public final class TimeBudget
+{
+    private static final Logger LOG = LoggerFactory.getLogger(TimeBudget.class);
+
+    private final String agentName;
+    private final long budgetMillis;
+
+    /*
+     * The executions that overran the time budget and the largest overrun, in nanoseconds,
+     * and the executions with pending work that were resubmitted right away or deferred to
+     * the next scheduled execution
+     */
+    private final AtomicLong overruns = new AtomicLong();
+    private final AtomicLong maxOverrunNanos = new AtomicLong();
+    private final AtomicLong continuations = new AtomicLong();
+    private final AtomicLong deferredContinuations = new AtomicLong();
+
+    /**
+     * @param agentName    the name of the agent, for logging
+     * @param budgetMillis the time budget of each execution, in milliseconds, or 0 if
+     *                     executions have no time budget
+     */
+    TimeBudget(String agentName, long budgetMillis)
+    {
+        this.agentName = agentName;
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Records whether an execution that finished in time overran the time budget.
+     *
+     * @param elapsedNanos the duration of the execution, in nanoseconds
+     * @return {@code true} if the execution took longer than the time budget
+     */
+    boolean checkOverrun(long elapsedNanos)
+    {
+        if (budgetMillis <= 0)
+        {
+            return false;
+        }
+        long overrunNanos = elapsedNanos - TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        if (overrunNanos <= 0)
+        {
+            return false;
+        }
+        overruns.incrementAndGet();
+        maxOverrunNanos.accumulateAndGet(overrunNanos, Math::max);
+        LOG.warn("Execution of {} overran its time budget of {} ms by {} ms", agentName, budgetMillis,
+                StatisticsUtils.toMillis(overrunNanos));
+        return true;
+    }
+
+    void recordContinuation()
+    {
+        continuations.incrementAndGet();
+    }
+
+    void recordDeferredContinuation()
+    {
+        deferredContinuations.incrementAndGet();
+    }
+
+    /**
+     * @return the number of executions that took longer than the time budget
+     */
+    public long getBudgetOverruns()
+    {
+        return overruns.get();
+    }
+
+    /**
+     * @return the largest time by which an execution overran the time budget, in
+     *         nanoseconds, or {@code 0} if no execution overran it
+     */
+    public long getMaxBudgetOverrunNanos()
+    {
+        return maxOverrunNanos.get();
+    }
+
+    /**
+     * @return the number of executions with pending work that were followed by an
+     *         immediate execution
+     */
+    public long getContinuations()
+    {
+        return continuations.get();
+    }
+
+    /**
+     * @return the number of executions with pending work that overran the time budget, and
+     *         whose work was left for the next scheduled execution
+     */
+    public long getDeferredContinuations()
+    {
+        return deferredContinuations.get();
+    }
+
+    /**
+     * Appends the time budget, the executions that overran it, the largest overrun, in
+     * milliseconds, and the continuations of pending work to the given status builder.
+     * Nothing is appended if the agent has no time budget.
+     *
+     * @param builder the {@link ToStringBuilder} of the agent status
+     * @return the same builder, for chained calls
+     */
+    ToStringBuilder appendTo(ToStringBuilder builder)
+    {
+        if (budgetMillis <= 0)
+        {
+            return builder;
+        }
+        return builder.append("timeBudgetMillis", budgetMillis).append("budgetOverruns", overruns.get())
+                .append("maxBudgetOverrunMillis", StatisticsUtils.toMillis(maxOverrunNanos.get()))
+                .append("continuations", continuations.get())
+                .append("deferredContinuations", deferredContinuations.get());
+    }
+
+}
@@ -1,8 +1,6 @@
 package net.obvj.smart.agents;
 
 import java.util.Date;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
@@ -10,7 +8,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.obvj.smart.conf.AgentConfiguration;
+import net.obvj.smart.conf.annotation.MisfirePolicy;
+import net.obvj.smart.scheduler.AgentScheduler;
+import net.obvj.smart.scheduler.ScheduledExecution;
+import net.obvj.smart.scheduler.TimeBase;
 import net.obvj.smart.util.DateUtils;
+import net.obvj.smart.util.StartOffset;
 import net.obvj.smart.util.TimeInterval;
 import net.obvj.smart.util.TimeUnit;
 
@@ -18,6 +21,21 @@ import net.obvj.smart.util.TimeUnit;
  * A thread-safe extensible Agent for tasks that are scheduled in the system to run
  * repeatedly, given an interval that is particular to each task. Available operations
  * are: 'start', 'stop', 'run' and 'reset'
+ * <p>
+ * By default, the interval is measured from the scheduled start of each execution (fixed
+ * rate). In fixed-delay mode, the interval is measured from the end of the previous
+ * execution instead.
+ * <p>
+ * Executions that could not be triggered on time are handled according to the agent's
+ * {@link MisfirePolicy}.
+ * <p>
+ * Timer agents are aligned to the wall-clock boundaries of their interval, unless a
+ * {@link StartOffset} is set to spread agents with the same interval along the period.
+ * <p>
+ * Fire times are tracked with the high-resolution {@link System#nanoTime()} clock, so that
+ * intervals of a few milliseconds (e.g.: {@code "250 ms"}) do not accumulate drift. If the
+ * wall clock jumps or the UTC offset changes, fixed-rate agents are re-aligned to the
+ * boundaries of their interval on the new wall clock.
  *
  * @author oswaldo.bapvic.jr
  * @since 1.0
@@ -29,9 +47,16 @@ public abstract class TimerAgent extends Agent
     private static final Logger LOG = LoggerFactory.getLogger(TimerAgent.class);
 
     private TimeInterval interval;
+    private final boolean fixedDelay;
+    private final StartOffset startOffset;
+    private final long startOffsetMillis;
 
-    private AgentThreadFactory threadFactory;
-    private ScheduledExecutorService schedule;
+    private ScheduledExecution schedule;
+
+    /*
+     * The time of the next scheduled execution, in the System.nanoTime() time scale
+     */
+    private long nextFireTime;
 
     /**
      * Builds a {@link TimerAgent} from the given configuration.
@@ -40,7 +65,19 @@ public abstract class TimerAgent extends Agent
      */
     public TimerAgent(AgentConfiguration configuration)
     {
-        super(configuration);
+        this(configuration, AgentScheduler.getDefault());
+    }
+
+    /**
+     * Builds a {@link TimerAgent} from the given configuration, to be scheduled by a
+     * particular {@link AgentScheduler}.
+     *
+     * @param configuration the {@link AgentConfiguration} to be set
+     * @param scheduler     the {@link AgentScheduler} to be used
+     */
+    public TimerAgent(AgentConfiguration configuration, AgentScheduler scheduler)
+    {
+        super(configuration, scheduler);
 
         if (!TYPE.equalsIgnoreCase(configuration.getType()))
         {
@@ -49,9 +86,9 @@ public abstract class TimerAgent extends Agent
 
         TimeInterval timeInterval = TimeInterval.of(configuration.getFrequency());
         this.interval = timeInterval;
-
-        threadFactory = new AgentThreadFactory(getName());
-        schedule = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.fixedDelay = configuration.isFixedDelay();
+        this.startOffset = StartOffset.of(configuration.getStartOffset());
+        this.startOffsetMillis = startOffset.toMillis(getName(), interval.toMillis());
 
         setState(State.SET);
     }
@@ -63,11 +100,11 @@ public abstract class TimerAgent extends Agent
     public final void onStart()
     {
         LOG.info("Starting agent: {}", getName());
-        LOG.info("Agent {} scheduled to run every {}.", getName(), interval);
+        LOG.info("Agent {} scheduled to run every {}{}.", getName(), interval, fixedDelay ? " (fixed delay)" : "");
 
-        Date start = DateUtils.getExactStartDateEvery(interval.getDuration(), interval.getTimeUnit());
-        schedule.scheduleAtFixedRate(this, (start.getTime() - System.currentTimeMillis()), interval.toMillis(),
-                java.util.concurrent.TimeUnit.MILLISECONDS);
+        Date start = DateUtils.getExactStartDateEvery(interval.getDuration(), interval.getTimeUnit(),
+                startOffsetMillis);
+        scheduleTrigger(start.getTime());
 
         if (LOG.isInfoEnabled())
         {
@@ -75,14 +112,152 @@ public abstract class TimerAgent extends Agent
         }
     }
 
+    /**
+     * Schedules the trigger of the next execution, replacing any trigger previously
+     * scheduled.
+     *
+     * @param fireTime the time of the next execution, in milliseconds since the epoch
+     */
+    protected synchronized void scheduleTrigger(long fireTime)
+    {
+        long delay = java.util.concurrent.TimeUnit.MILLISECONDS.toNanos(fireTime - System.currentTimeMillis());
+        scheduleTriggerAt(System.nanoTime() + delay);
+    }
+
+    /**
+     * Schedules the trigger of the next execution at the given time of the high-resolution
+     * clock, replacing any trigger previously scheduled.
+     *
+     * @param fireTime the time of the next execution, in the {@link System#nanoTime()} time
+     *                 scale
+     */
+    private synchronized void scheduleTriggerAt(long fireTime)
+    {
+        if (schedule != null)
+        {
+            schedule.cancel();
+        }
+        nextFireTime = fireTime;
+        schedule = getScheduler().scheduleTrigger(this::trigger, fireTime - System.nanoTime(),
+                java.util.concurrent.TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Hands this agent over to the worker pool and schedules the next trigger, applying the
+     * misfire policy if one or more periods were missed. With the
+     * {@link MisfirePolicy#FIRE_ALL} policy, at most {@link #MAX_REPLAYED_MISFIRES} missed
+     * periods are replayed.
+     */
+    protected synchronized void trigger()
+    {
+        if (isStopRequested())
+        {
+            return;
+        }
+        long now = System.nanoTime();
+        long period = interval.toNanos();
+        long missed = Math.max(0, (now - nextFireTime) / period);
+        MisfirePolicy misfirePolicy = getMisfirePolicy(missed);
+
+        if (missed > 0)
+        {
+            // With FIRE_ALL, each missed period is recorded by its own trigger
+            recordMisfires(misfirePolicy == MisfirePolicy.FIRE_ALL ? 1 : missed);
+        }
+        boolean executed = (missed == 0 || misfirePolicy != MisfirePolicy.SKIP_TO_NEXT)
+                && getScheduler().execute(this, nextFireTime);
+
+        if (fixedDelay)
+        {
+            if (!executed)
+            {
+                scheduleTriggerAt(now + period);
+            }
+            // Otherwise, the next trigger is scheduled when the execution finishes
+        }
+        else if (missed == 0 || misfirePolicy == MisfirePolicy.FIRE_ALL)
+        {
+            scheduleTriggerAt(nextFireTime + period);
+        }
+        else
+        {
+            scheduleTriggerAt(nextFireTime + (missed + 1) * period);
+        }
+    }
+
+    /**
+     * Re-aligns the pending trigger of a fixed-rate agent to the interval boundaries of the
+     * shifted wall clock. Fixed-delay agents are not affected, since their interval is
+     * measured from the end of the previous execution.
+     */
+    @Override
+    protected synchronized void onTimeShift(TimeBase.Reason reason, long jumpMillis)
+    {
+        if (fixedDelay || isStopRequested())
+        {
+            return;
+        }
+        Date next = DateUtils.getExactStartDateEvery(interval.getDuration(), interval.getTimeUnit(),
+                startOffsetMillis);
+        scheduleTrigger(next.getTime());
+        recordReanchor(reason);
+
+        if (LOG.isInfoEnabled())
+        {
+            LOG.info("Next execution of {} will be at: {}", getName(), DateUtils.formatDate(next));
+        }
+    }
+
+    /**
+     * The method called by the system to execute the agent task automatically. In
+     * fixed-delay mode, the next execution is scheduled after the task finishes.
+     */
+    @Override
+    public void run()
+    {
+        if (runExecutions(false))
+        {
+            scheduleNextAfterExecution();
+        }
+    }
+
+    /**
+     * In fixed-delay mode, schedules the next execution when the previous one is released
+     * by another thread: when an asynchronous task completes, so that the delay is measured
+     * from its completion; or when the execution times out, so that a hung task does not
+     * stop the agent.
+     */
+    @Override
+    protected void onExecutionReleased()
+    {
+        scheduleNextAfterExecution();
+    }
+
+    private void scheduleNextAfterExecution()
+    {
+        if (fixedDelay)
+        {
+            synchronized (this)
+            {
+                if (isStarted() && !isStopRequested())
+                {
+                    scheduleTriggerAt(System.nanoTime() + interval.toNanos());
+                }
+            }
+        }
+    }
+
     /**
      * Terminates this agent timer gracefully. Does not interfere with a currently executing
      * task, if it exists.
      */
     @Override
-    public final void onStop()
+    public final synchronized void onStop()
     {
-        schedule.shutdown();
+        if (schedule != null)
+        {
+            schedule.cancel();
+        }
     }
 
     @Override
@@ -97,14 +272,24 @@ public abstract class TimerAgent extends Agent
     @Override
     public String getStatusString()
     {
+        ExecutionStatistics statistics = getExecutionStatistics();
         ToStringBuilder builder = new ToStringBuilder(this, ToStringStyle.JSON_STYLE);
         builder.append("name", getName()).append("type", getType()).append("status", getState())
                 .append("startDate", (DateUtils.formatDate(startDate)))
                 .append("lastExecutionStartDate", (DateUtils.formatDate(lastExecutionDate)))
                 .append("lastExecutionDuration", formatLastExecutionDuration())
                 .append("averageExecutionDuration", formatAverageExecutionDuration())
-                .append("frequency", interval);
-        return builder.build();
+                .append("frequency", interval).append("fixedDelay", fixedDelay)
+                .append("startOffset", startOffset).append("startOffsetMillis", startOffsetMillis)
+                .append("overlapPolicy", getOverlapPolicy())
+                .append("droppedExecutions", statistics.getDroppedExecutions())
+                .append("coalescedExecutions", statistics.getCoalescedExecutions())
+                .append("misfirePolicy", getMisfirePolicy()).append("misfires", statistics.getMisfires())
+                .append("reanchors", statistics.getReanchors()).append("priority", getPriority())
+                .append("group", getGroup()).append("executionTimeout", getConfiguration().getExecutionTimeout())
+                .append("lastExecutionResult", getLastExecutionResult())
+                .append("timedOutExecutions", statistics.getTimedOutExecutions());
+        return appendExecutionStatistics(builder).build();
     }
 
     public TimeInterval getFrequency()
@@ -122,4 +307,37 @@ public abstract class TimerAgent extends Agent
         return interval.getTimeUnit();
     }
 
+    /**
+     * @return {@code true} if the interval is measured from the end of the previous
+     *         execution
+     */
+    public boolean isFixedDelay()
+    {
+        return fixedDelay;
+    }
+
+    /**
+     * @return the {@link StartOffset} of this agent
+     */
+    public StartOffset getStartOffset()
+    {
+        return startOffset;
+    }
+
+    /**
+     * @return the offset of this agent from the boundaries of its interval, in milliseconds
+     */
+    public long getStartOffsetMillis()
+    {
+        return startOffsetMillis;
+    }
+
+    /**
+     * @return the next scheduled trigger, or {@code null} if no trigger was scheduled
+     */
+    protected ScheduledExecution getScheduledExecution()
+    {
+        return schedule;
+    }
+
 }
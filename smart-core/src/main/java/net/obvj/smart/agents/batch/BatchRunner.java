@@ -0,0 +1,274 @@
+package net.obvj.smart.agents.batch;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import net.obvj.smart.util.Exceptions;
+
+/**
+ * Runs a {@link BatchJob}, from a given chunk, on a fixed number of lanes.
+ * <p>
+ * Each lane repeatedly claims the next chunk, reads it, processes its items and writes
+ * them, until the end of the input is reached, the job is cancelled or a chunk fails. The
+ * caller is expected to run {@link #runLane()} once per lane (the job's parallelism), on
+ * any threads; the job is complete when all lanes have finished.
+ * <p>
+ * Chunks may finish out of order. The checkpoint is the index of the first chunk that is
+ * not yet written, and is committed (i.e., reported to the {@link Listener}) whenever it
+ * advances by the job's commit interval, and when the end of the input is reached.
+ * <p>
+ * The outcome is available as a {@link CompletableFuture}, which completes with the
+ * number of items written, or exceptionally if a chunk fails. Cancelling the future stops
+ * the lanes after the chunks in progress.
+ *
+ * @param <I> the type of the items read
+ * @param <O> the type of the items written
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class BatchRunner<I, O>
+{
+    /**
+     * A listener notified when a checkpoint is committed.
+     */
+    @FunctionalInterface
+    public interface Listener
+    {
+        /**
+         * @param checkpoint the index of the first chunk not yet committed
+         */
+        void onCommit(long checkpoint);
+    }
+
+    private final BatchJob<I, O> job;
+    private final BooleanSupplier cancellation;
+    private final Listener listener;
+
+    private final CompletableFuture<Long> completion = new CompletableFuture<>();
+    private final AtomicLong nextChunk;
+    private final AtomicInteger finishedLanes = new AtomicInteger();
+    private final AtomicLong chunks = new AtomicLong();
+    private final AtomicLong readItems = new AtomicLong();
+    private final AtomicLong writtenItems = new AtomicLong();
+
+    /*
+     * The chunks written after the first chunk not yet written (guarded by this)
+     */
+    private final Set<Long> writtenAhead = new HashSet<>();
+    private long firstUnwrittenChunk;
+    private long checkpoint;
+    private long endChunk = Long.MAX_VALUE;
+    private boolean exhausted;
+
+    private volatile boolean stopped;
+    private volatile Throwable failure;
+
+    /**
+     * Builds a runner.
+     *
+     * @param job          the {@link BatchJob} to be run
+     * @param startChunk   the index of the first chunk to be processed, i.e., the last
+     *                     checkpoint
+     * @param cancellation evaluated before each chunk is claimed; when it returns
+     *                     {@code true}, the lanes stop after the chunks in progress
+     * @param listener     an optional listener notified when a checkpoint is committed
+     * @throws IllegalArgumentException if the start chunk is negative
+     */
+    public BatchRunner(BatchJob<I, O> job, long startChunk, BooleanSupplier cancellation, Listener listener)
+    {
+        if (startChunk < 0)
+        {
+            throw Exceptions.illegalArgument("The start chunk must not be negative: %s", startChunk);
+        }
+        this.job = job;
+        this.cancellation = cancellation;
+        this.listener = listener;
+        this.nextChunk = new AtomicLong(startChunk);
+        this.firstUnwrittenChunk = startChunk;
+        this.checkpoint = startChunk;
+
+        completion.whenComplete((count, throwable) ->
+        {
+            if (throwable instanceof CancellationException)
+            {
+                stopped = true;
+            }
+        });
+    }
+
+    /**
+     * Processes chunks until the end of the input is reached, the job is cancelled or a
+     * chunk fails.
+     */
+    public void runLane()
+    {
+        try
+        {
+            while (!stopped && failure == null && !cancellation.getAsBoolean())
+            {
+                long chunk = nextChunk.getAndIncrement();
+                if (chunk >= getEndChunk() || !processChunk(chunk))
+                {
+                    break;
+                }
+            }
+        }
+        catch (Exception | Error exception)
+        {
+            failure = exception;
+        }
+        finally
+        {
+            if (finishedLanes.incrementAndGet() == job.getParallelism())
+            {
+                finish();
+            }
+        }
+    }
+
+    /**
+     * Reads, processes and writes a chunk.
+     *
+     * @return {@code false} if the chunk was past the end of the input
+     */
+    private boolean processChunk(long chunk) throws Exception
+    {
+        int chunkSize = job.getChunkSize();
+        List<I> items = job.getReader().read(chunk * chunkSize, chunkSize);
+        int size = items == null ? 0 : items.size();
+        if (size < chunkSize)
+        {
+            markEnd(size == 0 ? chunk : chunk + 1);
+        }
+        if (size == 0)
+        {
+            return false;
+        }
+        readItems.addAndGet(size);
+
+        List<O> output = new ArrayList<>(size);
+        for (I item : items)
+        {
+            O result = job.getProcessor().process(item);
+            if (result != null)
+            {
+                output.add(result);
+            }
+        }
+        if (!output.isEmpty())
+        {
+            job.getWriter().write(output);
+        }
+        writtenItems.addAndGet(output.size());
+        chunks.incrementAndGet();
+        written(chunk);
+        return true;
+    }
+
+    private synchronized long getEndChunk()
+    {
+        return endChunk;
+    }
+
+    private synchronized void markEnd(long chunk)
+    {
+        endChunk = Math.min(endChunk, chunk);
+    }
+
+    private synchronized void written(long chunk)
+    {
+        writtenAhead.add(chunk);
+        while (writtenAhead.remove(firstUnwrittenChunk))
+        {
+            firstUnwrittenChunk++;
+        }
+        if (firstUnwrittenChunk - checkpoint >= job.getCommitInterval())
+        {
+            commit(firstUnwrittenChunk);
+        }
+    }
+
+    private synchronized void commit(long chunk)
+    {
+        checkpoint = chunk;
+        if (listener != null)
+        {
+            listener.onCommit(chunk);
+        }
+    }
+
+    private void finish()
+    {
+        if (failure != null)
+        {
+            completion.completeExceptionally(failure);
+            return;
+        }
+        synchronized (this)
+        {
+            exhausted = firstUnwrittenChunk >= endChunk;
+            if (exhausted && firstUnwrittenChunk > checkpoint)
+            {
+                commit(firstUnwrittenChunk);
+            }
+        }
+        completion.complete(writtenItems.get());
+    }
+
+    /**
+     * @return a {@link CompletableFuture} that completes with the number of items written
+     *         when all lanes have finished, or exceptionally if a chunk failed
+     */
+    public CompletableFuture<Long> getCompletion()
+    {
+        return completion;
+    }
+
+    /**
+     * @return the index of the first chunk not yet committed
+     */
+    public synchronized long getCheckpoint()
+    {
+        return checkpoint;
+    }
+
+    /**
+     * @return {@code true} if all chunks up to the end of the input were written
+     */
+    public synchronized boolean isExhausted()
+    {
+        return exhausted;
+    }
+
+    /**
+     * @return the number of chunks written
+     */
+    public long getChunks()
+    {
+        return chunks.get();
+    }
+
+    /**
+     * @return the number of items read
+     */
+    public long getReadItems()
+    {
+        return readItems.get();
+    }
+
+    /**
+     * @return the number of items written, i.e., not filtered out by the processor
+     */
+    public long getWrittenItems()
+    {
+        return writtenItems.get();
+    }
+
+}
@@ -0,0 +1,197 @@
+package net.obvj.smart.agents.cursor;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.obvj.smart.conf.properties.SmartProperties;
+
+/**
+ * A file-backed store of agent cursors, i.e., the watermarks up to which incremental
+ * agents have processed their input.
+ * <p>
+ * Each agent has its own file in the store directory, which holds the last committed
+ * cursor. A cursor is committed by writing it to a temporary file, which is flushed to
+ * the disk and then atomically moved over the previous one, so that a crash at any time
+ * leaves either the previous or the new cursor, never a partial one.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class CursorStore
+{
+    private static final Logger LOG = LoggerFactory.getLogger(CursorStore.class);
+
+    private static final String CURSOR_FILE_EXTENSION = ".cursor";
+    private static final String TEMPORARY_FILE_EXTENSION = ".tmp";
+
+    private final Path directory;
+
+    private static class DefaultStoreHolder
+    {
+        private static final CursorStore INSTANCE = new CursorStore(
+                Paths.get(new SmartProperties().getProperty(SmartProperties.AGENT_CURSOR_DIRECTORY)));
+    }
+
+    /**
+     * Builds a store of cursors in the given directory, which is created on the first
+     * commit if it does not exist.
+     *
+     * @param directory the directory of the cursor files
+     */
+    public CursorStore(Path directory)
+    {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the store of cursors in the directory set in {@code smart.properties}.
+     *
+     * @return the default {@link CursorStore}
+     */
+    public static CursorStore getDefault()
+    {
+        return DefaultStoreHolder.INSTANCE;
+    }
+
+    /**
+     * Reads the last cursor committed for the given agent.
+     *
+     * @param agentName the agent name
+     * @return the last committed cursor, or {@link Optional#empty()} if no cursor was
+     *         committed for the agent
+     * @throws IOException if the cursor file exists but could not be read
+     */
+    public Optional<String> read(String agentName) throws IOException
+    {
+        try
+        {
+            return Optional.of(new String(Files.readAllBytes(getFile(agentName)), StandardCharsets.UTF_8));
+        }
+        catch (NoSuchFileException exception)
+        {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Commits a new cursor for the given agent, atomically replacing the previous one.
+     *
+     * @param agentName the agent name
+     * @param cursor    the cursor to be committed
+     * @throws IOException if the cursor could not be written, in which case the previous
+     *                     cursor is kept
+     */
+    public synchronized void commit(String agentName, String cursor) throws IOException
+    {
+        Files.createDirectories(directory);
+        Path file = getFile(agentName);
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), TEMPORARY_FILE_EXTENSION);
+        try
+        {
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING))
+            {
+                ByteBuffer buffer = ByteBuffer.wrap(cursor.getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining())
+                {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            move(temporaryFile, file);
+            syncDirectory();
+            LOG.debug("Cursor of {} committed: {}", agentName, cursor);
+        }
+        finally
+        {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException
+    {
+        try
+        {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException exception)
+        {
+            LOG.warn("Atomic move not supported in {}. The cursor file will be replaced non-atomically",
+                    target.getParent());
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Flushes the directory entry of the moved file to the disk, where supported (it is a
+     * best-effort operation, since some platforms cannot open directories).
+     */
+    private void syncDirectory()
+    {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ))
+        {
+            channel.force(true);
+        }
+        catch (IOException exception)
+        {
+            LOG.trace("Unable to sync directory {}: {}", directory, exception.toString());
+        }
+    }
+
+    /**
+     * Deletes the cursor of the given agent, so that its next execution starts over.
+     *
+     * @param agentName the agent name
+     * @return {@code true} if a cursor was deleted, or {@code false} if no cursor was
+     *         committed for the agent
+     * @throws IOException if the cursor file could not be deleted
+     */
+    public synchronized boolean delete(String agentName) throws IOException
+    {
+        return Files.deleteIfExists(getFile(agentName));
+    }
+
+    /**
+     * Returns the file that holds the cursor of the given agent. The agent name is encoded,
+     * so that any name maps to a distinct, valid file name.
+     *
+     * @param agentName the agent name
+     * @return the path of the cursor file
+     */
+    protected Path getFile(String agentName)
+    {
+        try
+        {
+            return directory.resolve(URLEncoder.encode(agentName, "UTF-8") + CURSOR_FILE_EXTENSION);
+        }
+        catch (UnsupportedEncodingException exception)
+        {
+            // UTF-8 is supported by every Java platform
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * @return the directory of the cursor files
+     */
+    public Path getDirectory()
+    {
+        return directory;
+    }
+
+}
@@ -1,5 +1,8 @@
 package net.obvj.smart.agents.impl;
 
+import java.util.concurrent.CompletionStage;
+
+import net.obvj.smart.agents.AgentContext;
 import net.obvj.smart.agents.AnnotatedAgent;
 import net.obvj.smart.agents.CronAgent;
 import net.obvj.smart.conf.AgentConfiguration;
@@ -29,6 +32,17 @@ public class AnnotatedCronAgent extends CronAgent
         annotatedAgent.runAgentTask();
     }
 
+    /**
+     * Executes the method annotated with {@code AgentTask} in the annotated agent instance,
+     * which may complete asynchronously, stream its results to the agent's sinks, or return
+     * a batch job to be run, passing the execution context if the method accepts it.
+     */
+    @Override
+    protected CompletionStage<?> runTaskAsync(AgentContext context)
+    {
+        return annotatedAgent.runAgentTask(this, context);
+    }
+
     /**
      * @return the metadata
      */
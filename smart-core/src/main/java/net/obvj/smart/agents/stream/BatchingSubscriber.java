@@ -0,0 +1,213 @@
+package net.obvj.smart.agents.stream;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.obvj.smart.util.Exceptions;
+
+/**
+ * A {@link Subscriber} that consumes the items published by a streaming agent task with
+ * bounded demand, and writes them to a list of {@link Sink}s in batches.
+ * <p>
+ * At most {@code batchSize} items are requested at a time. The next batch is requested
+ * only after the current one has been written to all sinks, so the number of items held in
+ * memory never exceeds the batch size, however many items are published.
+ * <p>
+ * The outcome is available as a {@link CompletableFuture}, which completes with the number
+ * of items consumed when the publisher completes, or exceptionally if either the publisher
+ * or a sink fails. Cancelling the future cancels the subscription.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class BatchingSubscriber implements Subscriber<Object>
+{
+    /**
+     * A listener notified when the subscription ends, for any reason.
+     */
+    @FunctionalInterface
+    public interface Listener
+    {
+        /**
+         * @param items        the number of items consumed
+         * @param elapsedNanos the time elapsed since this subscriber was created, in
+         *                     nanoseconds
+         */
+        void onFinish(long items, long elapsedNanos);
+    }
+
+    private final List<Sink<Object>> sinks;
+    private final int batchSize;
+    private final Listener listener;
+
+    private final CompletableFuture<Long> completion = new CompletableFuture<>();
+    private final AtomicLong items = new AtomicLong();
+    private final List<Object> batch;
+
+    private volatile Subscription subscription;
+    private volatile boolean done;
+    private final long startTime = System.nanoTime();
+
+    /**
+     * Builds a subscriber.
+     *
+     * @param sinks     the sinks that receive the items; if empty, items are only counted
+     * @param batchSize the maximum number of items requested and written at a time
+     * @param listener  an optional listener notified when the subscription ends
+     * @throws IllegalArgumentException if the batch size is less than 1
+     */
+    public BatchingSubscriber(List<Sink<Object>> sinks, int batchSize, Listener listener)
+    {
+        if (batchSize < 1)
+        {
+            throw Exceptions.illegalArgument("The batch size must be greater than zero: %s", batchSize);
+        }
+        this.sinks = sinks;
+        this.batchSize = batchSize;
+        this.listener = listener;
+        this.batch = new ArrayList<>(Math.min(batchSize, 1024));
+
+        completion.whenComplete((count, failure) ->
+        {
+            if (failure instanceof CancellationException)
+            {
+                cancel();
+            }
+        });
+    }
+
+    @Override
+    public void onSubscribe(Subscription subscription)
+    {
+        if (this.subscription != null || done)
+        {
+            // Only one subscription is allowed
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(batchSize);
+    }
+
+    @Override
+    public void onNext(Object item)
+    {
+        if (done)
+        {
+            return;
+        }
+        batch.add(item);
+        items.incrementAndGet();
+        if (batch.size() >= batchSize && flush())
+        {
+            subscription.request(batchSize);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable)
+    {
+        if (!done)
+        {
+            // The items received before the failure are still delivered
+            flush();
+            finish(throwable);
+        }
+    }
+
+    @Override
+    public void onComplete()
+    {
+        if (!done && flush())
+        {
+            finish(null);
+        }
+    }
+
+    /**
+     * Writes the current batch to all sinks.
+     *
+     * @return {@code true} if successful; {@code false} if a sink failed, in which case the
+     *         subscription is cancelled and the outcome, completed exceptionally
+     */
+    private boolean flush()
+    {
+        if (batch.isEmpty())
+        {
+            return true;
+        }
+        List<Object> items = Collections.unmodifiableList(new ArrayList<>(batch));
+        batch.clear();
+        for (Sink<Object> sink : sinks)
+        {
+            try
+            {
+                sink.write(items);
+            }
+            catch (Exception exception)
+            {
+                subscription.cancel();
+                finish(exception);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void cancel()
+    {
+        if (!done)
+        {
+            done = true;
+            if (subscription != null)
+            {
+                subscription.cancel();
+            }
+            notifyListener();
+        }
+    }
+
+    private void finish(Throwable failure)
+    {
+        done = true;
+        notifyListener();
+        if (failure == null)
+        {
+            completion.complete(items.get());
+        }
+        else
+        {
+            completion.completeExceptionally(failure);
+        }
+    }
+
+    private void notifyListener()
+    {
+        if (listener != null)
+        {
+            listener.onFinish(items.get(), System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * @return a {@link CompletableFuture} that completes with the number of items consumed
+     *         when the subscription ends
+     */
+    public CompletableFuture<Long> getCompletion()
+    {
+        return completion;
+    }
+
+    /**
+     * @return the number of items consumed so far
+     */
+    public long getItems()
+    {
+        return items.get();
+    }
+
+}
@@ -23,10 +23,28 @@ public class AgentConfiguration
 
     protected static final String DEFAULT_FREQUENCY_TIMER = "1";
     protected static final String DEFAULT_FREQUENCY_CRON = "* * * * *";
+    protected static final String DEFAULT_CRON_SYNTAX = "UNIX";
 
     protected static final int DEFAULT_STOP_TIMEOUT_IN_SECONDS = Integer.MAX_VALUE;
     protected static final boolean DEFAULT_AUTOMATICALLY_STARTED = true;
     protected static final boolean DEFAULT_HIDDEN = false;
+    protected static final String DEFAULT_OVERLAP_POLICY = "SKIP";
+    protected static final boolean DEFAULT_FIXED_DELAY = false;
+    protected static final String DEFAULT_START_OFFSET = "NONE";
+    protected static final String DEFAULT_MISFIRE_POLICY = "FIRE_ONCE_NOW";
+    protected static final int DEFAULT_PRIORITY = 5;
+
+    public static final String DEFAULT_GROUP = "default";
+    protected static final String DEFAULT_EXECUTION_TIMEOUT = "NONE";
+    protected static final String DEFAULT_SINKS = "";
+    protected static final int DEFAULT_SINK_BATCH_SIZE = 100;
+    protected static final int DEFAULT_SHARDS = 1;
+    protected static final String DEFAULT_TIME_BUDGET = "NONE";
+
+    public static final int MIN_PRIORITY = 1;
+    public static final int MAX_PRIORITY = 10;
+
+    private static final String GROUP_PATTERN = "[a-zA-Z0-9_-]+";
 
     @XmlElement(name = "name")
     private String name;
@@ -40,6 +58,9 @@ public class AgentConfiguration
     @XmlElement(name = "frequency")
     private String frequency = DEFAULT_FREQUENCY_TIMER;
 
+    @XmlElement(name = "cronSyntax")
+    private String cronSyntax = DEFAULT_CRON_SYNTAX;
+
     @XmlElement(name = "started")
     private boolean automaticallyStarted = DEFAULT_AUTOMATICALLY_STARTED;
 
@@ -49,6 +70,39 @@ public class AgentConfiguration
     @XmlElement(name = "hidden")
     private boolean hidden = DEFAULT_HIDDEN;
 
+    @XmlElement(name = "overlapPolicy")
+    private String overlapPolicy = DEFAULT_OVERLAP_POLICY;
+
+    @XmlElement(name = "fixedDelay")
+    private boolean fixedDelay = DEFAULT_FIXED_DELAY;
+
+    @XmlElement(name = "startOffset")
+    private String startOffset = DEFAULT_START_OFFSET;
+
+    @XmlElement(name = "misfirePolicy")
+    private String misfirePolicy = DEFAULT_MISFIRE_POLICY;
+
+    @XmlElement(name = "priority")
+    private int priority = DEFAULT_PRIORITY;
+
+    @XmlElement(name = "group")
+    private String group = DEFAULT_GROUP;
+
+    @XmlElement(name = "executionTimeout")
+    private String executionTimeout = DEFAULT_EXECUTION_TIMEOUT;
+
+    @XmlElement(name = "sinks")
+    private String sinks = DEFAULT_SINKS;
+
+    @XmlElement(name = "sinkBatchSize")
+    private int sinkBatchSize = DEFAULT_SINK_BATCH_SIZE;
+
+    @XmlElement(name = "shards")
+    private int shards = DEFAULT_SHARDS;
+
+    @XmlElement(name = "timeBudget")
+    private String timeBudget = DEFAULT_TIME_BUDGET;
+
     public AgentConfiguration()
     {
     }
@@ -59,9 +113,21 @@ public class AgentConfiguration
         this.type = builder.type;
         this.agentClass = builder.agentClass;
         this.frequency = builder.frequency;
+        this.cronSyntax = builder.cronSyntax;
         this.automaticallyStarted = builder.automaticallyStarted.booleanValue();
         this.stopTimeoutInSeconds = builder.stopTimeoutInSeconds.intValue();
         this.hidden = builder.hidden;
+        this.overlapPolicy = builder.overlapPolicy;
+        this.fixedDelay = builder.fixedDelay.booleanValue();
+        this.startOffset = builder.startOffset;
+        this.misfirePolicy = builder.misfirePolicy;
+        this.priority = builder.priority.intValue();
+        this.group = builder.group;
+        this.executionTimeout = builder.executionTimeout;
+        this.sinks = builder.sinks;
+        this.sinkBatchSize = builder.sinkBatchSize.intValue();
+        this.shards = builder.shards.intValue();
+        this.timeBudget = builder.timeBudget;
     }
 
     public String getName()
@@ -84,6 +150,11 @@ public class AgentConfiguration
         return frequency;
     }
 
+    public String getCronSyntax()
+    {
+        return cronSyntax;
+    }
+
     public boolean isAutomaticallyStarted()
     {
         return automaticallyStarted;
@@ -99,6 +170,73 @@ public class AgentConfiguration
         return hidden;
     }
 
+    public String getOverlapPolicy()
+    {
+        return overlapPolicy;
+    }
+
+    public boolean isFixedDelay()
+    {
+        return fixedDelay;
+    }
+
+    public String getStartOffset()
+    {
+        return startOffset;
+    }
+
+    public String getMisfirePolicy()
+    {
+        return misfirePolicy;
+    }
+
+    public int getPriority()
+    {
+        return priority;
+    }
+
+    public String getGroup()
+    {
+        return group;
+    }
+
+    public String getExecutionTimeout()
+    {
+        return executionTimeout;
+    }
+
+    /**
+     * @return a comma-separated list of the fully-qualified names of the {@code Sink}
+     *         classes that receive the items published by a streaming agent task
+     */
+    public String getSinks()
+    {
+        return sinks;
+    }
+
+    public int getSinkBatchSize()
+    {
+        return sinkBatchSize;
+    }
+
+    /**
+     * @return the number of concurrent invocations of the agent task (one per shard) in each
+     *         execution
+     */
+    public int getShards()
+    {
+        return shards;
+    }
+
+    /**
+     * @return the time each execution of the agent task is expected to take, after which
+     *         the task should yield the remaining work to the next execution
+     */
+    public String getTimeBudget()
+    {
+        return timeBudget;
+    }
+
     /**
      * An {@link AgentConfiguration} builder.
      *
@@ -111,9 +249,21 @@ public class AgentConfiguration
         private String type;
         private String agentClass;
         private String frequency;
+        private String cronSyntax;
         private Boolean automaticallyStarted = Boolean.valueOf(DEFAULT_AUTOMATICALLY_STARTED);
         private Integer stopTimeoutInSeconds = Integer.valueOf(DEFAULT_STOP_TIMEOUT_IN_SECONDS);
         private Boolean hidden = Boolean.valueOf(DEFAULT_HIDDEN);
+        private String overlapPolicy;
+        private Boolean fixedDelay = Boolean.valueOf(DEFAULT_FIXED_DELAY);
+        private String startOffset;
+        private String misfirePolicy;
+        private Integer priority = Integer.valueOf(DEFAULT_PRIORITY);
+        private String group;
+        private String executionTimeout;
+        private String sinks;
+        private Integer sinkBatchSize = Integer.valueOf(DEFAULT_SINK_BATCH_SIZE);
+        private Integer shards = Integer.valueOf(DEFAULT_SHARDS);
+        private String timeBudget;
 
         public Builder(String type)
         {
@@ -138,6 +288,12 @@ public class AgentConfiguration
             return this;
         }
 
+        public Builder cronSyntax(String cronSyntax)
+        {
+            this.cronSyntax = cronSyntax;
+            return this;
+        }
+
         public Builder automaticallyStarted(boolean automaticallyStarted)
         {
             this.automaticallyStarted = Boolean.valueOf(automaticallyStarted);
@@ -156,12 +312,103 @@ public class AgentConfiguration
             return this;
         }
 
+        public Builder overlapPolicy(String overlapPolicy)
+        {
+            this.overlapPolicy = overlapPolicy;
+            return this;
+        }
+
+        public Builder fixedDelay(boolean fixedDelay)
+        {
+            this.fixedDelay = Boolean.valueOf(fixedDelay);
+            return this;
+        }
+
+        public Builder startOffset(String startOffset)
+        {
+            this.startOffset = startOffset;
+            return this;
+        }
+
+        public Builder misfirePolicy(String misfirePolicy)
+        {
+            this.misfirePolicy = misfirePolicy;
+            return this;
+        }
+
+        public Builder priority(int priority)
+        {
+            this.priority = Integer.valueOf(priority);
+            return this;
+        }
+
+        public Builder group(String group)
+        {
+            this.group = group;
+            return this;
+        }
+
+        public Builder executionTimeout(String executionTimeout)
+        {
+            this.executionTimeout = executionTimeout;
+            return this;
+        }
+
+        public Builder sinks(String sinks)
+        {
+            this.sinks = sinks;
+            return this;
+        }
+
+        public Builder sinkBatchSize(int sinkBatchSize)
+        {
+            this.sinkBatchSize = Integer.valueOf(sinkBatchSize);
+            return this;
+        }
+
+        public Builder shards(int shards)
+        {
+            this.shards = Integer.valueOf(shards);
+            return this;
+        }
+
+        public Builder timeBudget(String timeBudget)
+        {
+            this.timeBudget = timeBudget;
+            return this;
+        }
+
         public AgentConfiguration build()
         {
             if (StringUtils.isEmpty(name)) throw new IllegalStateException("name cannot be null");
             if (StringUtils.isEmpty(type)) throw new AgentConfigurationException("type cannot be null");
             if (StringUtils.isEmpty(agentClass)) throw new AgentConfigurationException("agentClass cannot be null");
             if (StringUtils.isEmpty(frequency)) frequency = getDefaultFrequency();
+            if (StringUtils.isEmpty(cronSyntax)) cronSyntax = DEFAULT_CRON_SYNTAX;
+            if (StringUtils.isEmpty(overlapPolicy)) overlapPolicy = DEFAULT_OVERLAP_POLICY;
+            if (StringUtils.isEmpty(startOffset)) startOffset = DEFAULT_START_OFFSET;
+            if (StringUtils.isEmpty(misfirePolicy)) misfirePolicy = DEFAULT_MISFIRE_POLICY;
+            if (priority < MIN_PRIORITY || priority > MAX_PRIORITY)
+            {
+                throw Exceptions.agentConfiguration("priority must be between %s and %s: %s", MIN_PRIORITY,
+                        MAX_PRIORITY, priority);
+            }
+            if (StringUtils.isEmpty(executionTimeout)) executionTimeout = DEFAULT_EXECUTION_TIMEOUT;
+            if (StringUtils.isEmpty(sinks)) sinks = DEFAULT_SINKS;
+            if (sinkBatchSize < 1)
+            {
+                throw Exceptions.agentConfiguration("sinkBatchSize must be greater than zero: %s", sinkBatchSize);
+            }
+            if (shards < 1)
+            {
+                throw Exceptions.agentConfiguration("shards must be greater than zero: %s", shards);
+            }
+            if (StringUtils.isEmpty(timeBudget)) timeBudget = DEFAULT_TIME_BUDGET;
+            if (StringUtils.isEmpty(group)) group = DEFAULT_GROUP;
+            if (!group.matches(GROUP_PATTERN))
+            {
+                throw Exceptions.agentConfiguration("invalid group: \"%s\"", group);
+            }
             return new AgentConfiguration(this);
         }
 
@@ -195,12 +442,28 @@ public class AgentConfiguration
         String type = annotation.type().toString();
         String agentClass = clazz.getCanonicalName();
         String frequency = annotation.frequency();
+        String cronSyntax = annotation.cronSyntax().toString();
         int stopTimeoutInSeconds = annotation.stopTimeoutInSeconds();
         boolean automaticallyStarted = annotation.automaticallyStarted();
         boolean hidden = annotation.hidden();
+        String overlapPolicy = annotation.overlapPolicy();
+        boolean fixedDelay = annotation.fixedDelay();
+        String startOffset = annotation.startOffset();
+        String misfirePolicy = annotation.misfirePolicy().toString();
+        int priority = annotation.priority();
+        String group = annotation.group();
+        String executionTimeout = annotation.executionTimeout();
+        String sinks = String.join(",", annotation.sinks());
+        int sinkBatchSize = annotation.sinkBatchSize();
+        int shards = annotation.shards();
+        String timeBudget = annotation.timeBudget();
 
         Builder builder = new Builder(type).name(name).agentClass(agentClass).frequency(frequency)
-                .stopTimeoutInSeconds(stopTimeoutInSeconds).automaticallyStarted(automaticallyStarted).hidden(hidden);
+                .cronSyntax(cronSyntax).stopTimeoutInSeconds(stopTimeoutInSeconds)
+                .automaticallyStarted(automaticallyStarted).hidden(hidden).overlapPolicy(overlapPolicy)
+                .fixedDelay(fixedDelay).startOffset(startOffset).misfirePolicy(misfirePolicy)
+                .priority(priority).group(group).executionTimeout(executionTimeout).sinks(sinks)
+                .sinkBatchSize(sinkBatchSize).shards(shards).timeBudget(timeBudget);
         return builder.build();
     }
 
@@ -1,6 +1,7 @@
 package net.obvj.smart.manager;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
@@ -19,9 +20,17 @@ import com.google.gson.JsonObject;
 import net.obvj.smart.agents.Agent;
 import net.obvj.smart.agents.AgentFactory;
 import net.obvj.smart.agents.dto.AgentDTO;
+import net.obvj.smart.agents.dto.PriorityLevelDTO;
+import net.obvj.smart.agents.dto.SchedulingLagDTO;
+import net.obvj.smart.agents.dto.WorkerGroupDTO;
 import net.obvj.smart.conf.AgentConfiguration;
 import net.obvj.smart.conf.AgentLoader;
+import net.obvj.smart.scheduler.AgentScheduler;
+import net.obvj.smart.scheduler.ExecutionGovernor;
+import net.obvj.smart.scheduler.WorkerGroup;
+import net.obvj.smart.util.DateUtils;
 import net.obvj.smart.util.Exceptions;
+import net.obvj.smart.util.LagStatistics;
 
 /**
  * A component that provides methods for Agents maintenance
@@ -217,7 +226,83 @@ public class AgentManager
     protected AgentDTO toAgentDTO(Agent agent)
     {
         return new AgentDTO(agent.getName(), agent.getType(), agent.getState().toString(),
-                agent.getConfiguration().isHidden());
+                agent.getConfiguration().isHidden(), agent.getGroup());
+    }
+
+    /**
+     * @return the scheduling lag statistics of all agents, for interchange with client
+     *         applications
+     * @since 2.0
+     */
+    public Collection<SchedulingLagDTO> getSchedulingLagDTOs()
+    {
+        return agents.values().stream().map(this::toSchedulingLagDTO).collect(Collectors.toList());
+    }
+
+    /**
+     * @return a {@link SchedulingLagDTO} from the given {@link Agent}
+     * @since 2.0
+     */
+    protected SchedulingLagDTO toSchedulingLagDTO(Agent agent)
+    {
+        LagStatistics lag = agent.getExecutionStatistics().getSchedulingLag();
+        return new SchedulingLagDTO(agent.getName(), lag.getCount(), toMillis(lag.getLast()),
+                toMillis(lag.getMean()), toMillis(lag.getMax()), toMillis(lag.getPercentile(50)),
+                toMillis(lag.getPercentile(90)), toMillis(lag.getPercentile(99)));
+    }
+
+    /**
+     * Returns the worst scheduling lag observed among all agents, i.e., the greatest time
+     * between the planned fire time and the actual start of an execution.
+     *
+     * @return the worst scheduling lag, in milliseconds, or 0 if no execution was recorded
+     * @since 2.0
+     */
+    public double getWorstSchedulingLag()
+    {
+        return toMillis(agents.values().stream()
+                .mapToLong(agent -> agent.getExecutionStatistics().getSchedulingLag().getMax()).max().orElse(0L));
+    }
+
+    /**
+     * Returns the admission statistics of the default scheduler per priority level, i.e.,
+     * the number of executions waiting for a permit and the time waited.
+     *
+     * @return a collection of priority levels metadata, from the highest to the lowest
+     * @since 2.0
+     */
+    public Collection<PriorityLevelDTO> getPriorityLevelDTOs()
+    {
+        ExecutionGovernor governor = AgentScheduler.getDefault().getGovernor();
+        return governor.getPriorityLevels().stream().map(priority ->
+        {
+            LagStatistics waitTime = governor.getWaitTime(priority);
+            return new PriorityLevelDTO(priority, governor.getQueueDepth(priority), waitTime.getCount(),
+                    toMillis(waitTime.getMean()), toMillis(waitTime.getMax()), toMillis(waitTime.getPercentile(99)));
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the utilization of the worker groups of the default scheduler, including the
+     * groups of all managed agents, even if not executed yet.
+     *
+     * @return a collection of worker groups metadata, sorted by name
+     * @since 2.0
+     */
+    public Collection<WorkerGroupDTO> getWorkerGroupDTOs()
+    {
+        AgentScheduler scheduler = AgentScheduler.getDefault();
+        agents.values().stream().map(Agent::getGroup).distinct().forEach(scheduler::getWorkerGroup);
+        return scheduler.getWorkerGroups().stream().sorted(Comparator.comparing(WorkerGroup::getName))
+                .map(group -> new WorkerGroupDTO(group.getName(), group.getMaxConcurrency(),
+                        group.getActiveExecutions(), group.getQueuedExecutions(), group.getQueueCapacity(),
+                        group.getRejectedExecutions()))
+                .collect(Collectors.toList());
+    }
+
+    private static double toMillis(long nanos)
+    {
+        return nanos / 1_000_000.0;
     }
 
     /**
@@ -244,6 +329,22 @@ public class AgentManager
         return findAgentByName(name).isStarted();
     }
 
+    /**
+     * Returns the upcoming execution dates of an agent, formatted
+     *
+     * @param name  the identifier of the agent
+     * @param count the maximum number of dates to be returned
+     * @return an array with up to {@code count} formatted dates, empty if the agent is not
+     *         scheduled or its execution dates cannot be predicted
+     * @throws IllegalArgumentException if no agent with the given name was found
+     * @since 2.0
+     */
+    public String[] getNextExecutionDates(String name, int count)
+    {
+        return findAgentByName(name).getNextExecutionDates(count).stream().map(DateUtils::formatDate)
+                .toArray(String[]::new);
+    }
+
     /**
      * Returns a string containing agent status information for reporting
      *
@@ -0,0 +1,606 @@
+package net.obvj.smart.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.obvj.smart.agents.Agent;
+import net.obvj.smart.conf.AgentConfiguration;
+import net.obvj.smart.conf.properties.SmartProperties;
+import net.obvj.smart.util.Exceptions;
+import net.obvj.smart.util.VirtualThreads;
+
+/**
+ * A central scheduler shared by all agents.
+ * <p>
+ * Agents register their schedules with this object instead of owning executors. When an
+ * execution is due, a {@link SchedulingEngine} hands it over to a bounded pool of worker
+ * threads, so the number of threads grows with the available processors rather than with
+ * the number of agents.
+ * <p>
+ * An {@link ExecutionGovernor} limits the number of executions in progress to the
+ * {@code scheduler.execution.permits} property (by default, the number of worker threads).
+ * When a burst of executions comes due, the ones beyond the limit wait in a bounded queue
+ * and are admitted by agent priority, so that latency-sensitive agents are not starved.
+ * <p>
+ * Agents may also be assigned to other worker groups (bulkheads). Each group is created on
+ * first use with its own bounded pool of worker threads, execution permits and queue, as
+ * set by the {@code scheduler.group.max.concurrency} and
+ * {@code scheduler.group.queue.capacity} properties (which can be overridden per group), so
+ * that slow agents in one group cannot exhaust the threads needed by the others.
+ * <p>
+ * The engine is selected by the {@code scheduler.engine} property:
+ * <ul>
+ * <li>{@code executor}: the JDK's {@code ScheduledThreadPoolExecutor} (default)</li>
+ * <li>{@code timing-wheel}: a hierarchical timing wheel, suitable for very large agent
+ * catalogs</li>
+ * </ul>
+ * <p>
+ * Agent tasks may execute on platform or virtual threads, according to the
+ * {@code scheduler.worker.mode} property. Virtual threads require Java 21 or higher; on
+ * older runtimes, the scheduler falls back to platform threads.
+ * <p>
+ * While executing an agent task, the worker thread is renamed after the agent (e.g.:
+ * {@code Agent-DummyAgent-thread3}), so that per-agent activity can still be identified
+ * in the thread listing.
+ * <p>
+ * Agents may also split CPU-bound work into fork/join tasks, which run on a
+ * {@link ForkJoinPool} shared by all agents and owned by this scheduler, with the
+ * parallelism set by the {@code scheduler.forkjoin.parallelism} property (by default, the
+ * number of available processors).
+ * <p>
+ * Delays are measured by the engines on the monotonic clock. A {@link TimeBase}, checked
+ * every second, detects wall-clock jumps and daylight saving time transitions, so that
+ * agents can re-anchor their pending fire times.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class AgentScheduler
+{
+    private static final Logger LOG = LoggerFactory.getLogger(AgentScheduler.class);
+
+    protected static final String DISPATCHER_NAME = "Dispatcher";
+    protected static final String WORKER_NAME = "Worker";
+    protected static final String FORK_JOIN_THREAD_NAME_FORMAT = "Agent-ForkJoin-thread%d";
+
+    protected static final String ENGINE_EXECUTOR = "executor";
+    protected static final String ENGINE_TIMING_WHEEL = "timing-wheel";
+
+    protected static final String WORKER_MODE_PLATFORM = "platform";
+    protected static final String WORKER_MODE_VIRTUAL = "virtual";
+
+    protected static final int DEFAULT_GROUP_MAX_CONCURRENCY = 2;
+    protected static final int DEFAULT_GROUP_QUEUE_CAPACITY = 100;
+
+    private static final long TIME_BASE_CHECK_SECONDS = 1L;
+
+    private final SchedulingEngine engine;
+    private final WorkerGroup defaultGroup;
+    private final Map<String, WorkerGroup> groups = new ConcurrentHashMap<>();
+    private final TimeBase timeBase = new TimeBase();
+
+    private SmartProperties properties;
+
+    private final AtomicInteger nextForkJoinThread = new AtomicInteger(1);
+    private volatile ForkJoinPool forkJoinPool;
+
+    /**
+     * Holds the default scheduler, which is lazily created on first access.
+     */
+    private static class DefaultSchedulerHolder
+    {
+        private static final AgentScheduler INSTANCE = new AgentScheduler(new SmartProperties());
+    }
+
+    /**
+     * Builds a scheduler with the settings available in the given {@link SmartProperties}.
+     *
+     * @param properties the {@link SmartProperties} to be used
+     */
+    public AgentScheduler(SmartProperties properties)
+    {
+        this(newEngine(properties), properties.getIntProperty(SmartProperties.SCHEDULER_WORKER_THREADS),
+                properties.getIntProperty(SmartProperties.SCHEDULER_EXECUTION_PERMITS),
+                properties.getIntProperty(SmartProperties.SCHEDULER_WORKER_QUEUE_CAPACITY),
+                useVirtualWorkers(properties));
+        this.properties = properties;
+    }
+
+    /**
+     * Builds a scheduler with the given settings.
+     *
+     * @param dispatcherThreads the number of threads that dispatch due executions
+     * @param workerThreads     the maximum number of agent tasks executing concurrently
+     * @param queueCapacity     the maximum number of due executions waiting for an
+     *                          available worker
+     * @throws IllegalArgumentException if any of the parameters is less than 1
+     */
+    public AgentScheduler(int dispatcherThreads, int workerThreads, int queueCapacity)
+    {
+        this(new ExecutorSchedulingEngine(dispatcherThreads), workerThreads, queueCapacity);
+    }
+
+    /**
+     * Builds a scheduler with a particular {@link SchedulingEngine}.
+     *
+     * @param engine        the {@link SchedulingEngine} that keeps track of fire times
+     * @param workerThreads the maximum number of agent tasks executing concurrently
+     * @param queueCapacity the maximum number of due executions waiting for an available
+     *                      worker
+     * @throws IllegalArgumentException if any of the numeric parameters is less than 1
+     */
+    public AgentScheduler(SchedulingEngine engine, int workerThreads, int queueCapacity)
+    {
+        this(engine, workerThreads, queueCapacity, false);
+    }
+
+    /**
+     * Builds a scheduler with a particular {@link SchedulingEngine}, optionally executing
+     * agent tasks on virtual threads.
+     *
+     * @param engine         the {@link SchedulingEngine} that keeps track of fire times
+     * @param workerThreads  the maximum number of agent tasks executing concurrently
+     * @param queueCapacity  the maximum number of due executions waiting for an available
+     *                       worker
+     * @param virtualWorkers {@code true} to execute agent tasks on virtual threads
+     * @throws IllegalArgumentException if any of the numeric parameters is less than 1
+     * @throws IllegalStateException    if virtual workers are requested but not supported
+     *                                  by the current runtime
+     */
+    public AgentScheduler(SchedulingEngine engine, int workerThreads, int queueCapacity, boolean virtualWorkers)
+    {
+        this(engine, workerThreads, workerThreads, queueCapacity, virtualWorkers);
+    }
+
+    /**
+     * Builds a scheduler with a particular {@link SchedulingEngine} and a global limit of
+     * executions in progress.
+     *
+     * @param engine         the {@link SchedulingEngine} that keeps track of fire times
+     * @param workerThreads  the number of worker threads
+     * @param permits        the maximum number of agent tasks executing concurrently; 0 (or
+     *                       a number greater than workerThreads) to use workerThreads
+     * @param queueCapacity  the maximum number of due executions waiting for a permit
+     * @param virtualWorkers {@code true} to execute agent tasks on virtual threads
+     * @throws IllegalArgumentException if workerThreads is less than 1, or queueCapacity is
+     *                                  negative
+     * @throws IllegalStateException    if virtual workers are requested but not supported
+     *                                  by the current runtime
+     */
+    public AgentScheduler(SchedulingEngine engine, int workerThreads, int permits, int queueCapacity,
+            boolean virtualWorkers)
+    {
+        this.engine = engine;
+
+        if (permits > workerThreads)
+        {
+            LOG.warn("Execution permits ({}) limited to the number of worker threads ({})", permits, workerThreads);
+        }
+        int effectivePermits = permits > 0 ? Math.min(permits, workerThreads) : workerThreads;
+        defaultGroup = new WorkerGroup(AgentConfiguration.DEFAULT_GROUP, WORKER_NAME, workerThreads, effectivePermits,
+                queueCapacity, virtualWorkers);
+        groups.put(defaultGroup.getName(), defaultGroup);
+
+        // Detects wall-clock jumps and UTC offset changes that affect pending fire times
+        engine.scheduleAtFixedRate(timeBase::check, TIME_BASE_CHECK_SECONDS, TIME_BASE_CHECK_SECONDS,
+                TimeUnit.SECONDS);
+
+        LOG.debug("Agent scheduler created with {} and {} {} worker thread(s)", engine.getClass().getSimpleName(),
+                workerThreads, virtualWorkers ? WORKER_MODE_VIRTUAL : WORKER_MODE_PLATFORM);
+    }
+
+    /**
+     * Creates the {@link SchedulingEngine} selected in the given {@link SmartProperties}.
+     *
+     * @param properties the {@link SmartProperties} to be used
+     * @return a new {@link SchedulingEngine}
+     * @throws IllegalArgumentException if an unknown engine is configured
+     */
+    protected static SchedulingEngine newEngine(SmartProperties properties)
+    {
+        String engine = properties.getProperty(SmartProperties.SCHEDULER_ENGINE).trim().toLowerCase();
+        switch (engine)
+        {
+        case ENGINE_EXECUTOR:
+            return new ExecutorSchedulingEngine(
+                    properties.getIntProperty(SmartProperties.SCHEDULER_DISPATCHER_THREADS));
+        case ENGINE_TIMING_WHEEL:
+            return new TimingWheelSchedulingEngine(
+                    properties.getIntProperty(SmartProperties.SCHEDULER_TIMING_WHEEL_TICK_MILLIS));
+        default:
+            throw Exceptions.illegalArgument("Unknown scheduler engine: \"%s\"", engine);
+        }
+    }
+
+    /**
+     * Checks whether agent tasks shall execute on virtual threads, according to the given
+     * {@link SmartProperties}. If virtual threads are requested but not supported by the
+     * current runtime, a warning is logged and platform threads are used instead.
+     *
+     * @param properties the {@link SmartProperties} to be used
+     * @return {@code true} if agent tasks shall execute on virtual threads
+     * @throws IllegalArgumentException if an unknown worker mode is configured
+     */
+    protected static boolean useVirtualWorkers(SmartProperties properties)
+    {
+        String mode = properties.getProperty(SmartProperties.SCHEDULER_WORKER_MODE).trim().toLowerCase();
+        switch (mode)
+        {
+        case WORKER_MODE_PLATFORM:
+            return false;
+        case WORKER_MODE_VIRTUAL:
+            if (VirtualThreads.isSupported())
+            {
+                return true;
+            }
+            LOG.warn("Virtual threads are not supported by this runtime. Using platform threads instead");
+            return false;
+        default:
+            throw Exceptions.illegalArgument("Unknown scheduler worker mode: \"%s\"", mode);
+        }
+    }
+
+    /**
+     * @return the default scheduler, shared by all agents in this runtime
+     */
+    public static AgentScheduler getDefault()
+    {
+        return DefaultSchedulerHolder.INSTANCE;
+    }
+
+    /**
+     * Schedules a single execution of the given agent after the given delay.
+     *
+     * @param agent the agent to be executed
+     * @param delay the time from now to delay execution
+     * @param unit  the time unit of the delay parameter
+     * @return a {@link ScheduledExecution} that can be used to cancel the execution
+     */
+    public ScheduledExecution schedule(Agent agent, long delay, TimeUnit unit)
+    {
+        long fireTime = System.nanoTime() + unit.toNanos(delay);
+        return engine.schedule(() -> execute(agent, fireTime), delay, unit);
+    }
+
+    /**
+     * Schedules periodic executions of the given agent, starting after the given initial
+     * delay, and subsequently with the given period.
+     *
+     * @param agent        the agent to be executed
+     * @param initialDelay the time to delay first execution
+     * @param period       the period between successive executions
+     * @param unit         the time unit of the initialDelay and period parameters
+     * @return a {@link ScheduledExecution} that can be used to cancel the executions
+     */
+    public ScheduledExecution scheduleAtFixedRate(Agent agent, long initialDelay, long period, TimeUnit unit)
+    {
+        AtomicLong fireTime = new AtomicLong(System.nanoTime() + unit.toNanos(initialDelay));
+        long periodNanos = unit.toNanos(period);
+        return engine.scheduleAtFixedRate(() -> execute(agent, fireTime.getAndAdd(periodNanos)), initialDelay,
+                period, unit);
+    }
+
+    /**
+     * Schedules a trigger to be run by the scheduling engine after the given delay.
+     * <p>
+     * Triggers are meant for agents that decide on their own whether and when to execute
+     * (e.g.: to handle misfires). A trigger must be short-lived, typically handing the agent
+     * over to the worker pool with {@link #execute(Agent)} and scheduling the next trigger.
+     *
+     * @param trigger the trigger to be run
+     * @param delay   the time from now to delay execution
+     * @param unit    the time unit of the delay parameter
+     * @return a {@link ScheduledExecution} that can be used to cancel the trigger
+     */
+    public ScheduledExecution scheduleTrigger(Runnable trigger, long delay, TimeUnit unit)
+    {
+        return engine.schedule(trigger, delay, unit);
+    }
+
+    /**
+     * Hands the given agent over to the worker pool for immediate execution.
+     *
+     * @param agent the agent to be executed
+     * @return {@code true} if the execution was accepted by the worker pool, or
+     *         {@code false} if it was discarded because the pool is saturated or shut down
+     */
+    public boolean execute(Agent agent)
+    {
+        return execute(new AgentExecution(agent, (Long) null));
+    }
+
+    /**
+     * Hands the given agent over to the worker pool for immediate execution, recording the
+     * scheduling lag of the agent when the execution starts.
+     *
+     * @param agent    the agent to be executed
+     * @param fireTime the planned fire time of the execution, in the
+     *                 {@link System#nanoTime()} time scale
+     * @return {@code true} if the execution was accepted by the worker pool, or
+     *         {@code false} if it was discarded because the pool is saturated or shut down
+     */
+    public boolean execute(Agent agent, long fireTime)
+    {
+        return execute(new AgentExecution(agent, fireTime));
+    }
+
+    /**
+     * Hands a part of an execution of the given agent (e.g.: one of its shards) over to the
+     * worker pool of the agent's group, with the agent's priority.
+     *
+     * @param agent the agent that owns the task
+     * @param task  the task to be executed
+     * @return {@code true} if the task was accepted by the worker pool, or {@code false} if
+     *         it was discarded because the pool is saturated or shut down
+     * @since 2.0
+     */
+    public boolean execute(Agent agent, Runnable task)
+    {
+        return execute(new AgentExecution(agent, task));
+    }
+
+    private boolean execute(AgentExecution execution)
+    {
+        Agent agent = execution.agent;
+        WorkerGroup group = getWorkerGroup(agent.getGroup());
+        if (group.submit(execution, agent.getPriority()))
+        {
+            return true;
+        }
+        if (!group.isShutdown())
+        {
+            LOG.warn("Worker pool \"{}\" saturated. Execution of {} discarded", group.getName(), agent.getName());
+        }
+        return false;
+    }
+
+    /**
+     * Returns the worker group with the given name, creating it with the settings available
+     * in {@code smart.properties} (or the default ones) if not created yet.
+     *
+     * @param name the group name; {@code null} or empty for the default group
+     * @return the {@link WorkerGroup} with the given name
+     */
+    public WorkerGroup getWorkerGroup(String name)
+    {
+        if (StringUtils.isEmpty(name))
+        {
+            return defaultGroup;
+        }
+        return groups.computeIfAbsent(name, this::newWorkerGroup);
+    }
+
+    private WorkerGroup newWorkerGroup(String name)
+    {
+        int maxConcurrency = properties != null
+                ? properties.getGroupIntProperty(name, SmartProperties.SCHEDULER_GROUP_MAX_CONCURRENCY)
+                : DEFAULT_GROUP_MAX_CONCURRENCY;
+        int queueCapacity = properties != null
+                ? properties.getGroupIntProperty(name, SmartProperties.SCHEDULER_GROUP_QUEUE_CAPACITY)
+                : DEFAULT_GROUP_QUEUE_CAPACITY;
+        WorkerGroup group = new WorkerGroup(name, WORKER_NAME + "-" + name, maxConcurrency, maxConcurrency,
+                queueCapacity, defaultGroup.isVirtualWorkers());
+        if (defaultGroup.isShutdown())
+        {
+            group.shutdown();
+        }
+        LOG.debug("Worker group \"{}\" created with {} thread(s) and queue capacity {}", name, maxConcurrency,
+                queueCapacity);
+        return group;
+    }
+
+    /**
+     * @return all worker groups created so far, including the default one
+     */
+    public Collection<WorkerGroup> getWorkerGroups()
+    {
+        return new ArrayList<>(groups.values());
+    }
+
+    /**
+     * Initiates an orderly shutdown of this scheduler. Pending schedules and executions
+     * waiting for a permit are discarded and no new executions are accepted, but executions
+     * already admitted to the worker pools are not interrupted.
+     */
+    public void shutdown()
+    {
+        defaultGroup.shutdown();
+        engine.shutdown();
+        groups.values().forEach(WorkerGroup::shutdown);
+        if (forkJoinPool != null)
+        {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    /**
+     * Returns the {@link ForkJoinPool} shared by all agents for divide-and-conquer tasks,
+     * creating it on first use with the parallelism set in {@code smart.properties} (or the
+     * number of available processors).
+     *
+     * @return the shared {@link ForkJoinPool}
+     * @since 2.0
+     */
+    public ForkJoinPool getForkJoinPool()
+    {
+        ForkJoinPool pool = forkJoinPool;
+        if (pool == null)
+        {
+            synchronized (this)
+            {
+                if (forkJoinPool == null)
+                {
+                    forkJoinPool = newForkJoinPool();
+                }
+                pool = forkJoinPool;
+            }
+        }
+        return pool;
+    }
+
+    private ForkJoinPool newForkJoinPool()
+    {
+        int parallelism = properties != null
+                ? properties.getIntProperty(SmartProperties.SCHEDULER_FORK_JOIN_PARALLELISM)
+                : 0;
+        if (parallelism <= 0)
+        {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        LOG.debug("Fork/join pool created with parallelism {}", parallelism);
+        return new ForkJoinPool(parallelism, pool ->
+        {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(String.format(FORK_JOIN_THREAD_NAME_FORMAT, nextForkJoinThread.getAndIncrement()));
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * @return {@code true} if this scheduler has been shut down
+     */
+    public boolean isShutdown()
+    {
+        return engine.isShutdown() && defaultGroup.isShutdown();
+    }
+
+    /**
+     * @return the maximum number of agent tasks of the default group executing concurrently
+     */
+    public int getWorkerThreads()
+    {
+        return defaultGroup.getWorkerThreads();
+    }
+
+    /**
+     * @return {@code true} if agent tasks execute on virtual threads
+     */
+    public boolean isVirtualWorkers()
+    {
+        return defaultGroup.isVirtualWorkers();
+    }
+
+    /**
+     * @return the approximate number of workers of the default group that are actively
+     *         executing agent tasks
+     */
+    public int getActiveWorkers()
+    {
+        return defaultGroup.getActiveWorkers();
+    }
+
+    /**
+     * @return the number of workers of the default group still running the task of an
+     *         execution that timed out
+     */
+    public int getStuckWorkers()
+    {
+        return defaultGroup.getStuckWorkers();
+    }
+
+    /**
+     * @return the number of due executions of the default group waiting for an execution
+     *         permit
+     */
+    public int getQueuedExecutions()
+    {
+        return defaultGroup.getQueuedExecutions();
+    }
+
+    /**
+     * @return the {@link ExecutionGovernor} that limits the executions in progress in the
+     *         default group
+     */
+    public ExecutionGovernor getGovernor()
+    {
+        return defaultGroup.getGovernor();
+    }
+
+    /**
+     * @return the number of due executions of the default group discarded because the worker
+     *         pool was saturated
+     */
+    public long getRejectedExecutions()
+    {
+        return defaultGroup.getRejectedExecutions();
+    }
+
+    /**
+     * @return the {@link TimeBase} that relates the wall clock to the monotonic clock used
+     *         by this scheduler
+     */
+    public TimeBase getTimeBase()
+    {
+        return timeBase;
+    }
+
+    /**
+     * A task that runs an agent (or a part of its execution) in a worker thread, named after
+     * the agent for the duration of the execution. If the execution has a planned fire time,
+     * the time between it and the actual start is recorded as the agent's scheduling lag,
+     * and the fire time is exposed to the agent task.
+     */
+    private static class AgentExecution implements Runnable
+    {
+        private final Agent agent;
+        private final Long fireTime;
+        private final Runnable task;
+
+        private AgentExecution(Agent agent, Long fireTime)
+        {
+            this.agent = agent;
+            this.fireTime = fireTime;
+            this.task = null;
+        }
+
+        private AgentExecution(Agent agent, Runnable task)
+        {
+            this.agent = agent;
+            this.fireTime = null;
+            this.task = task;
+        }
+
+        @Override
+        public void run()
+        {
+            if (fireTime != null)
+            {
+                agent.recordSchedulingLag(System.nanoTime() - fireTime);
+            }
+            Thread thread = Thread.currentThread();
+            String workerName = thread.getName();
+            thread.setName(StringUtils.replaceOnce(workerName, WORKER_NAME, agent.getName()));
+            try
+            {
+                if (task != null)
+                {
+                    task.run();
+                }
+                else if (fireTime != null)
+                {
+                    agent.runScheduled(fireTime);
+                }
+                else
+                {
+                    agent.run();
+                }
+            }
+            finally
+            {
+                thread.setName(workerName);
+            }
+        }
+    }
+
+}
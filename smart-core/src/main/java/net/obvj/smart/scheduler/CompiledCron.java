@@ -0,0 +1,473 @@
+package net.obvj.smart.scheduler;
+
+import java.time.Month;
+import java.time.Year;
+import java.time.ZonedDateTime;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+import com.cronutils.model.Cron;
+import com.cronutils.model.field.CronField;
+import com.cronutils.model.field.CronFieldName;
+import com.cronutils.model.field.definition.DayOfWeekFieldDefinition;
+import com.cronutils.model.field.expression.Always;
+import com.cronutils.model.field.expression.And;
+import com.cronutils.model.field.expression.Between;
+import com.cronutils.model.field.expression.Every;
+import com.cronutils.model.field.expression.FieldExpression;
+import com.cronutils.model.field.expression.On;
+import com.cronutils.model.field.expression.QuestionMark;
+import com.cronutils.model.field.value.FieldValue;
+import com.cronutils.model.field.value.IntegerFieldValue;
+import com.cronutils.model.field.value.SpecialChar;
+
+/**
+ * A Cron expression compiled into primitive bitmasks, one per field, for fast calculation
+ * of fire times.
+ * <p>
+ * Unix, Quartz and Spring expressions are supported, including the optional second and
+ * year fields. Days of week are normalized so that Sunday is always 0, regardless of the
+ * numbering used by the Cron definition.
+ * <p>
+ * The search for the next fire time walks the calendar field by field, skipping whole
+ * years, months, days, hours and minutes that do not match, and does not allocate objects
+ * other than the result.
+ * <p>
+ * Local times skipped when the clock is set forward (e.g.: when daylight saving time
+ * begins) do not fire. Local times repeated when the clock is set back fire only once, on
+ * their first occurrence after the reference date.
+ * <p>
+ * Only plain values, lists, ranges and steps can be compiled. Expressions with special
+ * characters (such as {@code L}, {@code W} and {@code #}) are not supported, and should
+ * be evaluated by the {@code cron-utils} library instead.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public final class CompiledCron
+{
+    /*
+     * The maximum number of years to search for a fire time. Expressions that match, for
+     * instance, on February 29th only when it falls on a Monday, fire once every 28 years.
+     */
+    private static final int MAX_YEARS_AHEAD = 100;
+
+    private static final int[] DAY_OF_WEEK_OFFSETS = { 0, 3, 2, 5, 0, 3, 5, 1, 4, 6, 2, 4 };
+
+    private static final Set<CronFieldName> SUPPORTED_FIELDS = EnumSet.of(CronFieldName.SECOND,
+            CronFieldName.MINUTE, CronFieldName.HOUR, CronFieldName.DAY_OF_MONTH, CronFieldName.MONTH,
+            CronFieldName.DAY_OF_WEEK, CronFieldName.YEAR);
+
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+
+    /*
+     * The years that match, or null if the expression does not restrict the year
+     */
+    private final BitSet years;
+
+    /*
+     * Whether a day matches if either the day of month or the day of week matches, as in
+     * the standard Unix cron, when both fields are restricted
+     */
+    private final boolean eitherDayMatches;
+
+    private CompiledCron(long seconds, long minutes, long hours, long daysOfMonth, long months, long daysOfWeek,
+            BitSet years, boolean eitherDayMatches)
+    {
+        this.seconds = seconds;
+        this.minutes = minutes;
+        this.hours = hours;
+        this.daysOfMonth = daysOfMonth;
+        this.months = months;
+        this.daysOfWeek = daysOfWeek;
+        this.years = years;
+        this.eitherDayMatches = eitherDayMatches;
+    }
+
+    /**
+     * Compiles the given Cron expression.
+     *
+     * @param cron the Cron expression to be compiled
+     * @return the {@link CompiledCron}, or an empty {@link Optional} if the expression has
+     *         features not supported by the compiled representation
+     */
+    public static Optional<CompiledCron> compile(Cron cron)
+    {
+        if (!SUPPORTED_FIELDS.containsAll(cron.retrieveFieldsAsMap().keySet()))
+        {
+            return Optional.empty();
+        }
+        try
+        {
+            CronField dayOfMonth = field(cron, CronFieldName.DAY_OF_MONTH);
+            CronField dayOfWeek = field(cron, CronFieldName.DAY_OF_WEEK);
+            CronField second = cron.retrieve(CronFieldName.SECOND);
+            CronField year = cron.retrieve(CronFieldName.YEAR);
+
+            // Definitions that support "?" (such as Quartz and Spring) require both days to match
+            boolean eitherDayMatches = !cron.getCronDefinition().isMatchDayOfWeekAndDayOfMonth()
+                    && !dayOfMonth.getConstraints().getSpecialChars().contains(SpecialChar.QUESTION_MARK)
+                    && isRestricted(dayOfMonth.getExpression()) && isRestricted(dayOfWeek.getExpression());
+
+            return Optional.of(new CompiledCron(second == null ? bit(0) : mask(second),
+                    mask(field(cron, CronFieldName.MINUTE)), mask(field(cron, CronFieldName.HOUR)),
+                    mask(dayOfMonth), mask(field(cron, CronFieldName.MONTH)), daysOfWeek(cron, dayOfWeek),
+                    year == null || !isRestricted(year.getExpression()) ? null : compile(year), eitherDayMatches));
+        }
+        catch (UnsupportedOperationException exception)
+        {
+            return Optional.empty();
+        }
+    }
+
+    private static CronField field(Cron cron, CronFieldName name)
+    {
+        CronField field = cron.retrieve(name);
+        if (field == null)
+        {
+            throw new UnsupportedOperationException("Missing field: " + name);
+        }
+        return field;
+    }
+
+    /**
+     * Converts the day-of-week field into a bitmask where Sunday is 0 and Saturday is 6.
+     */
+    private static long daysOfWeek(Cron cron, CronField field)
+    {
+        int monday = ((DayOfWeekFieldDefinition) cron.getCronDefinition()
+                .getFieldDefinition(CronFieldName.DAY_OF_WEEK)).getMondayDoWValue().getMondayDoWValue();
+        long values = mask(field);
+        long daysOfWeek = 0;
+        for (int value = field.getConstraints().getStartRange(); value <= field.getConstraints()
+                .getEndRange(); value++)
+        {
+            if ((values & bit(value)) != 0)
+            {
+                // e.g.: both 0 and 7 stand for Sunday in Unix, where Monday is 1
+                daysOfWeek |= bit(Math.floorMod(value - monday + 1, 7));
+            }
+        }
+        return daysOfWeek;
+    }
+
+    private static boolean isRestricted(FieldExpression expression)
+    {
+        return !(expression instanceof Always || expression instanceof QuestionMark);
+    }
+
+    /**
+     * Converts a field with values from 0 to 63 into a bitmask where each bit represents a
+     * value.
+     *
+     * @throws UnsupportedOperationException if the field cannot be compiled
+     */
+    private static long mask(CronField field)
+    {
+        BitSet values = compile(field);
+        return values.isEmpty() ? 0 : values.toLongArray()[0];
+    }
+
+    /**
+     * Converts a field into a bit set where each bit represents a value.
+     *
+     * @throws UnsupportedOperationException if the field cannot be compiled
+     */
+    private static BitSet compile(CronField field)
+    {
+        return compile(field.getExpression(), field.getConstraints().getStartRange(),
+                field.getConstraints().getEndRange());
+    }
+
+    private static BitSet compile(FieldExpression expression, int min, int max)
+    {
+        if (expression instanceof Always || expression instanceof QuestionMark)
+        {
+            return range(min, max, 1);
+        }
+        if (expression instanceof On)
+        {
+            On on = (On) expression;
+            if (on.getSpecialChar() != null && on.getSpecialChar().getValue() != SpecialChar.NONE)
+            {
+                throw new UnsupportedOperationException("Special character: " + on.getSpecialChar());
+            }
+            BitSet value = new BitSet();
+            value.set(valueOf(on.getTime(), min, max));
+            return value;
+        }
+        if (expression instanceof Between)
+        {
+            Between between = (Between) expression;
+            return range(valueOf(between.getFrom(), min, max), valueOf(between.getTo(), min, max), 1, min, max);
+        }
+        if (expression instanceof Every)
+        {
+            Every every = (Every) expression;
+            int period = valueOf(every.getPeriod(), 1, Integer.MAX_VALUE);
+            FieldExpression base = every.getExpression();
+            if (base instanceof Always || base instanceof QuestionMark)
+            {
+                return range(min, max, period);
+            }
+            if (base instanceof On && isPlain((On) base))
+            {
+                return range(valueOf(((On) base).getTime(), min, max), max, period);
+            }
+            if (base instanceof Between)
+            {
+                Between between = (Between) base;
+                return range(valueOf(between.getFrom(), min, max), valueOf(between.getTo(), min, max), period,
+                        min, max);
+            }
+        }
+        if (expression instanceof And)
+        {
+            BitSet values = new BitSet();
+            for (FieldExpression child : ((And) expression).getExpressions())
+            {
+                values.or(compile(child, min, max));
+            }
+            return values;
+        }
+        throw new UnsupportedOperationException("Unsupported expression: " + expression.asString());
+    }
+
+    private static boolean isPlain(On on)
+    {
+        return on.getSpecialChar() == null || on.getSpecialChar().getValue() == SpecialChar.NONE;
+    }
+
+    private static int valueOf(FieldValue<?> value, int min, int max)
+    {
+        if (!(value instanceof IntegerFieldValue))
+        {
+            throw new UnsupportedOperationException("Unsupported value: " + value);
+        }
+        int intValue = ((IntegerFieldValue) value).getValue();
+        if (intValue < min || intValue > max)
+        {
+            throw new UnsupportedOperationException("Value out of range: " + intValue);
+        }
+        return intValue;
+    }
+
+    /**
+     * @return a bit set with the bits from {@code from} to {@code to}, wrapping around the
+     *         field's maximum value if {@code from} is greater than {@code to}
+     */
+    private static BitSet range(int from, int to, int period, int min, int max)
+    {
+        if (from <= to)
+        {
+            return range(from, to, period);
+        }
+        int size = max - min + 1;
+        BitSet values = new BitSet();
+        for (int offset = 0; offset <= to - from + size; offset += period)
+        {
+            int value = from + offset;
+            values.set(value > max ? value - size : value);
+        }
+        return values;
+    }
+
+    private static BitSet range(int from, int to, int period)
+    {
+        BitSet values = new BitSet();
+        for (int value = from; value <= to; value += period)
+        {
+            values.set(value);
+        }
+        return values;
+    }
+
+    private static long bit(int value)
+    {
+        return 1L << value;
+    }
+
+    /**
+     * Returns the first fire time after the given date, in the same time zone.
+     *
+     * @param date the reference date
+     * @return the next fire time, or an empty {@link Optional} if the expression does not
+     *         fire in the next {@value #MAX_YEARS_AHEAD} years
+     */
+    public Optional<ZonedDateTime> nextExecution(ZonedDateTime date)
+    {
+        int year = date.getYear();
+        int month = date.getMonthValue();
+        int day = date.getDayOfMonth();
+        int hour = date.getHour();
+        int minute = date.getMinute();
+        int second = date.getSecond() + 1;
+        int lastYear = year + MAX_YEARS_AHEAD;
+
+        while (year <= lastYear)
+        {
+            if (second > 59)
+            {
+                second = 0;
+                minute++;
+            }
+            if (minute > 59)
+            {
+                minute = 0;
+                hour++;
+            }
+            if (hour > 23)
+            {
+                hour = 0;
+                day++;
+            }
+            if (month <= 12 && day > lengthOfMonth(year, month))
+            {
+                day = 1;
+                month++;
+            }
+            if (month > 12)
+            {
+                month = 1;
+                year++;
+                continue;
+            }
+
+            if (years != null && !years.get(year))
+            {
+                int nextYear = years.nextSetBit(year);
+                if (nextYear < 0)
+                {
+                    return Optional.empty();
+                }
+                year = nextYear;
+                month = 1;
+                day = 1;
+                hour = 0;
+                minute = 0;
+                second = 0;
+                continue;
+            }
+            int nextMonth = next(months, month);
+            if (nextMonth != month)
+            {
+                month = nextMonth < 0 ? 13 : nextMonth;
+                day = 1;
+                hour = 0;
+                minute = 0;
+                second = 0;
+                continue;
+            }
+            if (!eitherDayMatches)
+            {
+                int nextDay = next(daysOfMonth, day);
+                if (nextDay < 0 || nextDay > lengthOfMonth(year, month))
+                {
+                    // No matching day left in this month
+                    day = 32;
+                    hour = 0;
+                    minute = 0;
+                    second = 0;
+                    continue;
+                }
+                if (nextDay != day)
+                {
+                    day = nextDay;
+                    hour = 0;
+                    minute = 0;
+                    second = 0;
+                }
+            }
+            if (!matchesDay(year, month, day))
+            {
+                day++;
+                hour = 0;
+                minute = 0;
+                second = 0;
+                continue;
+            }
+            int nextHour = next(hours, hour);
+            if (nextHour != hour)
+            {
+                hour = nextHour < 0 ? 24 : nextHour;
+                minute = 0;
+                second = 0;
+                continue;
+            }
+            int nextMinute = next(minutes, minute);
+            if (nextMinute != minute)
+            {
+                minute = nextMinute < 0 ? 60 : nextMinute;
+                second = 0;
+                continue;
+            }
+            int nextSecond = next(seconds, second);
+            if (nextSecond < 0)
+            {
+                second = 60;
+                continue;
+            }
+            second = nextSecond;
+
+            ZonedDateTime fireTime = ZonedDateTime.of(year, month, day, hour, minute, second, 0, date.getZone());
+            if (fireTime.getHour() != hour || fireTime.getMinute() != minute)
+            {
+                // A local time skipped when the clock is set forward does not fire
+                minute++;
+                second = 0;
+                continue;
+            }
+            if (fireTime.isAfter(date))
+            {
+                return Optional.of(fireTime);
+            }
+            // A local time repeated when the clock is set back
+            fireTime = fireTime.withLaterOffsetAtOverlap();
+            if (fireTime.isAfter(date))
+            {
+                return Optional.of(fireTime);
+            }
+            second++;
+        }
+        return Optional.empty();
+    }
+
+    private boolean matchesDay(int year, int month, int day)
+    {
+        boolean dayOfMonthMatches = (daysOfMonth & bit(day)) != 0;
+        boolean dayOfWeekMatches = (daysOfWeek & bit(dayOfWeek(year, month, day))) != 0;
+        return eitherDayMatches ? dayOfMonthMatches || dayOfWeekMatches : dayOfMonthMatches && dayOfWeekMatches;
+    }
+
+    /**
+     * @return the first value set in the bitmask that is greater than or equal to the given
+     *         one, or -1 if not found
+     */
+    private static int next(long mask, int from)
+    {
+        long candidates = mask & (-1L << from);
+        return candidates == 0 ? -1 : Long.numberOfTrailingZeros(candidates);
+    }
+
+    private static int lengthOfMonth(int year, int month)
+    {
+        return Month.of(month).length(Year.isLeap(year));
+    }
+
+    /**
+     * @return the day of week of the given date, from 0 (Sunday) to 6 (Saturday)
+     */
+    private static int dayOfWeek(int year, int month, int day)
+    {
+        int y = month < 3 ? year - 1 : year;
+        return (y + y / 4 - y / 100 + y / 400 + DAY_OF_WEEK_OFFSETS[month - 1] + day) % 7;
+    }
+
+}
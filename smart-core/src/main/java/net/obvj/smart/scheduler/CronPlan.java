@@ -0,0 +1,303 @@
+package net.obvj.smart.scheduler;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.cronutils.descriptor.CronDescriptor;
+import com.cronutils.model.Cron;
+import com.cronutils.model.CronType;
+import com.cronutils.model.definition.CronDefinitionBuilder;
+import com.cronutils.model.time.ExecutionTime;
+import com.cronutils.parser.CronParser;
+
+import net.obvj.smart.conf.annotation.CronSyntax;
+
+/**
+ * A compiled Cron expression, shared by all agents that use the same expression, with the
+ * same syntax, in the same time zone.
+ * <p>
+ * Plans are interned: {@link #of(String, CronSyntax, ZoneId)} parses each expression only once, so
+ * that the parser, the execution time calculator and the human-readable description are
+ * not rebuilt for every agent and every execution.
+ * <p>
+ * Fire times are calculated by a {@link CompiledCron} whenever the expression can be
+ * compiled, or by the {@code cron-utils} library otherwise.
+ * <p>
+ * Each plan keeps a look-ahead table with the next fire times after the latest requested
+ * time. Subsequent queries that fall within the table are answered without recomputing
+ * the expression; the table is rolled forward when a query goes past its last entry, and
+ * back when it was moved into the future and a query comes before it. Look-ahead queries
+ * ({@link #nextExecutions(ZonedDateTime, int)}) read the table but never move it.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public final class CronPlan
+{
+    /**
+     * The number of fire times kept in the look-ahead table of each plan.
+     */
+    public static final int LOOK_AHEAD = 16;
+
+    private static final Map<CronSyntax, CronParser> PARSERS = new EnumMap<>(CronSyntax.class);
+
+    static
+    {
+        for (CronSyntax syntax : CronSyntax.values())
+        {
+            PARSERS.put(syntax,
+                    new CronParser(CronDefinitionBuilder.instanceDefinitionFor(CronType.valueOf(syntax.name()))));
+        }
+    }
+
+    private static final ConcurrentMap<String, CronPlan> PLANS = new ConcurrentHashMap<>();
+
+    private final Cron cron;
+    private final ExecutionTime executionTime;
+    private final CompiledCron compiledCron;
+    private final String expression;
+    private final String description;
+    private final ZoneId zone;
+
+    private volatile Window window;
+
+    private CronPlan(Cron cron, ZoneId zone)
+    {
+        this.cron = cron;
+        this.executionTime = ExecutionTime.forCron(cron);
+        this.compiledCron = CompiledCron.compile(cron).orElse(null);
+        this.expression = cron.asString();
+        this.description = CronDescriptor.instance().describe(cron);
+        this.zone = zone;
+    }
+
+    /**
+     * Returns the plan for the given Unix Cron expression and time zone, parsing the
+     * expression only if no agent requested it before.
+     *
+     * @param expression the Cron expression to be parsed
+     * @param zone       the time zone in which fire times are calculated
+     * @return the shared {@link CronPlan} for the given expression and zone
+     * @throws IllegalArgumentException if the expression is not valid
+     */
+    public static CronPlan of(String expression, ZoneId zone)
+    {
+        return of(expression, CronSyntax.UNIX, zone);
+    }
+
+    /**
+     * Returns the plan for the given Cron expression, syntax and time zone, parsing the
+     * expression only if no agent requested it before.
+     *
+     * @param expression the Cron expression to be parsed
+     * @param syntax     the syntax of the Cron expression
+     * @param zone       the time zone in which fire times are calculated
+     * @return the shared {@link CronPlan} for the given expression, syntax and zone
+     * @throws IllegalArgumentException if the expression is not valid
+     */
+    public static CronPlan of(String expression, CronSyntax syntax, ZoneId zone)
+    {
+        return PLANS.computeIfAbsent(syntax + ":" + expression.trim() + "@" + zone.getId(),
+                key -> new CronPlan(parse(expression, syntax), zone));
+    }
+
+    /**
+     * Parses the given Unix Cron expression with the shared parser.
+     *
+     * @param expression the Cron expression to be parsed
+     * @return the parsed {@link Cron}
+     * @throws IllegalArgumentException if the expression is not valid
+     */
+    public static Cron parse(String expression)
+    {
+        return parse(expression, CronSyntax.UNIX);
+    }
+
+    /**
+     * Parses the given Cron expression with the shared parser of the given syntax.
+     *
+     * @param expression the Cron expression to be parsed
+     * @param syntax     the syntax of the Cron expression
+     * @return the parsed {@link Cron}
+     * @throws IllegalArgumentException if the expression is not valid
+     */
+    public static synchronized Cron parse(String expression, CronSyntax syntax)
+    {
+        return PARSERS.get(syntax).parse(expression);
+    }
+
+    /**
+     * @return the number of interned plans
+     */
+    protected static int size()
+    {
+        return PLANS.size();
+    }
+
+    /**
+     * Returns the first fire time after the given date.
+     *
+     * @param date the reference date
+     * @return the next fire time, in the zone of this plan, or an empty {@link Optional} if
+     *         the expression does not fire after the given date
+     */
+    public Optional<ZonedDateTime> nextExecution(ZonedDateTime date)
+    {
+        ZonedDateTime time = date.withZoneSameInstant(zone);
+        Window current = window;
+        if (current != null && time.isBefore(current.start) && !current.start.toInstant().isAfter(Instant.now()))
+        {
+            // An older reference (e.g.: a late agent catching up) must not roll the table back,
+            // unless the table was moved into the future
+            return calculateNextExecution(time);
+        }
+        if (current == null || !current.covers(time))
+        {
+            current = new Window(time);
+            window = current;
+        }
+        return current.next(time);
+    }
+
+    /**
+     * Returns the first fire time after the given time, from the look-ahead table if it
+     * covers the time, without moving the table.
+     */
+    private Optional<ZonedDateTime> peekNextExecution(ZonedDateTime time)
+    {
+        Window current = window;
+        return current != null && current.covers(time) ? current.next(time) : calculateNextExecution(time);
+    }
+
+    private Optional<ZonedDateTime> calculateNextExecution(ZonedDateTime time)
+    {
+        return compiledCron != null ? compiledCron.nextExecution(time) : executionTime.nextExecution(time);
+    }
+
+    /**
+     * Returns the fire times after the given date. The look-ahead table is used where it
+     * covers the requested dates, but it is not moved, so that a query far ahead does not
+     * affect the fire times requested by the agents that share this plan.
+     *
+     * @param date  the reference date
+     * @param count the maximum number of fire times to be returned
+     * @return a list with up to {@code count} fire times, in chronological order
+     */
+    public List<ZonedDateTime> nextExecutions(ZonedDateTime date, int count)
+    {
+        List<ZonedDateTime> fireTimes = new ArrayList<>(count);
+        Optional<ZonedDateTime> next = peekNextExecution(date.withZoneSameInstant(zone));
+        while (next.isPresent() && fireTimes.size() < count)
+        {
+            fireTimes.add(next.get());
+            next = peekNextExecution(next.get());
+        }
+        return fireTimes;
+    }
+
+    /**
+     * @return the date after which the look-ahead table holds the fire times, or an empty
+     *         {@link Optional} if no fire time was requested yet
+     */
+    protected Optional<ZonedDateTime> getLookAheadStart()
+    {
+        Window current = window;
+        return current != null ? Optional.of(current.start) : Optional.empty();
+    }
+
+    /**
+     * @return the parsed Cron expression
+     */
+    public Cron getCron()
+    {
+        return cron;
+    }
+
+    /**
+     * @return {@code true} if fire times are calculated by a {@link CompiledCron}
+     */
+    public boolean isCompiled()
+    {
+        return compiledCron != null;
+    }
+
+    /**
+     * @return the Cron expression, in its canonical form
+     */
+    public String getExpression()
+    {
+        return expression;
+    }
+
+    /**
+     * @return a human-readable description of the Cron expression
+     */
+    public String getDescription()
+    {
+        return description;
+    }
+
+    /**
+     * @return the time zone in which fire times are calculated
+     */
+    public ZoneId getZone()
+    {
+        return zone;
+    }
+
+    /**
+     * An immutable table with the fire times that come after a particular date.
+     */
+    private class Window
+    {
+        private final ZonedDateTime start;
+        private final List<ZonedDateTime> fireTimes;
+
+        /*
+         * Whether the expression does not fire after the last entry of the table
+         */
+        private final boolean exhausted;
+
+        private Window(ZonedDateTime start)
+        {
+            this.start = start;
+            List<ZonedDateTime> times = new ArrayList<>(LOOK_AHEAD);
+            Optional<ZonedDateTime> next = calculateNextExecution(start);
+            while (next.isPresent() && times.size() < LOOK_AHEAD)
+            {
+                times.add(next.get());
+                next = calculateNextExecution(next.get());
+            }
+            this.fireTimes = Collections.unmodifiableList(times);
+            this.exhausted = !next.isPresent();
+        }
+
+        private boolean covers(ZonedDateTime time)
+        {
+            return !time.isBefore(start)
+                    && (exhausted || time.isBefore(fireTimes.get(fireTimes.size() - 1)));
+        }
+
+        private Optional<ZonedDateTime> next(ZonedDateTime time)
+        {
+            for (ZonedDateTime fireTime : fireTimes)
+            {
+                if (fireTime.isAfter(time))
+                {
+                    return Optional.of(fireTime);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+}
@@ -0,0 +1,389 @@
+package net.obvj.smart.scheduler;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.obvj.smart.util.Exceptions;
+import net.obvj.smart.util.LagStatistics;
+
+/**
+ * A global limit on the number of executions in progress, with priority-ordered admission.
+ * <p>
+ * An execution is handed over to the underlying {@link Executor} only after acquiring one
+ * of the available permits. Executions submitted while no permit is available wait in a
+ * bounded queue, and are admitted as permits are released: highest priority first, and in
+ * submission order (FIFO) within the same priority. Executions submitted while the queue is
+ * full are rejected.
+ * <p>
+ * The queue depth and the time waited for a permit are tracked per priority level.
+ * <p>
+ * A permit is released when the admitted execution returns, unless the execution detaches
+ * it with {@link #detachPermit()} (e.g.: because its work continues asynchronously), in
+ * which case the permit is held until it is explicitly released.
+ * <p>
+ * The permit of an execution that timed out while its thread is stuck in a task that does
+ * not respond to interruption can be released early with {@link Permit#abandon()}, so that
+ * the next execution is not held back by the stuck thread. Such threads are counted until
+ * they return.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class ExecutionGovernor
+{
+    /*
+     * The permit of the admitted execution running in the current thread, if any
+     */
+    private static final ThreadLocal<Permit> CURRENT_PERMIT = new ThreadLocal<>();
+
+    private static final Comparator<Admission> ADMISSION_ORDER = Comparator
+            .comparingInt((Admission admission) -> admission.priority).reversed()
+            .thenComparingLong(admission -> admission.sequence);
+
+    private final Executor executor;
+    private final int permits;
+    private final int queueCapacity;
+
+    private final PriorityQueue<Admission> queue = new PriorityQueue<>(ADMISSION_ORDER);
+    private final ConcurrentNavigableMap<Integer, PriorityLevel> levels = new ConcurrentSkipListMap<>(
+            Collections.reverseOrder());
+
+    private final AtomicInteger stuckWorkers = new AtomicInteger();
+
+    private int availablePermits;
+    private long sequence;
+    private boolean shutdown;
+
+    /**
+     * Builds an execution governor.
+     *
+     * @param executor      the {@link Executor} that runs admitted executions
+     * @param permits       the maximum number of executions in progress
+     * @param queueCapacity the maximum number of executions waiting for a permit
+     * @throws IllegalArgumentException if permits is less than 1, or queueCapacity is
+     *                                  negative
+     */
+    public ExecutionGovernor(Executor executor, int permits, int queueCapacity)
+    {
+        if (permits < 1)
+        {
+            throw Exceptions.illegalArgument("The number of permits must be greater than zero: %s", permits);
+        }
+        if (queueCapacity < 0)
+        {
+            throw Exceptions.illegalArgument("The queue capacity cannot be negative: %s", queueCapacity);
+        }
+        this.executor = executor;
+        this.permits = permits;
+        this.queueCapacity = queueCapacity;
+        this.availablePermits = permits;
+    }
+
+    /**
+     * Submits an execution, which is handed over to the executor as soon as a permit is
+     * available.
+     *
+     * @param task     the execution to be submitted
+     * @param priority the priority of the execution; higher values are admitted first
+     * @return {@code true} if the execution was admitted or queued, or {@code false} if it
+     *         was rejected because the queue is full or this governor was shut down
+     */
+    public synchronized boolean submit(Runnable task, int priority)
+    {
+        if (shutdown)
+        {
+            return false;
+        }
+        Admission admission = new Admission(task, priority, sequence++);
+        if (availablePermits > 0)
+        {
+            availablePermits--;
+            return dispatch(admission);
+        }
+        if (queue.size() < queueCapacity)
+        {
+            queue.offer(admission);
+            getLevel(priority).depth.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Hands an admitted execution over to the executor. The permit is released when the
+     * execution finishes, unless detached, or immediately if the executor rejects it.
+     */
+    private boolean dispatch(Admission admission)
+    {
+        getLevel(admission.priority).waitTime.record(System.nanoTime() - admission.submissionTime);
+        try
+        {
+            executor.execute(() ->
+            {
+                Permit previous = CURRENT_PERMIT.get();
+                Permit permit = new Permit();
+                CURRENT_PERMIT.set(permit);
+                try
+                {
+                    admission.task.run();
+                }
+                finally
+                {
+                    boolean detached = CURRENT_PERMIT.get() != permit;
+                    if (previous != null)
+                    {
+                        CURRENT_PERMIT.set(previous);
+                    }
+                    else
+                    {
+                        CURRENT_PERMIT.remove();
+                    }
+                    if (!detached)
+                    {
+                        permit.release();
+                    }
+                    permit.returned();
+                }
+            });
+            return true;
+        }
+        catch (RejectedExecutionException exception)
+        {
+            availablePermits++;
+            return false;
+        }
+    }
+
+    /**
+     * Releases a permit, admitting the next queued execution, if any.
+     */
+    private synchronized void release()
+    {
+        Admission next = queue.poll();
+        if (next == null)
+        {
+            availablePermits++;
+            return;
+        }
+        getLevel(next.priority).depth.decrementAndGet();
+        if (!dispatch(next))
+        {
+            // The executor no longer accepts executions; the queued ones are discarded
+            discardQueue();
+        }
+    }
+
+    /**
+     * Detaches the permit of the admitted execution running in the calling thread, so that
+     * it is not released when the execution returns. The caller becomes responsible for
+     * releasing it.
+     *
+     * @return the detached {@link Permit}, or {@code null} if the calling thread is not
+     *         running an admitted execution, or its permit was already detached
+     */
+    public static Permit detachPermit()
+    {
+        Permit permit = CURRENT_PERMIT.get();
+        CURRENT_PERMIT.remove();
+        return permit;
+    }
+
+    /**
+     * @return the {@link Permit} of the admitted execution running in the calling thread,
+     *         or {@code null} if the calling thread is not running an admitted execution, or
+     *         its permit was detached
+     */
+    public static Permit getCurrentPermit()
+    {
+        return CURRENT_PERMIT.get();
+    }
+
+    /**
+     * Stops accepting executions and discards the ones waiting for a permit. Executions
+     * already admitted are not affected.
+     */
+    public synchronized void shutdown()
+    {
+        shutdown = true;
+        discardQueue();
+    }
+
+    private void discardQueue()
+    {
+        Admission admission;
+        while ((admission = queue.poll()) != null)
+        {
+            getLevel(admission.priority).depth.decrementAndGet();
+        }
+    }
+
+    private PriorityLevel getLevel(int priority)
+    {
+        return levels.computeIfAbsent(priority, key -> new PriorityLevel());
+    }
+
+    /**
+     * @return the maximum number of executions in progress
+     */
+    public int getPermits()
+    {
+        return permits;
+    }
+
+    /**
+     * @return the number of permits currently available
+     */
+    public synchronized int getAvailablePermits()
+    {
+        return availablePermits;
+    }
+
+    /**
+     * @return the number of threads still running the task of an execution whose permit was
+     *         abandoned on timeout
+     */
+    public int getStuckWorkers()
+    {
+        return stuckWorkers.get();
+    }
+
+    /**
+     * @return the maximum number of executions waiting for a permit
+     */
+    public int getQueueCapacity()
+    {
+        return queueCapacity;
+    }
+
+    /**
+     * @return the number of executions waiting for a permit
+     */
+    public synchronized int getQueuedExecutions()
+    {
+        return queue.size();
+    }
+
+    /**
+     * @param priority the priority level
+     * @return the number of executions with the given priority waiting for a permit
+     */
+    public int getQueueDepth(int priority)
+    {
+        PriorityLevel level = levels.get(priority);
+        return level != null ? level.depth.get() : 0;
+    }
+
+    /**
+     * @param priority the priority level
+     * @return the statistics of the time waited for a permit by executions with the given
+     *         priority, in nanoseconds
+     */
+    public LagStatistics getWaitTime(int priority)
+    {
+        PriorityLevel level = levels.get(priority);
+        return level != null ? level.waitTime : new LagStatistics();
+    }
+
+    /**
+     * @return the priority levels of all executions submitted so far, from the highest to
+     *         the lowest
+     */
+    public Set<Integer> getPriorityLevels()
+    {
+        return Collections.unmodifiableSet(levels.keySet());
+    }
+
+    /**
+     * The permit held by an admitted execution.
+     */
+    public final class Permit
+    {
+        private final AtomicBoolean released = new AtomicBoolean();
+        private boolean returned;
+        private boolean stuck;
+
+        private Permit()
+        {
+        }
+
+        /**
+         * Releases this permit, admitting the next queued execution, if any. Subsequent calls
+         * have no effect.
+         */
+        public void release()
+        {
+            if (released.compareAndSet(false, true))
+            {
+                ExecutionGovernor.this.release();
+            }
+        }
+
+        /**
+         * Releases this permit on behalf of an execution that timed out while its thread
+         * is still running a task that does not respond to interruption. The thread is
+         * counted as stuck until the task returns, while the next execution is admitted in
+         * its place.
+         */
+        public void abandon()
+        {
+            synchronized (this)
+            {
+                if (!returned && !stuck)
+                {
+                    stuck = true;
+                    stuckWorkers.incrementAndGet();
+                }
+            }
+            release();
+        }
+
+        /**
+         * Marks the thread that held this permit as returned from the admitted execution.
+         */
+        private synchronized void returned()
+        {
+            returned = true;
+            if (stuck)
+            {
+                stuck = false;
+                stuckWorkers.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * An execution waiting for a permit.
+     */
+    private static class Admission
+    {
+        private final Runnable task;
+        private final int priority;
+        private final long sequence;
+        private final long submissionTime = System.nanoTime();
+
+        private Admission(Runnable task, int priority, long sequence)
+        {
+            this.task = task;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * The statistics of a priority level.
+     */
+    private static class PriorityLevel
+    {
+        private final AtomicInteger depth = new AtomicInteger();
+        private final LagStatistics waitTime = new LagStatistics();
+    }
+
+}
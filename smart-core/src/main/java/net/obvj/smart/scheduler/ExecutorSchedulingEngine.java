@@ -0,0 +1,87 @@
+package net.obvj.smart.scheduler;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import net.obvj.smart.agents.AgentThreadFactory;
+
+/**
+ * A {@link SchedulingEngine} backed by the JDK's {@link ScheduledThreadPoolExecutor},
+ * which keeps scheduled tasks in a binary heap.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class ExecutorSchedulingEngine implements SchedulingEngine
+{
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * Builds an engine with the given number of threads.
+     *
+     * @param threads the number of threads that run due tasks
+     * @throws IllegalArgumentException if {@code threads} is less than 1
+     */
+    public ExecutorSchedulingEngine(int threads)
+    {
+        executor = new ScheduledThreadPoolExecutor(threads, new AgentThreadFactory(AgentScheduler.DISPATCHER_NAME));
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public ScheduledExecution schedule(Runnable task, long delay, TimeUnit unit)
+    {
+        return new FutureExecution(executor.schedule(task, delay, unit));
+    }
+
+    @Override
+    public ScheduledExecution scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit)
+    {
+        return new FutureExecution(executor.scheduleAtFixedRate(task, initialDelay, period, unit));
+    }
+
+    @Override
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown()
+    {
+        return executor.isShutdown();
+    }
+
+    /**
+     * A {@link ScheduledExecution} that delegates to a {@link ScheduledFuture}.
+     */
+    private static class FutureExecution implements ScheduledExecution
+    {
+        private final ScheduledFuture<?> future;
+
+        private FutureExecution(ScheduledFuture<?> future)
+        {
+            this.future = future;
+        }
+
+        @Override
+        public boolean cancel()
+        {
+            return future.cancel(false);
+        }
+
+        @Override
+        public boolean isCancelled()
+        {
+            return future.isCancelled();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit)
+        {
+            return future.getDelay(unit);
+        }
+    }
+
+}
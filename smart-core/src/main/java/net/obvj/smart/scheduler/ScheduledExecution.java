@@ -0,0 +1,37 @@
+package net.obvj.smart.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A handle to an execution registered with a {@link SchedulingEngine}.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public interface ScheduledExecution
+{
+
+    /**
+     * Cancels this execution. If the execution is periodic, all subsequent executions are
+     * cancelled as well. An execution that is already running is not interrupted.
+     *
+     * @return {@code false} if this execution could not be cancelled, typically because it
+     *         was already completed or cancelled; {@code true} otherwise
+     */
+    boolean cancel();
+
+    /**
+     * @return {@code true} if this execution was cancelled
+     */
+    boolean isCancelled();
+
+    /**
+     * Returns the remaining delay until this execution is due.
+     *
+     * @param unit the time unit of the result
+     * @return the remaining delay; zero or negative values indicate that the delay has
+     *         already elapsed
+     */
+    long getDelay(TimeUnit unit);
+
+}
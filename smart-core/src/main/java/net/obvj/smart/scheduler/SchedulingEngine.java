@@ -0,0 +1,50 @@
+package net.obvj.smart.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An object that keeps track of scheduled fire times and runs the associated tasks when
+ * they are due.
+ * <p>
+ * Tasks submitted to a scheduling engine are expected to be short (e.g.: handing an
+ * agent over to a worker pool), since they are executed by the engine's own thread(s).
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public interface SchedulingEngine
+{
+
+    /**
+     * Schedules a task to be executed once, after the given delay.
+     *
+     * @param task  the task to execute
+     * @param delay the time from now to delay execution
+     * @param unit  the time unit of the delay parameter
+     * @return a {@link ScheduledExecution} that can be used to cancel the task
+     */
+    ScheduledExecution schedule(Runnable task, long delay, TimeUnit unit);
+
+    /**
+     * Schedules a task to be executed periodically, starting after the given initial delay,
+     * and subsequently with the given period.
+     *
+     * @param task         the task to execute
+     * @param initialDelay the time to delay first execution
+     * @param period       the period between successive executions
+     * @param unit         the time unit of the initialDelay and period parameters
+     * @return a {@link ScheduledExecution} that can be used to cancel the task
+     */
+    ScheduledExecution scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit);
+
+    /**
+     * Discards all pending executions and stops accepting new ones.
+     */
+    void shutdown();
+
+    /**
+     * @return {@code true} if this engine has been shut down
+     */
+    boolean isShutdown();
+
+}
@@ -0,0 +1,85 @@
+package net.obvj.smart.scheduler;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link Executor} that starts a new thread for each task, for threads that are cheap
+ * to create and must not be pooled, such as virtual threads.
+ * <p>
+ * This executor does not limit the number of tasks in progress, which is bounded by the
+ * {@link ExecutionGovernor} that hands the tasks over to it.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+class ThreadPerTaskExecutor implements Executor
+{
+    private final ThreadFactory threadFactory;
+    private final AtomicInteger activeTasks = new AtomicInteger();
+
+    private volatile boolean shutdown;
+
+    /**
+     * Builds a thread-per-task executor.
+     *
+     * @param threadFactory the {@link ThreadFactory} that creates the thread of each task
+     */
+    ThreadPerTaskExecutor(ThreadFactory threadFactory)
+    {
+        this.threadFactory = threadFactory;
+    }
+
+    /**
+     * Starts a new thread to execute the given task.
+     *
+     * @throws RejectedExecutionException if this executor has been shut down
+     */
+    @Override
+    public void execute(Runnable task)
+    {
+        if (shutdown)
+        {
+            throw new RejectedExecutionException("The executor has been shut down");
+        }
+        threadFactory.newThread(() ->
+        {
+            activeTasks.incrementAndGet();
+            try
+            {
+                task.run();
+            }
+            finally
+            {
+                activeTasks.decrementAndGet();
+            }
+        }).start();
+    }
+
+    /**
+     * Stops accepting new tasks. Tasks in progress are not interrupted.
+     */
+    void shutdown()
+    {
+        shutdown = true;
+    }
+
+    /**
+     * @return {@code true} if this executor has been shut down
+     */
+    boolean isShutdown()
+    {
+        return shutdown;
+    }
+
+    /**
+     * @return the number of tasks in progress
+     */
+    int getActiveCount()
+    {
+        return activeTasks.get();
+    }
+
+}
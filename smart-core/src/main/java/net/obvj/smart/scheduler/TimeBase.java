@@ -0,0 +1,245 @@
+package net.obvj.smart.scheduler;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The time base of a scheduler, which relates the wall clock, used to calculate fire
+ * times, to the monotonic clock, used to measure delays.
+ * <p>
+ * Delays are measured by the scheduling engines with {@link System#nanoTime()}, which is
+ * not affected by changes to the system time. Fire times, however, are calculated from
+ * the wall clock (e.g.: "every day at 2 AM"), so a pending trigger becomes wrong when the
+ * wall clock is stepped (for instance, by NTP) or when the UTC offset of the system time
+ * zone changes (for instance, when daylight saving time begins or ends).
+ * <p>
+ * The {@link #check()} method, which is called periodically by the {@link AgentScheduler},
+ * compares the elapsed wall-clock time with the elapsed monotonic time since the previous
+ * check. When they diverge by more than a tolerance, or when the UTC offset changes, the
+ * time base is re-anchored and its listeners are notified, so that agents can recalculate
+ * their pending fire times.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class TimeBase
+{
+    private static final Logger LOG = LoggerFactory.getLogger(TimeBase.class);
+
+    /**
+     * The default maximum difference between the elapsed wall-clock and monotonic times, in
+     * milliseconds, that is not considered a clock jump.
+     */
+    public static final long DEFAULT_TOLERANCE_MILLIS = 1000L;
+
+    /**
+     * The reason why a time base was re-anchored.
+     */
+    public enum Reason
+    {
+        /**
+         * The wall clock was stepped forward or backward.
+         */
+        CLOCK_JUMP,
+
+        /**
+         * The UTC offset of the system time zone changed (e.g.: daylight saving time).
+         */
+        OFFSET_CHANGE;
+    }
+
+    /**
+     * An object that is notified when a time base is re-anchored.
+     */
+    @FunctionalInterface
+    public interface Listener
+    {
+        /**
+         * Called when the time base is re-anchored.
+         *
+         * @param reason     the reason of the re-anchor
+         * @param jumpMillis the difference between the wall-clock time and the time expected
+         *                   by the monotonic clock, in milliseconds (0 for offset changes)
+         */
+        void onTimeShift(Reason reason, long jumpMillis);
+    }
+
+    private final long toleranceMillis;
+    private final LongSupplier wallClock;
+    private final LongSupplier monotonicClock;
+    private final Supplier<ZoneId> zone;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong reanchors = new AtomicLong();
+
+    private long anchorWallMillis;
+    private long anchorNanos;
+    private ZoneOffset anchorOffset;
+
+    /**
+     * Builds a time base on the system clocks and time zone, with the default tolerance.
+     */
+    public TimeBase()
+    {
+        this(DEFAULT_TOLERANCE_MILLIS);
+    }
+
+    /**
+     * Builds a time base on the system clocks and time zone.
+     *
+     * @param toleranceMillis the maximum difference between the elapsed wall-clock and
+     *                        monotonic times, in milliseconds, that is not considered a
+     *                        clock jump
+     */
+    public TimeBase(long toleranceMillis)
+    {
+        this(toleranceMillis, System::currentTimeMillis, System::nanoTime, ZoneId::systemDefault);
+    }
+
+    /**
+     * Builds a time base on particular clocks.
+     *
+     * @param toleranceMillis the maximum difference between the elapsed wall-clock and
+     *                        monotonic times, in milliseconds, that is not considered a
+     *                        clock jump
+     * @param wallClock       the wall clock, in milliseconds since the epoch
+     * @param monotonicClock  the monotonic clock, in nanoseconds
+     * @param zone            the supplier of the system time zone
+     */
+    protected TimeBase(long toleranceMillis, LongSupplier wallClock, LongSupplier monotonicClock,
+            Supplier<ZoneId> zone)
+    {
+        this.toleranceMillis = toleranceMillis;
+        this.wallClock = wallClock;
+        this.monotonicClock = monotonicClock;
+        this.zone = zone;
+        anchor(wallClock.getAsLong(), monotonicClock.getAsLong());
+    }
+
+    private void anchor(long wallMillis, long nanos)
+    {
+        anchorWallMillis = wallMillis;
+        anchorNanos = nanos;
+        anchorOffset = offsetAt(wallMillis);
+    }
+
+    private ZoneOffset offsetAt(long wallMillis)
+    {
+        return zone.get().getRules().getOffset(Instant.ofEpochMilli(wallMillis));
+    }
+
+    /**
+     * Checks whether the wall clock was stepped, or the UTC offset changed, since the
+     * previous check. If so, re-anchors this time base and notifies the listeners.
+     * <p>
+     * Small differences, such as the gradual adjustments applied by NTP, are absorbed
+     * silently, since the time base is anchored again at every check.
+     *
+     * @return the reason of the re-anchor, or {@code null} if the clocks are consistent
+     */
+    public Reason check()
+    {
+        Reason reason = null;
+        long jump = 0;
+        synchronized (this)
+        {
+            long nanos = monotonicClock.getAsLong();
+            long wallMillis = wallClock.getAsLong();
+            long expectedWallMillis = anchorWallMillis + TimeUnit.NANOSECONDS.toMillis(nanos - anchorNanos);
+            ZoneOffset previousOffset = anchorOffset;
+            anchor(wallMillis, nanos);
+
+            if (Math.abs(wallMillis - expectedWallMillis) > toleranceMillis)
+            {
+                reason = Reason.CLOCK_JUMP;
+                jump = wallMillis - expectedWallMillis;
+                LOG.warn("Wall clock jumped {} ms. Re-anchoring pending fire times", jump);
+            }
+            else if (!anchorOffset.equals(previousOffset))
+            {
+                reason = Reason.OFFSET_CHANGE;
+                LOG.info("UTC offset changed from {} to {}. Re-anchoring pending fire times", previousOffset,
+                        anchorOffset);
+            }
+        }
+        if (reason != null)
+        {
+            reanchors.incrementAndGet();
+            for (Listener listener : listeners)
+            {
+                notify(listener, reason, jump);
+            }
+        }
+        return reason;
+    }
+
+    private void notify(Listener listener, Reason reason, long jumpMillis)
+    {
+        try
+        {
+            listener.onTimeShift(reason, jumpMillis);
+        }
+        catch (RuntimeException exception)
+        {
+            LOG.error("Unable to re-anchor fire times", exception);
+        }
+    }
+
+    /**
+     * Registers a listener to be notified whenever this time base is re-anchored.
+     *
+     * @param listener the listener to be added
+     */
+    public void addListener(Listener listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener the listener to be removed
+     */
+    public void removeListener(Listener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Converts the given wall-clock fire time into a delay from now.
+     *
+     * @param fireTimeMillis the fire time, in milliseconds since the epoch
+     * @return the time until the given fire time, in nanoseconds (negative if past)
+     */
+    public long delayNanos(long fireTimeMillis)
+    {
+        return TimeUnit.MILLISECONDS.toNanos(fireTimeMillis - wallClock.getAsLong());
+    }
+
+    /**
+     * @return the number of times this time base was re-anchored
+     */
+    public long getReanchors()
+    {
+        return reanchors.get();
+    }
+
+    /**
+     * @return the number of registered listeners
+     */
+    protected int getListenerCount()
+    {
+        return listeners.size();
+    }
+
+}
@@ -0,0 +1,516 @@
+package net.obvj.smart.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.obvj.smart.agents.AgentThreadFactory;
+import net.obvj.smart.util.Exceptions;
+
+/**
+ * A {@link SchedulingEngine} based on a hashed hierarchical timing wheel, driven by a
+ * single ticking thread.
+ * <p>
+ * Fire times are kept in four wheels with increasing granularity:
+ * <ul>
+ * <li>milliseconds: one slot per tick, covering one second</li>
+ * <li>seconds: 60 slots, covering one minute</li>
+ * <li>minutes: 60 slots, covering one hour</li>
+ * <li>hours: 24 slots; farther fire times share a slot with those one or more days
+ * before</li>
+ * </ul>
+ * Each slot is a doubly-linked list, so scheduling and cancelling are {@code O(1)}. When
+ * the ticking thread crosses a second, minute or hour boundary, the matching slot of the
+ * coarser wheel is cascaded down to the finer wheels.
+ * <p>
+ * All times are measured on the monotonic clock ({@link System#nanoTime()}). Fire times
+ * are computed in nanoseconds and rounded up to the tick, so a task never runs before its
+ * delay has elapsed.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class TimingWheelSchedulingEngine implements SchedulingEngine
+{
+    private static final Logger LOG = LoggerFactory.getLogger(TimingWheelSchedulingEngine.class);
+
+    private static final long SECOND = 1000L;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final int HOURS_WHEEL = 3;
+
+    private final long tickMillis;
+    private final LongSupplier nanoClock;
+
+    /*
+     * The time unit represented by a slot in each wheel, and the number of slots per wheel
+     */
+    private final long[] units;
+    private final int[] slots;
+
+    private final Bucket[][] wheels;
+
+    private final Object lock = new Object();
+
+    /*
+     * The time of the last processed tick, in milliseconds since the engine was created
+     */
+    private long currentTime;
+    private int size;
+
+    /*
+     * The entries being cascaded, guarded by the lock, and the entries due in the ticks being
+     * processed, owned by the thread that advances the time, reused on every tick
+     */
+    private final List<Entry> cascading = new ArrayList<>();
+    private final List<Entry> due = new ArrayList<>();
+
+    private final Thread ticker;
+    private volatile boolean shutdown;
+
+    /**
+     * Builds and starts a timing wheel with the given tick duration.
+     *
+     * @param tickMillis the duration of a tick of the milliseconds wheel; must be a divisor
+     *                   of 1000
+     * @throws IllegalArgumentException if the tick duration is not a positive divisor of
+     *                                  1000
+     */
+    public TimingWheelSchedulingEngine(long tickMillis)
+    {
+        this(tickMillis, monotonicClock(), TimeUnit.NANOSECONDS);
+        ticker.start();
+    }
+
+    /**
+     * Builds a timing wheel with a custom clock. The ticking thread is created but not
+     * started, so that time can be advanced manually with {@link #advanceTo(long)}.
+     *
+     * @param tickMillis the duration of a tick of the milliseconds wheel
+     * @param clock      a monotonic time source, in milliseconds
+     */
+    protected TimingWheelSchedulingEngine(long tickMillis, LongSupplier clock)
+    {
+        this(tickMillis, clock, TimeUnit.MILLISECONDS);
+    }
+
+    private TimingWheelSchedulingEngine(long tickMillis, LongSupplier clock, TimeUnit clockUnit)
+    {
+        if (tickMillis < 1 || SECOND % tickMillis != 0)
+        {
+            throw Exceptions.illegalArgument("The tick duration must be a divisor of 1000: %s", tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.nanoClock = () -> clockUnit.toNanos(clock.getAsLong());
+
+        units = new long[] { tickMillis, SECOND, MINUTE, HOUR };
+        slots = new int[] { (int) (SECOND / tickMillis), 60, 60, 24 };
+
+        wheels = new Bucket[units.length][];
+        for (int level = 0; level < units.length; level++)
+        {
+            wheels[level] = new Bucket[slots[level]];
+            for (int slot = 0; slot < slots[level]; slot++)
+            {
+                wheels[level][slot] = new Bucket();
+            }
+        }
+
+        currentTime = floorToTick(currentMillis());
+        ticker = new AgentThreadFactory(AgentScheduler.DISPATCHER_NAME).newThread(this::tick);
+    }
+
+    private static LongSupplier monotonicClock()
+    {
+        long origin = System.nanoTime();
+        return () -> System.nanoTime() - origin;
+    }
+
+    /**
+     * @return the current time, in milliseconds, rounded down
+     */
+    private long currentMillis()
+    {
+        return Math.floorDiv(nanoClock.getAsLong(), NANOS_PER_MILLI);
+    }
+
+    /**
+     * @return the time, in milliseconds rounded up, at which the given delay elapses
+     */
+    private long fireTimeAfter(long delay, TimeUnit unit)
+    {
+        long nanos = nanoClock.getAsLong() + Math.max(0L, unit.toNanos(delay));
+        if (nanos < 0)
+        {
+            // Overflow: the delay is too long to ever elapse
+            nanos = Long.MAX_VALUE - NANOS_PER_MILLI;
+        }
+        return ceilMillis(nanos);
+    }
+
+    private static long ceilMillis(long nanos)
+    {
+        return -Math.floorDiv(-nanos, NANOS_PER_MILLI);
+    }
+
+    @Override
+    public ScheduledExecution schedule(Runnable task, long delay, TimeUnit unit)
+    {
+        return add(new Entry(task, fireTimeAfter(delay, unit), 0));
+    }
+
+    @Override
+    public ScheduledExecution scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit)
+    {
+        if (period <= 0)
+        {
+            throw Exceptions.illegalArgument("The period must be positive: %s", period);
+        }
+        return add(new Entry(task, fireTimeAfter(initialDelay, unit), ceilMillis(unit.toNanos(period))));
+    }
+
+    private Entry add(Entry entry)
+    {
+        synchronized (lock)
+        {
+            if (shutdown)
+            {
+                throw Exceptions.illegalState("The scheduling engine was shut down");
+            }
+            if (size == 0)
+            {
+                // Nothing to cascade, so the wheel can be fast-forwarded after an idle period
+                currentTime = Math.max(currentTime, floorToTick(currentMillis()));
+            }
+            place(entry, nextDeadline(entry));
+            size++;
+            lock.notifyAll();
+        }
+        return entry;
+    }
+
+    /**
+     * @return the entry's fire time rounded up to the tick, but not earlier than the next
+     *         tick
+     */
+    private long nextDeadline(Entry entry)
+    {
+        return Math.max(ceilToTick(entry.nominalTime), currentTime + tickMillis);
+    }
+
+    /**
+     * Links the given entry to the appropriate slot, considering the current time. This
+     * method must be called while holding the lock.
+     */
+    private void place(Entry entry, long deadline)
+    {
+        entry.deadline = deadline;
+
+        int level = 0;
+        while (level < HOURS_WHEEL && deadline / units[level + 1] != currentTime / units[level + 1])
+        {
+            level++;
+        }
+        wheels[level][(int) ((deadline / units[level]) % slots[level])].link(entry);
+    }
+
+    /**
+     * Processes all ticks up to the given time, running the tasks that are due. Called by a
+     * single thread: the ticking thread, or the caller that advances the time manually.
+     *
+     * @param now the time, in milliseconds on this engine's clock
+     */
+    protected void advanceTo(long now)
+    {
+        synchronized (lock)
+        {
+            while (currentTime + tickMillis <= now)
+            {
+                currentTime += tickMillis;
+                cascade();
+                expire();
+            }
+        }
+        try
+        {
+            for (Entry entry : due)
+            {
+                run(entry);
+            }
+        }
+        finally
+        {
+            due.clear();
+        }
+    }
+
+    /**
+     * Moves the entries of coarser wheels down to finer wheels when a boundary is crossed,
+     * starting from the coarsest wheel.
+     */
+    private void cascade()
+    {
+        for (int level = HOURS_WHEEL; level > 0; level--)
+        {
+            if (currentTime % units[level] == 0)
+            {
+                Bucket bucket = wheels[level][(int) ((currentTime / units[level]) % slots[level])];
+                bucket.drainTo(cascading);
+                for (Entry entry : cascading)
+                {
+                    if (level == HOURS_WHEEL && entry.deadline / HOUR != currentTime / HOUR)
+                    {
+                        // Due in one or more days, keep it in the same slot
+                        bucket.link(entry);
+                    }
+                    else
+                    {
+                        place(entry, entry.deadline);
+                    }
+                }
+                cascading.clear();
+            }
+        }
+    }
+
+    private void expire()
+    {
+        size -= wheels[0][(int) ((currentTime / tickMillis) % slots[0])].drainTo(due);
+    }
+
+    private void run(Entry entry)
+    {
+        if (entry.cancelled)
+        {
+            return;
+        }
+        try
+        {
+            entry.task.run();
+        }
+        catch (Throwable throwable)
+        {
+            // Errors included, otherwise the ticking thread would die and stop all schedules
+            LOG.error("Scheduled task ended with an exception", throwable);
+        }
+        if (entry.period > 0)
+        {
+            synchronized (lock)
+            {
+                if (!entry.cancelled && !shutdown)
+                {
+                    entry.nominalTime += entry.period;
+                    place(entry, nextDeadline(entry));
+                    size++;
+                }
+            }
+        }
+    }
+
+    private void tick()
+    {
+        while (!shutdown)
+        {
+            advanceTo(currentMillis());
+            synchronized (lock)
+            {
+                try
+                {
+                    if (size == 0 && !shutdown)
+                    {
+                        lock.wait();
+                        continue;
+                    }
+                }
+                catch (InterruptedException exception)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            long sleepMillis = currentTime + tickMillis - currentMillis();
+            if (sleepMillis > 0)
+            {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(sleepMillis));
+            }
+        }
+    }
+
+    @Override
+    public void shutdown()
+    {
+        synchronized (lock)
+        {
+            shutdown = true;
+            List<Entry> cancelled = new ArrayList<>();
+            for (Bucket[] wheel : wheels)
+            {
+                for (Bucket bucket : wheel)
+                {
+                    bucket.drainTo(cancelled);
+                }
+            }
+            cancelled.forEach(entry -> entry.cancelled = true);
+            size = 0;
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public boolean isShutdown()
+    {
+        return shutdown;
+    }
+
+    /**
+     * @return the number of pending executions
+     */
+    public int size()
+    {
+        synchronized (lock)
+        {
+            return size;
+        }
+    }
+
+    private long floorToTick(long time)
+    {
+        return time - Math.floorMod(time, tickMillis);
+    }
+
+    private long ceilToTick(long time)
+    {
+        long floor = floorToTick(time);
+        return floor == time ? time : floor + tickMillis;
+    }
+
+    /**
+     * A doubly-linked list of entries that share the same slot.
+     */
+    private static class Bucket
+    {
+        private Entry head;
+
+        private void link(Entry entry)
+        {
+            entry.bucket = this;
+            entry.previous = null;
+            entry.next = head;
+            if (head != null)
+            {
+                head.previous = entry;
+            }
+            head = entry;
+        }
+
+        private void unlink(Entry entry)
+        {
+            if (entry.previous != null)
+            {
+                entry.previous.next = entry.next;
+            }
+            else
+            {
+                head = entry.next;
+            }
+            if (entry.next != null)
+            {
+                entry.next.previous = entry.previous;
+            }
+            entry.bucket = null;
+            entry.previous = null;
+            entry.next = null;
+        }
+
+        /**
+         * Moves all entries of this bucket to the given list.
+         *
+         * @return the number of entries moved
+         */
+        private int drainTo(List<Entry> entries)
+        {
+            if (head == null)
+            {
+                return 0;
+            }
+            int count = 0;
+            while (head != null)
+            {
+                Entry entry = head;
+                unlink(entry);
+                entries.add(entry);
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * A scheduled task and its position in the wheels.
+     */
+    private class Entry implements ScheduledExecution
+    {
+        private final Runnable task;
+        private final long period;
+
+        /*
+         * The exact fire time, and the fire time rounded up to the tick
+         */
+        private long nominalTime;
+        private long deadline;
+
+        private volatile boolean cancelled;
+
+        private Bucket bucket;
+        private Entry previous;
+        private Entry next;
+
+        private Entry(Runnable task, long nominalTime, long period)
+        {
+            this.task = task;
+            this.nominalTime = nominalTime;
+            this.period = period;
+        }
+
+        @Override
+        public boolean cancel()
+        {
+            synchronized (lock)
+            {
+                if (cancelled || (bucket == null && period == 0))
+                {
+                    return false;
+                }
+                cancelled = true;
+                if (bucket != null)
+                {
+                    bucket.unlink(this);
+                    size--;
+                }
+                return true;
+            }
+        }
+
+        @Override
+        public boolean isCancelled()
+        {
+            return cancelled;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit)
+        {
+            return unit.convert(TimeUnit.MILLISECONDS.toNanos(deadline) - nanoClock.getAsLong(),
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+}
@@ -0,0 +1,223 @@
+package net.obvj.smart.scheduler;
+
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.obvj.smart.agents.AgentThreadFactory;
+import net.obvj.smart.util.Exceptions;
+
+/**
+ * A bounded pool of worker threads that executes the agents of a group (bulkhead).
+ * <p>
+ * Each group has its own threads, execution permits and queue of executions waiting for a
+ * permit, so that a group of slow agents cannot exhaust the threads available to the
+ * agents of other groups.
+ * <p>
+ * Virtual threads are not pooled: with virtual workers, each execution starts on a new
+ * virtual thread, and the number of executions in progress is bounded by the execution
+ * permits alone.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class WorkerGroup
+{
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 60L;
+
+    private final String name;
+    private final int workerThreads;
+    private final boolean virtualWorkers;
+    private final ThreadPoolExecutor platformWorkers;
+    private final ThreadPerTaskExecutor virtualThreadWorkers;
+    private final ExecutionGovernor governor;
+
+    private final AtomicLong rejectedExecutions = new AtomicLong();
+
+    /**
+     * Builds a worker group.
+     *
+     * @param name           the group name
+     * @param threadName     the name that identifies the worker threads of this group
+     * @param workerThreads  the number of worker threads (the maximum number of virtual
+     *                       threads in use, with virtual workers)
+     * @param permits        the maximum number of executions in progress (at most
+     *                       workerThreads)
+     * @param queueCapacity  the maximum number of executions waiting for a permit
+     * @param virtualWorkers {@code true} to execute agent tasks on virtual threads
+     * @throws IllegalArgumentException if workerThreads or permits is less than 1, or
+     *                                  queueCapacity is negative
+     * @throws IllegalStateException    if virtual workers are requested but not supported
+     *                                  by the current runtime
+     */
+    public WorkerGroup(String name, String threadName, int workerThreads, int permits, int queueCapacity,
+            boolean virtualWorkers)
+    {
+        if (workerThreads < 1)
+        {
+            throw Exceptions.illegalArgument("The number of worker threads must be greater than zero: %s",
+                    workerThreads);
+        }
+        this.name = name;
+        this.workerThreads = workerThreads;
+        this.virtualWorkers = virtualWorkers;
+        AgentThreadFactory threadFactory = new AgentThreadFactory(threadName, virtualWorkers);
+
+        if (virtualWorkers)
+        {
+            platformWorkers = null;
+            virtualThreadWorkers = new ThreadPerTaskExecutor(threadFactory);
+            governor = new ExecutionGovernor(virtualThreadWorkers, permits, queueCapacity);
+        }
+        else
+        {
+            // Admission is bounded by the governor, and each execution is handed over to an idle
+            // thread or to a new one, never queued: the execution admitted in place of a stuck
+            // one (whose permit was abandoned on timeout) starts on a replacement thread
+            platformWorkers = new ThreadPoolExecutor(workerThreads, Integer.MAX_VALUE, WORKER_KEEP_ALIVE_SECONDS,
+                    TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+            platformWorkers.allowCoreThreadTimeOut(true);
+            virtualThreadWorkers = null;
+            governor = new ExecutionGovernor(platformWorkers, permits, queueCapacity);
+        }
+    }
+
+    /**
+     * Submits an execution, which starts as soon as a permit of this group is available.
+     *
+     * @param task     the execution to be submitted
+     * @param priority the priority of the execution; higher values are admitted first
+     * @return {@code true} if the execution was admitted or queued, or {@code false} if it
+     *         was discarded because the group is saturated or shut down
+     */
+    public boolean submit(Runnable task, int priority)
+    {
+        if (governor.submit(task, priority))
+        {
+            return true;
+        }
+        if (!isShutdown())
+        {
+            rejectedExecutions.incrementAndGet();
+        }
+        return false;
+    }
+
+    /**
+     * Discards the executions waiting for a permit and stops accepting new ones. Executions
+     * in progress are not interrupted.
+     */
+    public void shutdown()
+    {
+        governor.shutdown();
+        if (virtualWorkers)
+        {
+            virtualThreadWorkers.shutdown();
+        }
+        else
+        {
+            platformWorkers.shutdown();
+        }
+    }
+
+    /**
+     * @return {@code true} if this group has been shut down
+     */
+    public boolean isShutdown()
+    {
+        return virtualWorkers ? virtualThreadWorkers.isShutdown() : platformWorkers.isShutdown();
+    }
+
+    /**
+     * @return the group name
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return the number of worker threads of this group, not counting the replacements of
+     *         stuck threads
+     */
+    public int getWorkerThreads()
+    {
+        return workerThreads;
+    }
+
+    /**
+     * @return {@code true} if agent tasks execute on virtual threads
+     */
+    public boolean isVirtualWorkers()
+    {
+        return virtualWorkers;
+    }
+
+    /**
+     * @return the approximate number of workers that are actively executing agent tasks
+     */
+    public int getActiveWorkers()
+    {
+        return virtualWorkers ? virtualThreadWorkers.getActiveCount() : platformWorkers.getActiveCount();
+    }
+
+    /**
+     * @return the number of worker threads of this group still running the task of an
+     *         execution that timed out
+     */
+    public int getStuckWorkers()
+    {
+        return governor.getStuckWorkers();
+    }
+
+    /**
+     * @return the maximum number of executions in progress in this group
+     */
+    public int getMaxConcurrency()
+    {
+        return governor.getPermits();
+    }
+
+    /**
+     * @return the number of executions in progress in this group
+     */
+    public int getActiveExecutions()
+    {
+        return governor.getPermits() - governor.getAvailablePermits();
+    }
+
+    /**
+     * @return the number of executions waiting for a permit of this group
+     */
+    public int getQueuedExecutions()
+    {
+        return governor.getQueuedExecutions();
+    }
+
+    /**
+     * @return the maximum number of executions waiting for a permit of this group
+     */
+    public int getQueueCapacity()
+    {
+        return governor.getQueueCapacity();
+    }
+
+    /**
+     * @return the number of executions discarded because this group was saturated
+     */
+    public long getRejectedExecutions()
+    {
+        return rejectedExecutions.get();
+    }
+
+    /**
+     * @return the {@link ExecutionGovernor} that limits the executions in progress in this
+     *         group
+     */
+    public ExecutionGovernor getGovernor()
+    {
+        return governor;
+    }
+
+}
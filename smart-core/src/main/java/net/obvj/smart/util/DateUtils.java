@@ -143,6 +143,42 @@ public class DateUtils
         return start.getTime();
     }
 
+    /**
+     * Return the first start date for a given interval and time unit, shifted by an offset
+     * from the interval boundaries.
+     * <p>
+     * For example: if current time is 23:38:26 (MM:SS:mi), and the interval is set to 5 with
+     * {@code TimeUnit.MINUTES} and an offset of 90 seconds, the adjusted date will be
+     * 23:41:30.
+     *
+     * @param interval     the interval for the first start date
+     * @param timeUnit     the given interval's time unit
+     * @param offsetMillis the offset from the interval boundaries, in milliseconds
+     * @return the adjusted start date for the given interval, time unit and offset
+     * @since 2.0
+     */
+    public static Date getExactStartDateEvery(int interval, TimeUnit timeUnit, long offsetMillis)
+    {
+        return getExactStartDateEvery(interval, timeUnit, offsetMillis, Calendar.getInstance());
+    }
+
+    protected static Date getExactStartDateEvery(int interval, TimeUnit timeUnit, long offsetMillis,
+            Calendar baseCalendar)
+    {
+        Date boundary = getExactStartDateEvery(interval, timeUnit, baseCalendar);
+        if (offsetMillis == 0)
+        {
+            return boundary;
+        }
+        long period = timeUnit.toMillis(interval);
+        long start = boundary.getTime() - period + offsetMillis;
+        if (start <= baseCalendar.getTimeInMillis())
+        {
+            start += period;
+        }
+        return new Date(start);
+    }
+
     /**
      * Creates and returns a copy of the given calendar object.
      */
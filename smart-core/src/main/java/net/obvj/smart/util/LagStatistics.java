@@ -0,0 +1,123 @@
+package net.obvj.smart.util;
+
+import java.util.Arrays;
+import java.util.Queue;
+
+import com.google.common.collect.EvictingQueue;
+
+/**
+ * A thread-safe accumulator of scheduling lags, i.e., the time between the planned fire
+ * time of an execution and its actual start.
+ * <p>
+ * The count, mean and maximum cover all recorded lags, whereas percentiles are calculated
+ * from a history of the most recent lags.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class LagStatistics
+{
+    public static final int DEFAULT_HISTORY_SIZE = 1440;
+
+    private final Queue<Long> history;
+
+    private long count;
+    private long sum;
+    private long last;
+    private long max;
+
+    /**
+     * Builds an empty accumulator with the default history size.
+     */
+    public LagStatistics()
+    {
+        this(DEFAULT_HISTORY_SIZE);
+    }
+
+    /**
+     * Builds an empty accumulator.
+     *
+     * @param historySize the number of recent lags kept for percentiles
+     */
+    public LagStatistics(int historySize)
+    {
+        history = EvictingQueue.create(historySize);
+    }
+
+    /**
+     * Records the lag of an execution. Negative lags, i.e., executions started slightly
+     * before the planned fire time, are recorded as zero.
+     *
+     * @param lagNanos the scheduling lag, in nanoseconds
+     */
+    public synchronized void record(long lagNanos)
+    {
+        long lag = Math.max(0, lagNanos);
+        count++;
+        sum += lag;
+        last = lag;
+        max = Math.max(max, lag);
+        history.offer(lag);
+    }
+
+    /**
+     * @return the number of recorded lags
+     */
+    public synchronized long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @return the most recent lag, in nanoseconds, or 0 if no lag was recorded
+     */
+    public synchronized long getLast()
+    {
+        return last;
+    }
+
+    /**
+     * @return the mean of all recorded lags, in nanoseconds, or 0 if no lag was recorded
+     */
+    public synchronized long getMean()
+    {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * @return the maximum recorded lag, in nanoseconds, or 0 if no lag was recorded
+     */
+    public synchronized long getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Returns the given percentile of the most recent lags, using the nearest-rank method.
+     *
+     * @param percentile the percentile to be calculated, from 0 (exclusive) to 100
+     *                   (inclusive)
+     * @return the percentile, in nanoseconds, or 0 if no lag was recorded
+     * @throws IllegalArgumentException if the percentile is not in the valid range
+     */
+    public long getPercentile(double percentile)
+    {
+        if (percentile <= 0 || percentile > 100)
+        {
+            throw Exceptions.illegalArgument("Invalid percentile: %s", percentile);
+        }
+        long[] lags;
+        synchronized (this)
+        {
+            lags = history.stream().mapToLong(Long::longValue).toArray();
+        }
+        if (lags.length == 0)
+        {
+            return 0;
+        }
+        Arrays.sort(lags);
+        int rank = (int) Math.ceil(percentile / 100 * lags.length);
+        return lags[Math.max(rank, 1) - 1];
+    }
+
+}
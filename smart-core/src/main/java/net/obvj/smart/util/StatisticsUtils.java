@@ -45,4 +45,16 @@ public class StatisticsUtils
         return countOfElements == 0 ? BigDecimal.ZERO
                 : sumOfElements.divide(BigDecimal.valueOf(countOfElements), RoundingMode.HALF_UP);
     }
+
+    /**
+     * Converts a duration in nanoseconds into milliseconds, with microsecond precision.
+     *
+     * @param nanos the duration, in nanoseconds
+     * @return the duration in milliseconds, rounded half up to three decimal places
+     * @since 2.0
+     */
+    public static BigDecimal toMillis(long nanos)
+    {
+        return BigDecimal.valueOf(nanos, 6).setScale(3, RoundingMode.HALF_UP);
+    }
 }
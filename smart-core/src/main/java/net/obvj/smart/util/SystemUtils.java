@@ -5,6 +5,7 @@ import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.stream.Collectors;
 
 import net.obvj.smart.jmx.dto.ThreadDTO;
@@ -37,7 +38,9 @@ public class SystemUtils
 
     public static Collection<ThreadDTO> getAllSystemTheadsDTOs()
     {
-        return getSystemTheadsDTOs(getAllSystemTheadsInfo());
+        Collection<ThreadDTO> threads = getSystemTheadsDTOs(getAllSystemTheadsInfo());
+        threads.addAll(getThreadsDTOs(VirtualThreads.getLiveThreads()));
+        return threads;
     }
 
     protected static Collection<ThreadDTO> getSystemTheadsDTOs(ThreadInfo[] threadsInfo)
@@ -48,6 +51,19 @@ public class SystemUtils
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Converts the given threads, which may not be reported by the {@code ThreadMXBean}
+     * (e.g.: virtual threads), into DTOs.
+     *
+     * @since 2.0
+     */
+    protected static List<ThreadDTO> getThreadsDTOs(Collection<Thread> threads)
+    {
+        return threads.stream()
+                .map(thread -> new ThreadDTO(thread.getId(), thread.getName(), thread.getState().toString()))
+                .collect(Collectors.toList());
+    }
+
     /**
      * @returns a string containing Java Runtime/VM version information
      * @since 2.0
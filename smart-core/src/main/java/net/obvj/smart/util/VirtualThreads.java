@@ -0,0 +1,141 @@
+package net.obvj.smart.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Utility class for the creation of virtual threads, available in Java 21 or higher.
+ * <p>
+ * Since SMART is built for Java 8, the virtual thread API is resolved at runtime. When
+ * running on an older JVM, {@link #isSupported()} returns {@code false}.
+ * <p>
+ * Virtual threads are not reported by the {@code ThreadMXBean}, so the live virtual threads
+ * created by this class are tracked and can be retrieved with {@link #getLiveThreads()}.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class VirtualThreads
+{
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private static final MethodHandle OF_VIRTUAL;
+    private static final MethodHandle NAME;
+    private static final MethodHandle UNSTARTED;
+
+    private static final Set<Thread> LIVE_THREADS = ConcurrentHashMap.newKeySet();
+
+    static
+    {
+        MethodHandle ofVirtual = null;
+        MethodHandle name = null;
+        MethodHandle unstarted = null;
+        try
+        {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualClass));
+            name = lookup.findVirtual(builderClass, "name", MethodType.methodType(builderClass, String.class));
+            unstarted = lookup.findVirtual(builderClass, "unstarted",
+                    MethodType.methodType(Thread.class, Runnable.class));
+
+            // Still a preview feature in Java 19 and 20, so make sure it is actually enabled
+            ofVirtual.invoke();
+        }
+        catch (Throwable throwable)
+        {
+            LOG.debug("Virtual threads not supported by this runtime: {}", throwable.toString());
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        UNSTARTED = unstarted;
+    }
+
+    private VirtualThreads()
+    {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @return {@code true} if the current runtime supports virtual threads
+     */
+    public static boolean isSupported()
+    {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Creates a new, unstarted virtual thread.
+     *
+     * @param name     the thread name
+     * @param runnable the task to be executed by the thread
+     * @return a new virtual thread
+     * @throws IllegalStateException if virtual threads are not supported by the current
+     *                               runtime
+     */
+    public static Thread newThread(String name, Runnable runnable)
+    {
+        if (!isSupported())
+        {
+            throw Exceptions.illegalState("Virtual threads are not supported by this runtime (Java %s)",
+                    org.apache.commons.lang3.SystemUtils.JAVA_RUNTIME_VERSION);
+        }
+        try
+        {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(), name);
+            return (Thread) UNSTARTED.invoke(builder, new TrackedRunnable(runnable));
+        }
+        catch (Throwable throwable)
+        {
+            throw Exceptions.illegalState(throwable, "Unable to create a virtual thread");
+        }
+    }
+
+    /**
+     * @return the virtual threads created by this class that are currently alive
+     */
+    public static Collection<Thread> getLiveThreads()
+    {
+        return Collections.unmodifiableCollection(new ArrayList<>(LIVE_THREADS));
+    }
+
+    /**
+     * Keeps the executing thread in the live threads set while the task is running.
+     */
+    private static class TrackedRunnable implements Runnable
+    {
+        private final Runnable runnable;
+
+        private TrackedRunnable(Runnable runnable)
+        {
+            this.runnable = runnable;
+        }
+
+        @Override
+        public void run()
+        {
+            Thread thread = Thread.currentThread();
+            LIVE_THREADS.add(thread);
+            try
+            {
+                runnable.run();
+            }
+            finally
+            {
+                LIVE_THREADS.remove(thread);
+            }
+        }
+    }
+
+}
@@ -1,5 +1,6 @@
 package net.obvj.smart.agents;
 
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 
@@ -8,6 +9,8 @@ import org.junit.runner.RunWith;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import net.obvj.smart.util.VirtualThreads;
+
 /**
  * Unit test methods for the {@link AgentThreadFactory} class.
  *
@@ -55,4 +58,22 @@ public class AgentThreadFactoryTest
         assertThat(thread.isDaemon(), is(false));
     }
 
+    /**
+     * Tests virtual threads follow the same naming scheme, when supported by the runtime, or
+     * cannot be requested otherwise
+     */
+    @Test
+    public void testVirtualThreads()
+    {
+        if (!VirtualThreads.isSupported())
+        {
+            assertThat(() -> new AgentThreadFactory(AGENT_A, true), throwsException(IllegalStateException.class));
+            return;
+        }
+        AgentThreadFactory virtualThreadFactory = new AgentThreadFactory(AGENT_A, true);
+        assertThat(virtualThreadFactory.isVirtual(), is(true));
+        assertThat(virtualThreadFactory.newThread(RUNNABLE).getName(), is(THREAD_PREFIX + AGENT_A + "-thread1"));
+        assertThat(virtualThreadFactory.newThread(RUNNABLE).getName(), is(THREAD_PREFIX + AGENT_A + "-thread2"));
+    }
+
 }
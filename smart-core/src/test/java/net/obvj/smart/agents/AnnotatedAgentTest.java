@@ -0,0 +1,301 @@
+package net.obvj.smart.agents;
+
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import net.obvj.smart.agents.batch.BatchJob;
+import net.obvj.smart.conf.AgentConfiguration;
+import net.obvj.smart.conf.AgentConfigurationException;
+import net.obvj.smart.conf.annotation.AgentTask;
+
+/**
+ * Unit tests for the {@link AnnotatedAgent} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class AnnotatedAgentTest
+{
+    private static final AtomicInteger STATIC_EXECUTIONS = new AtomicInteger();
+
+    public static class CountingAgent
+    {
+        private int executions;
+
+        @AgentTask
+        public void run()
+        {
+            executions++;
+        }
+    }
+
+    public static class StaticTaskAgent
+    {
+        @AgentTask
+        public static void run()
+        {
+            STATIC_EXECUTIONS.incrementAndGet();
+        }
+    }
+
+    public static class ValueReturningAgent
+    {
+        private int executions;
+
+        @AgentTask
+        public int run()
+        {
+            return ++executions;
+        }
+    }
+
+    public static class UncheckedExceptionAgent
+    {
+        @AgentTask
+        public void run()
+        {
+            throw new IllegalStateException("unchecked");
+        }
+    }
+
+    public static class CheckedExceptionAgent
+    {
+        @AgentTask
+        public void run() throws IOException
+        {
+            throw new IOException("checked");
+        }
+    }
+
+    public static class ErrorAgent
+    {
+        @AgentTask
+        public void run()
+        {
+            throw new AssertionError("error");
+        }
+    }
+
+    public static class AsyncAgent
+    {
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+
+        @AgentTask
+        public CompletableFuture<String> run()
+        {
+            return future;
+        }
+    }
+
+    public static class TaskWithParameterAgent
+    {
+        @AgentTask
+        public void run(String parameter)
+        {
+        }
+    }
+
+    public static class ContextAwareAgent
+    {
+        private AgentContext context;
+
+        @AgentTask
+        public void run(AgentContext context)
+        {
+            this.context = context;
+        }
+    }
+
+    public static class ContextAwareAsyncAgent
+    {
+        @AgentTask
+        public CompletableFuture<String> run(AgentContext context)
+        {
+            return CompletableFuture.completedFuture(context.getAgentName());
+        }
+    }
+
+    public static class BatchAgent
+    {
+        @AgentTask
+        public BatchJob<String, String> run()
+        {
+            return new BatchJob.Builder<String, String>((offset, count) -> Collections.emptyList(), item -> item,
+                    items ->
+                    {
+                    }).build();
+        }
+    }
+
+    public static class NullBatchAgent
+    {
+        @AgentTask
+        public BatchJob<String, String> run()
+        {
+            return null;
+        }
+    }
+
+    private static AnnotatedAgent newAnnotatedAgent(Class<?> agentClass)
+    {
+        AgentConfiguration configuration = mock(AgentConfiguration.class);
+        when(configuration.getAgentClass()).thenReturn(agentClass.getName());
+        return new AnnotatedAgent(configuration);
+    }
+
+    @Test
+    public void testRunAgentTaskInvokesTheAgentInstance()
+    {
+        AnnotatedAgent annotatedAgent = newAnnotatedAgent(CountingAgent.class);
+        annotatedAgent.runAgentTask();
+        annotatedAgent.runAgentTask();
+        assertThat(((CountingAgent) annotatedAgent.getAgentInstance()).executions, is(2));
+    }
+
+    @Test
+    public void testRunAgentTaskWithStaticMethod()
+    {
+        int executions = STATIC_EXECUTIONS.get();
+        newAnnotatedAgent(StaticTaskAgent.class).runAgentTask();
+        assertThat(STATIC_EXECUTIONS.get(), is(executions + 1));
+    }
+
+    @Test
+    public void testRunAgentTaskDiscardsReturnedValue()
+    {
+        AnnotatedAgent annotatedAgent = newAnnotatedAgent(ValueReturningAgent.class);
+        annotatedAgent.runAgentTask();
+        assertThat(((ValueReturningAgent) annotatedAgent.getAgentInstance()).executions, is(1));
+    }
+
+    @Test
+    public void testRunAgentTaskPropagatesUncheckedException()
+    {
+        AnnotatedAgent annotatedAgent = newAnnotatedAgent(UncheckedExceptionAgent.class);
+        assertThat(annotatedAgent::runAgentTask,
+                throwsException(IllegalStateException.class).withMessageContaining("unchecked"));
+    }
+
+    @Test
+    public void testRunAgentTaskWrapsCheckedException()
+    {
+        AnnotatedAgent annotatedAgent = newAnnotatedAgent(CheckedExceptionAgent.class);
+        assertThat(annotatedAgent::runAgentTask,
+                throwsException(UndeclaredThrowableException.class).withCause(IOException.class));
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testRunAgentTaskPropagatesError()
+    {
+        newAnnotatedAgent(ErrorAgent.class).runAgentTask();
+    }
+
+    @Test
+    public void testRunAgentTaskAsyncReturnsStage()
+    {
+        AnnotatedAgent annotatedAgent = newAnnotatedAgent(AsyncAgent.class);
+        assertThat(annotatedAgent.isAsynchronous(), is(true));
+        assertThat(annotatedAgent.runAgentTaskAsync(null),
+                is(sameInstance(((AsyncAgent) annotatedAgent.getAgentInstance()).future)));
+    }
+
+    @Test
+    public void testRunAgentTaskAsyncForSynchronousMethod()
+    {
+        AnnotatedAgent annotatedAgent = newAnnotatedAgent(CountingAgent.class);
+        assertThat(annotatedAgent.isAsynchronous(), is(false));
+        assertThat(annotatedAgent.runAgentTaskAsync(null), is(nullValue()));
+        assertThat(((CountingAgent) annotatedAgent.getAgentInstance()).executions, is(1));
+    }
+
+    @Test
+    public void testNewInvokerFallsBackToReflectionForMethodWithParameters() throws NoSuchMethodException
+    {
+        Consumer<AgentContext> invoker = AnnotatedAgent
+                .newInvoker(TaskWithParameterAgent.class.getMethod("run", String.class), new TaskWithParameterAgent());
+        assertThat(() -> invoker.accept(null), throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    public void testTaskWithParameterOtherThanContextIsRejected()
+    {
+        assertThat(() -> newAnnotatedAgent(TaskWithParameterAgent.class),
+                throwsException(AgentConfigurationException.class).withMessageContaining("AgentContext"));
+    }
+
+    @Test
+    public void testRunAgentTaskPassesContext()
+    {
+        AnnotatedAgent annotatedAgent = newAnnotatedAgent(ContextAwareAgent.class);
+        AgentContext context = mock(AgentContext.class);
+        assertThat(annotatedAgent.isContextAware(), is(true));
+        annotatedAgent.runAgentTask(context);
+        assertThat(((ContextAwareAgent) annotatedAgent.getAgentInstance()).context, is(sameInstance(context)));
+    }
+
+    @Test
+    public void testRunAgentTaskAsyncPassesContext()
+    {
+        AnnotatedAgent annotatedAgent = newAnnotatedAgent(ContextAwareAsyncAgent.class);
+        AgentContext context = mock(AgentContext.class);
+        when(context.getAgentName()).thenReturn("agent1");
+        assertThat(annotatedAgent.isContextAware(), is(true));
+        assertThat(annotatedAgent.runAgentTaskAsync(context).toCompletableFuture().join(), is("agent1"));
+    }
+
+    @Test
+    public void testNewInvokerWithContext() throws NoSuchMethodException
+    {
+        ContextAwareAgent instance = new ContextAwareAgent();
+        AgentContext context = mock(AgentContext.class);
+        Method method = ContextAwareAgent.class.getMethod("run", AgentContext.class);
+        AnnotatedAgent.newInvoker(method, instance).accept(context);
+        assertThat(instance.context, is(sameInstance(context)));
+    }
+
+    @Test
+    public void testRunAgentTaskForBatchJob()
+    {
+        AnnotatedAgent annotatedAgent = newAnnotatedAgent(BatchAgent.class);
+        assertThat(annotatedAgent.isBatch(), is(true));
+        assertThat(annotatedAgent.isAsynchronous(), is(false));
+        assertThat(annotatedAgent.runAgentTaskForBatchJob(null).getChunkSize(), is(100));
+    }
+
+    @Test
+    public void testRunAgentTaskForBatchJobWithNullJobOrNonBatchMethod()
+    {
+        assertThat(() -> newAnnotatedAgent(NullBatchAgent.class).runAgentTaskForBatchJob(null),
+                throwsException(IllegalStateException.class).withMessageContaining("null BatchJob"));
+        AnnotatedAgent annotatedAgent = newAnnotatedAgent(CountingAgent.class);
+        assertThat(annotatedAgent.isBatch(), is(false));
+        assertThat(() -> annotatedAgent.runAgentTaskForBatchJob(null),
+                throwsException(IllegalStateException.class).withMessageContaining("does not return a BatchJob"));
+    }
+
+    @Test
+    public void testShardedBatchAgentIsRejected()
+    {
+        AgentConfiguration configuration = mock(AgentConfiguration.class);
+        when(configuration.getAgentClass()).thenReturn(BatchAgent.class.getName());
+        when(configuration.getShards()).thenReturn(2);
+        assertThat(() -> new AnnotatedAgent(configuration), throwsException(AgentConfigurationException.class)
+                .withMessageContaining("cannot be sharded"));
+    }
+
+}
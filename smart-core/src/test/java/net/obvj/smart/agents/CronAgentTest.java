@@ -5,6 +5,7 @@ import static net.obvj.junit.utils.matchers.StringMatcher.containsAll;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.fail;
@@ -12,13 +13,18 @@ import static org.mockito.Mockito.*;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.Locale;
 import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
@@ -28,6 +34,10 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import net.obvj.smart.agents.Agent.State;
 import net.obvj.smart.agents.impl.AnnotatedCronAgent;
 import net.obvj.smart.conf.AgentConfiguration;
+import net.obvj.smart.conf.annotation.CronSyntax;
+import net.obvj.smart.scheduler.AgentScheduler;
+import net.obvj.smart.scheduler.CronPlan;
+import net.obvj.smart.scheduler.TimeBase;
 import net.obvj.smart.util.DateUtils;
 
 /**
@@ -59,6 +69,7 @@ public class CronAgentTest
     private static final String STR_CRON_EVERY_30_MIN = "/30 * * * *";
     private static final String STR_CRON_EVERY_DAY_AT_2_AM = "0 2 * * *";
     private static final String STR_CRON_HOURLY_ON_WEEKEND = "0 * * * SAT,SUN";
+    private static final String STR_QUARTZ_EVERY_10_SECONDS = "0/10 * * * * ?";
 
     private static final String AGENT_NAME = "DummyAgent";
     private static final String AGENT_CLASS = "net.obvj.smart.agents.test.valid.TestAgentWithNoNameAndTypeCronAndAgentTask";
@@ -112,10 +123,10 @@ public class CronAgentTest
         PowerMockito.mockStatic(DateUtils.class);
         PowerMockito.when(DateUtils.now()).thenReturn(DATE_20_04_27T23_25_13);
 
-        AGENT_EVERY_MINUTE.scheduleNextExecution();
-        AGENT_EVERY_30_MIN.scheduleNextExecution();
-        AGENT_EVERY_DAY_AT_2_AM.scheduleNextExecution();
-        AGENT_HOURLY_ON_WEEKEND.scheduleNextExecution();
+        AGENT_EVERY_MINUTE.scheduleFirstExecution();
+        AGENT_EVERY_30_MIN.scheduleFirstExecution();
+        AGENT_EVERY_DAY_AT_2_AM.scheduleFirstExecution();
+        AGENT_HOURLY_ON_WEEKEND.scheduleFirstExecution();
 
         assertEqualDatesIgnoringNanos(DATE_20_04_27T23_26_00, AGENT_EVERY_MINUTE.getNextExecutionDate());
         assertEqualDatesIgnoringNanos(DATE_20_04_27T23_30_00, AGENT_EVERY_30_MIN.getNextExecutionDate());
@@ -138,14 +149,205 @@ public class CronAgentTest
         assertEqualDatesIgnoringNanos(DATE_20_04_28T02_00_00, AGENT_EVERY_DAY_AT_2_AM.getNextExecutionDate());
     }
 
+    /**
+     * A cron agent that runs every day at 2 AM, with a mocked scheduler
+     */
+    private static class TestCronAgent extends CronAgent
+    {
+        private TestCronAgent(String misfirePolicy, AgentScheduler scheduler)
+        {
+            this(new AgentConfiguration.Builder("cron").name(AGENT_NAME).agentClass(AGENT_CLASS)
+                    .frequency(STR_CRON_EVERY_DAY_AT_2_AM).misfirePolicy(misfirePolicy).build(), scheduler);
+        }
+
+        private TestCronAgent(AgentConfiguration configuration, AgentScheduler scheduler)
+        {
+            super(configuration, scheduler);
+        }
+
+        @Override
+        protected void runTask()
+        {
+            // Nothing to do
+        }
+    }
+
+    private CronAgent newTestCronAgentScheduledAt2AM(String misfirePolicy, AgentScheduler scheduler)
+    {
+        PowerMockito.mockStatic(DateUtils.class);
+        PowerMockito.when(DateUtils.now()).thenReturn(DATE_20_04_27T23_25_13);
+        CronAgent agent = new TestCronAgent(misfirePolicy, scheduler);
+        agent.scheduleFirstExecution();
+        assertEqualDatesIgnoringNanos(DATE_20_04_28T02_00_00, agent.getNextExecutionDate());
+        return agent;
+    }
+
+    @Test
+    public void testScheduleNextExecutionOnTrigger()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        CronAgent agent = newTestCronAgentScheduledAt2AM("FIRE_ONCE_NOW", scheduler);
+
+        PowerMockito.when(DateUtils.now()).thenReturn(DATE_20_04_28T02_00_00);
+        agent.trigger();
+
+        verify(scheduler).execute(eq(agent), anyLong());
+        assertEqualDatesIgnoringNanos(DATE_20_04_28T02_00_00.plusDays(1), agent.getNextExecutionDate());
+        assertThat(agent.getExecutionStatistics().getMisfires(), is(0L));
+    }
+
+    @Test
+    public void testGetNextExecutionDates()
+    {
+        CronAgent agent = newTestCronAgentScheduledAt2AM("FIRE_ONCE_NOW", mock(AgentScheduler.class));
+
+        List<ZonedDateTime> dates = agent.getNextExecutionDates(3);
+        assertThat(dates.size(), is(3));
+        assertEqualDatesIgnoringNanos(DATE_20_04_28T02_00_00, dates.get(0));
+        assertEqualDatesIgnoringNanos(DATE_20_04_28T02_00_00.plusDays(1), dates.get(1));
+        assertEqualDatesIgnoringNanos(DATE_20_04_28T02_00_00.plusDays(2), dates.get(2));
+        assertThat(agent.getCronPlan(), is(CronPlan.of(STR_CRON_EVERY_DAY_AT_2_AM, ZoneId.systemDefault())));
+    }
+
     @Test
-    public void testScheduleNextExecutionAfterRun()
+    public void testScheduleQuartzExpressionWithSeconds()
     {
         PowerMockito.mockStatic(DateUtils.class);
         PowerMockito.when(DateUtils.now()).thenReturn(DATE_20_04_27T23_25_13);
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        CronAgent agent = new TestCronAgent(new AgentConfiguration.Builder("cron").name(AGENT_NAME)
+                .agentClass(AGENT_CLASS).frequency(STR_QUARTZ_EVERY_10_SECONDS).cronSyntax("quartz").build(),
+                scheduler);
+
+        agent.scheduleFirstExecution();
+
+        ZonedDateTime expectedDate = DATE_20_04_27T23_25_13.withSecond(20).withNano(0);
+        assertThat(agent.getCronSyntax(), is(CronSyntax.QUARTZ));
+        assertThat(agent.getNextExecutionDate(), is(expectedDate));
+        // The trigger is delayed to the exact nanosecond of the fire time
+        verify(scheduler).scheduleTrigger(any(Runnable.class), eq(6_876_543_211L), eq(TimeUnit.NANOSECONDS));
+
+        List<ZonedDateTime> dates = agent.getNextExecutionDates(3);
+        assertThat(dates.get(1), is(expectedDate.plusSeconds(10)));
+        assertThat(dates.get(2), is(expectedDate.plusSeconds(20)));
+        assertThat(agent.getStatusString().replace("\"", ""), containsAll("cronSyntax:QUARTZ"));
+    }
 
-        AGENT_EVERY_DAY_AT_2_AM.run();
-        assertEqualDatesIgnoringNanos(DATE_20_04_28T02_00_00, AGENT_EVERY_DAY_AT_2_AM.getNextExecutionDate());
+    @Test
+    public void testGetNextExecutionDatesWhenNotScheduled()
+    {
+        CronAgent agent = new TestCronAgent("FIRE_ONCE_NOW", mock(AgentScheduler.class));
+        assertThat(agent.getNextExecutionDates(3).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testTriggerWithMisfirePolicyFireOnceNow()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        CronAgent agent = newTestCronAgentScheduledAt2AM("FIRE_ONCE_NOW", scheduler);
+
+        // Two days and one hour late
+        PowerMockito.when(DateUtils.now()).thenReturn(DATE_20_04_28T02_00_00.plusDays(2).plusHours(1));
+        agent.trigger();
+
+        // The execution is planned for the first missed fire time, 49 hours ago
+        ArgumentCaptor<Long> plannedFireTime = ArgumentCaptor.forClass(Long.class);
+        verify(scheduler, times(1)).execute(eq(agent), plannedFireTime.capture());
+        assertThat(plannedFireTime.getValue(), is(lessThanOrEqualTo(System.nanoTime() - TimeUnit.HOURS.toNanos(49))));
+        assertThat(agent.getExecutionStatistics().getMisfires(), is(2L));
+        assertEqualDatesIgnoringNanos(DATE_20_04_28T02_00_00.plusDays(3), agent.getNextExecutionDate());
+    }
+
+    @Test
+    public void testTriggerWithMisfirePolicySkipToNext()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        CronAgent agent = newTestCronAgentScheduledAt2AM("SKIP_TO_NEXT", scheduler);
+
+        PowerMockito.when(DateUtils.now()).thenReturn(DATE_20_04_28T02_00_00.plusDays(2).plusHours(1));
+        agent.trigger();
+
+        verify(scheduler, never()).execute(eq(agent), anyLong());
+        assertThat(agent.getExecutionStatistics().getMisfires(), is(2L));
+        assertEqualDatesIgnoringNanos(DATE_20_04_28T02_00_00.plusDays(3), agent.getNextExecutionDate());
+    }
+
+    @Test
+    public void testTriggerWithMisfirePolicyFireAll()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        CronAgent agent = newTestCronAgentScheduledAt2AM("FIRE_ALL", scheduler);
+
+        PowerMockito.when(DateUtils.now()).thenReturn(DATE_20_04_28T02_00_00.plusDays(2).plusHours(1));
+        agent.trigger();
+        assertEqualDatesIgnoringNanos(DATE_20_04_28T02_00_00.plusDays(1), agent.getNextExecutionDate());
+        agent.trigger();
+        assertEqualDatesIgnoringNanos(DATE_20_04_28T02_00_00.plusDays(2), agent.getNextExecutionDate());
+        agent.trigger();
+
+        verify(scheduler, times(3)).execute(eq(agent), anyLong());
+        assertThat(agent.getExecutionStatistics().getMisfires(), is(2L));
+        assertEqualDatesIgnoringNanos(DATE_20_04_28T02_00_00.plusDays(3), agent.getNextExecutionDate());
+    }
+
+    @Test
+    public void testTriggerWithMisfirePolicyFireAllMergesTooManyMissedExecutions()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        CronAgent agent = newTestCronAgentScheduledAt2AM("FIRE_ALL", scheduler);
+
+        // One year late: counting stops after the maximum number of replayed misfires
+        PowerMockito.when(DateUtils.now()).thenReturn(DATE_20_04_28T02_00_00.plusDays(365).plusHours(1));
+        agent.trigger();
+
+        verify(scheduler, times(1)).execute(eq(agent), anyLong());
+        assertThat(agent.getExecutionStatistics().getMisfires(), is(101L));
+        assertEqualDatesIgnoringNanos(DATE_20_04_28T02_00_00.plusDays(366), agent.getNextExecutionDate());
+    }
+
+    @Test
+    public void testReanchorAfterForwardClockJumpTriggersPastFireTimeImmediately()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        CronAgent agent = newTestCronAgentScheduledAt2AM("FIRE_ONCE_NOW", scheduler);
+
+        // The wall clock jumped past the pending fire time
+        PowerMockito.when(DateUtils.now()).thenReturn(DATE_20_04_28T02_00_00.plusHours(1));
+        agent.onTimeShift(TimeBase.Reason.CLOCK_JUMP, 12_600_000L);
+
+        verify(scheduler).scheduleTrigger(any(Runnable.class), eq(0L), eq(TimeUnit.NANOSECONDS));
+        assertEqualDatesIgnoringNanos(DATE_20_04_28T02_00_00, agent.getNextExecutionDate());
+        assertThat(agent.getExecutionStatistics().getReanchors(), is(1L));
+
+        agent.trigger();
+        verify(scheduler).execute(eq(agent), anyLong());
+        assertEqualDatesIgnoringNanos(DATE_20_04_28T02_00_00.plusDays(1), agent.getNextExecutionDate());
+        assertThat(agent.getStatusString().replace("\"", ""), containsAll("reanchors:1"));
+    }
+
+    @Test
+    public void testReanchorAfterBackwardClockJumpKeepsWallClockFireTime()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        CronAgent agent = newTestCronAgentScheduledAt2AM("FIRE_ONCE_NOW", scheduler);
+
+        PowerMockito.when(DateUtils.now()).thenReturn(DATE_20_04_27T23_25_13.minusHours(1));
+        agent.onTimeShift(TimeBase.Reason.CLOCK_JUMP, -3_600_000L);
+
+        // 3h 34min 46.876543211s until 2 AM, on the shifted wall clock
+        verify(scheduler).scheduleTrigger(any(Runnable.class), eq(12_886_876_543_211L), eq(TimeUnit.NANOSECONDS));
+        assertEqualDatesIgnoringNanos(DATE_20_04_28T02_00_00, agent.getNextExecutionDate());
+        assertThat(agent.getExecutionStatistics().getReanchors(), is(1L));
+    }
+
+    @Test
+    public void testReanchorIgnoredWhenNotScheduled()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        CronAgent agent = new TestCronAgent("FIRE_ONCE_NOW", scheduler);
+        agent.onTimeShift(TimeBase.Reason.OFFSET_CHANGE, 0L);
+        verify(scheduler, never()).scheduleTrigger(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        assertThat(agent.getExecutionStatistics().getReanchors(), is(0L));
     }
 
     private void assertEqualDatesIgnoringNanos(ZonedDateTime expectedDate, ZonedDateTime actualDate)
@@ -160,7 +362,18 @@ public class CronAgentTest
     {
         CronAgent agent = PowerMockito.spy((CronAgent) AgentFactory.create(AGENT_CFG_EVERY_MINUTE));
         agent.stop();
-        assertThat(agent.getExecutorService().isShutdown(), is(true));
+        assertThat(agent.getScheduledExecution(), is(nullValue()));
+        assertThat(agent.getNextExecutionDate(), is(nullValue()));
+    }
+
+    @Test
+    public void testScheduleOnStopAfterStart() throws TimeoutException
+    {
+        CronAgent agent = (CronAgent) AgentFactory.create(AGENT_CFG_EVERY_MINUTE);
+        agent.start();
+        assertThat(agent.getScheduledExecution().isCancelled(), is(false));
+        agent.stop();
+        assertThat(agent.getScheduledExecution().isCancelled(), is(true));
         assertThat(agent.getNextExecutionDate(), is(nullValue()));
     }
 
@@ -205,25 +418,77 @@ public class CronAgentTest
         }, throwsException(IllegalStateException.class).withMessageContaining(CronAgent.MSG_AGENT_ALREADY_STOPPED));
     }
 
+    /**
+     * A cron agent whose task blocks until released by the test.
+     */
+    private static class BlockingCronAgent extends CronAgent
+    {
+        private final AtomicInteger executions = new AtomicInteger();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private BlockingCronAgent()
+        {
+            super(DUMMY_AGENT_CONFIG);
+        }
+
+        @Override
+        protected void runTask()
+        {
+            executions.incrementAndGet();
+            started.countDown();
+            try
+            {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /**
      * Tests that no action is taken when run() is called on a running agent.
      */
     @Test
-    public void testRunAgentWithPreviousStateRunning()
+    public void testRunAgentWithPreviousStateRunning() throws InterruptedException
     {
-        when(agentMock.isRunning()).thenReturn(true);
-        agentMock.run();
-        verify(agentMock, never()).runTask();
+        BlockingCronAgent agent = new BlockingCronAgent();
+        Thread thread = new Thread(agent);
+        thread.start();
+        agent.started.await(5, TimeUnit.SECONDS);
+
+        agent.run();
+        agent.release.countDown();
+        thread.join(5000);
+
+        assertThat(agent.executions.get(), is(1));
+        assertThat(agent.getExecutionStatistics().getDroppedExecutions(), is(1L));
+        agent.onStop();
     }
 
     /**
      * Tests that an exception is thrown when run(true) is called on a running agent.
      */
-    @Test(expected = IllegalStateException.class)
-    public void testRunManuallyAgentWithPreviousStateRunning()
+    @Test
+    public void testRunManuallyAgentWithPreviousStateRunning() throws InterruptedException
     {
-        when(agentMock.isRunning()).thenReturn(true);
-        agentMock.run(true);
+        BlockingCronAgent agent = new BlockingCronAgent();
+        Thread thread = new Thread(agent);
+        thread.start();
+        agent.started.await(5, TimeUnit.SECONDS);
+        try
+        {
+            assertThat(() -> agent.run(true), throwsException(IllegalStateException.class)
+                    .withMessageContaining(CronAgent.MSG_AGENT_ALREADY_RUNNING));
+        }
+        finally
+        {
+            agent.release.countDown();
+            thread.join(5000);
+            agent.onStop();
+        }
     }
 
     @Test
@@ -243,7 +508,8 @@ public class CronAgentTest
         CronAgent agent = (CronAgent) AgentFactory.create(DUMMY_AGENT_CONFIG);
         String statusWithoutQuotes = agent.getStatusString().replace("\"", "");
         assertThat(statusWithoutQuotes, containsAll("name:DummyAgent", "type:cron", "status:SET",
-                "startDate:null", "lastExecutionStartDate:null", "cronExpression:0 0 * * 0", "cronDescription",
+                "startDate:null", "lastExecutionStartDate:null", "cronSyntax:UNIX", "cronExpression:0 0 * * 0",
+                "cronDescription",
                 "nextExecutionDate", "lastExecutionDuration:null", "averageExecutionDuration:0 second(s)"));
     }
 
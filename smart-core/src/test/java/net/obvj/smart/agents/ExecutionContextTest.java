@@ -0,0 +1,196 @@
+package net.obvj.smart.agents;
+
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link ExecutionContext} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class ExecutionContextTest
+{
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final ExecutionContext.ProgressListener listener = mock(ExecutionContext.ProgressListener.class);
+    private final ExecutionContext.ForkJoinInvoker invoker = mock(ExecutionContext.ForkJoinInvoker.class);
+    private final AtomicInteger cursorReads = new AtomicInteger();
+    private final AtomicInteger workPendingReports = new AtomicInteger();
+    private final ExecutionContext.Cursor cursor = new ExecutionContext.Cursor(key ->
+    {
+        cursorReads.incrementAndGet();
+        return Optional.of(key + "@2024-01-01T00:00:00Z");
+    });
+
+    private ExecutionContext newContext()
+    {
+        return new ExecutionContext("agent1", cancelled::get, null, null, null, listener, invoker, cursor,
+                workPendingReports::incrementAndGet);
+    }
+
+    @Test
+    public void testCancellationIsEvaluatedOnEachCall()
+    {
+        ExecutionContext context = newContext();
+        assertThat(context.isCancelled(), is(false));
+        cancelled.set(true);
+        assertThat(context.isCancelled(), is(true));
+    }
+
+    @Test
+    public void testTimes()
+    {
+        Instant fireTime = Instant.now().minusSeconds(1);
+        Instant deadline = Instant.now().plusSeconds(60);
+        ExecutionContext context = new ExecutionContext("agent1", cancelled::get, fireTime, deadline, null, listener,
+                invoker, cursor, workPendingReports::incrementAndGet);
+
+        assertThat(context.getAgentName(), is("agent1"));
+        assertThat(context.getScheduledFireTime().get(), is(fireTime));
+        assertThat(context.getDeadline().get(), is(deadline));
+        Duration remaining = context.getRemainingTime().get();
+        assertThat(remaining.compareTo(Duration.ofSeconds(60)) <= 0 && remaining.compareTo(Duration.ofSeconds(50)) > 0,
+                is(true));
+    }
+
+    @Test
+    public void testForShard()
+    {
+        ExecutionContext context = newContext();
+        assertThat(context.getShardIndex(), is(0));
+        assertThat(context.getShardCount(), is(1));
+
+        ExecutionContext shard = context.forShard(2, 4);
+        assertThat(shard.getShardIndex(), is(2));
+        assertThat(shard.getShardCount(), is(4));
+        assertThat(shard.getAgentName(), is("agent1"));
+        cancelled.set(true);
+        assertThat(shard.isCancelled(), is(true));
+    }
+
+    @Test
+    public void testReportProgress()
+    {
+        ExecutionContext context = newContext();
+        context.reportProgress(1, 10);
+        context.reportProgress(2, 10, "step");
+        verify(listener).onProgress(1, 10, null);
+        verify(listener).onProgress(2, 10, "step");
+    }
+
+    @Test
+    public void testInvokeDelegatesToInvoker()
+    {
+        ExecutionContext context = newContext();
+        ForkJoinTask<String> task = ForkJoinTask.adapt(() -> "result");
+        when(invoker.invoke(task, context)).thenReturn("result");
+        assertThat(context.invoke(task), is("result"));
+        verify(invoker).invoke(task, context);
+    }
+
+    @Test
+    public void testCursorIsReadOnce()
+    {
+        ExecutionContext context = newContext();
+        assertThat(cursorReads.get(), is(0));
+        assertThat(context.getCursor(), is(Optional.of("agent1@2024-01-01T00:00:00Z")));
+        assertThat(context.getCursor(), is(Optional.of("agent1@2024-01-01T00:00:00Z")));
+        assertThat(cursorReads.get(), is(1));
+
+        assertThat(context.getCursorUpdates().isEmpty(), is(true));
+        context.updateCursor("2024-01-02T00:00:00Z");
+        assertThat(context.getCursorUpdates(), is(Collections.singletonMap("agent1", "2024-01-02T00:00:00Z")));
+        // The committed cursor is not affected by the update
+        assertThat(context.getCursor(), is(Optional.of("agent1@2024-01-01T00:00:00Z")));
+    }
+
+    @Test
+    public void testEachShardHasItsOwnCursor()
+    {
+        ExecutionContext context = newContext();
+        assertThat(context.forShard(0, 2).getCursor(), is(Optional.of("agent1.shard-0-of-2@2024-01-01T00:00:00Z")));
+        assertThat(context.forShard(1, 2).getCursor(), is(Optional.of("agent1.shard-1-of-2@2024-01-01T00:00:00Z")));
+        assertThat(cursorReads.get(), is(2));
+
+        context.forShard(0, 2).updateCursor("10");
+        context.forShard(1, 2).updateCursor("20");
+        assertThat(context.getCursorUpdates().get("agent1.shard-0-of-2"), is("10"));
+        assertThat(context.getCursorUpdates().get("agent1.shard-1-of-2"), is("20"));
+        assertThat(context.getCursorUpdates().size(), is(2));
+    }
+
+    @Test
+    public void testCursorReadFailure()
+    {
+        ExecutionContext context = new ExecutionContext("agent1", cancelled::get, null, null, null, listener, invoker,
+                new ExecutionContext.Cursor(key ->
+                {
+                    throw new IOException("disk failure");
+                }), workPendingReports::incrementAndGet);
+        assertThat(context::getCursor, throwsException(AgentRuntimeException.class)
+                .withMessageContaining("Unable to read the cursor of agent1").withCause(IOException.class));
+    }
+
+    @Test
+    public void testNullCursorUpdate()
+    {
+        ExecutionContext context = newContext();
+        assertThat(() -> context.updateCursor(null), throwsException(NullPointerException.class));
+    }
+
+    @Test
+    public void testWithoutTimeBudget()
+    {
+        ExecutionContext context = newContext();
+        assertThat(context.getRemainingBudget(), is(Optional.empty()));
+        assertThat(context.isBudgetExhausted(), is(false));
+    }
+
+    @Test
+    public void testTimeBudget()
+    {
+        Instant budgetDeadline = Instant.now().plusSeconds(60);
+        ExecutionContext context = new ExecutionContext("agent1", cancelled::get, null, null, budgetDeadline, listener,
+                invoker, cursor, workPendingReports::incrementAndGet);
+
+        Duration remaining = context.getRemainingBudget().get();
+        assertThat(remaining.compareTo(Duration.ofSeconds(60)) <= 0 && remaining.compareTo(Duration.ofSeconds(50)) > 0,
+                is(true));
+        assertThat(context.isBudgetExhausted(), is(false));
+        assertThat(context.forShard(1, 2).getRemainingBudget().isPresent(), is(true));
+    }
+
+    @Test
+    public void testTimeBudgetExhausted()
+    {
+        ExecutionContext context = new ExecutionContext("agent1", cancelled::get, null, null,
+                Instant.now().minusMillis(10), listener, invoker, cursor, workPendingReports::incrementAndGet);
+        assertThat(context.getRemainingBudget().get().isNegative(), is(true));
+        assertThat(context.isBudgetExhausted(), is(true));
+    }
+
+    @Test
+    public void testReportWorkPendingNotifiesListenerFromAllShards()
+    {
+        ExecutionContext context = newContext();
+        context.reportWorkPending();
+        context.forShard(1, 2).reportWorkPending();
+        assertThat(workPendingReports.get(), is(2));
+    }
+
+}
@@ -2,21 +2,63 @@ package net.obvj.smart.agents;
 
 import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
 import static net.obvj.junit.utils.matchers.StringMatcher.containsAll;
+import static org.awaitility.Awaitility.await;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.either;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import net.obvj.smart.agents.Agent.State;
+import net.obvj.smart.agents.cursor.CursorStore;
 import net.obvj.smart.agents.impl.AnnotatedTimerAgent;
 import net.obvj.smart.conf.AgentConfiguration;
+import net.obvj.smart.scheduler.AgentScheduler;
+import net.obvj.smart.scheduler.TimeBase;
+import net.obvj.smart.util.StartOffset;
 import net.obvj.smart.util.TimeInterval;
 
 /**
@@ -84,25 +126,130 @@ public class TimerAgentTest
         }, throwsException(IllegalStateException.class).withMessageContaining(TimerAgent.MSG_AGENT_ALREADY_STOPPED));
     }
 
+    /**
+     * A timer agent whose task blocks until released by the test.
+     */
+    private static class BlockingTimerAgent extends TimerAgent
+    {
+        private final AtomicInteger executions = new AtomicInteger();
+        private final Semaphore started = new Semaphore(0);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private BlockingTimerAgent(String overlapPolicy)
+        {
+            super(new AgentConfiguration.Builder("timer").name("BlockingAgent").agentClass("BlockingAgent")
+                    .overlapPolicy(overlapPolicy).build());
+        }
+
+        @Override
+        protected void runTask()
+        {
+            executions.incrementAndGet();
+            started.release();
+            try
+            {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Runs this agent in a new thread and waits for the task to start.
+         */
+        private Thread runInBackgroundAndAwait() throws InterruptedException
+        {
+            Thread thread = new Thread(this);
+            thread.start();
+            assertThat(started.tryAcquire(5, TimeUnit.SECONDS), is(true));
+            return thread;
+        }
+    }
+
     /**
      * Tests that no action is taken when run() is called on a running agent.
      */
     @Test
-    public void testRunAgentWithPreviousStateRunning()
+    public void testRunAgentWithPreviousStateRunning() throws InterruptedException
     {
-        when(agentMock.isRunning()).thenReturn(true);
-        agentMock.run();
-        verify(agentMock, never()).runTask();
+        BlockingTimerAgent agent = new BlockingTimerAgent("SKIP");
+        Thread thread = agent.runInBackgroundAndAwait();
+        assertThat(agent.isRunning(), is(true));
+
+        agent.run();
+        agent.release.countDown();
+        thread.join(5000);
+
+        assertThat(agent.executions.get(), is(1));
+        assertThat(agent.getExecutionStatistics().getDroppedExecutions(), is(1L));
+        assertThat(agent.getExecutionStatistics().getCoalescedExecutions(), is(0L));
+        assertThat(agent.getState(), is(State.SET));
     }
 
     /**
      * Tests that exception is thrown when run(true) is called on a running agent.
      */
-    @Test(expected = IllegalStateException.class)
-    public void testRunManuallyAgentWithPreviousStateRunning()
+    @Test
+    public void testRunManuallyAgentWithPreviousStateRunning() throws InterruptedException
     {
-        when(agentMock.isRunning()).thenReturn(true);
-        agentMock.run(true);
+        BlockingTimerAgent agent = new BlockingTimerAgent("SKIP");
+        Thread thread = agent.runInBackgroundAndAwait();
+        try
+        {
+            assertThat(() -> agent.run(true), throwsException(IllegalStateException.class)
+                    .withMessageContaining(TimerAgent.MSG_AGENT_ALREADY_RUNNING));
+        }
+        finally
+        {
+            agent.release.countDown();
+            thread.join(5000);
+        }
+    }
+
+    /**
+     * Tests that overlapping executions are merged into a single pending execution, which
+     * runs right after the current one.
+     */
+    @Test
+    public void testRunAgentWithOverlapPolicyCoalesce() throws InterruptedException
+    {
+        BlockingTimerAgent agent = new BlockingTimerAgent("COALESCE");
+        Thread thread = agent.runInBackgroundAndAwait();
+
+        agent.run();
+        agent.run();
+        agent.release.countDown();
+        thread.join(5000);
+
+        assertThat(agent.executions.get(), is(2));
+        assertThat(agent.getExecutionStatistics().getCoalescedExecutions(), is(2L));
+        assertThat(agent.getExecutionStatistics().getDroppedExecutions(), is(0L));
+        assertThat(agent.getState(), is(State.SET));
+    }
+
+    /**
+     * Tests that up to n executions run concurrently, and further executions are dropped.
+     */
+    @Test
+    public void testRunAgentWithOverlapPolicyParallel() throws InterruptedException
+    {
+        BlockingTimerAgent agent = new BlockingTimerAgent("PARALLEL(2)");
+        Thread thread1 = agent.runInBackgroundAndAwait();
+        Thread thread2 = agent.runInBackgroundAndAwait();
+
+        agent.run();
+        assertThat(agent.isRunning(), is(true));
+        agent.release.countDown();
+        thread1.join(5000);
+        thread2.join(5000);
+
+        assertThat(agent.executions.get(), is(2));
+        assertThat(agent.getExecutionStatistics().getDroppedExecutions(), is(1L));
+        assertThat(agent.getState(), is(State.SET));
+        assertThat(agent.getStatusString().replace("\"", ""),
+                containsAll("overlapPolicy:PARALLEL(2)", "droppedExecutions:1", "coalescedExecutions:0"));
     }
 
     @Test
@@ -124,7 +271,1210 @@ public class TimerAgentTest
         String statusWithoutQuotes = agent.getStatusString().replace("\"", "");
         assertThat(statusWithoutQuotes, containsAll("name:DummyAgent", "type:timer", "status:SET",
                 "startDate:null", "lastExecutionStartDate:null", "frequency:30 second(s)", "lastExecutionDuration:null",
-                "averageExecutionDuration:0 second(s)"));
+                "averageExecutionDuration:0 second(s)", "overlapPolicy:SKIP", "droppedExecutions:0",
+                "coalescedExecutions:0", "fixedDelay:false", "startOffset:NONE", "startOffsetMillis:0",
+                "misfirePolicy:FIRE_ONCE_NOW", "misfires:0", "schedulingLagCount:0",
+                "lastSchedulingLagMillis:0.000", "p99SchedulingLagMillis:0.000"));
+    }
+
+    @Test
+    public void testGetAgentStatusStrWithSchedulingLag() throws ReflectiveOperationException
+    {
+        TimerAgent agent = (TimerAgent) AgentFactory.create(DUMMY_AGENT_CONFIG);
+        agent.recordSchedulingLag(1_500_000L);
+        agent.recordSchedulingLag(12_345_678L);
+        String statusWithoutQuotes = agent.getStatusString().replace("\"", "");
+        assertThat(statusWithoutQuotes, containsAll("schedulingLagCount:2", "lastSchedulingLagMillis:12.346",
+                "meanSchedulingLagMillis:6.923", "maxSchedulingLagMillis:12.346", "p50SchedulingLagMillis:1.500",
+                "p90SchedulingLagMillis:12.346", "p99SchedulingLagMillis:12.346"));
+    }
+
+    private static TimerAgent newTestTimerAgent(String name, String frequency, String startOffset)
+    {
+        return new TimerAgent(new AgentConfiguration.Builder("timer").name(name).agentClass("TestAgent")
+                .frequency(frequency).startOffset(startOffset).build(), mock(AgentScheduler.class))
+        {
+            @Override
+            protected void runTask()
+            {
+                // Nothing to do
+            }
+        };
+    }
+
+    @Test
+    public void testStartOffsetAutoIsStableForTheSameName()
+    {
+        TimerAgent agent = newTestTimerAgent("Agent1", "5 minutes", "AUTO");
+        long offset = agent.getStartOffsetMillis();
+        assertThat(offset, is(both(greaterThan(0L)).and(lessThan(300_000L))));
+        assertThat(newTestTimerAgent("Agent1", "5 minutes", "auto").getStartOffsetMillis(), is(offset));
+        assertThat(newTestTimerAgent("Agent2", "5 minutes", "AUTO").getStartOffsetMillis(), is(not(offset)));
+        assertThat(agent.getStatusString().replace("\"", ""),
+                containsAll("startOffset:AUTO", "startOffsetMillis:" + offset));
+    }
+
+    @Test
+    public void testStartOffsetFixed()
+    {
+        TimerAgent agent = newTestTimerAgent("Agent1", "5 minutes", "90 seconds");
+        assertThat(agent.getStartOffset(), is(StartOffset.of("90s")));
+        assertThat(agent.getStartOffsetMillis(), is(90_000L));
+    }
+
+    @Test
+    public void testStartWithOffsetSchedulesFirstTriggerAfterTheBoundary()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        TimerAgent agent = new TimerAgent(new AgentConfiguration.Builder("timer").name("Agent1")
+                .agentClass("TestAgent").frequency("1 hour").startOffset("30 minutes").build(), scheduler)
+        {
+            @Override
+            protected void runTask()
+            {
+                // Nothing to do
+            }
+        };
+        agent.start();
+
+        // The first trigger is at half past an hour
+        long fireTime = System.currentTimeMillis() + scheduledDelays(scheduler).get(0);
+        int minute = Instant.ofEpochMilli(fireTime).atZone(ZoneId.systemDefault()).getMinute();
+        assertThat(minute, is(either(is(29)).or(is(30))));
+    }
+
+    @Test
+    public void testReanchorRealignsFixedRateAgentToTheWallClock()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        TimerAgent agent = newTestTimerAgent("FIRE_ONCE_NOW", false, scheduler);
+        agent.start();
+        agent.onTimeShift(TimeBase.Reason.CLOCK_JUMP, 3_600_000L);
+
+        List<Long> delays = scheduledDelays(scheduler);
+        assertThat(delays.size(), is(2));
+        assertThat(delays.get(1), is(both(greaterThan(-1L)).and(lessThanOrEqualTo(10_000L))));
+        assertThat(agent.getExecutionStatistics().getReanchors(), is(1L));
+        assertThat(agent.getStatusString().replace("\"", ""), containsAll("reanchors:1"));
+    }
+
+    @Test
+    public void testReanchorIgnoredByFixedDelayAgent()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        TimerAgent agent = newTestTimerAgent("FIRE_ONCE_NOW", true, scheduler);
+        agent.start();
+        agent.onTimeShift(TimeBase.Reason.CLOCK_JUMP, 3_600_000L);
+
+        assertThat(scheduledDelays(scheduler).size(), is(1));
+        assertThat(agent.getExecutionStatistics().getReanchors(), is(0L));
+    }
+
+    private static TimerAgent newTestTimerAgent(String misfirePolicy, boolean fixedDelay, AgentScheduler scheduler)
+    {
+        return new TimerAgent(new AgentConfiguration.Builder("timer").name("TestAgent").agentClass("TestAgent")
+                .frequency("10 seconds").misfirePolicy(misfirePolicy).fixedDelay(fixedDelay).build(), scheduler)
+        {
+            @Override
+            protected void runTask()
+            {
+                // Nothing to do
+            }
+        };
+    }
+
+    /**
+     * @return the delays of all triggers scheduled so far, in milliseconds
+     */
+    private static List<Long> scheduledDelays(AgentScheduler scheduler)
+    {
+        ArgumentCaptor<Long> delays = ArgumentCaptor.forClass(Long.class);
+        verify(scheduler, atLeastOnce()).scheduleTrigger(any(Runnable.class), delays.capture(),
+                eq(TimeUnit.NANOSECONDS));
+        return delays.getAllValues().stream().map(TimeUnit.NANOSECONDS::toMillis).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testTriggerOnTime()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        TimerAgent agent = newTestTimerAgent("FIRE_ONCE_NOW", false, scheduler);
+        agent.scheduleTrigger(System.currentTimeMillis());
+        agent.trigger();
+
+        verify(scheduler).execute(eq(agent), anyLong());
+        assertThat(agent.getExecutionStatistics().getMisfires(), is(0L));
+        assertThat(scheduledDelays(scheduler).get(1), is(both(greaterThan(9_000L)).and(lessThanOrEqualTo(10_000L))));
+    }
+
+    @Test
+    public void testTriggerWithMisfirePolicyFireOnceNow()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        TimerAgent agent = newTestTimerAgent("FIRE_ONCE_NOW", false, scheduler);
+        agent.scheduleTrigger(System.currentTimeMillis() - 35_000);
+        agent.trigger();
+
+        verify(scheduler).execute(eq(agent), anyLong());
+        assertThat(agent.getExecutionStatistics().getMisfires(), is(3L));
+        // The next execution is the first one after now, in the original grid
+        assertThat(scheduledDelays(scheduler).get(1), is(both(greaterThan(4_000L)).and(lessThanOrEqualTo(5_000L))));
+    }
+
+    @Test
+    public void testTriggerWithMisfirePolicySkipToNext()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        TimerAgent agent = newTestTimerAgent("SKIP_TO_NEXT", false, scheduler);
+        agent.scheduleTrigger(System.currentTimeMillis() - 35_000);
+        agent.trigger();
+
+        verify(scheduler, never()).execute(eq(agent), anyLong());
+        assertThat(agent.getExecutionStatistics().getMisfires(), is(3L));
+        assertThat(scheduledDelays(scheduler).get(1), is(both(greaterThan(4_000L)).and(lessThanOrEqualTo(5_000L))));
+    }
+
+    @Test
+    public void testTriggerWithMisfirePolicyFireAll()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        TimerAgent agent = newTestTimerAgent("FIRE_ALL", false, scheduler);
+        agent.scheduleTrigger(System.currentTimeMillis() - 35_000);
+        for (int i = 0; i < 4; i++)
+        {
+            agent.trigger();
+        }
+
+        verify(scheduler, times(4)).execute(eq(agent), anyLong());
+        assertThat(agent.getExecutionStatistics().getMisfires(), is(3L));
+        List<Long> delays = scheduledDelays(scheduler);
+        assertThat(delays.get(1), is(lessThan(0L)));
+        assertThat(delays.get(4), is(both(greaterThan(4_000L)).and(lessThanOrEqualTo(5_000L))));
+    }
+
+    @Test
+    public void testTriggerWithMisfirePolicyFireAllMergesTooManyMissedPeriods()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        TimerAgent agent = newTestTimerAgent("FIRE_ALL", false, scheduler);
+        agent.scheduleTrigger(System.currentTimeMillis() - 2_005_000);
+        agent.trigger();
+
+        verify(scheduler).execute(eq(agent), anyLong());
+        assertThat(agent.getExecutionStatistics().getMisfires(), is(200L));
+        // The schedule is back on time, without replaying the missed periods
+        assertThat(scheduledDelays(scheduler).get(1), is(both(greaterThan(4_000L)).and(lessThanOrEqualTo(5_000L))));
+    }
+
+    @Test
+    public void testFixedDelaySchedulesNextTriggerAfterExecution()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        when(scheduler.execute(any(Agent.class), anyLong())).thenReturn(true);
+        TimerAgent agent = newTestTimerAgent("FIRE_ONCE_NOW", true, scheduler);
+        agent.start();
+        agent.scheduleTrigger(System.currentTimeMillis());
+        agent.trigger();
+
+        // No trigger scheduled until the execution finishes
+        verify(scheduler).execute(eq(agent), anyLong());
+        assertThat(scheduledDelays(scheduler).size(), is(2));
+
+        agent.run();
+        List<Long> delays = scheduledDelays(scheduler);
+        assertThat(delays.size(), is(3));
+        assertThat(delays.get(2), is(both(greaterThan(9_000L)).and(lessThanOrEqualTo(10_000L))));
+        assertThat(agent.getStatusString().replace("\"", ""), containsAll("fixedDelay:true",
+                "misfirePolicy:FIRE_ONCE_NOW", "misfires:0"));
+    }
+
+    @Test
+    public void testFixedDelayWhenExecutionDiscarded()
+    {
+        AgentScheduler scheduler = mock(AgentScheduler.class);
+        TimerAgent agent = newTestTimerAgent("FIRE_ONCE_NOW", true, scheduler);
+        agent.scheduleTrigger(System.currentTimeMillis());
+        agent.trigger();
+
+        List<Long> delays = scheduledDelays(scheduler);
+        assertThat(delays.size(), is(2));
+        assertThat(delays.get(1), is(both(greaterThan(9_000L)).and(lessThanOrEqualTo(10_000L))));
+    }
+
+    private static TimerAgent newTimeoutTimerAgent(AgentScheduler scheduler, String executionTimeout, Runnable task)
+    {
+        return new TimerAgent(new AgentConfiguration.Builder("timer").name("SlowAgent").agentClass("SlowAgent")
+                .frequency("1 hour").executionTimeout(executionTimeout).build(), scheduler)
+        {
+            @Override
+            protected void runTask()
+            {
+                task.run();
+            }
+        };
+    }
+
+    @Test
+    public void testExecutionTimeoutInterruptsTask() throws InterruptedException
+    {
+        AgentScheduler scheduler = new AgentScheduler(1, 1, 1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        TimerAgent agent = newTimeoutTimerAgent(scheduler, "200 ms", () ->
+        {
+            try
+            {
+                Thread.sleep(10_000);
+            }
+            catch (InterruptedException exception)
+            {
+                interrupted.countDown();
+            }
+        });
+        try
+        {
+            assertThat(agent.getExecutionTimeoutMillis(), is(200L));
+            agent.run();
+
+            assertThat(interrupted.await(1, TimeUnit.SECONDS), is(true));
+            assertThat(agent.getExecutionStatistics().getTimedOutExecutions(), is(1L));
+            assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.TIMED_OUT));
+            assertThat(agent.isRunning(), is(false));
+            assertThat("The interruption should be cleared", Thread.currentThread().isInterrupted(), is(false));
+            assertThat(agent.getStatusString().replace("\"", ""), containsAll("executionTimeout:200 ms",
+                    "lastExecutionResult:TIMED_OUT", "timedOutExecutions:1"));
+        }
+        finally
+        {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testExecutionTimeoutReleasesAgentWhenTaskIgnoresInterruption() throws InterruptedException
+    {
+        AgentScheduler scheduler = new AgentScheduler(1, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        TimerAgent agent = newTimeoutTimerAgent(scheduler, "100 ms", () ->
+        {
+            if (executions.incrementAndGet() == 1)
+            {
+                awaitIgnoringInterruption(release);
+            }
+        });
+        Thread hung = new Thread(agent);
+        try
+        {
+            hung.start();
+            await().atMost(2, TimeUnit.SECONDS)
+                    .until(() -> agent.getExecutionStatistics().getTimedOutExecutions() == 1 && !agent.isRunning());
+
+            // The next execution proceeds, although the previous task is still hung
+            agent.run();
+            assertThat(executions.get(), is(2));
+            assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.SUCCEEDED));
+        }
+        finally
+        {
+            release.countDown();
+            hung.join(5000);
+            scheduler.shutdown();
+        }
+        assertThat(agent.getExecutionStatistics().getTimedOutExecutions(), is(1L));
+        assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.SUCCEEDED));
+    }
+
+    @Test
+    public void testExecutionTimeoutAdmitsNextExecutionWhenWorkerIsStuck() throws InterruptedException
+    {
+        AgentScheduler scheduler = new AgentScheduler(1, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch secondExecution = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        TimerAgent agent = newTimeoutTimerAgent(scheduler, "100 ms", () ->
+        {
+            if (executions.incrementAndGet() == 1)
+            {
+                awaitIgnoringInterruption(release);
+            }
+            else
+            {
+                secondExecution.countDown();
+            }
+        });
+        try
+        {
+            assertThat(scheduler.execute(agent), is(true));
+            await().atMost(2, TimeUnit.SECONDS)
+                    .until(() -> agent.getExecutionStatistics().getTimedOutExecutions() == 1 && !agent.isRunning());
+            assertThat(scheduler.getStuckWorkers(), is(1));
+
+            // The only worker thread is stuck, so the next execution starts on a replacement
+            assertThat(scheduler.execute(agent), is(true));
+            assertThat(secondExecution.await(2, TimeUnit.SECONDS), is(true));
+        }
+        finally
+        {
+            release.countDown();
+            scheduler.shutdown();
+        }
+        await().atMost(2, TimeUnit.SECONDS).until(() -> scheduler.getStuckWorkers() == 0);
+        assertThat(executions.get(), is(2));
+    }
+
+    /**
+     * A hung task that does not respond to interruption.
+     */
+    private static void awaitIgnoringInterruption(CountDownLatch release)
+    {
+        while (release.getCount() > 0)
+        {
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException exception)
+            {
+                // Ignored on purpose
+            }
+        }
+    }
+
+    @Test
+    public void testExecutionWithinTimeoutSucceeds()
+    {
+        AgentScheduler scheduler = new AgentScheduler(1, 1, 1);
+        TimerAgent agent = newTimeoutTimerAgent(scheduler, "5 seconds", () -> {});
+        try
+        {
+            agent.run();
+            assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.SUCCEEDED));
+            assertThat(agent.getExecutionStatistics().getTimedOutExecutions(), is(0L));
+            assertThat(agent.getState(), is(State.SET));
+        }
+        finally
+        {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testExecutionTimeoutNone()
+    {
+        assertThat(newTimeoutTimerAgent(null, "NONE", () -> {}).getExecutionTimeoutMillis(), is(0L));
+        assertThat(newTimeoutTimerAgent(null, "", () -> {}).getExecutionTimeoutMillis(), is(0L));
+    }
+
+    private static TimerAgent newAsyncTimerAgent(AgentScheduler scheduler, String executionTimeout,
+            Supplier<CompletionStage<?>> task)
+    {
+        return new TimerAgent(new AgentConfiguration.Builder("timer").name("AsyncAgent").agentClass("AsyncAgent")
+                .frequency("1 hour").executionTimeout(executionTimeout).build(), scheduler)
+        {
+            @Override
+            protected void runTask()
+            {
+                // Not used by asynchronous agents
+            }
+
+            @Override
+            protected CompletionStage<?> runTaskAsync(AgentContext context)
+            {
+                return task.get();
+            }
+        };
+    }
+
+    @Test
+    public void testAsynchronousTaskRunsUntilStageCompletes() throws InterruptedException
+    {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        TimerAgent agent = newAsyncTimerAgent(null, "NONE", () -> future);
+
+        // The calling thread is not held by the asynchronous task
+        agent.run();
+        assertThat(agent.isRunning(), is(true));
+        assertThat(agent.getLastExecutionResult(), is(nullValue()));
+
+        Thread.sleep(100);
+        future.complete("done");
+        assertThat(agent.isRunning(), is(false));
+        assertThat(agent.getState(), is(State.SET));
+        assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.SUCCEEDED));
+        assertThat(agent.lastExecutionDuration.toSeconds(), is(greaterThanOrEqualTo(0.1)));
+    }
+
+    @Test
+    public void testAsynchronousTaskWithExceptionalCompletion()
+    {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        TimerAgent agent = newAsyncTimerAgent(null, "NONE", () -> future);
+
+        agent.run();
+        future.completeExceptionally(new IllegalStateException("async failure"));
+        assertThat(agent.isRunning(), is(false));
+        assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.FAILED));
+    }
+
+    @Test
+    public void testAsynchronousTaskSkipsOverlappingExecution()
+    {
+        AtomicInteger executions = new AtomicInteger();
+        CompletableFuture<String> future = new CompletableFuture<>();
+        TimerAgent agent = newAsyncTimerAgent(null, "NONE", () ->
+        {
+            executions.incrementAndGet();
+            return future;
+        });
+
+        agent.run();
+        agent.run();
+        assertThat(executions.get(), is(1));
+        assertThat(agent.getExecutionStatistics().getDroppedExecutions(), is(1L));
+
+        future.complete("done");
+        agent.run();
+        assertThat(executions.get(), is(2));
+    }
+
+    @Test
+    public void testAsynchronousTaskTimeoutCancelsStage()
+    {
+        AgentScheduler scheduler = new AgentScheduler(1, 1, 1);
+        CompletableFuture<String> future = new CompletableFuture<>();
+        TimerAgent agent = newAsyncTimerAgent(scheduler, "100 ms", () -> future);
+        try
+        {
+            agent.run();
+            await().atMost(2, TimeUnit.SECONDS).until(future::isCancelled);
+            await().atMost(2, TimeUnit.SECONDS)
+                    .until(() -> agent.getExecutionStatistics().getTimedOutExecutions() == 1 && !agent.isRunning());
+            assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.TIMED_OUT));
+            assertThat("The calling thread should not be interrupted", Thread.currentThread().isInterrupted(),
+                    is(false));
+        }
+        finally
+        {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testAsynchronousExecutionHoldsWorkerPermitUntilReleased()
+    {
+        AgentScheduler scheduler = new AgentScheduler(1, 1, 1);
+        CompletableFuture<String> future = new CompletableFuture<>();
+        TimerAgent agent = newAsyncTimerAgent(scheduler, "NONE", () -> future);
+        int permits = scheduler.getGovernor().getPermits();
+        try
+        {
+            scheduler.execute(agent);
+            await().atMost(2, TimeUnit.SECONDS).until(agent::isRunning);
+            assertThat(scheduler.getGovernor().getAvailablePermits(), is(permits - 1));
+
+            future.complete("done");
+
+            await().atMost(2, TimeUnit.SECONDS)
+                    .until(() -> scheduler.getGovernor().getAvailablePermits() == permits && !agent.isRunning());
+        }
+        finally
+        {
+            scheduler.shutdown();
+        }
+    }
+
+    private static TimerAgent newContextTimerAgent(AgentScheduler scheduler, String executionTimeout,
+            Consumer<AgentContext> task)
+    {
+        return new TimerAgent(new AgentConfiguration.Builder("timer").name("ContextAgent")
+                .agentClass("ContextAgent").frequency("1 hour").executionTimeout(executionTimeout).build(),
+                scheduler)
+        {
+            @Override
+            protected void runTask()
+            {
+                // Not used by this agent
+            }
+
+            @Override
+            protected CompletionStage<?> runTaskAsync(AgentContext context)
+            {
+                task.accept(context);
+                return null;
+            }
+        };
+    }
+
+    @Test
+    public void testContextOfManualExecution()
+    {
+        List<AgentContext> contexts = new ArrayList<>();
+        TimerAgent agent = newContextTimerAgent(null, "NONE", contexts::add);
+        agent.run(true);
+
+        AgentContext context = contexts.get(0);
+        assertThat(context.getAgentName(), is("ContextAgent"));
+        assertThat(context.isCancelled(), is(false));
+        assertThat(context.getScheduledFireTime().isPresent(), is(false));
+        assertThat(context.getDeadline().isPresent(), is(false));
+        assertThat(context.getRemainingTime().isPresent(), is(false));
+    }
+
+    @Test
+    public void testContextOfScheduledExecution()
+    {
+        List<AgentContext> contexts = new ArrayList<>();
+        TimerAgent agent = newContextTimerAgent(null, "NONE", contexts::add);
+        Instant before = Instant.now();
+        agent.runScheduled(System.nanoTime() - TimeUnit.SECONDS.toNanos(1));
+        agent.run();
+
+        Instant fireTime = contexts.get(0).getScheduledFireTime().get();
+        assertThat(fireTime, is(both(greaterThan(before.minusMillis(1100))).and(lessThan(before.minusMillis(900)))));
+        // The fire time is not carried over to unscheduled executions
+        assertThat(contexts.get(1).getScheduledFireTime().isPresent(), is(false));
+    }
+
+    @Test
+    public void testContextCancelledOnTimeout()
+    {
+        AgentScheduler scheduler = new AgentScheduler(1, 1, 1);
+        List<AgentContext> contexts = new ArrayList<>();
+        TimerAgent agent = newContextTimerAgent(scheduler, "100 ms", context ->
+        {
+            contexts.add(context);
+            long limit = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!context.isCancelled() && System.nanoTime() < limit)
+            {
+                // Busy loop, which does not respond to interruption
+            }
+        });
+        try
+        {
+            agent.run();
+            AgentContext context = contexts.get(0);
+            assertThat(context.isCancelled(), is(true));
+            assertThat(context.getDeadline().isPresent(), is(true));
+            assertThat(context.getRemainingTime().get().isNegative(), is(true));
+            assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.TIMED_OUT));
+        }
+        finally
+        {
+            Thread.interrupted();
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testProgressReportedToStatus()
+    {
+        TimerAgent agent = newContextTimerAgent(null, "NONE", context -> context.reportProgress(750, 1000, "step 2"));
+        assertThat(agent.getProgressTracker().getLastProgress(), is(nullValue()));
+        agent.run();
+        assertThat(agent.getProgressTracker().getLastProgress(), is("750/1000 (75.0%)"));
+        assertThat(agent.getProgressTracker().getLastProgressMessage(), is("step 2"));
+        assertThat(agent.getStatusString(), containsAll("\"progress\"", "(75.0%)", "\"progressMessage\":\"step 2\""));
+    }
+
+    @Test
+    public void testProgressWithUnknownTotalIsResetOnNextExecution()
+    {
+        AtomicInteger executions = new AtomicInteger();
+        TimerAgent agent = newContextTimerAgent(null, "NONE", context ->
+        {
+            if (executions.incrementAndGet() == 1)
+            {
+                context.reportProgress(42, 0);
+            }
+        });
+        agent.run();
+        assertThat(agent.getProgressTracker().getLastProgress(), is("42"));
+        assertThat(agent.getProgressTracker().getLastProgressMessage(), is(nullValue()));
+        agent.run();
+        assertThat(agent.getProgressTracker().getLastProgress(), is(nullValue()));
+    }
+
+    private static TimerAgent newShardedTimerAgent(AgentScheduler scheduler, int shards, Consumer<AgentContext> task)
+    {
+        return new TimerAgent(new AgentConfiguration.Builder("timer").name("ShardedAgent")
+                .agentClass("ShardedAgent").frequency("1 hour").shards(shards).build(), scheduler)
+        {
+            @Override
+            protected void runTask()
+            {
+                // Not used by this agent
+            }
+
+            @Override
+            protected CompletionStage<?> runTaskAsync(AgentContext context)
+            {
+                task.accept(context);
+                return null;
+            }
+        };
+    }
+
+    @Test
+    public void testShardsRunConcurrently()
+    {
+        AgentScheduler scheduler = new AgentScheduler(1, 4, 10);
+        CyclicBarrier barrier = new CyclicBarrier(4);
+        Set<Integer> indexes = ConcurrentHashMap.newKeySet();
+        TimerAgent agent = newShardedTimerAgent(scheduler, 4, context ->
+        {
+            assertThat(context.getShardCount(), is(4));
+            indexes.add(context.getShardIndex());
+            try
+            {
+                // Only completes if all shards are in progress at the same time
+                barrier.await(2, TimeUnit.SECONDS);
+            }
+            catch (Exception exception)
+            {
+                throw new IllegalStateException(exception);
+            }
+        });
+        try
+        {
+            scheduler.execute(agent);
+            await().atMost(3, TimeUnit.SECONDS).until(() -> agent.getLastExecutionResult() != null);
+            assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.SUCCEEDED));
+            assertThat(indexes, containsInAnyOrder(0, 1, 2, 3));
+            await().atMost(1, TimeUnit.SECONDS).until(() -> !agent.isRunning());
+        }
+        finally
+        {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testSlowestShardIsReported()
+    {
+        AgentScheduler scheduler = new AgentScheduler(1, 3, 10);
+        TimerAgent agent = newShardedTimerAgent(scheduler, 3, context ->
+        {
+            if (context.getShardIndex() == 2)
+            {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(200));
+            }
+        });
+        try
+        {
+            assertThat(agent.getShardSupport().getLastSlowestShard(), is(-1));
+            agent.run();
+            await().atMost(2, TimeUnit.SECONDS).until(() -> agent.getLastExecutionResult() != null);
+            assertThat(agent.getShardSupport().getLastSlowestShard(), is(2));
+            assertThat(agent.getShardSupport().getLastSlowestShardDurationNanos(),
+                    is(greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200))));
+            assertThat(agent.getShardSupport().getLastAggregatedShardDurationNanos(),
+                    is(greaterThanOrEqualTo(agent.getShardSupport().getLastSlowestShardDurationNanos())));
+            assertThat(agent.getStatusString(),
+                    containsAll("\"shards\":3", "\"slowestShard\":2", "aggregatedShardDurationMillis"));
+        }
+        finally
+        {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailedShardFailsTheExecutionAfterAllShardsFinish()
+    {
+        AtomicInteger finished = new AtomicInteger();
+        TimerAgent agent = newShardedTimerAgent(null, 3, context ->
+        {
+            finished.incrementAndGet();
+            if (context.getShardIndex() == 1)
+            {
+                throw new IllegalStateException("shard failure");
+            }
+        });
+        agent.run();
+        assertThat(finished.get(), is(3));
+        assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.FAILED));
+        assertThat(agent.isRunning(), is(false));
+    }
+
+    @Test
+    public void testShardsRunInCallingThreadWithoutScheduler()
+    {
+        List<Integer> indexes = new ArrayList<>();
+        TimerAgent agent = newShardedTimerAgent(null, 3, context -> indexes.add(context.getShardIndex()));
+        agent.run();
+        assertThat(indexes, containsInAnyOrder(0, 1, 2));
+        assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.SUCCEEDED));
+    }
+
+    private static TimerAgent newCursorTimerAgent(AgentScheduler scheduler, CursorStore store,
+            String executionTimeout, Consumer<AgentContext> task)
+    {
+        return newCursorTimerAgent(scheduler, store, executionTimeout, 1, task);
+    }
+
+    private static TimerAgent newCursorTimerAgent(AgentScheduler scheduler, CursorStore store,
+            String executionTimeout, int shards, Consumer<AgentContext> task)
+    {
+        return new TimerAgent(new AgentConfiguration.Builder("timer").name("CursorAgent").agentClass("CursorAgent")
+                .frequency("1 hour").executionTimeout(executionTimeout).shards(shards).build(), scheduler)
+        {
+            @Override
+            protected void runTask()
+            {
+                // Not used by this agent
+            }
+
+            @Override
+            protected CompletionStage<?> runTaskAsync(AgentContext context)
+            {
+                task.accept(context);
+                return null;
+            }
+
+            @Override
+            protected CursorStore getCursorStore()
+            {
+                return store;
+            }
+        };
+    }
+
+    @Test
+    public void testCursorIsCommittedWhenExecutionSucceeds() throws IOException
+    {
+        CursorStore store = mock(CursorStore.class);
+        when(store.read("CursorAgent")).thenReturn(Optional.of("10"));
+        List<Optional<String>> cursors = new ArrayList<>();
+        TimerAgent agent = newCursorTimerAgent(null, store, "NONE", context ->
+        {
+            cursors.add(context.getCursor());
+            context.updateCursor("20");
+        });
+
+        agent.run();
+
+        assertThat(cursors, contains(Optional.of("10")));
+        verify(store).commit("CursorAgent", "20");
+        assertThat(agent.getCursorSupport().getCommittedCursor(), is("20"));
+        assertThat(agent.getStatusString(), containsString("\"cursor\":\"20\""));
+    }
+
+    @Test
+    public void testCursorIsNotCommittedWhenExecutionFails() throws IOException
+    {
+        CursorStore store = mock(CursorStore.class);
+        when(store.read("CursorAgent")).thenReturn(Optional.empty());
+        TimerAgent agent = newCursorTimerAgent(null, store, "NONE", context ->
+        {
+            context.updateCursor("20");
+            throw new IllegalStateException("failure after the cursor update");
+        });
+
+        agent.run();
+
+        assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.FAILED));
+        verify(store, never()).commit(anyString(), anyString());
+        assertThat(agent.getCursorSupport().getCommittedCursor(), is(nullValue()));
+    }
+
+    @Test
+    public void testCursorIsNotCommittedWhenExecutionTimesOut() throws IOException
+    {
+        AgentScheduler scheduler = new AgentScheduler(1, 1, 1);
+        CursorStore store = mock(CursorStore.class);
+        TimerAgent agent = newCursorTimerAgent(scheduler, store, "100 milliseconds", context ->
+        {
+            context.updateCursor("20");
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(500));
+        });
+        try
+        {
+            agent.run();
+
+            assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.TIMED_OUT));
+            verify(store, never()).commit(anyString(), anyString());
+        }
+        finally
+        {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testExecutionFailsWhenCursorCannotBeCommitted() throws IOException
+    {
+        CursorStore store = mock(CursorStore.class);
+        doThrow(new IOException("disk full")).when(store).commit("CursorAgent", "20");
+        TimerAgent agent = newCursorTimerAgent(null, store, "NONE", context -> context.updateCursor("20"));
+
+        agent.run();
+
+        assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.FAILED));
+        assertThat(agent.getCursorSupport().getCommittedCursor(), is(nullValue()));
+    }
+
+    @Test
+    public void testEachShardCommitsItsOwnCursor() throws IOException
+    {
+        CursorStore store = mock(CursorStore.class);
+        when(store.read("CursorAgent.shard-0-of-2")).thenReturn(Optional.of("10"));
+        when(store.read("CursorAgent.shard-1-of-2")).thenReturn(Optional.of("15"));
+        TimerAgent agent = newCursorTimerAgent(null, store, "NONE", 2, context ->
+        {
+            long cursor = Long.parseLong(context.getCursor().get());
+            context.updateCursor(String.valueOf(cursor + 100));
+        });
+
+        agent.run();
+
+        assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.SUCCEEDED));
+        verify(store).commit("CursorAgent.shard-0-of-2", "110");
+        verify(store).commit("CursorAgent.shard-1-of-2", "115");
+        verify(store, never()).commit(eq("CursorAgent"), anyString());
+    }
+
+    @Test
+    public void testExecutionWithoutCursorDoesNotUseTheStore()
+    {
+        CursorStore store = mock(CursorStore.class);
+        TimerAgent agent = newCursorTimerAgent(null, store, "NONE", context ->
+        {
+        });
+
+        agent.run();
+
+        assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.SUCCEEDED));
+        verifyZeroInteractions(store);
+        assertThat(agent.getStatusString(), not(containsString("cursor")));
+    }
+
+    private static TimerAgent newBudgetTimerAgent(AgentScheduler scheduler, String timeBudget,
+            Consumer<AgentContext> task)
+    {
+        return new TimerAgent(new AgentConfiguration.Builder("timer").name("BudgetAgent").agentClass("BudgetAgent")
+                .frequency("1 hour").timeBudget(timeBudget).build(), scheduler)
+        {
+            @Override
+            protected void runTask()
+            {
+                // Not used by this agent
+            }
+
+            @Override
+            protected CompletionStage<?> runTaskAsync(AgentContext context)
+            {
+                task.accept(context);
+                return null;
+            }
+        };
+    }
+
+    @Test
+    public void testRemainingBudgetIsExposedToTheTask()
+    {
+        List<Optional<Duration>> budgets = new ArrayList<>();
+        TimerAgent agent = newBudgetTimerAgent(null, "1 second", context -> budgets.add(context.getRemainingBudget()));
+
+        agent.run();
+
+        assertThat(agent.getTimeBudgetMillis(), is(1000L));
+        Duration budget = budgets.get(0).get();
+        assertThat(budget.compareTo(Duration.ofSeconds(1)) <= 0 && !budget.isNegative(), is(true));
+        assertThat(agent.getStatusString(), containsAll("\"timeBudgetMillis\":1000", "\"budgetOverruns\":0",
+                "\"maxBudgetOverrunMillis\":0.000", "\"continuations\":0", "\"deferredContinuations\":0"));
+    }
+
+    @Test
+    public void testAgentWithoutTimeBudget()
+    {
+        List<Optional<Duration>> budgets = new ArrayList<>();
+        TimerAgent agent = newBudgetTimerAgent(null, "NONE", context -> budgets.add(context.getRemainingBudget()));
+
+        agent.run();
+
+        assertThat(agent.getTimeBudgetMillis(), is(0L));
+        assertThat(budgets, contains(Optional.empty()));
+        assertThat(agent.getStatusString(), not(containsString("timeBudgetMillis")));
+    }
+
+    @Test
+    public void testPendingWorkWithinBudgetIsResumedImmediately()
+    {
+        AgentScheduler scheduler = new AgentScheduler(1, 1, 1);
+        AtomicInteger executions = new AtomicInteger();
+        TimerAgent agent = newBudgetTimerAgent(scheduler, "1 second", context ->
+        {
+            if (executions.incrementAndGet() < 3)
+            {
+                context.reportWorkPending();
+            }
+        });
+        try
+        {
+            agent.run();
+
+            await().atMost(5, TimeUnit.SECONDS)
+                    .until(() -> agent.getTimeBudget().getContinuations() == 2 && !agent.isRunning());
+            assertThat(executions.get(), is(3));
+            assertThat(agent.getTimeBudget().getDeferredContinuations(), is(0L));
+            assertThat(agent.getTimeBudget().getBudgetOverruns(), is(0L));
+        }
+        finally
+        {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testPendingWorkAfterBudgetOverrunIsDeferred()
+    {
+        AgentScheduler scheduler = new AgentScheduler(1, 1, 1);
+        AtomicInteger executions = new AtomicInteger();
+        TimerAgent agent = newBudgetTimerAgent(scheduler, "50 milliseconds", context ->
+        {
+            executions.incrementAndGet();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(150));
+            assertThat(context.isBudgetExhausted(), is(true));
+            context.reportWorkPending();
+        });
+        try
+        {
+            agent.run();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(200));
+
+            assertThat(executions.get(), is(1));
+            assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.SUCCEEDED));
+            assertThat(agent.getTimeBudget().getBudgetOverruns(), is(1L));
+            assertThat(agent.getTimeBudget().getMaxBudgetOverrunNanos(),
+                    is(greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(90))));
+            assertThat(agent.getTimeBudget().getDeferredContinuations(), is(1L));
+            assertThat(agent.getTimeBudget().getContinuations(), is(0L));
+            assertThat(agent.getStatusString(), containsAll("\"budgetOverruns\":1", "\"deferredContinuations\":1"));
+        }
+        finally
+        {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testPendingWorkOfFailedExecutionIsNotResumed()
+    {
+        AgentScheduler scheduler = new AgentScheduler(1, 1, 1);
+        AtomicInteger executions = new AtomicInteger();
+        TimerAgent agent = newBudgetTimerAgent(scheduler, "1 second", context ->
+        {
+            executions.incrementAndGet();
+            context.reportWorkPending();
+            throw new IllegalStateException("failure");
+        });
+        try
+        {
+            agent.run();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+
+            assertThat(executions.get(), is(1));
+            assertThat(agent.getLastExecutionResult(), is(Agent.ExecutionResult.FAILED));
+            assertThat(agent.getTimeBudget().getContinuations(), is(0L));
+        }
+        finally
+        {
+            scheduler.shutdown();
+        }
+    }
+
+    private static class SumTask extends RecursiveTask<Long>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        private SumTask(long from, long to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute()
+        {
+            if (to - from <= 10_000)
+            {
+                return LongStream.rangeClosed(from, to).sum();
+            }
+            long middle = (from + to) / 2;
+            SumTask left = new SumTask(from, middle);
+            left.fork();
+            return new SumTask(middle + 1, to).compute() + left.join();
+        }
+    }
+
+    @Test
+    public void testForkJoinTaskReturnsResultAndIsCounted()
+    {
+        AgentScheduler scheduler = new AgentScheduler(1, 1, 1);
+        List<Long> results = new ArrayList<>();
+        TimerAgent agent = newContextTimerAgent(scheduler, "NONE",
+                context -> results.add(context.invoke(new SumTask(1, 1_000_000))));
+        try
+        {
+            agent.run();
+            assertThat(results, contains(500_000_500_000L));
+            assertThat(agent.getForkJoinSupport().getForkJoinTasks(), is(1L));
+            assertThat(agent.getStatusString(),
+                    containsAll("\"forkJoinTasks\":1", "forkJoinSteals", "forkJoinPeakParallelism"));
+        }
+        finally
+        {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testForkJoinTaskExceptionIsPropagated()
+    {
+        AgentScheduler scheduler = new AgentScheduler(1, 1, 1);
+        List<Throwable> failures = new ArrayList<>();
+        TimerAgent agent = newContextTimerAgent(scheduler, "NONE", context ->
+        {
+            try
+            {
+                context.invoke(ForkJoinTask.adapt(() ->
+                {
+                    throw new IllegalStateException("fork/join failure");
+                }));
+            }
+            catch (RuntimeException exception)
+            {
+                failures.add(exception);
+            }
+        });
+        try
+        {
+            agent.run();
+            assertThat(failures.get(0), is(instanceOf(IllegalStateException.class)));
+            assertThat(failures.get(0).getMessage(), containsString("fork/join failure"));
+        }
+        finally
+        {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testForkJoinTaskIsCancelledWhenAgentStops() throws Exception
+    {
+        AgentScheduler scheduler = new AgentScheduler(1, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ForkJoinTask<?> endless = ForkJoinTask.adapt(() ->
+        {
+            started.countDown();
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+            }
+        });
+        List<Throwable> failures = new ArrayList<>();
+        TimerAgent agent = newContextTimerAgent(scheduler, "NONE", context ->
+        {
+            try
+            {
+                context.invoke(endless);
+            }
+            catch (CancellationException exception)
+            {
+                failures.add(exception);
+            }
+        });
+        Thread worker = new Thread(agent::run);
+        worker.start();
+        try
+        {
+            assertThat(started.await(2, TimeUnit.SECONDS), is(true));
+            long start = System.nanoTime();
+            agent.stop(5, TimeUnit.SECONDS);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(lessThan(1000L)));
+            assertThat(endless.isCancelled(), is(true));
+            assertThat(failures.size(), is(1));
+        }
+        finally
+        {
+            release.countDown();
+            worker.join(2000);
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testStopSignalsTaskAndReturnsAsSoonAsItEnds() throws Exception
+    {
+        CountDownLatch started = new CountDownLatch(1);
+        TimerAgent agent = newContextTimerAgent(null, "NONE", context ->
+        {
+            started.countDown();
+            long limit = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!context.isCancelled() && System.nanoTime() < limit)
+            {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        });
+        Thread worker = new Thread(agent::run);
+        worker.start();
+        assertThat(started.await(2, TimeUnit.SECONDS), is(true));
+
+        long start = System.nanoTime();
+        agent.stop(10, TimeUnit.SECONDS);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(lessThan(1000L)));
+        assertThat(agent.isStopped(), is(true));
+        worker.join(2000);
+    }
+
+    @Test
+    public void testStopTimesOutWhileTaskIsRunning() throws InterruptedException
+    {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TimerAgent agent = newContextTimerAgent(null, "NONE", context ->
+        {
+            started.countDown();
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread worker = new Thread(agent::run);
+        worker.start();
+        try
+        {
+            assertThat(started.await(2, TimeUnit.SECONDS), is(true));
+            try
+            {
+                agent.stop(100, TimeUnit.MILLISECONDS);
+                fail("Expected TimeoutException");
+            }
+            catch (TimeoutException expected)
+            {
+                // Expected: the task ignores the stop signal
+            }
+            assertThat(agent.isRunning(), is(true));
+            assertThat(agent.awaitCompletion(50, TimeUnit.MILLISECONDS), is(false));
+        }
+        finally
+        {
+            release.countDown();
+            worker.join(2000);
+        }
+        assertThat(agent.awaitCompletion(1, TimeUnit.SECONDS), is(true));
     }
 
     @Test
@@ -0,0 +1,192 @@
+package net.obvj.smart.agents.batch;
+
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link BatchRunner} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class BatchRunnerTest
+{
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    private final List<Long> written = new CopyOnWriteArrayList<>();
+    private final List<Long> commits = new CopyOnWriteArrayList<>();
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    private static ItemReader<Long> readerOf(int items)
+    {
+        return (offset, count) -> LongStream.range(offset, Math.min(offset + count, items)).boxed()
+                .collect(Collectors.toList());
+    }
+
+    private BatchJob.Builder<Long, Long> newJob(int items, ItemProcessor<Long, Long> processor)
+    {
+        return new BatchJob.Builder<>(readerOf(items), processor, chunk ->
+        {
+            writes.incrementAndGet();
+            written.addAll(chunk);
+        });
+    }
+
+    private BatchRunner<Long, Long> newRunner(BatchJob<Long, Long> job, long startChunk)
+    {
+        return new BatchRunner<>(job, startChunk, () -> false, commits::add);
+    }
+
+    @Test
+    public void testSingleLaneProcessesAllChunks()
+    {
+        BatchJob<Long, Long> job = newJob(25, item -> item % 2 == 0 ? item : null).chunkSize(10).build();
+        BatchRunner<Long, Long> runner = newRunner(job, 0);
+        runner.runLane();
+
+        assertThat(runner.getCompletion().join(), is(13L));
+        assertThat(written, is(LongStream.range(0, 25).filter(item -> item % 2 == 0).boxed()
+                .collect(Collectors.toList())));
+        assertThat(runner.getChunks(), is(3L));
+        assertThat(runner.getReadItems(), is(25L));
+        assertThat(runner.getWrittenItems(), is(13L));
+        assertThat(runner.isExhausted(), is(true));
+        assertThat(runner.getCheckpoint(), is(3L));
+        assertThat(commits, contains(1L, 2L, 3L));
+    }
+
+    @Test
+    public void testCommitInterval()
+    {
+        BatchRunner<Long, Long> runner = newRunner(newJob(50, item -> item).chunkSize(10).commitInterval(2).build(),
+                0);
+        runner.runLane();
+
+        assertThat(runner.getCompletion().join(), is(50L));
+        // The remaining chunk is committed at the end of the input
+        assertThat(commits, contains(2L, 4L, 5L));
+    }
+
+    @Test
+    public void testInputWithExactNumberOfChunks()
+    {
+        BatchRunner<Long, Long> runner = newRunner(newJob(20, item -> item).chunkSize(10).build(), 0);
+        runner.runLane();
+
+        assertThat(runner.getChunks(), is(2L));
+        assertThat(writes.get(), is(2));
+        assertThat(runner.isExhausted(), is(true));
+        assertThat(runner.getCheckpoint(), is(2L));
+    }
+
+    @Test
+    public void testResumeFromCheckpoint()
+    {
+        BatchRunner<Long, Long> runner = newRunner(newJob(25, item -> item).chunkSize(10).build(), 2);
+        runner.runLane();
+
+        assertThat(written, contains(20L, 21L, 22L, 23L, 24L));
+        assertThat(runner.getCheckpoint(), is(3L));
+        assertThat(runner.isExhausted(), is(true));
+    }
+
+    @Test
+    public void testCancellationStopsBeforeNextChunk()
+    {
+        BatchRunner<Long, Long> runner = new BatchRunner<>(newJob(100, item -> item).chunkSize(10).build(), 0,
+                () -> writes.get() >= 2, commits::add);
+        runner.runLane();
+
+        assertThat(runner.getCompletion().join(), is(20L));
+        assertThat(runner.isExhausted(), is(false));
+        assertThat(runner.getCheckpoint(), is(2L));
+    }
+
+    @Test
+    public void testFailureKeepsLastCheckpoint()
+    {
+        BatchRunner<Long, Long> runner = newRunner(newJob(100, item ->
+        {
+            if (item == 35)
+            {
+                throw new IllegalStateException("Invalid item");
+            }
+            return item;
+        }).chunkSize(10).commitInterval(2).build(), 0);
+        runner.runLane();
+
+        assertThat(() -> runner.getCompletion().join(),
+                throwsException(CompletionException.class).withCause(IllegalStateException.class));
+        assertThat(runner.getChunks(), is(3L));
+        assertThat(runner.getCheckpoint(), is(2L));
+        assertThat(runner.isExhausted(), is(false));
+    }
+
+    @Test
+    public void testParallelLanes()
+    {
+        BatchJob<Long, Long> job = newJob(1000, item -> item).chunkSize(7).commitInterval(5).parallelism(3).build();
+        BatchRunner<Long, Long> runner = newRunner(job, 0);
+        IntStream.range(0, 3).forEach(lane -> executor.execute(runner::runLane));
+
+        assertThat(runner.getCompletion().join(), is(1000L));
+        assertThat(written.size(), is(1000));
+        assertThat(new ArrayList<>(written),
+                containsInAnyOrder(LongStream.range(0, 1000).boxed().toArray(Long[]::new)));
+        assertThat(runner.getChunks(), is(143L));
+        assertThat(runner.getCheckpoint(), is(143L));
+        assertThat(runner.isExhausted(), is(true));
+        // Checkpoints never go backwards
+        assertThat(commits, is(commits.stream().sorted().collect(Collectors.toList())));
+    }
+
+    @Test
+    public void testCancellingCompletionStopsLanes() throws Exception
+    {
+        BatchJob<Long, Long> job = new BatchJob.Builder<Long, Long>(readerOf(Integer.MAX_VALUE), item -> item,
+                chunk -> writes.incrementAndGet()).chunkSize(1).build();
+        BatchRunner<Long, Long> runner = newRunner(job, 0);
+        Future<?> lane = executor.submit(runner::runLane);
+        await().atMost(2, TimeUnit.SECONDS).until(() -> writes.get() > 0);
+
+        runner.getCompletion().cancel(false);
+        // The lane ends after the chunk in progress
+        lane.get(2, TimeUnit.SECONDS);
+        assertThat(runner.isExhausted(), is(false));
+    }
+
+    @Test
+    public void testNegativeStartChunk()
+    {
+        BatchJob<Long, Long> job = newJob(10, item -> item).build();
+        assertThat(() -> newRunner(job, -1),
+                throwsException(IllegalArgumentException.class).withMessageContaining("start chunk"));
+    }
+
+}
@@ -0,0 +1,112 @@
+package net.obvj.smart.agents.cursor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for the {@link CursorStore} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class CursorStoreTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private CursorStore newStore()
+    {
+        return new CursorStore(folder.getRoot().toPath().resolve("cursors"));
+    }
+
+    @Test
+    public void testReadWithoutCommittedCursor() throws IOException
+    {
+        assertThat(newStore().read("Agent1"), is(Optional.empty()));
+    }
+
+    @Test
+    public void testCommitAndRead() throws IOException
+    {
+        CursorStore store = newStore();
+        store.commit("Agent1", "2024-01-01T00:00:00Z");
+        store.commit("Agent2", "id:42");
+        store.commit("Agent1", "2024-01-02T00:00:00Z");
+
+        assertThat(store.read("Agent1"), is(Optional.of("2024-01-02T00:00:00Z")));
+        assertThat(store.read("Agent2"), is(Optional.of("id:42")));
+        // A new store on the same directory sees the committed cursors
+        assertThat(newStore().read("Agent1"), is(Optional.of("2024-01-02T00:00:00Z")));
+    }
+
+    @Test
+    public void testCommitLeavesNoTemporaryFiles() throws IOException
+    {
+        CursorStore store = newStore();
+        store.commit("Agent1", "1");
+        store.commit("Agent1", "2");
+        try (Stream<Path> files = Files.list(store.getDirectory()))
+        {
+            assertThat(files.count(), is(1L));
+        }
+    }
+
+    @Test
+    public void testAgentNamesAreEncoded() throws IOException
+    {
+        CursorStore store = newStore();
+        store.commit("reports/daily agent", "a");
+        store.commit("reports_daily agent", "b");
+
+        assertThat(store.getFile("reports/daily agent").getParent(), is(store.getDirectory()));
+        assertThat(store.read("reports/daily agent"), is(Optional.of("a")));
+        assertThat(store.read("reports_daily agent"), is(Optional.of("b")));
+    }
+
+    @Test
+    public void testDelete() throws IOException
+    {
+        CursorStore store = newStore();
+        store.commit("Agent1", "1");
+        assertThat(store.delete("Agent1"), is(true));
+        assertThat(store.delete("Agent1"), is(false));
+        assertThat(store.read("Agent1"), is(Optional.empty()));
+    }
+
+    @Test
+    public void testFailedCommitKeepsPreviousCursor() throws IOException
+    {
+        CursorStore store = newStore();
+        store.commit("Agent1", "1");
+        // A non-empty directory in place of the cursor file cannot be replaced
+        Path file = store.getFile("Agent1");
+        Files.delete(file);
+        Files.createDirectories(file.resolve("child"));
+        try
+        {
+            store.commit("Agent1", "2");
+            fail("IOException expected");
+        }
+        catch (IOException expected)
+        {
+            assertThat(Files.isDirectory(file), is(true));
+        }
+        try (Stream<Path> files = Files.list(store.getDirectory()))
+        {
+            // The temporary file was removed
+            assertThat(files.count(), is(1L));
+        }
+    }
+
+}
@@ -1,21 +1,34 @@
 package net.obvj.smart.agents.impl;
 
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static net.obvj.junit.utils.matchers.StringMatcher.containsAll;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.io.IOException;
+import java.util.Optional;
+
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import net.obvj.junit.utils.TestUtils;
+import net.obvj.smart.agents.Agent;
+import net.obvj.smart.agents.cursor.CursorStore;
 import net.obvj.smart.agents.test.invalid.TestAgentWithAllCustomParamsAndPrivateAgentTask;
 import net.obvj.smart.agents.test.invalid.TestAgentWithAllCustomParamsAndPrivateConstructor;
 import net.obvj.smart.agents.test.invalid.TestAgentWithNoNameAndTypeTimerAndNoAgentTask;
 import net.obvj.smart.agents.test.invalid.TestAgentWithNoNameAndTypeTimerAndTwoAgentTasks;
+import net.obvj.smart.agents.test.valid.CollectingSink;
+import net.obvj.smart.agents.test.valid.TestBatchAgent;
 import net.obvj.smart.agents.test.valid.TestAgentWithNoNameAndTypeTimerAndAgentTask;
+import net.obvj.smart.agents.test.valid.TestStreamingAgent;
 import net.obvj.smart.conf.AgentConfiguration;
 import net.obvj.smart.conf.AgentConfigurationException;
 
@@ -28,6 +41,9 @@ import net.obvj.smart.conf.AgentConfigurationException;
 @RunWith(MockitoJUnitRunner.class)
 public class AnnotatedTimerAgentTest
 {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Mock
     AgentConfiguration configuration;
 
@@ -86,6 +102,96 @@ public class AnnotatedTimerAgentTest
         new AnnotatedTimerAgent(configuration);
     }
 
+    @Test
+    public void runTaskForStreamingClassWritesItemsToSinks()
+    {
+        Mockito.when(configuration.getAgentClass()).thenReturn(TestStreamingAgent.class.getName());
+        Mockito.when(configuration.getSinks()).thenReturn(CollectingSink.class.getName());
+        Mockito.when(configuration.getSinkBatchSize()).thenReturn(300);
+        CollectingSink.BATCHES.clear();
+        AnnotatedTimerAgent annotatedTimerAgent = new AnnotatedTimerAgent(configuration);
+
+        annotatedTimerAgent.run();
+
+        assertEquals(4, CollectingSink.BATCHES.size());
+        assertEquals(100, CollectingSink.BATCHES.get(3).size());
+        assertEquals(Agent.ExecutionResult.SUCCEEDED, annotatedTimerAgent.getLastExecutionResult());
+        assertEquals(TestStreamingAgent.ITEMS, annotatedTimerAgent.getStreamingSupport().getLastStreamedItems());
+        assertEquals(TestStreamingAgent.ITEMS, annotatedTimerAgent.getStreamingSupport().getTotalStreamedItems());
+        assertThat(annotatedTimerAgent.getStatusString().replace("\"", ""),
+                containsAll("streamedItems:1000", "totalStreamedItems:1000", "streamThroughput:"));
+    }
+
+    private AnnotatedTimerAgent newBatchTimerAgent(CursorStore store)
+    {
+        return new AnnotatedTimerAgent(configuration)
+        {
+            @Override
+            protected CursorStore getCursorStore()
+            {
+                return store;
+            }
+        };
+    }
+
+    @Test
+    public void runTaskForBatchClassResumesFromLastCheckpoint()
+    {
+        Mockito.when(configuration.getAgentClass()).thenReturn(TestBatchAgent.class.getName());
+        TestBatchAgent.WRITTEN_CHUNKS.clear();
+        TestBatchAgent.failingOffset = 150;
+        AnnotatedTimerAgent annotatedTimerAgent = newBatchTimerAgent(new CursorStore(folder.getRoot().toPath()));
+
+        annotatedTimerAgent.run();
+
+        assertEquals(Agent.ExecutionResult.FAILED, annotatedTimerAgent.getLastExecutionResult());
+        assertEquals(3, TestBatchAgent.WRITTEN_CHUNKS.size());
+        assertEquals(3, annotatedTimerAgent.getBatchSupport().getBatchCheckpoint());
+
+        annotatedTimerAgent.run();
+
+        assertEquals(Agent.ExecutionResult.SUCCEEDED, annotatedTimerAgent.getLastExecutionResult());
+        assertEquals(5, TestBatchAgent.WRITTEN_CHUNKS.size());
+        assertEquals(Long.valueOf(300), TestBatchAgent.WRITTEN_CHUNKS.get(3).get(0));
+        assertEquals(0, annotatedTimerAgent.getBatchSupport().getBatchCheckpoint());
+        assertEquals(2, annotatedTimerAgent.getBatchSupport().getLastBatchChunks());
+        assertEquals(100, annotatedTimerAgent.getBatchSupport().getLastBatchItems());
+        assertThat(annotatedTimerAgent.getStatusString().replace("\"", ""),
+                containsAll("batchCheckpoint:0", "batchChunks:2", "batchItems:100"));
+    }
+
+    @Test
+    public void runTaskForBatchClassResumesFromCheckpointCommittedByPreviousInstance() throws IOException
+    {
+        Mockito.when(configuration.getAgentClass()).thenReturn(TestBatchAgent.class.getName());
+        Mockito.when(configuration.getName()).thenReturn("BatchAgent");
+        TestBatchAgent.WRITTEN_CHUNKS.clear();
+        TestBatchAgent.failingOffset = 150;
+        CursorStore store = new CursorStore(folder.getRoot().toPath());
+        newBatchTimerAgent(store).run();
+        assertEquals(Optional.of("3"), store.read("BatchAgent.batch"));
+
+        // A new instance, as created when the agent is reset, resumes from the checkpoint
+        AnnotatedTimerAgent annotatedTimerAgent = newBatchTimerAgent(store);
+        annotatedTimerAgent.run();
+
+        assertEquals(Agent.ExecutionResult.SUCCEEDED, annotatedTimerAgent.getLastExecutionResult());
+        assertEquals(5, TestBatchAgent.WRITTEN_CHUNKS.size());
+        assertEquals(2, annotatedTimerAgent.getBatchSupport().getLastBatchChunks());
+        assertEquals(Optional.empty(), store.read("BatchAgent.batch"));
+    }
+
+    @Test
+    public void initWithInvalidSink()
+    {
+        Mockito.when(configuration.getSinks()).thenReturn(TestStreamingAgent.class.getName());
+        assertThat(() -> new AnnotatedTimerAgent(configuration),
+                throwsException(AgentConfigurationException.class).withMessageContaining("Not a sink"));
+        Mockito.when(configuration.getSinks()).thenReturn("net.obvj.smart.UnknownSink");
+        assertThat(() -> new AnnotatedTimerAgent(configuration), throwsException(AgentConfigurationException.class)
+                .withMessageContaining("Unable to instantiate sink: net.obvj.smart.UnknownSink"));
+    }
+
     @Test
     public void toStringPrintsCustomString()
     {
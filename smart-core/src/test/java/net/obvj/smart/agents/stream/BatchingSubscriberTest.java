@@ -0,0 +1,243 @@
+package net.obvj.smart.agents.stream;
+
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link BatchingSubscriber} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class BatchingSubscriberTest
+{
+    private final List<List<Object>> batches = new ArrayList<>();
+    private final Sink<Object> collectingSink = batches::add;
+
+    /**
+     * A publisher of a range of numbers, which keeps track of the outstanding demand.
+     */
+    private static class RangePublisher implements Publisher<Integer>
+    {
+        private final int count;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private long maxOutstanding;
+
+        private RangePublisher(int count)
+        {
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super Integer> subscriber)
+        {
+            Publisher<Integer> source = Publishers
+                    .fromIterable(IntStream.range(0, count).boxed().collect(Collectors.toList()));
+            source.subscribe(new Subscriber<Integer>()
+            {
+                private long outstanding;
+
+                @Override
+                public void onSubscribe(Subscription subscription)
+                {
+                    subscriber.onSubscribe(new Subscription()
+                    {
+                        @Override
+                        public void request(long n)
+                        {
+                            outstanding += n;
+                            maxOutstanding = Math.max(maxOutstanding, outstanding);
+                            subscription.request(n);
+                        }
+
+                        @Override
+                        public void cancel()
+                        {
+                            cancelled.set(true);
+                            subscription.cancel();
+                        }
+                    });
+                }
+
+                @Override
+                public void onNext(Integer item)
+                {
+                    outstanding--;
+                    subscriber.onNext(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable)
+                {
+                    subscriber.onError(throwable);
+                }
+
+                @Override
+                public void onComplete()
+                {
+                    subscriber.onComplete();
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testInvalidBatchSize()
+    {
+        assertThat(() -> new BatchingSubscriber(Collections.emptyList(), 0, null),
+                throwsException(IllegalArgumentException.class).withMessageContaining("batch size"));
+    }
+
+    @Test
+    public void testItemsWrittenInBatchesWithBoundedDemand() throws Exception
+    {
+        RangePublisher publisher = new RangePublisher(25);
+        BatchingSubscriber subscriber = new BatchingSubscriber(Arrays.asList(collectingSink), 10, null);
+        publisher.subscribe(subscriber);
+
+        assertThat(subscriber.getCompletion().get(), is(25L));
+        assertThat(batches.size(), is(3));
+        assertThat(batches.get(0).size(), is(10));
+        assertThat(batches.get(1).size(), is(10));
+        assertThat(batches.get(2), contains(20, 21, 22, 23, 24));
+        assertThat(publisher.maxOutstanding, is(lessThanOrEqualTo(10L)));
+    }
+
+    @Test
+    public void testItemsWrittenToAllSinks() throws Exception
+    {
+        List<List<Object>> otherBatches = new ArrayList<>();
+        BatchingSubscriber subscriber = new BatchingSubscriber(Arrays.asList(collectingSink, otherBatches::add), 5,
+                null);
+        new RangePublisher(7).subscribe(subscriber);
+
+        assertThat(subscriber.getCompletion().get(), is(7L));
+        assertThat(batches, is(otherBatches));
+        assertThat(batches.size(), is(2));
+    }
+
+    @Test
+    public void testItemsCountedWithoutSinks() throws Exception
+    {
+        BatchingSubscriber subscriber = new BatchingSubscriber(Collections.emptyList(), 100, null);
+        new RangePublisher(1000).subscribe(subscriber);
+
+        assertThat(subscriber.getCompletion().get(), is(1000L));
+        assertThat(subscriber.getItems(), is(1000L));
+    }
+
+    @Test
+    public void testSinkFailureCancelsSubscription()
+    {
+        RangePublisher publisher = new RangePublisher(100);
+        Sink<Object> failingSink = items ->
+        {
+            throw new IllegalStateException("sink unavailable");
+        };
+        BatchingSubscriber subscriber = new BatchingSubscriber(Arrays.asList(failingSink), 10, null);
+        publisher.subscribe(subscriber);
+
+        assertThat(publisher.cancelled.get(), is(true));
+        assertThat(subscriber.getItems(), is(10L));
+        assertThat(subscriber.getCompletion()::join,
+                throwsException(CompletionException.class).withCause(IllegalStateException.class));
+    }
+
+    @Test
+    public void testPublisherFailureFlushesReceivedItems()
+    {
+        BatchingSubscriber subscriber = new BatchingSubscriber(Arrays.asList(collectingSink), 10, null);
+        subscriber.onSubscribe(new Subscription()
+        {
+            @Override
+            public void request(long n)
+            {
+            }
+
+            @Override
+            public void cancel()
+            {
+            }
+        });
+        subscriber.onNext("a");
+        subscriber.onNext("b");
+        subscriber.onError(new IllegalStateException("cursor closed"));
+
+        assertThat(batches.size(), is(1));
+        assertThat(batches.get(0), contains("a", "b"));
+        assertThat(subscriber.getCompletion().isCompletedExceptionally(), is(true));
+    }
+
+    @Test
+    public void testCancellingCompletionCancelsSubscription()
+    {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicLong finishedItems = new AtomicLong(-1);
+        BatchingSubscriber subscriber = new BatchingSubscriber(Arrays.asList(collectingSink), 10,
+                (items, elapsedNanos) -> finishedItems.set(items));
+        subscriber.onSubscribe(new Subscription()
+        {
+            @Override
+            public void request(long n)
+            {
+            }
+
+            @Override
+            public void cancel()
+            {
+                cancelled.set(true);
+            }
+        });
+        subscriber.onNext("a");
+
+        subscriber.getCompletion().cancel(true);
+        assertThat(cancelled.get(), is(true));
+        assertThat(finishedItems.get(), is(1L));
+
+        // Late signals are ignored
+        subscriber.onNext("b");
+        subscriber.onComplete();
+        assertThat(subscriber.getItems(), is(1L));
+        assertThat(batches.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testListenerNotifiedOnCompletion() throws Exception
+    {
+        AtomicLong finishedItems = new AtomicLong(-1);
+        BatchingSubscriber subscriber = new BatchingSubscriber(Collections.emptyList(), 10,
+                (items, elapsedNanos) -> finishedItems.set(items));
+        new RangePublisher(42).subscribe(subscriber);
+
+        assertThat(subscriber.getCompletion().get(), is(42L));
+        assertThat(finishedItems.get(), is(42L));
+    }
+
+    @Test
+    public void testSecondSubscriptionIsCancelled()
+    {
+        BatchingSubscriber subscriber = new BatchingSubscriber(Collections.emptyList(), 10, null);
+        RangePublisher first = new RangePublisher(1);
+        RangePublisher second = new RangePublisher(1);
+        first.subscribe(subscriber);
+        second.subscribe(subscriber);
+        assertThat(second.cancelled.get(), is(true));
+        assertThat(subscriber.getCompletion().getNow(0L), is(1L));
+    }
+
+}
@@ -1,9 +1,27 @@
 package net.obvj.smart.agents.test.invalid;
 
 import net.obvj.smart.conf.annotation.Agent;
+import net.obvj.smart.conf.annotation.MisfirePolicy;
 import net.obvj.smart.conf.annotation.Type;
 
-@Agent(name = "name1", type = Type.TIMER, frequency = "90 seconds", automaticallyStarted = false, hidden = true, stopTimeoutInSeconds = 99)
+@Agent(
+        name = "name1",
+        type = Type.TIMER,
+        frequency = "90 seconds",
+        automaticallyStarted = false,
+        hidden = true,
+        stopTimeoutInSeconds = 99,
+        overlapPolicy = "COALESCE",
+        fixedDelay = true,
+        startOffset = "AUTO",
+        misfirePolicy = MisfirePolicy.FIRE_ALL,
+        priority = 9,
+        group = "reports",
+        executionTimeout = "2 minutes",
+        sinks = { "a.Sink1", "b.Sink2" },
+        sinkBatchSize = 50,
+        shards = 4,
+        timeBudget = "500 milliseconds")
 public class TestAgentWithAllCustomParams
 {
     //INVALID: Missing @AgentTask method
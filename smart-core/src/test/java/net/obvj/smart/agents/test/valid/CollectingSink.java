@@ -0,0 +1,23 @@
+package net.obvj.smart.agents.test.valid;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import net.obvj.smart.agents.stream.Sink;
+
+/**
+ * A sink that keeps all batches received by any instance, for testing purposes
+ *
+ * @author oswaldo.bapvic.jr
+ */
+public class CollectingSink implements Sink<Object>
+{
+    public static final List<List<Object>> BATCHES = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void write(List<Object> items)
+    {
+        BATCHES.add(items);
+    }
+
+}
@@ -0,0 +1,48 @@
+package net.obvj.smart.agents.test.valid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import net.obvj.smart.agents.batch.BatchJob;
+import net.obvj.smart.conf.annotation.AgentTask;
+
+/**
+ * A valid agent whose task returns a batch job that doubles 250 numbers in chunks of 50,
+ * and fails once when a given chunk is written
+ *
+ * @author oswaldo.bapvic.jr
+ */
+public class TestBatchAgent
+{
+    public static final int ITEMS = 250;
+    public static final int CHUNK_SIZE = 50;
+
+    public static final List<List<Long>> WRITTEN_CHUNKS = new CopyOnWriteArrayList<>();
+    public static volatile long failingOffset = -1;
+
+    @AgentTask
+    public BatchJob<Long, Long> doubleNumbers()
+    {
+        return new BatchJob.Builder<Long, Long>(TestBatchAgent::read, item -> item * 2, TestBatchAgent::write)
+                .chunkSize(CHUNK_SIZE).build();
+    }
+
+    private static List<Long> read(long offset, int count)
+    {
+        return LongStream.range(offset, Math.min(offset + count, ITEMS)).boxed().collect(Collectors.toList());
+    }
+
+    private static void write(List<Long> items)
+    {
+        if (items.get(0) == failingOffset * 2)
+        {
+            failingOffset = -1;
+            throw new IllegalStateException("Unable to write chunk");
+        }
+        WRITTEN_CHUNKS.add(new ArrayList<>(items));
+    }
+
+}
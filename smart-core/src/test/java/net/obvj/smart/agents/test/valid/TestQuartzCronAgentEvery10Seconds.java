@@ -0,0 +1,16 @@
+package net.obvj.smart.agents.test.valid;
+
+import net.obvj.smart.conf.annotation.Agent;
+import net.obvj.smart.conf.annotation.AgentTask;
+import net.obvj.smart.conf.annotation.CronSyntax;
+import net.obvj.smart.conf.annotation.Type;
+
+@Agent(type = Type.CRON, frequency = "0/10 * * * * ?", cronSyntax = CronSyntax.QUARTZ)
+public class TestQuartzCronAgentEvery10Seconds
+{
+    @AgentTask
+    public void cronTaskMethod()
+    {
+        System.out.println("cronTaskMethod() called");
+    }
+}
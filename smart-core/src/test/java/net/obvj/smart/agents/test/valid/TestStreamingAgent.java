@@ -0,0 +1,24 @@
+package net.obvj.smart.agents.test.valid;
+
+import java.util.stream.IntStream;
+
+import net.obvj.smart.agents.stream.Publisher;
+import net.obvj.smart.agents.stream.Publishers;
+import net.obvj.smart.conf.annotation.AgentTask;
+
+/**
+ * A valid agent whose task streams 1000 numbers
+ *
+ * @author oswaldo.bapvic.jr
+ */
+public class TestStreamingAgent
+{
+    public static final int ITEMS = 1000;
+
+    @AgentTask
+    public Publisher<Integer> streamNumbers()
+    {
+        return Publishers.fromStream(IntStream.range(0, ITEMS).boxed());
+    }
+
+}
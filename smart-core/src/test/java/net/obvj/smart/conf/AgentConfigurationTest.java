@@ -1,5 +1,6 @@
 package net.obvj.smart.conf;
 
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -10,6 +11,7 @@ import net.obvj.smart.agents.test.invalid.TestAgentWithAllCustomParams;
 import net.obvj.smart.agents.test.invalid.TestAgentWithCustomNameAndType;
 import net.obvj.smart.agents.test.invalid.TestAgentWithNoType;
 import net.obvj.smart.agents.test.valid.TestAgentWithNoNameAndTypeTimerAndAgentTask;
+import net.obvj.smart.agents.test.valid.TestQuartzCronAgentEvery10Seconds;
 import net.obvj.smart.conf.annotation.Type;
 
 /**
@@ -49,6 +51,18 @@ public class AgentConfigurationTest
         assertThat(configuration.getStopTimeoutInSeconds(), is(AgentConfiguration.DEFAULT_STOP_TIMEOUT_IN_SECONDS));
         assertThat(configuration.isAutomaticallyStarted(), is(AgentConfiguration.DEFAULT_AUTOMATICALLY_STARTED));
         assertThat(configuration.isHidden(), is(AgentConfiguration.DEFAULT_HIDDEN));
+        assertThat(configuration.getOverlapPolicy(), is(AgentConfiguration.DEFAULT_OVERLAP_POLICY));
+        assertThat(configuration.isFixedDelay(), is(AgentConfiguration.DEFAULT_FIXED_DELAY));
+        assertThat(configuration.getStartOffset(), is(AgentConfiguration.DEFAULT_START_OFFSET));
+        assertThat(configuration.getMisfirePolicy(), is(AgentConfiguration.DEFAULT_MISFIRE_POLICY));
+        assertThat(configuration.getCronSyntax(), is(AgentConfiguration.DEFAULT_CRON_SYNTAX));
+        assertThat(configuration.getPriority(), is(AgentConfiguration.DEFAULT_PRIORITY));
+        assertThat(configuration.getGroup(), is(AgentConfiguration.DEFAULT_GROUP));
+        assertThat(configuration.getExecutionTimeout(), is(AgentConfiguration.DEFAULT_EXECUTION_TIMEOUT));
+        assertThat(configuration.getSinks(), is(AgentConfiguration.DEFAULT_SINKS));
+        assertThat(configuration.getSinkBatchSize(), is(AgentConfiguration.DEFAULT_SINK_BATCH_SIZE));
+        assertThat(configuration.getShards(), is(AgentConfiguration.DEFAULT_SHARDS));
+        assertThat(configuration.getTimeBudget(), is(AgentConfiguration.DEFAULT_TIME_BUDGET));
     }
 
     @Test()
@@ -64,6 +78,18 @@ public class AgentConfigurationTest
         assertThat(configuration.getStopTimeoutInSeconds(), is(AgentConfiguration.DEFAULT_STOP_TIMEOUT_IN_SECONDS));
         assertThat(configuration.isAutomaticallyStarted(), is(AgentConfiguration.DEFAULT_AUTOMATICALLY_STARTED));
         assertThat(configuration.isHidden(), is(AgentConfiguration.DEFAULT_HIDDEN));
+        assertThat(configuration.getOverlapPolicy(), is(AgentConfiguration.DEFAULT_OVERLAP_POLICY));
+        assertThat(configuration.isFixedDelay(), is(AgentConfiguration.DEFAULT_FIXED_DELAY));
+        assertThat(configuration.getStartOffset(), is(AgentConfiguration.DEFAULT_START_OFFSET));
+        assertThat(configuration.getMisfirePolicy(), is(AgentConfiguration.DEFAULT_MISFIRE_POLICY));
+        assertThat(configuration.getCronSyntax(), is(AgentConfiguration.DEFAULT_CRON_SYNTAX));
+        assertThat(configuration.getPriority(), is(AgentConfiguration.DEFAULT_PRIORITY));
+        assertThat(configuration.getGroup(), is(AgentConfiguration.DEFAULT_GROUP));
+        assertThat(configuration.getExecutionTimeout(), is(AgentConfiguration.DEFAULT_EXECUTION_TIMEOUT));
+        assertThat(configuration.getSinks(), is(AgentConfiguration.DEFAULT_SINKS));
+        assertThat(configuration.getSinkBatchSize(), is(AgentConfiguration.DEFAULT_SINK_BATCH_SIZE));
+        assertThat(configuration.getShards(), is(AgentConfiguration.DEFAULT_SHARDS));
+        assertThat(configuration.getTimeBudget(), is(AgentConfiguration.DEFAULT_TIME_BUDGET));
     }
 
     @Test()
@@ -79,6 +105,65 @@ public class AgentConfigurationTest
         assertThat(configuration.getStopTimeoutInSeconds(), is(STOP_TIMEOUT_SECONDS));
         assertThat(configuration.isAutomaticallyStarted(), is(false));
         assertThat(configuration.isHidden(), is(true));
+        assertThat(configuration.getOverlapPolicy(), is("COALESCE"));
+        assertThat(configuration.isFixedDelay(), is(true));
+        assertThat(configuration.getStartOffset(), is("AUTO"));
+        assertThat(configuration.getMisfirePolicy(), is("FIRE_ALL"));
+        assertThat(configuration.getPriority(), is(9));
+        assertThat(configuration.getGroup(), is("reports"));
+        assertThat(configuration.getExecutionTimeout(), is("2 minutes"));
+        assertThat(configuration.getSinks(), is("a.Sink1,b.Sink2"));
+        assertThat(configuration.getSinkBatchSize(), is(50));
+        assertThat(configuration.getShards(), is(4));
+        assertThat(configuration.getTimeBudget(), is("500 milliseconds"));
+    }
+
+    @Test
+    public void build_withPriorityOutOfRange()
+    {
+        AgentConfiguration.Builder builder = new AgentConfiguration.Builder(TIMER).name(NAME1).agentClass("Agent1");
+        assertThat(builder.priority(10).build().getPriority(), is(10));
+        assertThat(() -> builder.priority(0).build(), throwsException(AgentConfigurationException.class)
+                .withMessageContaining("priority must be between 1 and 10: 0"));
+        assertThat(() -> builder.priority(11).build(), throwsException(AgentConfigurationException.class));
+    }
+
+    @Test
+    public void build_withInvalidSinkBatchSize()
+    {
+        AgentConfiguration.Builder builder = new AgentConfiguration.Builder(TIMER).name(NAME1).agentClass("Agent1");
+        assertThat(builder.sinkBatchSize(1).build().getSinkBatchSize(), is(1));
+        assertThat(() -> builder.sinkBatchSize(0).build(), throwsException(AgentConfigurationException.class)
+                .withMessageContaining("sinkBatchSize must be greater than zero: 0"));
+    }
+
+    @Test
+    public void build_withInvalidShards()
+    {
+        AgentConfiguration.Builder builder = new AgentConfiguration.Builder(TIMER).name(NAME1).agentClass("Agent1");
+        assertThat(builder.shards(8).build().getShards(), is(8));
+        assertThat(() -> builder.shards(0).build(), throwsException(AgentConfigurationException.class)
+                .withMessageContaining("shards must be greater than zero: 0"));
+    }
+
+    @Test
+    public void build_withInvalidGroup()
+    {
+        AgentConfiguration.Builder builder = new AgentConfiguration.Builder(TIMER).name(NAME1).agentClass("Agent1");
+        assertThat(builder.group("reports-2").build().getGroup(), is("reports-2"));
+        assertThat(builder.group("").build().getGroup(), is(AgentConfiguration.DEFAULT_GROUP));
+        assertThat(() -> builder.group("my group").build(), throwsException(AgentConfigurationException.class)
+                .withMessageContaining("invalid group: \"my group\""));
+    }
+
+    @Test()
+    public void fromAnnotatedClass_withCronSyntax()
+    {
+        AgentConfiguration configuration = AgentConfiguration.fromAnnotatedClass(TestQuartzCronAgentEvery10Seconds.class);
+
+        assertThat(configuration.getType(), is("cron"));
+        assertThat(configuration.getFrequency(), is("0/10 * * * * ?"));
+        assertThat(configuration.getCronSyntax(), is("QUARTZ"));
     }
 
 }
@@ -26,6 +26,7 @@ public class AgentsXmlTest
     private static final String XML_TIMER_AGENT_30_SECONDS = "testAgents/timerAgent30seconds.xml";
     private static final String XML_TIMER_AGENT_30_SECONDS_HIDDEN = "testAgents/timerAgent30secondsHidden.xml";
     private static final String XML_TIMER_AGENT_WITH_DEFAULT_VALUES = "testAgents/timerAgentWithDefaultValues.xml";
+    private static final String XML_CRON_AGENT_QUARTZ_EVERY_10_SECONDS = "testAgents/cronAgentQuartzEvery10Seconds.xml";
 
     // Test data
     private static final String DUMMY_AGENT = "DummyAgent";
@@ -60,6 +61,17 @@ public class AgentsXmlTest
         assertEquals(false, agent.isAutomaticallyStarted());
         assertEquals(5, agent.getStopTimeoutInSeconds());
         assertEquals(true, agent.isHidden());
+        assertEquals("PARALLEL(2)", agent.getOverlapPolicy());
+        assertEquals(true, agent.isFixedDelay());
+        assertEquals("10 seconds", agent.getStartOffset());
+        assertEquals("SKIP_TO_NEXT", agent.getMisfirePolicy());
+        assertEquals(8, agent.getPriority());
+        assertEquals("reports", agent.getGroup());
+        assertEquals("10 seconds", agent.getExecutionTimeout());
+        assertEquals("net.obvj.smart.agents.test.valid.CollectingSink", agent.getSinks());
+        assertEquals(500, agent.getSinkBatchSize());
+        assertEquals(3, agent.getShards());
+        assertEquals("2 seconds", agent.getTimeBudget());
     }
 
     @Test
@@ -75,6 +87,30 @@ public class AgentsXmlTest
         assertEquals(true, agent.isAutomaticallyStarted());
         assertEquals(DEFAULT_STOP_TIMEOUT_SECONDS, agent.getStopTimeoutInSeconds());
         assertEquals(false, agent.isHidden());
+        assertEquals("SKIP", agent.getOverlapPolicy());
+        assertEquals(false, agent.isFixedDelay());
+        assertEquals("NONE", agent.getStartOffset());
+        assertEquals("FIRE_ONCE_NOW", agent.getMisfirePolicy());
+        assertEquals("UNIX", agent.getCronSyntax());
+        assertEquals(5, agent.getPriority());
+        assertEquals(AgentConfiguration.DEFAULT_GROUP, agent.getGroup());
+        assertEquals(AgentConfiguration.DEFAULT_EXECUTION_TIMEOUT, agent.getExecutionTimeout());
+        assertEquals(AgentConfiguration.DEFAULT_SINKS, agent.getSinks());
+        assertEquals(AgentConfiguration.DEFAULT_SINK_BATCH_SIZE, agent.getSinkBatchSize());
+        assertEquals(AgentConfiguration.DEFAULT_SHARDS, agent.getShards());
+        assertEquals(AgentConfiguration.DEFAULT_TIME_BUDGET, agent.getTimeBudget());
+    }
+
+    @Test
+    public void testLoadCronAgentWithQuartzSyntax()
+    {
+        SmartConfiguration xml = AgentsXml.loadAgentsXmlFile(XML_CRON_AGENT_QUARTZ_EVERY_10_SECONDS);
+        assertEquals(1, xml.getAgents().size());
+        AgentConfiguration agent = xml.getAgents().get(0);
+        assertEquals(DUMMY_AGENT, agent.getName());
+        assertEquals("cron", agent.getType());
+        assertEquals("0/10 * * * * ?", agent.getFrequency());
+        assertEquals("quartz", agent.getCronSyntax());
     }
 
     @Test
@@ -117,6 +153,14 @@ public class AgentsXmlTest
                         .withCause(UnmarshalException.class));
     }
 
+    @Test
+    public void testLoadTimerAgentWithInvalidOverlapPolicy()
+    {
+        assertThat(() -> AgentsXml.loadAgentsXmlFile("testAgents/timerAgentWithInvalidOverlapPolicy.xml"),
+                throwsException(AgentConfigurationException.class).withMessageContaining("Invalid agents file")
+                        .withCause(UnmarshalException.class));
+    }
+
     @Test
     public void testAgentsFileNotFound()
     {
@@ -7,6 +7,8 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -29,8 +31,11 @@ import net.obvj.smart.agents.Agent;
 import net.obvj.smart.agents.Agent.State;
 import net.obvj.smart.agents.AgentFactory;
 import net.obvj.smart.agents.dto.AgentDTO;
+import net.obvj.smart.agents.dto.SchedulingLagDTO;
+import net.obvj.smart.agents.dto.WorkerGroupDTO;
 import net.obvj.smart.conf.AgentConfiguration;
 import net.obvj.smart.conf.AgentLoader;
+import net.obvj.smart.scheduler.AgentScheduler;
 
 /**
  * Unit tests for the {@link AgentManager} class.
@@ -173,6 +178,55 @@ public class AgentManagerTest
         assertTrue(dtos.containsAll(ALL_AGENT_DTOS));
     }
 
+    @Test
+    public void testGetSchedulingLagDTOsAndWorstSchedulingLag()
+    {
+        prepareAgentManager(dummyAgent, hiddenAgent);
+        assertEquals(0.0, manager.getWorstSchedulingLag(), 0.0);
+
+        dummyAgent.recordSchedulingLag(2_500_000L);
+        hiddenAgent.recordSchedulingLag(7_000_000L);
+        hiddenAgent.recordSchedulingLag(1_000_000L);
+
+        Collection<SchedulingLagDTO> dtos = manager.getSchedulingLagDTOs();
+        assertEquals(2, dtos.size());
+        assertTrue(dtos.contains(new SchedulingLagDTO(DUMMY_AGENT, 1, 2.5, 2.5, 2.5, 2.5, 2.5, 2.5)));
+        assertTrue(dtos.contains(new SchedulingLagDTO(HIDDEN_AGENT, 2, 1.0, 4.0, 7.0, 1.0, 7.0, 7.0)));
+        assertEquals(7.0, manager.getWorstSchedulingLag(), 0.0);
+    }
+
+    @Test
+    public void testGetWorkerGroupDTOs()
+    {
+        Agent reportsAgent = AgentFactory.create(new AgentConfiguration.Builder(TIMER).name(AGENT1)
+                .agentClass(DUMMY_AGENT_CLASS).frequency("1 hour").group("reports").build());
+        prepareAgentManager(dummyAgent, reportsAgent);
+
+        Collection<WorkerGroupDTO> groups = manager.getWorkerGroupDTOs();
+        List<String> names = groups.stream().map(WorkerGroupDTO::getName).collect(Collectors.toList());
+        assertTrue(names.containsAll(Arrays.asList(AgentConfiguration.DEFAULT_GROUP, "reports")));
+        WorkerGroupDTO reports = groups.stream().filter(group -> "reports".equals(group.getName())).findFirst()
+                .get();
+        assertEquals(2, reports.getMaxConcurrency());
+        assertEquals(0, reports.getActiveExecutions());
+    }
+
+    @Test
+    public void testGetAgentDTOsWithGroup()
+    {
+        prepareAgentManager(dummyAgent);
+        assertEquals(AgentConfiguration.DEFAULT_GROUP, manager.getAgentDTOs().iterator().next().getGroup());
+    }
+
+    @Test
+    public void testGetPriorityLevelDTOs()
+    {
+        prepareAgentManager(dummyAgent);
+        AgentScheduler.getDefault().execute(dummyAgent);
+        Awaitility.await().until(() -> manager.getPriorityLevelDTOs().stream()
+                .anyMatch(level -> level.getPriority() == 5 && level.getAdmissions() > 0));
+    }
+
     @Test
     public void testGetAgentStatusStr()
     {
@@ -194,6 +248,25 @@ public class AgentManagerTest
         assertEquals("statusStr1", agentStatusStr);
     }
 
+    @Test
+    public void testGetNextExecutionDates()
+    {
+        ZonedDateTime date = ZonedDateTime.of(2020, 4, 28, 2, 0, 0, 0, ZoneId.systemDefault());
+        Agent agent = mock(Agent.class);
+        when(agent.getName()).thenReturn(AGENT1);
+        when(agent.getNextExecutionDates(2)).thenReturn(Arrays.asList(date, date.plusDays(1)));
+        prepareAgentManager(agent);
+        assertArrayEquals(new String[] { "2020-04-28 02:00:00", "2020-04-29 02:00:00" },
+                manager.getNextExecutionDates(AGENT1, 2));
+    }
+
+    @Test
+    public void testGetNextExecutionDatesForTimerAgent()
+    {
+        prepareAgentManager(dummyAgent);
+        assertEquals(0, manager.getNextExecutionDates(DUMMY_AGENT, 5).length);
+    }
+
     @Test
     public void testStopTimerAgentWithPreviousStateStarted() throws TimeoutException
     {
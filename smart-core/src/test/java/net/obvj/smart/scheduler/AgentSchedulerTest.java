@@ -0,0 +1,488 @@
+package net.obvj.smart.scheduler;
+
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import net.obvj.smart.agents.Agent;
+import net.obvj.smart.conf.properties.SmartProperties;
+import net.obvj.smart.util.VirtualThreads;
+
+/**
+ * Unit tests for the {@link AgentScheduler} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class AgentSchedulerTest
+{
+    private static final String AGENT_NAME = "DummyAgent";
+
+    private AgentScheduler scheduler = new AgentScheduler(1, 1, 1);
+
+    @After
+    public void tearDown()
+    {
+        scheduler.shutdown();
+    }
+
+    private static Agent newAgentMock(Runnable task)
+    {
+        Agent agent = mock(Agent.class);
+        when(agent.getName()).thenReturn(AGENT_NAME);
+        doAnswer(invocation ->
+        {
+            task.run();
+            return null;
+        }).when(agent).run();
+        doAnswer(invocation ->
+        {
+            task.run();
+            return null;
+        }).when(agent).runScheduled(anyLong());
+        return agent;
+    }
+
+    @Test
+    public void testExecuteRunsAgentInWorkerThreadNamedAfterTheAgent()
+    {
+        AtomicReference<String> threadName = new AtomicReference<>();
+        Agent agent = newAgentMock(() -> threadName.set(Thread.currentThread().getName()));
+
+        scheduler.execute(agent);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> threadName.get() != null);
+        assertThat(threadName.get(), is(equalTo("Agent-" + AGENT_NAME + "-thread1")));
+    }
+
+    @Test
+    public void testSchedule()
+    {
+        AtomicInteger executions = new AtomicInteger();
+        Agent agent = newAgentMock(executions::incrementAndGet);
+
+        scheduler.schedule(agent, 50, TimeUnit.MILLISECONDS);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> executions.get() == 1);
+    }
+
+    @Test
+    public void testExecuteRecordsSchedulingLagFromThePlannedFireTime()
+    {
+        AtomicInteger executions = new AtomicInteger();
+        Agent agent = newAgentMock(executions::incrementAndGet);
+        long plannedFireTime = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(300);
+
+        scheduler.execute(agent, plannedFireTime);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> executions.get() == 1);
+        ArgumentCaptor<Long> lag = ArgumentCaptor.forClass(Long.class);
+        verify(agent).recordSchedulingLag(lag.capture());
+        assertThat(lag.getValue(), is(greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(300))));
+    }
+
+    @Test
+    public void testExecuteWithoutPlannedFireTimeRecordsNoLag()
+    {
+        AtomicInteger executions = new AtomicInteger();
+        Agent agent = newAgentMock(executions::incrementAndGet);
+
+        scheduler.execute(agent);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> executions.get() == 1);
+        verify(agent, never()).recordSchedulingLag(anyLong());
+    }
+
+    @Test
+    public void testExecutionsBeyondThePermitsAreAdmittedByPriority() throws InterruptedException
+    {
+        AgentScheduler governedScheduler = new AgentScheduler(new ExecutorSchedulingEngine(1), 2, 1, 10, false);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> executions = new CopyOnWriteArrayList<>();
+        try
+        {
+            Agent blocking = newAgentMock(() ->
+            {
+                executions.add("blocking");
+                try
+                {
+                    release.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            Agent low = newAgentMock(() -> executions.add("low"));
+            when(low.getPriority()).thenReturn(1);
+            Agent high = newAgentMock(() -> executions.add("high"));
+            when(high.getPriority()).thenReturn(10);
+
+            governedScheduler.execute(blocking);
+            await().atMost(2, TimeUnit.SECONDS).until(() -> executions.size() == 1);
+            governedScheduler.execute(low);
+            governedScheduler.execute(high);
+
+            // A single permit, although two worker threads are available
+            assertThat(governedScheduler.getGovernor().getPermits(), is(1));
+            assertThat(governedScheduler.getQueuedExecutions(), is(2));
+            assertThat(governedScheduler.getGovernor().getQueueDepth(10), is(1));
+
+            release.countDown();
+            await().atMost(2, TimeUnit.SECONDS).until(() -> executions.size() == 3);
+            assertThat(executions, contains("blocking", "high", "low"));
+        }
+        finally
+        {
+            release.countDown();
+            governedScheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testPermitsLimitedToWorkerThreads()
+    {
+        AgentScheduler governedScheduler = new AgentScheduler(new ExecutorSchedulingEngine(1), 2, 0, 10, false);
+        AgentScheduler limitedScheduler = new AgentScheduler(new ExecutorSchedulingEngine(1), 2, 5, 10, false);
+        try
+        {
+            assertThat(governedScheduler.getGovernor().getPermits(), is(2));
+            assertThat(limitedScheduler.getGovernor().getPermits(), is(2));
+        }
+        finally
+        {
+            governedScheduler.shutdown();
+            limitedScheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testSaturatedGroupDoesNotBlockOtherGroups()
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> executions = new CopyOnWriteArrayList<>();
+        AtomicReference<String> threadName = new AtomicReference<>();
+        try
+        {
+            Agent slow = newAgentMock(() ->
+            {
+                executions.add("slow");
+                try
+                {
+                    release.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            when(slow.getGroup()).thenReturn("reports");
+            Agent ingestion = newAgentMock(() ->
+            {
+                threadName.set(Thread.currentThread().getName());
+                executions.add("ingestion");
+            });
+            when(ingestion.getGroup()).thenReturn("ingestion");
+
+            // Saturates the "reports" group, which has 2 threads and room for 100 queued executions
+            for (int i = 0; i < 2 + AgentScheduler.DEFAULT_GROUP_QUEUE_CAPACITY; i++)
+            {
+                assertThat(scheduler.execute(slow), is(true));
+            }
+            assertThat(scheduler.execute(slow), is(false));
+
+            WorkerGroup reports = scheduler.getWorkerGroup("reports");
+            await().atMost(2, TimeUnit.SECONDS).until(() -> reports.getActiveExecutions() == 2);
+            assertThat(reports.getMaxConcurrency(), is(AgentScheduler.DEFAULT_GROUP_MAX_CONCURRENCY));
+            assertThat(reports.getQueuedExecutions(), is(AgentScheduler.DEFAULT_GROUP_QUEUE_CAPACITY));
+            assertThat(reports.getRejectedExecutions(), is(1L));
+            assertThat(scheduler.getRejectedExecutions(), is(0L));
+
+            scheduler.execute(ingestion);
+            await().atMost(2, TimeUnit.SECONDS).until(() -> executions.contains("ingestion"));
+            assertThat(threadName.get(), is(equalTo("Agent-" + AGENT_NAME + "-ingestion-thread1")));
+        }
+        finally
+        {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testWorkerGroupsWithSettingsFromProperties()
+    {
+        SmartProperties properties = mock(SmartProperties.class);
+        when(properties.getProperty(SmartProperties.SCHEDULER_ENGINE)).thenReturn("executor");
+        when(properties.getProperty(SmartProperties.SCHEDULER_WORKER_MODE)).thenReturn("platform");
+        when(properties.getIntProperty(anyString())).thenReturn(1);
+        when(properties.getGroupIntProperty(anyString(), anyString())).thenReturn(1);
+        when(properties.getGroupIntProperty("reports", SmartProperties.SCHEDULER_GROUP_MAX_CONCURRENCY))
+                .thenReturn(4);
+        when(properties.getGroupIntProperty("reports", SmartProperties.SCHEDULER_GROUP_QUEUE_CAPACITY))
+                .thenReturn(7);
+        AgentScheduler propertiesScheduler = new AgentScheduler(properties);
+        try
+        {
+            WorkerGroup reports = propertiesScheduler.getWorkerGroup("reports");
+            assertThat(reports.getMaxConcurrency(), is(4));
+            assertThat(reports.getWorkerThreads(), is(4));
+            assertThat(reports.getQueueCapacity(), is(7));
+            assertThat(propertiesScheduler.getWorkerGroup("reports"), is(reports));
+            assertThat(propertiesScheduler.getWorkerGroup(null).getName(), is("default"));
+            assertThat(propertiesScheduler.getWorkerGroups().size(), is(2));
+        }
+        finally
+        {
+            propertiesScheduler.shutdown();
+        }
+        assertThat(propertiesScheduler.getWorkerGroup("reports").isShutdown(), is(true));
+        assertThat(propertiesScheduler.getWorkerGroup("late").isShutdown(), is(true));
+    }
+
+    @Test
+    public void testScheduleTrigger()
+    {
+        AtomicInteger triggers = new AtomicInteger();
+
+        scheduler.scheduleTrigger(triggers::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> triggers.get() == 1);
+    }
+
+    @Test
+    public void testExecuteAfterShutdown()
+    {
+        scheduler.shutdown();
+        assertThat(scheduler.execute(newAgentMock(() -> {})), is(false));
+        assertThat(scheduler.getRejectedExecutions(), is(0L));
+    }
+
+    @Test
+    public void testScheduleAtFixedRateAndCancel()
+    {
+        AtomicInteger executions = new AtomicInteger();
+        Agent agent = newAgentMock(executions::incrementAndGet);
+
+        ScheduledExecution execution = scheduler.scheduleAtFixedRate(agent, 0, 20, TimeUnit.MILLISECONDS);
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> executions.get() >= 3);
+        execution.cancel();
+        assertThat(execution.isCancelled(), is(true));
+    }
+
+    @Test
+    public void testExecutionsDiscardedWhenWorkerPoolIsSaturated() throws InterruptedException
+    {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Agent agent = newAgentMock(() ->
+        {
+            started.countDown();
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertThat(scheduler.execute(agent), is(true)); // occupies the single worker
+        started.await(2, TimeUnit.SECONDS);
+        assertThat(scheduler.execute(agent), is(true)); // waits in queue
+        assertThat(scheduler.execute(agent), is(false)); // discarded
+
+        assertThat(scheduler.getActiveWorkers(), is(1));
+        assertThat(scheduler.getQueuedExecutions(), is(1));
+        assertThat(scheduler.getRejectedExecutions(), is(1L));
+
+        release.countDown();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> scheduler.getQueuedExecutions() == 0);
+        verify(agent, timeout(2000).times(2)).run();
+    }
+
+    @Test
+    public void testSchedulerFromProperties()
+    {
+        AgentScheduler defaultScheduler = AgentScheduler.getDefault();
+        assertThat(defaultScheduler.getWorkerThreads(), is(greaterThanOrEqualTo(1)));
+        assertThat(defaultScheduler.isVirtualWorkers(), is(false));
+        assertThat(defaultScheduler, is(AgentScheduler.getDefault()));
+    }
+
+    @Test
+    public void testTimeBaseWithConsistentClocks()
+    {
+        TimeBase timeBase = scheduler.getTimeBase();
+        AtomicInteger shifts = new AtomicInteger();
+        TimeBase.Listener listener = (reason, jump) -> shifts.incrementAndGet();
+        timeBase.addListener(listener);
+        assertThat(timeBase.check(), is(nullValue()));
+        assertThat(shifts.get(), is(0));
+        timeBase.removeListener(listener);
+    }
+
+    @Test
+    public void testScheduleWithTimingWheelEngine()
+    {
+        AgentScheduler timingWheelScheduler = new AgentScheduler(new TimingWheelSchedulingEngine(10), 1, 1);
+        AtomicInteger executions = new AtomicInteger();
+        try
+        {
+            timingWheelScheduler.schedule(newAgentMock(executions::incrementAndGet), 50, TimeUnit.MILLISECONDS);
+            await().atMost(2, TimeUnit.SECONDS).until(() -> executions.get() == 1);
+        }
+        finally
+        {
+            timingWheelScheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testNewEngineFromProperties()
+    {
+        SmartProperties properties = mock(SmartProperties.class);
+        when(properties.getIntProperty(SmartProperties.SCHEDULER_DISPATCHER_THREADS)).thenReturn(1);
+        when(properties.getIntProperty(SmartProperties.SCHEDULER_TIMING_WHEEL_TICK_MILLIS)).thenReturn(10);
+
+        when(properties.getProperty(SmartProperties.SCHEDULER_ENGINE)).thenReturn("executor");
+        SchedulingEngine executorEngine = AgentScheduler.newEngine(properties);
+        executorEngine.shutdown();
+        assertThat(executorEngine, is(instanceOf(ExecutorSchedulingEngine.class)));
+
+        when(properties.getProperty(SmartProperties.SCHEDULER_ENGINE)).thenReturn("Timing-Wheel");
+        SchedulingEngine timingWheelEngine = AgentScheduler.newEngine(properties);
+        timingWheelEngine.shutdown();
+        assertThat(timingWheelEngine, is(instanceOf(TimingWheelSchedulingEngine.class)));
+
+        when(properties.getProperty(SmartProperties.SCHEDULER_ENGINE)).thenReturn("unknown");
+        assertThat(() -> AgentScheduler.newEngine(properties), throwsException(IllegalArgumentException.class)
+                .withMessageContaining("unknown"));
+    }
+
+    @Test
+    public void testUseVirtualWorkersFromProperties()
+    {
+        SmartProperties properties = mock(SmartProperties.class);
+
+        when(properties.getProperty(SmartProperties.SCHEDULER_WORKER_MODE)).thenReturn("platform");
+        assertThat(AgentScheduler.useVirtualWorkers(properties), is(false));
+
+        // Falls back to platform threads if not supported by the runtime
+        when(properties.getProperty(SmartProperties.SCHEDULER_WORKER_MODE)).thenReturn(" Virtual ");
+        assertThat(AgentScheduler.useVirtualWorkers(properties), is(VirtualThreads.isSupported()));
+
+        when(properties.getProperty(SmartProperties.SCHEDULER_WORKER_MODE)).thenReturn("green");
+        assertThat(() -> AgentScheduler.useVirtualWorkers(properties),
+                throwsException(IllegalArgumentException.class).withMessageContaining("green"));
+    }
+
+    @Test
+    public void testExecuteOnVirtualWorker()
+    {
+        assumeTrue(VirtualThreads.isSupported());
+        AgentScheduler virtualScheduler = new AgentScheduler(new ExecutorSchedulingEngine(1), 1, 1, true);
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        try
+        {
+            assertThat(virtualScheduler.isVirtualWorkers(), is(true));
+            virtualScheduler.execute(newAgentMock(() -> thread.set(Thread.currentThread())));
+            await().atMost(2, TimeUnit.SECONDS).until(() -> thread.get() != null);
+            assertThat(thread.get().isDaemon(), is(true));
+        }
+        finally
+        {
+            virtualScheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testVirtualWorkersAreNotPooled()
+    {
+        assumeTrue(VirtualThreads.isSupported());
+        AgentScheduler virtualScheduler = new AgentScheduler(new ExecutorSchedulingEngine(1), 1, 1, true);
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        try
+        {
+            Agent agent = newAgentMock(() -> threads.add(Thread.currentThread()));
+            virtualScheduler.execute(agent);
+            await().atMost(2, TimeUnit.SECONDS).until(() -> threads.size() == 1);
+            await().atMost(2, TimeUnit.SECONDS).until(() -> virtualScheduler.getActiveWorkers() == 0);
+            virtualScheduler.execute(agent);
+            await().atMost(2, TimeUnit.SECONDS).until(() -> threads.size() == 2);
+            assertThat(threads.get(0), is(not(sameInstance(threads.get(1)))));
+        }
+        finally
+        {
+            virtualScheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testForkJoinPoolIsSharedAndNamed()
+    {
+        ForkJoinPool pool = scheduler.getForkJoinPool();
+        assertThat(scheduler.getForkJoinPool(), is(sameInstance(pool)));
+        assertThat(pool.getParallelism(), is(Runtime.getRuntime().availableProcessors()));
+        assertThat(pool.submit(() -> Thread.currentThread().getName()).join(), startsWith("Agent-ForkJoin-thread"));
+    }
+
+    @Test
+    public void testForkJoinPoolParallelismFromProperties()
+    {
+        SmartProperties properties = mock(SmartProperties.class);
+        when(properties.getProperty(SmartProperties.SCHEDULER_ENGINE)).thenReturn("executor");
+        when(properties.getProperty(SmartProperties.SCHEDULER_WORKER_MODE)).thenReturn("platform");
+        when(properties.getIntProperty(anyString())).thenReturn(1);
+        when(properties.getIntProperty(SmartProperties.SCHEDULER_FORK_JOIN_PARALLELISM)).thenReturn(3);
+        AgentScheduler propertiesScheduler = new AgentScheduler(properties);
+        try
+        {
+            assertThat(propertiesScheduler.getForkJoinPool().getParallelism(), is(3));
+        }
+        finally
+        {
+            propertiesScheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void testShutdownStopsForkJoinPool()
+    {
+        ForkJoinPool pool = scheduler.getForkJoinPool();
+        scheduler.shutdown();
+        assertThat(pool.isShutdown(), is(true));
+    }
+
+    @Test
+    public void testShutdown()
+    {
+        scheduler.shutdown();
+        assertThat(scheduler.isShutdown(), is(true));
+    }
+
+}
@@ -0,0 +1,290 @@
+package net.obvj.smart.scheduler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.cronutils.model.Cron;
+import com.cronutils.model.CronType;
+import com.cronutils.model.definition.CronDefinitionBuilder;
+import com.cronutils.model.time.ExecutionTime;
+import com.cronutils.parser.CronParser;
+
+import net.obvj.smart.conf.annotation.CronSyntax;
+
+/**
+ * Unit tests for the {@link CompiledCron} class, including parity tests against the
+ * {@code cron-utils} library.
+ * <p>
+ * The number of random samples of the parity tests can be increased with the
+ * {@code cron.parity.samples} system property.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class CompiledCronTest
+{
+    private static final int SAMPLES = Integer.getInteger("cron.parity.samples", 20_000);
+
+    // Instants between 2000-01-01 and 2040-01-01
+    private static final long MIN_EPOCH_SECOND = 946_684_800L;
+    private static final long MAX_EPOCH_SECOND = 2_208_988_800L;
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    private static final ZoneId[] ZONES = { UTC, ZoneId.of("America/Sao_Paulo"), ZoneId.of("Europe/London"),
+            ZoneId.of("America/New_York"), ZoneId.of("Australia/Lord_Howe") };
+
+    private static final String[] MONTH_NAMES = { "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP",
+            "OCT", "NOV", "DEC" };
+    private static final String[] DAY_OF_WEEK_NAMES = { "SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT" };
+
+    private final Random random = new Random(20200427L);
+
+    private static CompiledCron compile(String expression)
+    {
+        return CompiledCron.compile(CronPlan.parse(expression)).get();
+    }
+
+    private static CompiledCron compile(String expression, CronSyntax syntax)
+    {
+        return CompiledCron.compile(CronPlan.parse(expression, syntax)).get();
+    }
+
+    private static ZonedDateTime utc(int year, int month, int day, int hour, int minute)
+    {
+        return utc(year, month, day, hour, minute, 0);
+    }
+
+    private static ZonedDateTime utc(int year, int month, int day, int hour, int minute, int second)
+    {
+        return ZonedDateTime.of(year, month, day, hour, minute, second, 0, UTC);
+    }
+
+    @Test
+    public void testNextExecution()
+    {
+        assertThat(compile("*/5 * * * *").nextExecution(utc(2020, 4, 27, 23, 25)).get(), is(utc(2020, 4, 27, 23, 30)));
+        assertThat(compile("0 2 * * *").nextExecution(utc(2020, 4, 27, 23, 25)).get(), is(utc(2020, 4, 28, 2, 0)));
+        assertThat(compile("0 * * * SAT,SUN").nextExecution(utc(2020, 4, 27, 23, 25)).get(), is(utc(2020, 5, 2, 0, 0)));
+        assertThat(compile("0 0 1 JAN *").nextExecution(utc(2020, 4, 27, 23, 25)).get(), is(utc(2021, 1, 1, 0, 0)));
+    }
+
+    @Test
+    public void testNextExecutionOnLeapDay()
+    {
+        assertThat(compile("30 12 29 2 *").nextExecution(utc(2021, 3, 1, 0, 0)).get(), is(utc(2024, 2, 29, 12, 30)));
+    }
+
+    @Test
+    public void testNextExecutionWithDayOfMonthOrDayOfWeek()
+    {
+        // The 13th of any month, or any Friday
+        CompiledCron cron = compile("0 0 13 * FRI");
+        assertThat(cron.nextExecution(utc(2020, 4, 27, 0, 0)).get(), is(utc(2020, 5, 1, 0, 0)));
+        assertThat(cron.nextExecution(utc(2020, 5, 8, 0, 0)).get(), is(utc(2020, 5, 13, 0, 0)));
+    }
+
+    @Test
+    public void testNextExecutionNeverFires()
+    {
+        assertThat(compile("0 0 30 2 *").nextExecution(utc(2020, 4, 27, 23, 25)), is(Optional.empty()));
+    }
+
+    @Test
+    public void testNextExecutionAcrossDaylightSavingTime()
+    {
+        ZoneId newYork = ZoneId.of("America/New_York");
+        // Clocks moved forward from 02:00 to 03:00 on 2020-03-08
+        ZonedDateTime before = ZonedDateTime.of(2020, 3, 8, 1, 59, 0, 0, newYork);
+        Optional<ZonedDateTime> expected = ExecutionTime.forCron(CronPlan.parse("30 * * * *")).nextExecution(before);
+        assertThat(compile("30 * * * *").nextExecution(before), is(expected));
+    }
+
+    @Test
+    public void testNextExecutionSkipsNonexistentLocalTime()
+    {
+        ZoneId newYork = ZoneId.of("America/New_York");
+        ZonedDateTime before = ZonedDateTime.of(2020, 3, 8, 1, 10, 0, 0, newYork);
+        assertThat(compile("30 2 * * *").nextExecution(before).get(),
+                is(ZonedDateTime.of(2020, 3, 9, 2, 30, 0, 0, newYork)));
+    }
+
+    @Test
+    public void testNextExecutionOnRepeatedLocalTime()
+    {
+        ZoneId newYork = ZoneId.of("America/New_York");
+        // Clocks moved back from 02:00 to 01:00 on 2020-11-01
+        ZonedDateTime first = ZonedDateTime.of(2020, 11, 1, 1, 30, 0, 0, newYork);
+        ZonedDateTime second = first.withLaterOffsetAtOverlap();
+        CompiledCron cron = compile("30 1 * * *");
+        ZonedDateTime nextDay = ZonedDateTime.of(2020, 11, 2, 1, 30, 0, 0, newYork);
+        assertThat(cron.nextExecution(first.minusHours(1)).get(), is(first));
+        // Fires once, on the first occurrence
+        assertThat(cron.nextExecution(first).get(), is(nextDay));
+        // Unless the reference date is past the first occurrence
+        assertThat(cron.nextExecution(second.minusMinutes(5)).get(), is(second));
+        assertThat(cron.nextExecution(second).get(), is(nextDay));
+    }
+
+    @Test
+    public void testNextExecutionWithSeconds()
+    {
+        // Every 10 seconds, from 9 to 17, Monday to Friday
+        CompiledCron quartz = compile("0/10 * 9-17 ? * MON-FRI", CronSyntax.QUARTZ);
+        assertThat(quartz.nextExecution(utc(2020, 4, 27, 9, 0, 0)).get(), is(utc(2020, 4, 27, 9, 0, 10)));
+        assertThat(quartz.nextExecution(utc(2020, 4, 27, 9, 0, 55)).get(), is(utc(2020, 4, 27, 9, 1, 0)));
+        assertThat(quartz.nextExecution(utc(2020, 4, 27, 17, 59, 50)).get(), is(utc(2020, 4, 28, 9, 0, 0)));
+        assertThat(quartz.nextExecution(utc(2020, 5, 1, 18, 0, 0)).get(), is(utc(2020, 5, 4, 9, 0, 0)));
+
+        CompiledCron spring = compile("*/15 * * * * SUN", CronSyntax.SPRING);
+        assertThat(spring.nextExecution(utc(2020, 4, 27, 9, 0, 7)).get(), is(utc(2020, 5, 3, 0, 0, 0)));
+        assertThat(spring.nextExecution(utc(2020, 5, 3, 9, 0, 7)).get(), is(utc(2020, 5, 3, 9, 0, 15)));
+    }
+
+    @Test
+    public void testNextExecutionIgnoresFractionsOfSecond()
+    {
+        CompiledCron cron = compile("* * * * * ?", CronSyntax.QUARTZ);
+        ZonedDateTime date = utc(2020, 4, 27, 23, 59, 59).plusNanos(999_999_999);
+        assertThat(cron.nextExecution(date).get(), is(utc(2020, 4, 28, 0, 0, 0)));
+    }
+
+    @Test
+    public void testNextExecutionWithYears()
+    {
+        CompiledCron cron = compile("30 0 12 1 JAN ? 2022,2030-2031", CronSyntax.QUARTZ);
+        assertThat(cron.nextExecution(utc(2020, 4, 27, 23, 25)).get(), is(utc(2022, 1, 1, 12, 0, 30)));
+        assertThat(cron.nextExecution(utc(2022, 1, 1, 12, 0, 30)).get(), is(utc(2030, 1, 1, 12, 0, 30)));
+        assertThat(cron.nextExecution(utc(2031, 1, 1, 12, 0, 30)), is(Optional.empty()));
+    }
+
+    @Test
+    public void testCompileUnsupportedExpression()
+    {
+        CronParser quartz = new CronParser(CronDefinitionBuilder.instanceDefinitionFor(CronType.QUARTZ));
+        assertThat(CompiledCron.compile(quartz.parse("0 0 0 L * ?")).isPresent(), is(false));
+    }
+
+    @Test
+    public void testParityWithCronUtils()
+    {
+        assertParityWithCronUtils(CronSyntax.UNIX);
+    }
+
+    @Test
+    public void testParityWithCronUtilsForQuartz()
+    {
+        assertParityWithCronUtils(CronSyntax.QUARTZ);
+    }
+
+    @Test
+    public void testParityWithCronUtilsForSpring()
+    {
+        assertParityWithCronUtils(CronSyntax.SPRING);
+    }
+
+    private void assertParityWithCronUtils(CronSyntax syntax)
+    {
+        int divergences = 0;
+        for (int i = 0; i < SAMPLES; i++)
+        {
+            String expression = randomExpression(syntax);
+            Cron cron = CronPlan.parse(expression, syntax);
+            Optional<CompiledCron> compiled = CompiledCron.compile(cron);
+            assertThat(expression, compiled.isPresent(), is(true));
+
+            ZoneId zone = ZONES[random.nextInt(ZONES.length)];
+            long epochSecond = MIN_EPOCH_SECOND + (long) (random.nextDouble() * (MAX_EPOCH_SECOND - MIN_EPOCH_SECOND));
+            ZonedDateTime date = Instant.ofEpochSecond(epochSecond).atZone(zone);
+
+            Optional<ZonedDateTime> expected = ExecutionTime.forCron(cron).nextExecution(date);
+            Optional<ZonedDateTime> actual = compiled.get().nextExecution(date);
+            if (!actual.equals(expected) && isTransitionBetween(date, expected, actual))
+            {
+                /*
+                 * cron-utils is not consistent around daylight saving time transitions: for
+                 * instance, it may skip the first occurrence of a repeated local time, or
+                 * the midnight of days after the clock is set forward
+                 */
+                divergences++;
+                continue;
+            }
+            assertThat(expression + " after " + date, actual, is(expected));
+        }
+        assertThat(divergences < SAMPLES / 100, is(true));
+    }
+
+    /**
+     * @return {@code true} if the offset of the zone changes between the day before the
+     *         given date and the latest of the given fire times
+     */
+    private static boolean isTransitionBetween(ZonedDateTime date, Optional<ZonedDateTime> fireTime1,
+            Optional<ZonedDateTime> fireTime2)
+    {
+        ZonedDateTime latest = Collections.max(Arrays.asList(fireTime1.orElse(date), fireTime2.orElse(date)));
+        ZoneOffsetTransition transition = date.getZone().getRules().nextTransition(date.minusDays(1).toInstant());
+        return transition != null && !transition.getInstant().isAfter(latest.toInstant());
+    }
+
+    private String randomExpression(CronSyntax syntax)
+    {
+        String minuteToMonth = randomField(0, 59, null) + " " + randomField(0, 23, null) + " ";
+        String month = " " + randomField(1, 12, MONTH_NAMES) + " ";
+        switch (syntax)
+        {
+        case QUARTZ:
+            // Either the day of month or the day of week must be "?"
+            boolean anyDayOfMonth = random.nextBoolean();
+            String expression = randomField(0, 59, null) + " " + minuteToMonth
+                    + (anyDayOfMonth ? "?" : randomField(1, 31, null)) + month
+                    + (anyDayOfMonth ? randomField(1, 7, DAY_OF_WEEK_NAMES) : "?");
+            return random.nextBoolean() ? expression : expression + " " + randomField(2000, 2050, null);
+        case SPRING:
+            return randomField(0, 59, null) + " " + minuteToMonth + randomField(1, 31, null) + month
+                    + randomField(0, 6, DAY_OF_WEEK_NAMES);
+        default:
+            return minuteToMonth + randomField(1, 31, null) + month + randomField(0, 6, DAY_OF_WEEK_NAMES);
+        }
+    }
+
+    private String randomField(int min, int max, String[] names)
+    {
+        switch (random.nextInt(8))
+        {
+        case 0:
+        case 1:
+            return "*";
+        case 2:
+            return value(min, max, names);
+        case 3:
+            return value(min, max, names) + "," + value(min, max, names);
+        case 4:
+            int from = min + random.nextInt(max - min + 1);
+            return from + "-" + (from + random.nextInt(max - from + 1));
+        case 5:
+            return "*/" + (1 + random.nextInt(Math.min(max, 60)));
+        case 6:
+            int start = min + random.nextInt(max - min + 1);
+            return start + "-" + (start + random.nextInt(max - start + 1)) + "/" + (1 + random.nextInt(4));
+        default:
+            return (min + random.nextInt(max - min + 1)) + "/" + (1 + random.nextInt(Math.min(max, 60)));
+        }
+    }
+
+    private String value(int min, int max, String[] names)
+    {
+        int value = min + random.nextInt(max - min + 1);
+        return names != null && random.nextBoolean() ? names[value - min] : String.valueOf(value);
+    }
+
+}
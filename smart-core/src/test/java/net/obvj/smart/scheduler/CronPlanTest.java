@@ -0,0 +1,161 @@
+package net.obvj.smart.scheduler;
+
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.cronutils.model.time.ExecutionTime;
+
+import net.obvj.smart.conf.annotation.CronSyntax;
+
+/**
+ * Unit tests for the {@link CronPlan} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class CronPlanTest
+{
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    private static final ZoneId SAO_PAULO = ZoneId.of("America/Sao_Paulo");
+
+    private static final String EVERY_5_MINUTES = "*/5 * * * *";
+    private static final String HOURLY_ON_WEEKEND = "0 * * * SAT,SUN";
+
+    private static final ZonedDateTime DATE_20_04_27T23_25_13 = ZonedDateTime.of(2020, 4, 27, 23, 25, 13, 0, UTC);
+
+    @Test
+    public void testPlansAreInterned()
+    {
+        CronPlan plan = CronPlan.of(EVERY_5_MINUTES, UTC);
+        assertThat(CronPlan.of(" " + EVERY_5_MINUTES + " ", UTC), is(sameInstance(plan)));
+        assertThat(CronPlan.of(EVERY_5_MINUTES, SAO_PAULO), is(not(sameInstance(plan))));
+        assertThat(plan.getExpression(), is(equalTo(EVERY_5_MINUTES)));
+        assertThat(plan.getZone(), is(UTC));
+        assertThat(plan.isCompiled(), is(true));
+    }
+
+    @Test
+    public void testPlansAreInternedBySyntax()
+    {
+        CronPlan unix = CronPlan.of(EVERY_5_MINUTES, UTC);
+        assertThat(CronPlan.of(EVERY_5_MINUTES, CronSyntax.UNIX, UTC), is(sameInstance(unix)));
+        assertThat(CronPlan.of("0 " + EVERY_5_MINUTES, CronSyntax.SPRING, UTC), is(not(sameInstance(unix))));
+    }
+
+    @Test
+    public void testNextExecutionWithSeconds()
+    {
+        CronPlan plan = CronPlan.of("*/15 * * * * ?", CronSyntax.QUARTZ, UTC);
+        assertThat(plan.isCompiled(), is(true));
+        assertThat(plan.nextExecutions(DATE_20_04_27T23_25_13, 3).toString(),
+                is("[2020-04-27T23:25:15Z[UTC], 2020-04-27T23:25:30Z[UTC], 2020-04-27T23:25:45Z[UTC]]"));
+    }
+
+    @Test
+    public void testInvalidExpression()
+    {
+        int size = CronPlan.size();
+        assertThat(() -> CronPlan.of("* * *", UTC), throwsException(IllegalArgumentException.class));
+        assertThat(CronPlan.size(), is(size));
+    }
+
+    @Test
+    public void testNextExecution()
+    {
+        CronPlan plan = CronPlan.of(EVERY_5_MINUTES, UTC);
+        assertThat(plan.nextExecution(DATE_20_04_27T23_25_13).get(),
+                is(ZonedDateTime.of(2020, 4, 27, 23, 30, 0, 0, UTC)));
+    }
+
+    @Test
+    public void testNextExecutionConvertsToThePlanZone()
+    {
+        CronPlan plan = CronPlan.of(HOURLY_ON_WEEKEND, SAO_PAULO);
+        // Saturday, 02:30 in UTC is still Friday in Sao Paulo
+        ZonedDateTime next = plan.nextExecution(ZonedDateTime.of(2020, 5, 2, 2, 30, 0, 0, UTC)).get();
+        assertThat(next, is(ZonedDateTime.of(2020, 5, 2, 0, 0, 0, 0, SAO_PAULO)));
+    }
+
+    @Test
+    public void testNextExecutionMatchesExecutionTime()
+    {
+        CronPlan plan = CronPlan.of(HOURLY_ON_WEEKEND, UTC);
+        ExecutionTime executionTime = ExecutionTime.forCron(plan.getCron());
+
+        // Queries moving forward, past the look-ahead table, and then back in time
+        ZonedDateTime date = DATE_20_04_27T23_25_13;
+        for (int i = 0; i < 500; i++)
+        {
+            date = date.plusMinutes(37);
+            assertThat(plan.nextExecution(date), is(executionTime.nextExecution(date)));
+        }
+        for (int i = 0; i < 100; i++)
+        {
+            date = date.minusMinutes(131);
+            assertThat(plan.nextExecution(date), is(executionTime.nextExecution(date)));
+        }
+    }
+
+    @Test
+    public void testNextExecutions()
+    {
+        CronPlan plan = CronPlan.of(EVERY_5_MINUTES, UTC);
+        int count = CronPlan.LOOK_AHEAD * 2 + 1;
+
+        List<ZonedDateTime> dates = plan.nextExecutions(DATE_20_04_27T23_25_13, count);
+
+        assertThat(dates.size(), is(count));
+        for (int i = 0; i < count; i++)
+        {
+            assertThat(dates.get(i), is(ZonedDateTime.of(2020, 4, 27, 23, 30, 0, 0, UTC).plusMinutes(5L * i)));
+        }
+    }
+
+    @Test
+    public void testGetDescription()
+    {
+        assertThat(CronPlan.of(EVERY_5_MINUTES, UTC).getDescription(), is(not(equalTo(""))));
+    }
+
+    @Test
+    public void testNextExecutionsDoNotMoveTheLookAheadTable()
+    {
+        CronPlan plan = CronPlan.of("*/7 * * * *", UTC);
+        ZonedDateTime now = ZonedDateTime.now(UTC);
+        plan.nextExecution(now);
+        assertThat(plan.getLookAheadStart().get(), is(now));
+
+        List<ZonedDateTime> dates = plan.nextExecutions(now, CronPlan.LOOK_AHEAD * 100);
+
+        assertThat(dates.size(), is(CronPlan.LOOK_AHEAD * 100));
+        assertThat(dates.get(0), is(plan.nextExecution(now).get()));
+        assertThat(plan.getLookAheadStart().get(), is(now));
+    }
+
+    @Test
+    public void testLookAheadTableMovedIntoTheFutureIsRolledBack()
+    {
+        CronPlan plan = CronPlan.of("*/9 * * * *", UTC);
+        ZonedDateTime now = ZonedDateTime.now(UTC);
+        plan.nextExecution(now.plusYears(1));
+        assertThat(plan.getLookAheadStart().get(), is(now.plusYears(1)));
+
+        plan.nextExecution(now);
+
+        assertThat(plan.getLookAheadStart().get(), is(now));
+        // An older reference does not roll back a table that is not in the future
+        plan.nextExecution(now.minusDays(1));
+        assertThat(plan.getLookAheadStart().get(), is(now));
+    }
+
+}
@@ -0,0 +1,217 @@
+package net.obvj.smart.scheduler;
+
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link ExecutionGovernor} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class ExecutionGovernorTest
+{
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final ExecutionGovernor governor = new ExecutionGovernor(executor, 1, 3);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> executions = new CopyOnWriteArrayList<>();
+
+    @After
+    public void tearDown()
+    {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    private Runnable blockingTask()
+    {
+        CountDownLatch started = new CountDownLatch(1);
+        Runnable task = () ->
+        {
+            started.countDown();
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+            }
+        };
+        governor.submit(task, 5);
+        await().atMost(2, TimeUnit.SECONDS).until(() -> started.getCount() == 0);
+        return task;
+    }
+
+    private Runnable recordingTask(String name)
+    {
+        return () -> executions.add(name);
+    }
+
+    @Test
+    public void testInvalidArguments()
+    {
+        assertThat(() -> new ExecutionGovernor(executor, 0, 1), throwsException(IllegalArgumentException.class)
+                .withMessageContaining("permits"));
+        assertThat(() -> new ExecutionGovernor(executor, 1, -1), throwsException(IllegalArgumentException.class)
+                .withMessageContaining("queue capacity"));
+    }
+
+    @Test
+    public void testAdmissionByPriorityAndFifoWithinPriority()
+    {
+        blockingTask();
+        assertThat(governor.getAvailablePermits(), is(0));
+
+        governor.submit(recordingTask("low"), 1);
+        governor.submit(recordingTask("normal1"), 5);
+        governor.submit(recordingTask("normal2"), 5);
+        assertThat(governor.getQueuedExecutions(), is(3));
+        assertThat(governor.getQueueDepth(5), is(2));
+        assertThat(governor.getQueueDepth(1), is(1));
+        assertThat(governor.getQueueDepth(9), is(0));
+
+        release.countDown();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> executions.size() == 3);
+
+        assertThat(executions, contains("normal1", "normal2", "low"));
+        assertThat(governor.getQueuedExecutions(), is(0));
+        assertThat(governor.getQueueDepth(5), is(0));
+        assertThat(governor.getPriorityLevels(), contains(5, 1));
+        await().atMost(2, TimeUnit.SECONDS).until(() -> governor.getAvailablePermits() == 1);
+    }
+
+    @Test
+    public void testHigherPriorityOvertakesQueuedExecutions()
+    {
+        blockingTask();
+        governor.submit(recordingTask("normal"), 5);
+        governor.submit(recordingTask("high"), 9);
+
+        release.countDown();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> executions.size() == 2);
+        assertThat(executions, contains("high", "normal"));
+    }
+
+    @Test
+    public void testRejectionWhenQueueIsFull()
+    {
+        blockingTask();
+        assertThat(governor.submit(recordingTask("1"), 5), is(true));
+        assertThat(governor.submit(recordingTask("2"), 5), is(true));
+        assertThat(governor.submit(recordingTask("3"), 5), is(true));
+        assertThat(governor.submit(recordingTask("4"), 9), is(false));
+        assertThat(governor.getQueuedExecutions(), is(3));
+    }
+
+    @Test
+    public void testWaitTimeIsTrackedPerPriority() throws InterruptedException
+    {
+        blockingTask();
+        governor.submit(recordingTask("low"), 1);
+        Thread.sleep(50);
+        release.countDown();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> executions.size() == 1);
+
+        assertThat(governor.getWaitTime(1).getCount(), is(1L));
+        assertThat(governor.getWaitTime(1).getMax(), is(greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50))));
+        // Admitted immediately
+        assertThat(governor.getWaitTime(5).getCount(), is(1L));
+        assertThat(governor.getWaitTime(7).getCount(), is(0L));
+    }
+
+    @Test
+    public void testShutdownDiscardsQueuedExecutions()
+    {
+        blockingTask();
+        governor.submit(recordingTask("queued"), 5);
+        governor.shutdown();
+
+        assertThat(governor.getQueuedExecutions(), is(0));
+        assertThat(governor.getQueueDepth(5), is(0));
+        assertThat(governor.submit(recordingTask("late"), 5), is(false));
+
+        release.countDown();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> governor.getAvailablePermits() == 1);
+        assertThat(executions.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testDetachedPermitIsHeldUntilReleased()
+    {
+        AtomicReference<ExecutionGovernor.Permit> detached = new AtomicReference<>();
+        governor.submit(() -> detached.set(ExecutionGovernor.detachPermit()), 5);
+        await().atMost(2, TimeUnit.SECONDS).until(() -> detached.get() != null);
+        governor.submit(recordingTask("queued"), 5);
+
+        assertThat(governor.getAvailablePermits(), is(0));
+        assertThat(governor.getQueuedExecutions(), is(1));
+        assertThat(executions.isEmpty(), is(true));
+
+        detached.get().release();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> governor.getAvailablePermits() == 1);
+        assertThat(executions, contains("queued"));
+
+        // Releasing it again has no effect
+        detached.get().release();
+        assertThat(governor.getAvailablePermits(), is(1));
+    }
+
+    @Test
+    public void testAbandonedPermitAdmitsNextExecutionAndCountsStuckWorker()
+    {
+        AtomicReference<ExecutionGovernor.Permit> current = new AtomicReference<>();
+        governor.submit(() ->
+        {
+            current.set(ExecutionGovernor.getCurrentPermit());
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }, 5);
+        await().atMost(2, TimeUnit.SECONDS).until(() -> current.get() != null);
+        governor.submit(recordingTask("queued"), 5);
+
+        current.get().abandon();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> executions.contains("queued"));
+        assertThat(governor.getStuckWorkers(), is(1));
+
+        release.countDown();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> governor.getStuckWorkers() == 0);
+        assertThat(governor.getAvailablePermits(), is(1));
+    }
+
+    @Test
+    public void testDetachPermitOutsideAdmittedExecution()
+    {
+        assertThat(ExecutionGovernor.detachPermit(), is(nullValue()));
+    }
+
+    @Test
+    public void testCurrentPermitOutsideAdmittedExecution()
+    {
+        assertThat(ExecutionGovernor.getCurrentPermit(), is(nullValue()));
+    }
+
+}
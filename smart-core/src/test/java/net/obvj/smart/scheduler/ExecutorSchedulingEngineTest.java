@@ -0,0 +1,61 @@
+package net.obvj.smart.scheduler;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link ExecutorSchedulingEngine} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class ExecutorSchedulingEngineTest
+{
+    private ExecutorSchedulingEngine engine = new ExecutorSchedulingEngine(1);
+    private AtomicInteger executions = new AtomicInteger();
+
+    @After
+    public void tearDown()
+    {
+        engine.shutdown();
+    }
+
+    @Test
+    public void testSchedule()
+    {
+        engine.schedule(executions::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+        await().atMost(2, TimeUnit.SECONDS).until(() -> executions.get() == 1);
+    }
+
+    @Test
+    public void testScheduleAtFixedRate()
+    {
+        engine.scheduleAtFixedRate(executions::incrementAndGet, 0, 10, TimeUnit.MILLISECONDS);
+        await().atMost(2, TimeUnit.SECONDS).until(() -> executions.get() >= 3);
+    }
+
+    @Test
+    public void testCancelAndGetDelay()
+    {
+        ScheduledExecution execution = engine.schedule(executions::incrementAndGet, 1, TimeUnit.HOURS);
+        assertThat(execution.getDelay(TimeUnit.MINUTES), is(greaterThan(58L)));
+        assertThat(execution.cancel(), is(true));
+        assertThat(execution.isCancelled(), is(true));
+    }
+
+    @Test
+    public void testShutdown()
+    {
+        engine.shutdown();
+        assertThat(engine.isShutdown(), is(true));
+    }
+
+}
@@ -0,0 +1,79 @@
+package net.obvj.smart.scheduler;
+
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import net.obvj.smart.agents.AgentThreadFactory;
+
+/**
+ * Unit tests for the {@link ThreadPerTaskExecutor} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class ThreadPerTaskExecutorTest
+{
+    private final ThreadPerTaskExecutor executor = new ThreadPerTaskExecutor(new AgentThreadFactory("Test"));
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
+
+    @After
+    public void tearDown()
+    {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    private void execute()
+    {
+        executor.execute(() ->
+        {
+            threads.add(Thread.currentThread());
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @Test
+    public void testEachTaskRunsOnANewThread()
+    {
+        execute();
+        execute();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> executor.getActiveCount() == 2);
+        assertThat(threads.get(0), is(not(sameInstance(threads.get(1)))));
+
+        release.countDown();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> executor.getActiveCount() == 0);
+    }
+
+    @Test
+    public void testTasksAreRejectedAfterShutdown()
+    {
+        assertThat(executor.isShutdown(), is(false));
+        executor.shutdown();
+        assertThat(executor.isShutdown(), is(true));
+        assertThat(this::execute, throwsException(RejectedExecutionException.class));
+        assertThat(threads.isEmpty(), is(true));
+    }
+
+}
@@ -0,0 +1,120 @@
+package net.obvj.smart.scheduler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import net.obvj.smart.scheduler.TimeBase.Reason;
+
+/**
+ * Unit tests for the {@link TimeBase} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class TimeBaseTest
+{
+    // 2020-03-08T06:59:00Z, one minute before daylight saving time begins in New York
+    private static final long BEFORE_DST_MILLIS = 1583650740000L;
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private long wallMillis = BEFORE_DST_MILLIS;
+    private long nanos = 1_000_000_000L;
+    private ZoneId zone = ZoneId.of("UTC");
+
+    private final List<String> shifts = new ArrayList<>();
+
+    private final TimeBase timeBase = new TimeBase(1000L, () -> wallMillis, () -> nanos, () -> zone);
+
+    private void advance(long elapsedMillis, long wallDriftMillis)
+    {
+        nanos += TimeUnit.MILLISECONDS.toNanos(elapsedMillis);
+        wallMillis += elapsedMillis + wallDriftMillis;
+    }
+
+    @Test
+    public void testCheckWithConsistentClocks()
+    {
+        timeBase.addListener((reason, jump) -> shifts.add(reason + ":" + jump));
+        advance(1000, 0);
+        assertThat(timeBase.check(), is(nullValue()));
+        advance(1000, 999); // within tolerance
+        assertThat(timeBase.check(), is(nullValue()));
+        assertThat(timeBase.getReanchors(), is(0L));
+        assertThat(shifts.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testCheckAfterClockJumps()
+    {
+        timeBase.addListener((reason, jump) -> shifts.add(reason + ":" + jump));
+        advance(1000, 3_600_000);
+        assertThat(timeBase.check(), is(Reason.CLOCK_JUMP));
+        advance(1000, -120_000);
+        assertThat(timeBase.check(), is(Reason.CLOCK_JUMP));
+        // Re-anchored, so the next check is consistent
+        advance(1000, 0);
+        assertThat(timeBase.check(), is(nullValue()));
+
+        assertThat(timeBase.getReanchors(), is(2L));
+        assertThat(shifts, contains("CLOCK_JUMP:3600000", "CLOCK_JUMP:-120000"));
+    }
+
+    @Test
+    public void testCheckAfterDaylightSavingTimeTransition()
+    {
+        zone = NEW_YORK;
+        TimeBase newYorkTimeBase = new TimeBase(1000L, () -> wallMillis, () -> nanos, () -> zone);
+        newYorkTimeBase.addListener((reason, jump) -> shifts.add(reason + ":" + jump));
+
+        advance(30_000, 0);
+        assertThat(newYorkTimeBase.check(), is(nullValue()));
+        advance(60_000, 0);
+        assertThat(newYorkTimeBase.check(), is(Reason.OFFSET_CHANGE));
+        assertThat(newYorkTimeBase.getReanchors(), is(1L));
+        assertThat(shifts, contains("OFFSET_CHANGE:0"));
+    }
+
+    @Test
+    public void testRemovedListenerIsNotNotified()
+    {
+        TimeBase.Listener listener = (reason, jump) -> shifts.add(reason.toString());
+        timeBase.addListener(listener);
+        assertThat(timeBase.getListenerCount(), is(1));
+        timeBase.removeListener(listener);
+        assertThat(timeBase.getListenerCount(), is(0));
+
+        advance(1000, 5000);
+        assertThat(timeBase.check(), is(Reason.CLOCK_JUMP));
+        assertThat(shifts.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testFailingListenerDoesNotPreventOthers()
+    {
+        timeBase.addListener((reason, jump) ->
+        {
+            throw new IllegalStateException("test");
+        });
+        timeBase.addListener((reason, jump) -> shifts.add(reason.toString()));
+        advance(1000, 5000);
+        timeBase.check();
+        assertThat(shifts, contains("CLOCK_JUMP"));
+    }
+
+    @Test
+    public void testDelayNanos()
+    {
+        assertThat(timeBase.delayNanos(wallMillis + 1500), is(1_500_000_000L));
+        assertThat(timeBase.delayNanos(wallMillis - 1), is(-1_000_000L));
+    }
+
+}
@@ -0,0 +1,226 @@
+package net.obvj.smart.scheduler;
+
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link TimingWheelSchedulingEngine} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class TimingWheelSchedulingEngineTest
+{
+    private static final long TICK = 10;
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private AtomicLong clock = new AtomicLong();
+    private List<Long> fireTimes = new ArrayList<>();
+
+    // Test subject, driven by a manual clock
+    private TimingWheelSchedulingEngine wheel = new TimingWheelSchedulingEngine(TICK, clock::get);
+
+    private Runnable recordFireTime = () -> fireTimes.add(clock.get());
+
+    private void advanceTo(long time)
+    {
+        // Advances one tick at a time, as the ticking thread would
+        while (clock.get() < time)
+        {
+            clock.addAndGet(TICK);
+            wheel.advanceTo(clock.get());
+        }
+    }
+
+    @Test
+    public void testInvalidTick()
+    {
+        assertThat(() -> new TimingWheelSchedulingEngine(7), throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    public void testScheduleWithinOneSecond()
+    {
+        wheel.schedule(recordFireTime, 250, TimeUnit.MILLISECONDS);
+        advanceTo(1000);
+        assertThat(fireTimes, contains(250L));
+    }
+
+    @Test
+    public void testScheduleRoundsUpToTheTick()
+    {
+        clock.set(3);
+        wheel.schedule(recordFireTime, 1, TimeUnit.MILLISECONDS);
+        clock.set(9);
+        wheel.advanceTo(9);
+        assertThat(fireTimes, is(empty()));
+        clock.set(10);
+        wheel.advanceTo(10);
+        assertThat(fireTimes, contains(10L));
+    }
+
+    @Test
+    public void testScheduleCascadingFromSecondsWheel()
+    {
+        wheel.schedule(recordFireTime, 42_500, TimeUnit.MILLISECONDS);
+        advanceTo(42_490);
+        assertThat(fireTimes, is(empty()));
+        advanceTo(60_000);
+        assertThat(fireTimes, contains(42_500L));
+    }
+
+    @Test
+    public void testScheduleCascadingFromMinutesAndHoursWheels()
+    {
+        wheel.schedule(recordFireTime, 17, TimeUnit.MINUTES);
+        wheel.schedule(recordFireTime, 5 * HOUR + 1_000, TimeUnit.MILLISECONDS);
+        advanceTo(6 * HOUR);
+        assertThat(fireTimes, contains(17 * 60_000L, 5 * HOUR + 1_000));
+    }
+
+    @Test
+    public void testScheduleMoreThanOneDayAhead()
+    {
+        wheel.schedule(recordFireTime, DAY + HOUR, TimeUnit.MILLISECONDS);
+        advanceTo(HOUR + 60_000);
+        assertThat(fireTimes, is(empty()));
+        advanceTo(DAY + 2 * HOUR);
+        assertThat(fireTimes, contains(DAY + HOUR));
+    }
+
+    @Test
+    public void testCancel()
+    {
+        ScheduledExecution execution = wheel.schedule(recordFireTime, 30, TimeUnit.SECONDS);
+        assertThat(execution.cancel(), is(true));
+        assertThat(execution.isCancelled(), is(true));
+        assertThat(wheel.size(), is(0));
+        advanceTo(60_000);
+        assertThat(fireTimes, is(empty()));
+        assertThat(execution.cancel(), is(false));
+    }
+
+    @Test
+    public void testCancelAfterExecution()
+    {
+        ScheduledExecution execution = wheel.schedule(recordFireTime, 50, TimeUnit.MILLISECONDS);
+        advanceTo(100);
+        assertThat(execution.cancel(), is(false));
+    }
+
+    @Test
+    public void testScheduleAtFixedRate()
+    {
+        ScheduledExecution execution = wheel.scheduleAtFixedRate(recordFireTime, 100, 400, TimeUnit.MILLISECONDS);
+        advanceTo(1_000);
+        execution.cancel();
+        advanceTo(2_000);
+        assertThat(fireTimes, contains(100L, 500L, 900L));
+    }
+
+    @Test
+    public void testGetDelay()
+    {
+        ScheduledExecution execution = wheel.schedule(recordFireTime, 2, TimeUnit.SECONDS);
+        advanceTo(500);
+        assertThat(execution.getDelay(TimeUnit.MILLISECONDS), is(1_500L));
+    }
+
+    @Test
+    public void testOneHundredThousandEntries()
+    {
+        AtomicInteger executions = new AtomicInteger();
+        List<ScheduledExecution> scheduled = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++)
+        {
+            scheduled.add(wheel.schedule(executions::incrementAndGet, i % 7_200, TimeUnit.SECONDS));
+        }
+        for (int i = 0; i < scheduled.size(); i += 2)
+        {
+            scheduled.get(i).cancel();
+        }
+        assertThat(wheel.size(), is(50_000));
+        advanceTo(2 * HOUR);
+        assertThat(executions.get(), is(50_000));
+        assertThat(wheel.size(), is(0));
+    }
+
+    @Test
+    public void testWithTickingThread()
+    {
+        TimingWheelSchedulingEngine engine = new TimingWheelSchedulingEngine(TICK);
+        AtomicInteger executions = new AtomicInteger();
+        try
+        {
+            engine.schedule(executions::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+            engine.scheduleAtFixedRate(executions::incrementAndGet, 0, 20, TimeUnit.MILLISECONDS);
+            await().atMost(2, TimeUnit.SECONDS).until(() -> executions.get() >= 5);
+        }
+        finally
+        {
+            engine.shutdown();
+        }
+        assertThat(engine.isShutdown(), is(true));
+        assertThat(engine.size(), is(equalTo(0)));
+        assertThat(() -> engine.schedule(executions::incrementAndGet, 1, TimeUnit.SECONDS),
+                throwsException(IllegalStateException.class));
+    }
+
+    @Test
+    public void testErrorThrownByTaskDoesNotStopTheEngine()
+    {
+        wheel.scheduleAtFixedRate(() ->
+        {
+            recordFireTime.run();
+            throw new AssertionError("task failure");
+        }, 10, 100, TimeUnit.MILLISECONDS);
+        wheel.schedule(recordFireTime, 50, TimeUnit.MILLISECONDS);
+        advanceTo(250);
+        assertThat(fireTimes, contains(10L, 50L, 110L, 210L));
+    }
+
+    @Test
+    public void testTaskNeverRunsBeforeItsDelayWithTickingThread()
+    {
+        TimingWheelSchedulingEngine engine = new TimingWheelSchedulingEngine(1);
+        List<Long> elapsedNanos = new ArrayList<>();
+        try
+        {
+            for (int i = 0; i < 20; i++)
+            {
+                long start = System.nanoTime();
+                CountDownLatch fired = new CountDownLatch(1);
+                engine.schedule(() ->
+                {
+                    elapsedNanos.add(System.nanoTime() - start);
+                    fired.countDown();
+                }, 1, TimeUnit.MILLISECONDS);
+                await().atMost(2, TimeUnit.SECONDS).until(() -> fired.getCount() == 0);
+                // Starts the next schedule at a different offset within the millisecond
+                LockSupport.parkNanos(137_000L * (i % 7));
+            }
+        }
+        finally
+        {
+            engine.shutdown();
+        }
+        assertThat(elapsedNanos.stream().allMatch(nanos -> nanos >= TimeUnit.MILLISECONDS.toNanos(1)), is(true));
+    }
+
+}
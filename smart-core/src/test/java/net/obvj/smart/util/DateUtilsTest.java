@@ -226,4 +226,65 @@ public class DateUtilsTest
         assertThat(exactStartDate, is(toDate(2019, 6, 12, 18, 0, 0, 0)));
     }
 
+    /**
+     * Test successful exact start date calculation every 250 milliseconds with the
+     * {@code getExactStartDateEvery(int, TimeUnit, Calendar)} method and a given base date.
+     * <p>
+     * The resulting date must be:
+     * <li>millisecond = the next multiple of 250</li>
+     */
+    @Test
+    public void testGetExactStartDateEveryTimeUnit250Milliseconds()
+    {
+        Calendar baseDate = toCalendar(2019, 6, 12, 17, 16, 1, 123);
+        Date exactStartDate = DateUtils.getExactStartDateEvery(250, TimeUnit.MILLISECONDS, baseDate);
+        assertThat(exactStartDate, is(toDate(2019, 6, 12, 17, 16, 1, 250)));
+    }
+
+    /**
+     * Test successful exact start date calculation every 5 minutes with an offset of 90
+     * seconds, when the offset boundary in the current period has already passed.
+     */
+    @Test
+    public void testGetExactStartDateEveryTimeUnit5MinutesWithOffset()
+    {
+        Calendar baseDate = toCalendar(2019, 6, 12, 23, 38, 26, 123);
+        Date exactStartDate = DateUtils.getExactStartDateEvery(5, TimeUnit.MINUTES, 90_000L, baseDate);
+        assertThat(exactStartDate, is(toDate(2019, 6, 12, 23, 41, 30, 0)));
+    }
+
+    /**
+     * Test successful exact start date calculation every 5 minutes with an offset of 90
+     * seconds, when the offset boundary in the current period is still ahead.
+     */
+    @Test
+    public void testGetExactStartDateEveryTimeUnit5MinutesWithOffsetInCurrentPeriod()
+    {
+        Calendar baseDate = toCalendar(2019, 6, 12, 23, 36, 1, 123);
+        Date exactStartDate = DateUtils.getExactStartDateEvery(5, TimeUnit.MINUTES, 90_000L, baseDate);
+        assertThat(exactStartDate, is(toDate(2019, 6, 12, 23, 36, 30, 0)));
+    }
+
+    /**
+     * Test that a zero offset keeps the start date aligned to the interval boundaries.
+     */
+    @Test
+    public void testGetExactStartDateEveryTimeUnit5MinutesWithZeroOffset()
+    {
+        Calendar baseDate = toCalendar(2019, 6, 12, 23, 38, 26, 123);
+        Date exactStartDate = DateUtils.getExactStartDateEvery(5, TimeUnit.MINUTES, 0L, baseDate);
+        assertThat(exactStartDate, is(toDate(2019, 6, 12, 23, 40, 0, 0)));
+    }
+
+    /**
+     * Test successful exact start date calculation every 250 milliseconds when the next
+     * multiple falls in the next second.
+     */
+    @Test
+    public void testGetExactStartDateEveryTimeUnit250MillisecondsOnNextSecond()
+    {
+        Calendar baseDate = toCalendar(2019, 6, 12, 17, 16, 59, 750);
+        Date exactStartDate = DateUtils.getExactStartDateEvery(250, TimeUnit.MILLISECONDS, baseDate);
+        assertThat(exactStartDate, is(toDate(2019, 6, 12, 17, 17, 0, 0)));
+    }
 }
@@ -0,0 +1,78 @@
+package net.obvj.smart.util;
+
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link LagStatistics} class.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class LagStatisticsTest
+{
+    private LagStatistics statistics = new LagStatistics(100);
+
+    @Test
+    public void testEmptyStatistics()
+    {
+        assertThat(statistics.getCount(), is(0L));
+        assertThat(statistics.getLast(), is(0L));
+        assertThat(statistics.getMean(), is(0L));
+        assertThat(statistics.getMax(), is(0L));
+        assertThat(statistics.getPercentile(99), is(0L));
+    }
+
+    @Test
+    public void testRecord()
+    {
+        for (long lag = 1; lag <= 100; lag++)
+        {
+            statistics.record(lag);
+        }
+        statistics.record(-5); // recorded as zero
+
+        assertThat(statistics.getCount(), is(101L));
+        assertThat(statistics.getLast(), is(0L));
+        assertThat(statistics.getMean(), is(50L));
+        assertThat(statistics.getMax(), is(100L));
+    }
+
+    @Test
+    public void testPercentiles()
+    {
+        for (long lag = 100; lag >= 1; lag--)
+        {
+            statistics.record(lag);
+        }
+        assertThat(statistics.getPercentile(50), is(50L));
+        assertThat(statistics.getPercentile(90), is(90L));
+        assertThat(statistics.getPercentile(99), is(99L));
+        assertThat(statistics.getPercentile(100), is(100L));
+        assertThat(statistics.getPercentile(0.1), is(1L));
+    }
+
+    @Test
+    public void testPercentilesConsiderRecentHistoryOnly()
+    {
+        statistics.record(1_000_000);
+        for (int i = 0; i < 100; i++)
+        {
+            statistics.record(10);
+        }
+        assertThat(statistics.getPercentile(100), is(10L));
+        assertThat(statistics.getMax(), is(1_000_000L));
+    }
+
+    @Test
+    public void testInvalidPercentile()
+    {
+        assertThat(() -> statistics.getPercentile(0), throwsException(IllegalArgumentException.class)
+                .withMessageContaining("Invalid percentile"));
+        assertThat(() -> statistics.getPercentile(100.1), throwsException(IllegalArgumentException.class));
+    }
+
+}
@@ -60,4 +60,11 @@ public class StatisticsUtilsTest
         assertThat(StatisticsUtils.average(LIST_CONTAINING_ONLY_NULLS).doubleValue(), is(equalTo(0.0)));
     }
 
+    @Test
+    public void toMillis_nanos_roundedToMicroseconds()
+    {
+        assertThat(StatisticsUtils.toMillis(12_345_678L), is(equalTo(new BigDecimal("12.346"))));
+        assertThat(StatisticsUtils.toMillis(0L), is(equalTo(new BigDecimal("0.000"))));
+    }
+
 }
@@ -50,6 +50,14 @@ public class SystemUtilsTest
         assertTrue(SystemUtils.getSystemTheadsDTOs(ALL_THREADS).containsAll(ALL_DTOS));
     }
 
+    @Test
+    public void testThreadDTOsFromThreads()
+    {
+        Thread thread = Thread.currentThread();
+        assertTrue(SystemUtils.getThreadsDTOs(Arrays.asList(thread))
+                .contains(new ThreadDTO(thread.getId(), thread.getName(), "RUNNABLE")));
+    }
+
     @Test
     public void testNoInstancesAllowed()
     {
@@ -0,0 +1,74 @@
+package net.obvj.smart.util;
+
+import static net.obvj.junit.utils.matchers.ExceptionMatcher.throwsException;
+import static net.obvj.junit.utils.matchers.InstantiationNotAllowedMatcher.instantiationNotAllowed;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the {@link VirtualThreads} class.
+ * <p>
+ * The behavior depends on the runtime, so some tests are skipped according to the Java
+ * version in use.
+ *
+ * @author oswaldo.bapvic.jr
+ * @since 2.0
+ */
+public class VirtualThreadsTest
+{
+    private static final String THREAD_NAME = "Agent-DummyAgent-thread1";
+
+    @Test
+    public void testNoInstancesAllowed()
+    {
+        assertThat(VirtualThreads.class, instantiationNotAllowed());
+    }
+
+    @Test
+    public void testNewThreadNotSupported()
+    {
+        assumeFalse(VirtualThreads.isSupported());
+        assertThat(() -> VirtualThreads.newThread(THREAD_NAME, () -> {}),
+                throwsException(IllegalStateException.class).withMessageContaining("not supported"));
+    }
+
+    @Test
+    public void testNewThreadAndLiveThreads() throws InterruptedException
+    {
+        assumeTrue(VirtualThreads.isSupported());
+        CountDownLatch release = new CountDownLatch(1);
+        Thread thread = VirtualThreads.newThread(THREAD_NAME, () ->
+        {
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(thread.getName(), is(equalTo(THREAD_NAME)));
+        assertThat(thread.isDaemon(), is(true));
+
+        thread.start();
+        await().atMost(2, TimeUnit.SECONDS)
+                .until(() -> VirtualThreads.getLiveThreads().contains(thread));
+
+        release.countDown();
+        thread.join(2000);
+        assertThat(VirtualThreads.getLiveThreads(), not(hasItem(thread)));
+    }
+
+}
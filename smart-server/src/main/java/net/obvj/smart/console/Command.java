@@ -3,7 +3,10 @@ package net.obvj.smart.console;
 import java.io.PrintWriter;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -16,6 +19,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
 import net.obvj.smart.agents.dto.AgentDTO;
+import net.obvj.smart.agents.dto.WorkerGroupDTO;
 import net.obvj.smart.jmx.dto.ThreadDTO;
 import net.obvj.smart.manager.AgentManager;
 import net.obvj.smart.util.ApplicationContextFacade;
@@ -36,7 +40,8 @@ public enum Command
         @Override
         public void execute(String[] parameters, PrintWriter out)
         {
-            Collection<AgentDTO> agents = ApplicationContextFacade.getBean(AgentManager.class).getAgentDTOs();
+            AgentManager manager = ApplicationContextFacade.getBean(AgentManager.class);
+            Collection<AgentDTO> agents = manager.getAgentDTOs();
 
             if (!(parameters.length > 1 && StringUtils.equalsAny(parameters[1], "-a", "--all")))
             {
@@ -51,12 +56,31 @@ public enum Command
             out.print(agents.size());
             out.println(" agent(s) found");
             out.println("");
-            out.println("Name                                       Type   State");
-            out.println("------------------------------------------ ------ -------");
+            out.println("Name                                       Type   State   Group");
+            out.println("------------------------------------------ ------ ------- --------------------");
 
             for (AgentDTO agent : agents)
             {
-                out.println(String.format("%-42s %-6s %-7s", agent.getName(), agent.getType(), agent.getState()));
+                out.println(String.format("%-42s %-6s %-7s %-20s", agent.getName(), agent.getType(), agent.getState(),
+                        Objects.toString(agent.getGroup(), "")));
+            }
+
+            Set<String> agentGroups = agents.stream().map(AgentDTO::getGroup).collect(Collectors.toSet());
+            List<WorkerGroupDTO> groups = manager.getWorkerGroupDTOs().stream()
+                    .filter(group -> agentGroups.contains(group.getName())).collect(Collectors.toList());
+            if (groups.isEmpty())
+            {
+                return;
+            }
+            out.println("");
+            out.println("Group                 Active  Usage    Queued Rejected");
+            out.println("-------------------- ------- ------ --------- --------");
+
+            for (WorkerGroupDTO group : groups)
+            {
+                out.println(String.format("%-20s %7s %6.1f%% %9s %8d", group.getName(),
+                        group.getActiveExecutions() + "/" + group.getMaxConcurrency(), group.getUtilization(),
+                        group.getQueuedExecutions() + "/" + group.getQueueCapacity(), group.getRejectedExecutions()));
             }
         }
     },
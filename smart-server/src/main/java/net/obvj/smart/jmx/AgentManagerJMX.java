@@ -4,6 +4,9 @@ import java.util.Collection;
 import java.util.concurrent.TimeoutException;
 
 import net.obvj.smart.agents.dto.AgentDTO;
+import net.obvj.smart.agents.dto.PriorityLevelDTO;
+import net.obvj.smart.agents.dto.SchedulingLagDTO;
+import net.obvj.smart.agents.dto.WorkerGroupDTO;
 import net.obvj.smart.jmx.dto.ThreadDTO;
 import net.obvj.smart.manager.AgentManager;
 import net.obvj.smart.util.ApplicationContextFacade;
@@ -44,6 +47,26 @@ public class AgentManagerJMX implements AgentManagerJMXMBean
         return agentManager.getAgentDTOs();
     }
 
+    public Collection<SchedulingLagDTO> getSchedulingLags()
+    {
+        return agentManager.getSchedulingLagDTOs();
+    }
+
+    public double getWorstSchedulingLag()
+    {
+        return agentManager.getWorstSchedulingLag();
+    }
+
+    public Collection<PriorityLevelDTO> getPriorityLevels()
+    {
+        return agentManager.getPriorityLevelDTOs();
+    }
+
+    public Collection<WorkerGroupDTO> getWorkerGroups()
+    {
+        return agentManager.getWorkerGroupDTOs();
+    }
+
     public boolean isAgentRunning(String name)
     {
         return agentManager.isAgentRunning(name);
@@ -59,6 +82,11 @@ public class AgentManagerJMX implements AgentManagerJMXMBean
         return agentManager.getAgentStatusStr(name);
     }
 
+    public String[] getNextExecutionDates(String name, int count)
+    {
+        return agentManager.getNextExecutionDates(name, count);
+    }
+
     public String getServerDate()
     {
         return DateUtils.formattedCurrentDate();
@@ -1,13 +1,33 @@
 package net.obvj.smart.main;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.obvj.smart.agents.Agent;
+import net.obvj.smart.agents.AgentThreadFactory;
+import net.obvj.smart.conf.properties.SmartProperties;
+import net.obvj.smart.scheduler.AgentScheduler;
 
 /**
  * A Runnable object that may be executed before JVM termination for graceful system
  * shutdown. The logic herein is ignored if JVM receives a kill -9 (FORCE) signal.
+ * <p>
+ * Agents are stopped concurrently, under a global deadline defined by the
+ * {@code shutdown.timeout.seconds} property, so that the shutdown takes as long as the
+ * slowest agent task, not the sum of all of them.
  *
  * @author oswaldo.bapvic.jr
  * @since 1.0
@@ -16,29 +36,131 @@ public class ShutdownHook extends SmartServerSupport implements Runnable
 {
     private static final Logger LOG = LoggerFactory.getLogger(ShutdownHook.class);
 
+    /*
+     * The maximum number of threads that stop agents concurrently
+     */
+    private static final int MAX_STOP_THREADS = 16;
+
     @Override
     public void run()
     {
         LOG.info("Starting shutdown sequence...");
         stopAllAgents();
+        shutdownScheduler();
         closeClassicManagementConsole();
         LOG.info("Shutdown sequence complete.");
     }
 
-    private void stopAllAgents()
+    /**
+     * Stops all agents concurrently, waiting up to the shutdown timeout for their tasks to
+     * complete. Agents are stopped by a bounded pool of daemon threads, so that a stop that
+     * outlives the timeout does not hold the JVM.
+     *
+     * @return the names of the agents that did not stop within the shutdown timeout
+     * @since 2.0
+     */
+    protected List<String> stopAllAgents()
     {
-        LOG.info("Stopping agents...");
-        for (Agent agent : agentManager.getAgents())
+        Collection<Agent> agents = agentManager.getAgents();
+        int timeoutSeconds = smartProperties.getIntProperty(SmartProperties.SHUTDOWN_TIMEOUT_SECONDS);
+        LOG.info("Stopping {} agent(s) within {} second(s)...", agents.size(), timeoutSeconds);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(agents.size(), MAX_STOP_THREADS)),
+                newDaemonThreadFactory());
+        try
         {
-            try
+            Map<Agent, CompletableFuture<Boolean>> stops = new LinkedHashMap<>();
+            agents.forEach(agent -> stops.put(agent,
+                    CompletableFuture.supplyAsync(() -> stopAgent(agent, deadline), executor)));
+            awaitAll(stops.values(), deadline);
+
+            List<String> missed = new ArrayList<>();
+            stops.forEach((agent, stop) ->
             {
-                agent.stop();
-            }
-            catch (Exception exception)
+                if (!stop.getNow(Boolean.FALSE))
+                {
+                    missed.add(agent.getName());
+                }
+            });
+            if (!missed.isEmpty())
             {
-                LOG.error("Unable to gracefully stop {} due to an exception.", agent.getName(), exception);
+                LOG.warn("Agent(s) not stopped within the shutdown timeout: {}", missed);
             }
+            return missed;
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Stops the given agent, waiting up to its own stop timeout or the global deadline,
+     * whichever comes first.
+     *
+     * @return {@code true} if the agent stopped in time (or failed to stop for a reason
+     *         other than the timeout); {@code false} if it missed the deadline
+     */
+    private static boolean stopAgent(Agent agent, long deadline)
+    {
+        if (agent.isStopped())
+        {
+            return true;
+        }
+        long timeoutNanos = Math.min(deadline - System.nanoTime(),
+                TimeUnit.SECONDS.toNanos(agent.getStopTimeoutSeconds()));
+        try
+        {
+            agent.stop(Math.max(0L, timeoutNanos), TimeUnit.NANOSECONDS);
+            return true;
+        }
+        catch (TimeoutException exception)
+        {
+            LOG.warn("Timeout waiting for the task of {} to complete.", agent.getName());
+            return false;
+        }
+        catch (Exception exception)
+        {
+            LOG.error("Unable to gracefully stop {} due to an exception.", agent.getName(), exception);
+            return true;
         }
     }
 
+    private static ThreadFactory newDaemonThreadFactory()
+    {
+        ThreadFactory threadFactory = new AgentThreadFactory("Shutdown");
+        return runnable ->
+        {
+            Thread thread = threadFactory.newThread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static void awaitAll(Collection<CompletableFuture<Boolean>> stops, long deadline)
+    {
+        try
+        {
+            CompletableFuture.allOf(stops.toArray(new CompletableFuture<?>[0]))
+                    .get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException exception)
+        {
+            LOG.warn("Thread was interrupted.", exception);
+            // Restore interrupted state
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException | TimeoutException exception)
+        {
+            // Agents not stopped in time are reported by the caller
+        }
+    }
+
+    private void shutdownScheduler()
+    {
+        LOG.info("Shutting down agent scheduler...");
+        AgentScheduler.getDefault().shutdown();
+    }
+
 }
@@ -29,6 +29,7 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import net.obvj.smart.agents.dto.AgentDTO;
+import net.obvj.smart.agents.dto.WorkerGroupDTO;
 import net.obvj.smart.jmx.dto.ThreadDTO;
 import net.obvj.smart.manager.AgentManager;
 import net.obvj.smart.util.ApplicationContextFacade;
@@ -317,6 +318,22 @@ public class CommandTest
         assertTrue(out.contains("name2TIMERSET"));
     }
 
+    @Test
+    public void testShowAgentsWithWorkerGroups()
+    {
+        AgentDTO agent1 = new AgentDTO("name1", "TIMER", "RUNNING", false, "reports");
+        when(manager.getAgentDTOs()).thenReturn(Arrays.asList(agent1));
+        when(manager.getWorkerGroupDTOs()).thenReturn(Arrays.asList(new WorkerGroupDTO("default", 8, 0, 0, 1000, 0),
+                new WorkerGroupDTO("reports", 4, 1, 2, 10, 3)));
+        Command.SHOW_AGENTS.execute(new String[] { "agents" }, new PrintWriter(out));
+
+        // Trim variable padding spaces for testing
+        String out = this.out.toString().replace(" ", "");
+        assertTrue(out.contains("name1TIMERRUNNINGreports"));
+        assertTrue(out.contains("reports1/425.0%2/103"));
+        assertFalse("Groups without listed agents should not be displayed", out.contains("default"));
+    }
+
     @Test
     public void testShowAgentsDoesNotShowHiddenAgents()
     {
@@ -20,6 +20,9 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import net.obvj.smart.agents.dto.AgentDTO;
+import net.obvj.smart.agents.dto.PriorityLevelDTO;
+import net.obvj.smart.agents.dto.SchedulingLagDTO;
+import net.obvj.smart.agents.dto.WorkerGroupDTO;
 import net.obvj.smart.jmx.dto.ThreadDTO;
 import net.obvj.smart.manager.AgentManager;
 import net.obvj.smart.util.ApplicationContextFacade;
@@ -108,6 +111,14 @@ public class AgentManagerJMXTest
         assertEquals("statusAgent1", jmx.getAgentStatusStr(AGENT1));
     }
 
+    @Test
+    public void testGetNextExecutionDates()
+    {
+        String[] dates = new String[] { "2020-04-28 02:00:00" };
+        when(manager.getNextExecutionDates(AGENT1, 1)).thenReturn(dates);
+        assertArrayEquals(dates, jmx.getNextExecutionDates(AGENT1, 1));
+    }
+
     @Test
     public void testGetAgentNames()
     {
@@ -126,6 +137,37 @@ public class AgentManagerJMXTest
         assertTrue(jmx.getAgentDTOs().containsAll(dtos));
     }
 
+    @Test
+    public void testGetSchedulingLags()
+    {
+        List<SchedulingLagDTO> dtos = Arrays.asList(new SchedulingLagDTO("name1", 2, 1.5, 1.0, 1.5, 0.5, 1.5, 1.5));
+        when(manager.getSchedulingLagDTOs()).thenReturn(dtos);
+        assertTrue(jmx.getSchedulingLags().containsAll(dtos));
+    }
+
+    @Test
+    public void testGetWorstSchedulingLag()
+    {
+        when(manager.getWorstSchedulingLag()).thenReturn(12.5);
+        assertEquals(12.5, jmx.getWorstSchedulingLag(), 0.0);
+    }
+
+    @Test
+    public void testGetWorkerGroups()
+    {
+        List<WorkerGroupDTO> dtos = Arrays.asList(new WorkerGroupDTO("reports", 4, 1, 2, 10, 3));
+        when(manager.getWorkerGroupDTOs()).thenReturn(dtos);
+        assertTrue(jmx.getWorkerGroups().containsAll(dtos));
+    }
+
+    @Test
+    public void testGetPriorityLevels()
+    {
+        List<PriorityLevelDTO> dtos = Arrays.asList(new PriorityLevelDTO(5, 1, 3, 0.5, 1.0, 1.0));
+        when(manager.getPriorityLevelDTOs()).thenReturn(dtos);
+        assertTrue(jmx.getPriorityLevels().containsAll(dtos));
+    }
+
     @Test
     public void testGetServerDate()
     {
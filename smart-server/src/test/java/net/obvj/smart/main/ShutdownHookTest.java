@@ -1,11 +1,23 @@
 package net.obvj.smart.main;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
 import static org.powermock.api.mockito.PowerMockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.junit.Before;
@@ -49,9 +61,22 @@ public class ShutdownHookTest
         when(ApplicationContextFacade.getBean(AgentManager.class)).thenReturn(manager);
         when(ApplicationContextFacade.getBean(SmartProperties.class)).thenReturn(properties);
 
+        when(properties.getIntProperty(SmartProperties.SHUTDOWN_TIMEOUT_SECONDS)).thenReturn(5);
+        when(agent1.getStopTimeoutSeconds()).thenReturn(Integer.MAX_VALUE);
+        when(agent2.getStopTimeoutSeconds()).thenReturn(Integer.MAX_VALUE);
+
         hook = new ShutdownHook();
     }
 
+    private static void stopAfter(Agent agent, long millis) throws TimeoutException
+    {
+        doAnswer(invocation ->
+        {
+            Thread.sleep(millis);
+            return null;
+        }).when(agent).stop(anyLong(), eq(TimeUnit.NANOSECONDS));
+    }
+
     @Test
     public void testWithTwoAgentsAndClasicConsoleEnabled() throws TimeoutException
     {
@@ -61,8 +86,8 @@ public class ShutdownHookTest
         hook.run();
 
         // Check that both agents were stopped
-        verify(agent1).stop();
-        verify(agent2).stop();
+        verify(agent1).stop(anyLong(), eq(TimeUnit.NANOSECONDS));
+        verify(agent2).stop(anyLong(), eq(TimeUnit.NANOSECONDS));
 
         // Check that the classic console was closed
         verify(console).stop();
@@ -77,10 +102,66 @@ public class ShutdownHookTest
         hook.run();
 
         // Check that the agent was stopped
-        verify(agent1).stop();
+        verify(agent1).stop(anyLong(), eq(TimeUnit.NANOSECONDS));
 
         // Check that the classic console was not closed
         verify(console, never()).stop();
     }
 
+    @Test
+    public void testAgentsAreStoppedConcurrently() throws TimeoutException
+    {
+        when(manager.getAgents()).thenReturn(Arrays.asList(agent1, agent2));
+        stopAfter(agent1, 500);
+        stopAfter(agent2, 500);
+
+        long start = System.nanoTime();
+        assertThat(hook.stopAllAgents(), is(empty()));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(lessThan(900L)));
+    }
+
+    @Test
+    public void testAgentsAreStoppedByDaemonThreads() throws TimeoutException
+    {
+        when(manager.getAgents()).thenReturn(Arrays.asList(agent1));
+        List<Boolean> daemon = new ArrayList<>();
+        doAnswer(invocation -> daemon.add(Thread.currentThread().isDaemon())).when(agent1).stop(anyLong(),
+                eq(TimeUnit.NANOSECONDS));
+
+        assertThat(hook.stopAllAgents(), is(empty()));
+        assertThat(daemon, contains(true));
+    }
+
+    @Test
+    public void testAgentsThatMissTheDeadlineAreReported() throws TimeoutException
+    {
+        when(manager.getAgents()).thenReturn(Arrays.asList(agent1, agent2));
+        when(agent2.getName()).thenReturn("agent2");
+        doThrow(new TimeoutException("timeout")).when(agent2).stop(anyLong(), eq(TimeUnit.NANOSECONDS));
+
+        assertThat(hook.stopAllAgents(), contains("agent2"));
+        verify(agent1).stop(anyLong(), eq(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void testAgentStillStoppingAtTheDeadlineIsReported() throws TimeoutException
+    {
+        when(properties.getIntProperty(SmartProperties.SHUTDOWN_TIMEOUT_SECONDS)).thenReturn(1);
+        when(manager.getAgents()).thenReturn(Arrays.asList(agent1));
+        when(agent1.getName()).thenReturn("agent1");
+        stopAfter(agent1, 3000);
+
+        assertThat(hook.stopAllAgents(), contains("agent1"));
+    }
+
+    @Test
+    public void testStoppedAgentIsSkipped() throws TimeoutException
+    {
+        when(manager.getAgents()).thenReturn(Arrays.asList(agent1));
+        when(agent1.isStopped()).thenReturn(true);
+
+        assertThat(hook.stopAllAgents(), is(empty()));
+        verify(agent1, never()).stop(anyLong(), eq(TimeUnit.NANOSECONDS));
+    }
+
 }